@@ -0,0 +1,69 @@
+package com.alexzafra.conecta4.controller.motor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara la evaluación por lotes escalar con la vectorial.
+ * El resultado se da en posiciones por segundo.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class EvaluacionPorLotesBenchmark {
+    private static final int POSICIONES = 4096;
+
+    @Param({"escalar", "vectorial"})
+    public String implementacion;
+
+    private EvaluacionPorLotes evaluacion;
+    private long[] posiciones;
+    private int[] puntuaciones;
+
+    @Setup
+    public void preparar() {
+        int[] pesos = PesosEvaluacion.getPesos();
+        evaluacion = implementacion.equals("escalar") ? new EvaluacionPorLotesEscalar(pesos)
+                : EvaluacionPorLotes.crear(pesos);
+
+        // Posiciones aleatorias de todas las fases de la partida
+        SplittableRandom random = new SplittableRandom(1);
+        posiciones = new long[POSICIONES * EvaluadorLotes.LONGS_POR_POSICION];
+        puntuaciones = new int[POSICIONES];
+        PosicionBitboard posicion = new PosicionBitboard();
+        for (int i = 0; i < POSICIONES; i++) {
+            posicion.colocar(0L, 0L, 0);
+            int jugadas = random.nextInt(PosicionBitboard.ANCHO * PosicionBitboard.ALTO);
+            for (int intentos = 0; intentos < 300 && posicion.getMovimientos() < jugadas; intentos++) {
+                int columna = random.nextInt(PosicionBitboard.ANCHO);
+                if (posicion.puedeJugar(columna)) {
+                    posicion.jugar(columna);
+                }
+            }
+            EvaluadorLotes.empaquetar(posicion, posiciones, i);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSICIONES)
+    public int[] evaluar() {
+        evaluacion.evaluar(posiciones, puntuaciones, 0, POSICIONES);
+        return puntuaciones;
+    }
+}
@@ -0,0 +1,292 @@
+package com.alexzafra.conecta4;
+
+import com.alexzafra.conecta4.controller.InteligenciaArtificial;
+import com.alexzafra.conecta4.controller.motor.BuscadorAlfaBeta;
+import com.alexzafra.conecta4.controller.motor.ResultadoAnalisis;
+import com.alexzafra.conecta4.modelos.Tablero;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Motor de Conecta 4 sin interfaz gráfica que se maneja con un protocolo de
+ * texto por la entrada y salida estándar, al estilo de UCI en ajedrez. Sirve
+ * para lanzar muchos procesos en paralelo y enfrentarlos a otros motores.
+ *
+ * Órdenes:
+ * <ul>
+ *   <li>uci: identifica el motor y sus opciones, y responde uciok</li>
+ *   <li>isready: responde readyok cuando el motor está libre</li>
+ *   <li>ucinewgame: empieza de cero y vacía la tabla de transposición</li>
+ *   <li>setoption name Evaluador value ventanas|red</li>
+ *   <li>position startpos [moves 4 4 3 ...]: las jugadas son columnas del 1
+ *       al 7, separadas o seguidas ("4435")</li>
+ *   <li>go [depth N] [movetime MS] [infinite]: analiza en segundo plano y
+ *       escribe una línea info por profundidad y al final bestmove</li>
+ *   <li>stop: termina el análisis y responde con la mejor jugada encontrada</li>
+ *   <li>d: dibuja el tablero</li>
+ *   <li>quit: sale</li>
+ * </ul>
+ * Las puntuaciones son para el jugador con turno: "score cp" es la evaluación
+ * y "score mate N" indica victoria en N jugadas propias (negativo si pierde).
+ */
+public class Conecta4Protocolo {
+    private static final String NOMBRE = "Conecta4 Java";
+    private static final String AUTOR = "Alexzafra13";
+
+    private final Tablero tablero = new Tablero();
+    private InteligenciaArtificial ia = crearIA();
+
+    // Jugador con turno y fichas jugadas en la posición actual
+    private int jugadorActual = Tablero.JUGADOR_1;
+    private int movimientos;
+    private boolean terminada;
+
+    // Análisis en curso y su petición de stop
+    private Thread analisis;
+    private AtomicBoolean paradaAnalisis;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        new Conecta4Protocolo().ejecutar(new BufferedReader(
+                new InputStreamReader(System.in, StandardCharsets.UTF_8)));
+    }
+
+    private InteligenciaArtificial crearIA() {
+        InteligenciaArtificial nueva = new InteligenciaArtificial(tablero, InteligenciaArtificial.NIVEL_DEMENCIAL);
+        nueva.setLimiteDuroMs(0);
+        return nueva;
+    }
+
+    /**
+     * Lee y ejecuta órdenes hasta recibir quit o llegar al final de la entrada.
+     * @param entrada Origen de las órdenes
+     */
+    public void ejecutar(BufferedReader entrada) throws IOException, InterruptedException {
+        String linea;
+        while ((linea = entrada.readLine()) != null) {
+            String[] partes = linea.trim().split("\\s+");
+            switch (partes[0]) {
+                case "uci":
+                    escribir("id name " + NOMBRE);
+                    escribir("id author " + AUTOR);
+                    escribir("option name Evaluador type combo default " + InteligenciaArtificial.EVALUADOR_VENTANAS
+                            + " var " + InteligenciaArtificial.EVALUADOR_VENTANAS
+                            + " var " + InteligenciaArtificial.EVALUADOR_RED);
+                    escribir("uciok");
+                    break;
+                case "isready":
+                    esperarAnalisis();
+                    escribir("readyok");
+                    break;
+                case "ucinewgame":
+                    detenerAnalisis();
+                    String evaluador = ia.getEvaluador();
+                    ia = crearIA();
+                    ia.setEvaluador(evaluador);
+                    colocarPosicion(new String[]{"position", "startpos"});
+                    break;
+                case "setoption":
+                    detenerAnalisis();
+                    cambiarOpcion(partes);
+                    break;
+                case "position":
+                    detenerAnalisis();
+                    colocarPosicion(partes);
+                    break;
+                case "go":
+                    detenerAnalisis();
+                    analizar(partes);
+                    break;
+                case "stop":
+                    detenerAnalisis();
+                    break;
+                case "d":
+                    esperarAnalisis();
+                    dibujar();
+                    break;
+                case "quit":
+                    detenerAnalisis();
+                    return;
+                case "":
+                    break;
+                default:
+                    escribir("info string orden desconocida: " + partes[0]);
+            }
+        }
+        esperarAnalisis();
+    }
+
+    /**
+     * Cambia una opción del motor: setoption name &lt;nombre&gt; value &lt;valor&gt;
+     */
+    private void cambiarOpcion(String[] partes) {
+        String nombre = valorDe(partes, "name");
+        String valor = valorDe(partes, "value");
+        if ("Evaluador".equalsIgnoreCase(nombre) && valor != null) {
+            ia.setEvaluador(valor);
+        } else {
+            escribir("info string opción desconocida: " + nombre);
+        }
+    }
+
+    /**
+     * Coloca la posición inicial y aplica las jugadas indicadas.
+     */
+    private void colocarPosicion(String[] partes) {
+        tablero.reiniciar();
+        jugadorActual = Tablero.JUGADOR_1;
+        movimientos = 0;
+        terminada = false;
+
+        int inicio = 1;
+        while (inicio < partes.length && !partes[inicio].equals("moves")) {
+            inicio++;
+        }
+        for (int i = inicio + 1; i < partes.length; i++) {
+            for (char c : partes[i].toCharArray()) {
+                int columna = c - '1';
+                if (terminada || columna < 0 || columna >= Tablero.COLUMNAS || tablero.columnaLlena(columna)) {
+                    escribir("info string jugada no válida: " + c);
+                    return;
+                }
+                int fila = tablero.obtenerFilaDisponible(columna);
+                tablero.colocarFicha(fila, columna, jugadorActual);
+                movimientos++;
+                terminada = tablero.hayGanador(fila, columna) || tablero.tableroLleno();
+                jugadorActual = rival(jugadorActual);
+            }
+        }
+    }
+
+    /**
+     * Lanza el análisis de la posición actual en segundo plano.
+     */
+    private void analizar(String[] partes) {
+        if (terminada) {
+            escribir("bestmove (none)");
+            return;
+        }
+
+        String profundidadTexto = valorDe(partes, "depth");
+        String tiempoTexto = valorDe(partes, "movetime");
+        int profundidad = profundidadTexto != null ? Integer.parseInt(profundidadTexto)
+                : InteligenciaArtificial.PROFUNDIDAD_MAXIMA;
+        // Sin límites ni infinite se usa el presupuesto por jugada de la IA
+        boolean sinLimites = profundidadTexto == null && tiempoTexto == null && !contiene(partes, "infinite");
+        long tiempoMs = tiempoTexto != null ? Long.parseLong(tiempoTexto)
+                : sinLimites ? ia.getPresupuestoMs() : 0;
+
+        int maquina = jugadorActual;
+        int fichas = movimientos;
+        // El análisis trabaja sobre una copia, para que un position posterior no la cambie
+        Tablero copia = new Tablero(tablero);
+        // analizar() anula las paradas anteriores al empezar, así que un stop que
+        // llegue antes se vuelve a aplicar al terminar la primera profundidad
+        AtomicBoolean parada = new AtomicBoolean();
+        paradaAnalisis = parada;
+        analisis = new Thread(() -> {
+            ResultadoAnalisis resultado = ia.analizar(copia, maquina, profundidad, tiempoMs, parcial -> {
+                escribirInfo(parcial, fichas);
+                if (parada.get()) {
+                    ia.detenerBusqueda();
+                }
+            });
+            escribir("bestmove " + (resultado == null ? "(none)" : String.valueOf(resultado.getMejorColumna() + 1)));
+        }, "conecta4-protocolo");
+        analisis.start();
+    }
+
+    /**
+     * Escribe la línea info de una profundidad completada.
+     */
+    private void escribirInfo(ResultadoAnalisis resultado, int fichas) {
+        int columna = resultado.getMejorColumna();
+        int puntuacion = resultado.getPuntuacion(columna);
+        String valor;
+        if (ResultadoAnalisis.esVictoria(puntuacion)) {
+            valor = "mate " + (BuscadorAlfaBeta.VICTORIA - puntuacion - fichas + 1) / 2;
+        } else if (ResultadoAnalisis.esDerrota(puntuacion)) {
+            valor = "mate -" + (BuscadorAlfaBeta.VICTORIA + puntuacion - fichas + 1) / 2;
+        } else {
+            valor = "cp " + puntuacion;
+        }
+
+        StringBuilder pv = new StringBuilder();
+        for (int jugada : resultado.getVariacionPrincipal(columna)) {
+            pv.append(' ').append(jugada + 1);
+        }
+        long tiempo = resultado.getTiempoMs();
+        escribir("info depth " + resultado.getProfundidad() + " score " + valor
+                + " nodes " + resultado.getNodos() + " time " + tiempo
+                + " nps " + resultado.getNodos() * 1000 / Math.max(1, tiempo) + " pv" + pv);
+    }
+
+    /**
+     * Detiene el análisis en curso, si lo hay, y espera a que escriba su bestmove.
+     */
+    private void detenerAnalisis() throws InterruptedException {
+        if (analisis != null && analisis.isAlive()) {
+            paradaAnalisis.set(true);
+            ia.detenerBusqueda();
+        }
+        esperarAnalisis();
+    }
+
+    private void esperarAnalisis() throws InterruptedException {
+        if (analisis != null) {
+            analisis.join();
+            analisis = null;
+        }
+    }
+
+    /**
+     * Dibuja el tablero con la fila superior primero.
+     */
+    private void dibujar() {
+        for (int fila = 0; fila < Tablero.FILAS; fila++) {
+            StringBuilder linea = new StringBuilder();
+            for (int columna = 0; columna < Tablero.COLUMNAS; columna++) {
+                int casilla = tablero.obtenerCasilla(fila, columna);
+                linea.append(casilla == Tablero.JUGADOR_1 ? 'X' : casilla == Tablero.JUGADOR_2 ? 'O' : '.');
+            }
+            escribir(linea.toString());
+        }
+        escribir("1234567");
+        escribir("Turno: " + (jugadorActual == Tablero.JUGADOR_1 ? 'X' : 'O'));
+    }
+
+    private static int rival(int jugador) {
+        return jugador == Tablero.JUGADOR_1 ? Tablero.JUGADOR_2 : Tablero.JUGADOR_1;
+    }
+
+    /**
+     * Obtiene la palabra que sigue a una clave, o null si la clave no aparece.
+     */
+    private static String valorDe(String[] partes, String clave) {
+        for (int i = 0; i < partes.length - 1; i++) {
+            if (partes[i].equals(clave)) {
+                return partes[i + 1];
+            }
+        }
+        return null;
+    }
+
+    private static boolean contiene(String[] partes, String clave) {
+        for (String parte : partes) {
+            if (parte.equals(clave)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void escribir(String linea) {
+        synchronized (System.out) {
+            System.out.println(linea);
+            System.out.flush();
+        }
+    }
+}
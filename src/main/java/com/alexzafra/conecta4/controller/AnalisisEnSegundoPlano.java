@@ -0,0 +1,104 @@
+package com.alexzafra.conecta4.controller;
+
+import com.alexzafra.conecta4.controller.motor.BuscadorAlfaBeta;
+import com.alexzafra.conecta4.controller.motor.PosicionBitboard;
+import com.alexzafra.conecta4.controller.motor.ResultadoAnalisis;
+import com.alexzafra.conecta4.controller.motor.TokenCancelacion;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Ejecuta el análisis multi-PV de una posición en un hilo aparte.
+ * Los resultados de cada profundidad se dejan disponibles para que la vista
+ * los recoja a su ritmo, y el análisis se cancela en cuanto cambia la posición.
+ */
+public class AnalisisEnSegundoPlano {
+    // Hilo único donde se ejecutan los análisis
+    private final ExecutorService ejecutor;
+
+    // Buscador con su propia tabla de transposición
+    private final BuscadorAlfaBeta buscador;
+
+    // Límites de cada análisis
+    private final int profundidadMaxima;
+    private final long tiempoMaximoMs;
+
+    // Último resultado todavía no recogido
+    private final AtomicReference<ResultadoAnalisis> ultimoResultado = new AtomicReference<>();
+
+    // Se incrementa en cada cambio de posición para descartar resultados antiguos
+    private volatile long generacion;
+
+    // Token del análisis en curso; se cancela con cada cambio de posición
+    private volatile TokenCancelacion cancelacion = TokenCancelacion.NINGUNO;
+
+    /**
+     * Crea un analizador en segundo plano.
+     * @param profundidadMaxima Profundidad máxima de cada análisis
+     * @param tiempoMaximoMs Tiempo máximo de cada análisis en milisegundos
+     */
+    public AnalisisEnSegundoPlano(int profundidadMaxima, long tiempoMaximoMs) {
+        this.profundidadMaxima = profundidadMaxima;
+        this.tiempoMaximoMs = tiempoMaximoMs;
+        this.buscador = new BuscadorAlfaBeta();
+        this.ejecutor = Executors.newSingleThreadExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "conecta4-analisis");
+            hilo.setDaemon(true);
+            hilo.setPriority(Thread.MIN_PRIORITY);
+            return hilo;
+        });
+    }
+
+    /**
+     * Empieza a analizar una posición, cancelando el análisis anterior.
+     * @param posicion Posición con el jugador que tiene el turno
+     */
+    public void analizar(PosicionBitboard posicion) {
+        long miGeneracion = cancelar();
+        TokenCancelacion token = new TokenCancelacion();
+        cancelacion = token;
+        PosicionBitboard copia = new PosicionBitboard(posicion);
+
+        ejecutor.execute(() -> {
+            // Ignorar análisis que quedaron en cola tras un nuevo cambio de posición
+            if (token.isCancelado()) {
+                return;
+            }
+            buscador.setCancelacion(token);
+            buscador.analizar(copia, profundidadMaxima, tiempoMaximoMs, resultado -> {
+                if (generacion == miGeneracion) {
+                    ultimoResultado.set(resultado);
+                }
+            });
+        });
+    }
+
+    /**
+     * Cancela el análisis en curso y descarta sus resultados pendientes.
+     * @return Nueva generación tras la cancelación
+     */
+    public long cancelar() {
+        long nuevaGeneracion = ++generacion;
+        cancelacion.cancelar();
+        ultimoResultado.set(null);
+        return nuevaGeneracion;
+    }
+
+    /**
+     * Recoge el último resultado disponible, si ha llegado alguno nuevo desde la última llamada.
+     * @return Resultado nuevo o null
+     */
+    public ResultadoAnalisis tomarResultado() {
+        return ultimoResultado.getAndSet(null);
+    }
+
+    /**
+     * Cancela el análisis y libera el hilo.
+     */
+    public void cerrar() {
+        cancelar();
+        ejecutor.shutdownNow();
+    }
+}
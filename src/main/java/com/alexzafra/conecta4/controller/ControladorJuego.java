@@ -1,9 +1,18 @@
 package com.alexzafra.conecta4.controller;
 
+import com.alexzafra.conecta4.controller.motor.BaseDatosFinales;
+import com.alexzafra.conecta4.controller.motor.GeometriaTablero;
+import com.alexzafra.conecta4.controller.motor.TokenCancelacion;
 import com.alexzafra.conecta4.modelos.Tablero;
 import com.alexzafra.conecta4.modelos.Jugador;
+import com.alexzafra.conecta4.modelos.ColorRGB;
 
-import java.awt.Color;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntConsumer;
 
 /**
  * Controlador del juego Conecta 4.
@@ -21,21 +30,38 @@ public class ControladorJuego {
     private boolean modoUnJugador;
     private InteligenciaArtificial ia;
 
-    // Variables para seguimiento del último movimiento
-    private int ultimaFilaMovimiento = -1;
-    private int ultimaColumnaMovimiento = -1;
+    // Base de datos del modo de entrenamiento en tablero reducido
+    private BaseDatosFinales baseDatos;
+
+    // Hilo donde la máquina calcula sus jugadas (se crea al usarlo por primera vez)
+    private ExecutorService hiloMaquina;
+
+    // Token de la jugada de la máquina que se está calculando
+    private TokenCancelacion calculoMaquina = TokenCancelacion.NINGUNO;
+
+    // Registro de jugadas de la partida en curso: columna, instante (milisegundos
+    // desde 1970) y si ganó la partida, de cada ficha y en orden. Sirve para
+    // conocer la última jugada, deshacer, repetir y guardar la partida sin
+    // recorrer el tablero. Se crea de nuevo al cambiar el tamaño del tablero.
+    private int[] columnasJugadas;
+    private long[] instantesJugadas;
+    private boolean[] jugadasGanadoras;
+    private int numeroJugadas;
+
+    // Jugadas anotadas, incluidas las deshechas que todavía se pueden rehacer
+    private int jugadasRegistradas;
 
     /**
      * Constructor del controlador del juego.
      * Inicializa el tablero, los jugadores y el estado del juego.
      */
     public ControladorJuego() {
-        // Inicializar el tablero
-        tablero = new Tablero();
+        // Inicializar el tablero y el registro de jugadas
+        cambiarTablero(new Tablero());
 
         // Crear jugadores por defecto
-        jugador1 = new Jugador(1, "Jugador 1", Color.RED);
-        jugador2 = new Jugador(2, "Jugador 2", Color.YELLOW);
+        jugador1 = new Jugador(1, "Jugador 1", ColorRGB.ROJO);
+        jugador2 = new Jugador(2, "Jugador 2", ColorRGB.AMARILLO);
 
         // Establecer jugador inicial
         jugadorActual = jugador1;
@@ -53,6 +79,8 @@ public class ControladorJuego {
      * @param nivelDificultad Nivel de dificultad de la IA (1-4)
      */
     public void configurarModoUnJugador(int nivelDificultad) {
+        cancelarMovimientoMaquina();
+        volverAlTableroEstandar();
         modoUnJugador = true;
         ia = new InteligenciaArtificial(tablero, nivelDificultad);
         jugador2.setNombre("Máquina");
@@ -62,21 +90,99 @@ public class ControladorJuego {
      * Configura el juego para modo dos jugadores
      */
     public void configurarModoDosJugadores() {
+        cancelarMovimientoMaquina();
+        volverAlTableroEstandar();
         modoUnJugador = false;
         jugador2.setNombre("Jugador 2");
     }
 
+    /**
+     * Configura el modo de entrenamiento: un jugador contra la máquina en el
+     * tablero reducido de la base de datos, donde la máquina juega de forma
+     * perfecta. La partida empieza de nuevo y el controlador se queda con la
+     * base de datos (la cierra al cambiar de modo o al cerrar).
+     * @param baseDatos Base de datos de análisis retrógrado ya abierta
+     */
+    public void configurarModoEntrenamiento(BaseDatosFinales baseDatos) {
+        Objects.requireNonNull(baseDatos, "baseDatos");
+        cancelarMovimientoMaquina();
+        GeometriaTablero geometria = baseDatos.getGeometria();
+        cambiarTablero(new Tablero(geometria.getFilas(), geometria.getColumnas()));
+        cerrarBaseDatos();
+        this.baseDatos = baseDatos;
+        modoUnJugador = true;
+        ia = new InteligenciaArtificial(tablero, InteligenciaArtificial.NIVEL_DEMENCIAL);
+        ia.setBaseDatos(baseDatos);
+        jugador2.setNombre("Máquina");
+    }
+
+    /**
+     * Indica si se está jugando el modo de entrenamiento en tablero reducido.
+     * @return true si hay una base de datos en uso
+     */
+    public boolean esModoEntrenamiento() {
+        return baseDatos != null;
+    }
+
+    /**
+     * Sale del modo de entrenamiento, si se estaba jugando, y vuelve al
+     * tablero de 6x7 con una partida nueva.
+     */
+    private void volverAlTableroEstandar() {
+        if (!tablero.esEstandar()) {
+            cambiarTablero(new Tablero());
+        }
+        cerrarBaseDatos();
+    }
+
+    /**
+     * Sustituye el tablero por uno nuevo y vacío, crea el registro de jugadas
+     * a su medida y empieza la partida desde el principio.
+     * @param nuevo Tablero vacío
+     */
+    private void cambiarTablero(Tablero nuevo) {
+        tablero = nuevo;
+        columnasJugadas = new int[tablero.getFilas() * tablero.getColumnas()];
+        instantesJugadas = new long[columnasJugadas.length];
+        jugadasGanadoras = new boolean[columnasJugadas.length];
+        jugadorActual = jugador1;
+        juegoTerminado = false;
+        empate = false;
+        numeroJugadas = 0;
+        jugadasRegistradas = 0;
+    }
+
+    /**
+     * Cierra la base de datos del modo de entrenamiento, si hay alguna.
+     */
+    private void cerrarBaseDatos() {
+        if (baseDatos == null) {
+            return;
+        }
+        if (ia != null) {
+            ia.setBaseDatos(null);
+        }
+        try {
+            baseDatos.close();
+        } catch (IOException e) {
+            System.err.println("No se pudo cerrar la base de datos: " + e.getMessage());
+        }
+        baseDatos = null;
+    }
+
     /**
      * Reinicia el juego para una nueva partida.
      * El tablero se vacía y se restablece el jugador inicial.
+     * Si la máquina estaba pensando, su jugada se cancela.
      */
     public void reiniciarJuego() {
+        cancelarMovimientoMaquina();
         tablero.reiniciar();
         jugadorActual = jugador1;
         juegoTerminado = false;
         empate = false;
-        ultimaFilaMovimiento = -1;
-        ultimaColumnaMovimiento = -1;
+        numeroJugadas = 0;
+        jugadasRegistradas = 0;
     }
 
     /**
@@ -86,7 +192,7 @@ public class ControladorJuego {
      */
     public boolean realizarMovimiento(int columna) {
         // Verificar si el juego ha terminado o la columna es inválida
-        if (juegoTerminado || columna < 0 || columna >= Tablero.COLUMNAS) {
+        if (juegoTerminado || columna < 0 || columna >= tablero.getColumnas()) {
             return false;
         }
 
@@ -98,41 +204,47 @@ public class ControladorJuego {
         // Encontrar la fila disponible
         int fila = tablero.obtenerFilaDisponible(columna);
 
-        // Colocar ficha del jugador actual
+        // Colocar ficha del jugador actual y anotar la jugada
         tablero.colocarFicha(fila, columna, jugadorActual.getId());
-
-        // Guardar la posición del último movimiento
-        ultimaFilaMovimiento = fila;
-        ultimaColumnaMovimiento = columna;
+        registrarJugada(columna);
 
         // Comprobar si hay ganador
         if (tablero.hayGanador(fila, columna)) {
-            juegoTerminado = true;
+            jugadasGanadoras[numeroJugadas - 1] = true;
+            terminarPartida();
             jugadorActual.incrementarPuntuacion();
             return true;
         }
 
         // Comprobar si hay empate
         if (tablero.tableroLleno()) {
-            juegoTerminado = true;
+            terminarPartida();
             empate = true;
             return true;
         }
 
-        // Cambiar turno al otro jugador
+        // Cambiar turno al otro jugador. En modo un jugador la jugada de la máquina
+        // la pide la interfaz, para poder animar la caída de la ficha
         jugadorActual = (jugadorActual == jugador1) ? jugador2 : jugador1;
 
-        // Si es modo un jugador y le toca a la máquina, hacer movimiento automático
-        if (modoUnJugador && jugadorActual == jugador2) {
-            // Nota: Ahora el movimiento de la máquina se maneja de forma diferente a través de la interfaz gráfica
-            // para permitir la animación de caída, así que no llamamos a realizarMovimientoMaquina() aquí
-        }
-
         return true;
     }
 
     /**
-     * Realiza el movimiento de la máquina en modo un jugador
+     * Aplica en la partida la columna que ha elegido la máquina en modo un jugador.
+     * @param columna Columna elegida por la IA
+     * @return true si era el turno de la máquina y la jugada es válida
+     */
+    public boolean realizarMovimientoMaquina(int columna) {
+        if (!modoUnJugador || jugadorActual != jugador2) {
+            return false;
+        }
+        return realizarMovimiento(columna);
+    }
+
+    /**
+     * Calcula y realiza el movimiento de la máquina en modo un jugador, en este
+     * mismo hilo
      * @return true si el movimiento fue exitoso, false en caso contrario
      */
     public boolean realizarMovimientoMaquina() {
@@ -142,83 +254,163 @@ public class ControladorJuego {
         }
 
         // Determinar la columna donde la máquina colocará la ficha
-        int columna = ia.realizarMovimiento(jugador1.getId(), jugador2.getId());
+        return realizarMovimientoMaquina(ia.obtenerColumnaMovimiento(jugador1.getId(), jugador2.getId()));
+    }
 
-        // Si la columna es -1, significa que la IA ya colocó la ficha en alguna estrategia
-        if (columna == -1) {
-            // La IA ya colocó la ficha, verificar el estado del juego
+    /**
+     * Deshace la última jugada retirando su ficha del tablero, sin repetir la
+     * partida desde el principio. En modo un jugador se deshace también la
+     * respuesta de la máquina, para que vuelva a tocarle al jugador. Si la
+     * máquina estaba pensando, su jugada se cancela; la IA conserva sus tablas,
+     * que guardan posiciones y siguen siendo válidas.
+     * @return true si se ha deshecho alguna jugada
+     */
+    public boolean deshacerJugada() {
+        if (numeroJugadas == 0) {
+            return false;
+        }
+        cancelarMovimientoMaquina();
+        do {
+            retirarUltimaJugada();
+        } while (modoUnJugador && jugadorActual == jugador2 && numeroJugadas > 0);
+        return true;
+    }
 
-            // Buscar la posición donde la IA colocó la ficha
-            encontrarUltimoMovimientoIA();
+    /**
+     * Vuelve a hacer la última jugada deshecha. En modo un jugador se rehace
+     * también la respuesta de la máquina, si se llegó a anotar.
+     * @return true si se ha rehecho alguna jugada
+     */
+    public boolean rehacerJugada() {
+        if (!puedeRehacer()) {
+            return false;
+        }
+        cancelarMovimientoMaquina();
+        do {
+            realizarMovimiento(columnasJugadas[numeroJugadas]);
+        } while (modoUnJugador && jugadorActual == jugador2 && puedeRehacer());
+        return true;
+    }
 
-            // Comprobar si con ese movimiento la máquina ganó
-            if (ultimaFilaMovimiento >= 0 && ultimaColumnaMovimiento >= 0) {
-                if (tablero.hayGanador(ultimaFilaMovimiento, ultimaColumnaMovimiento)) {
-                    juegoTerminado = true;
-                    jugador2.incrementarPuntuacion();
-                    return true;
-                }
-            }
+    /**
+     * Indica si hay alguna jugada que deshacer.
+     * @return true si la partida tiene al menos una ficha
+     */
+    public boolean puedeDeshacer() {
+        return numeroJugadas > 0;
+    }
 
-            // Comprobar si hay empate
-            if (tablero.tableroLleno()) {
-                juegoTerminado = true;
-                empate = true;
-                return true;
-            }
+    /**
+     * Indica si hay alguna jugada deshecha que se pueda rehacer.
+     * @return true si se puede rehacer
+     */
+    public boolean puedeRehacer() {
+        return !juegoTerminado && numeroJugadas < jugadasRegistradas;
+    }
 
-            // Cambiar turno al jugador humano
-            jugadorActual = jugador1;
-            return true;
-        } else {
-            // Encontrar la fila disponible
-            int fila = tablero.obtenerFilaDisponible(columna);
+    /**
+     * Retira la ficha de la última jugada y devuelve el turno a quien la hizo.
+     */
+    private void retirarUltimaJugada() {
+        numeroJugadas--;
+        tablero.retirarFicha(columnasJugadas[numeroJugadas]);
 
-            // Guardar la posición del movimiento
-            ultimaFilaMovimiento = fila;
-            ultimaColumnaMovimiento = columna;
+        // Siempre empieza el jugador 1, así que el turno sale de la paridad
+        jugadorActual = (numeroJugadas % 2 == 0) ? jugador1 : jugador2;
 
-            // Colocar ficha de la máquina
-            tablero.colocarFicha(fila, columna, jugador2.getId());
+        // Si la jugada deshecha ganó la partida, su autor pierde el punto
+        if (jugadasGanadoras[numeroJugadas]) {
+            jugadorActual.decrementarPuntuacion();
+        }
+        juegoTerminado = false;
+        empate = false;
+    }
 
-            // Comprobar si hay ganador
-            if (tablero.hayGanador(fila, columna)) {
-                juegoTerminado = true;
-                jugador2.incrementarPuntuacion();
-                return true;
+    /**
+     * Calcula la jugada de la máquina en un hilo aparte, sobre una copia del
+     * tablero, para no bloquear la interfaz. El token se cancela al reiniciar
+     * la partida, cambiar de modo o cerrar el juego; entonces los motores
+     * abandonan la búsqueda y la columna no se entrega. Quien recibe la
+     * columna en otro hilo debe volver a comprobar el token antes de aplicarla.
+     * @param token Token de esta jugada
+     * @param alTerminar Recibe la columna elegida en el hilo de la máquina
+     */
+    public void calcularMovimientoMaquina(TokenCancelacion token, IntConsumer alTerminar) {
+        cancelarMovimientoMaquina();
+        calculoMaquina = token;
+
+        // La copia y los datos de la partida se toman aquí, en el hilo de la interfaz
+        Tablero copia = new Tablero(tablero);
+        InteligenciaArtificial iaPartida = ia;
+        int jugadorId = jugador1.getId();
+        int maquinaId = jugador2.getId();
+
+        getHiloMaquina().execute(() -> {
+            int columna;
+            try {
+                columna = iaPartida.obtenerColumnaMovimiento(copia, jugadorId, maquinaId, token);
+            } catch (RuntimeException e) {
+                System.err.println("Error al calcular la jugada de la máquina: " + e.getMessage());
+                columna = -1;
             }
-
-            // Comprobar si hay empate
-            if (tablero.tableroLleno()) {
-                juegoTerminado = true;
-                empate = true;
-                return true;
+            if (!token.isCancelado()) {
+                alTerminar.accept(columna);
             }
+        });
+    }
 
-            // Cambiar turno al jugador humano
-            jugadorActual = jugador1;
-            return true;
+    /**
+     * Obtiene el hilo de la máquina, creándolo la primera vez
+     * @return Ejecutor de un solo hilo para los cálculos de la máquina
+     */
+    private ExecutorService getHiloMaquina() {
+        if (hiloMaquina == null) {
+            hiloMaquina = Executors.newSingleThreadExecutor(tarea -> {
+                Thread hilo = new Thread(tarea, "conecta4-maquina");
+                hilo.setDaemon(true);
+                return hilo;
+            });
         }
+        return hiloMaquina;
     }
 
     /**
-     * Busca en el tablero la última ficha colocada por la IA
+     * Cancela la jugada de la máquina que se esté calculando, si hay alguna.
      */
-    private void encontrarUltimoMovimientoIA() {
-        // Recorrer el tablero buscando la última ficha de la IA (jugador 2)
-        for (int fila = 0; fila < Tablero.FILAS; fila++) {
-            for (int col = 0; col < Tablero.COLUMNAS; col++) {
-                if (tablero.obtenerCasilla(fila, col) == jugador2.getId()) {
-                    // Verificar si esta posición no tenía ficha antes
-                    ultimaFilaMovimiento = fila;
-                    ultimaColumnaMovimiento = col;
-                    // No retornamos de inmediato, pues queremos encontrar
-                    // la ficha que esté más arriba (última colocada)
-                }
-            }
+    public void cancelarMovimientoMaquina() {
+        calculoMaquina.cancelar();
+        calculoMaquina = TokenCancelacion.NINGUNO;
+    }
+
+    /**
+     * Cancela la jugada de la máquina en curso y libera su hilo. Se llama al
+     * cerrar la ventana del juego. Una jugada cancelada termina en pocos nodos,
+     * así que se deja acabar el hilo para no perder el guardado de la caché.
+     */
+    public void cerrar() {
+        cancelarMovimientoMaquina();
+        cerrarBaseDatos();
+        if (hiloMaquina != null) {
+            hiloMaquina.shutdown();
+            hiloMaquina = null;
         }
     }
 
+    /**
+     * Anota una jugada en el registro de la partida.
+     * @param columna Columna de la ficha colocada
+     */
+    private void registrarJugada(int columna) {
+        // Una jugada distinta de la deshecha descarta las que se podían rehacer
+        if (numeroJugadas >= jugadasRegistradas || columnasJugadas[numeroJugadas] != columna) {
+            jugadasRegistradas = numeroJugadas + 1;
+        }
+        columnasJugadas[numeroJugadas] = columna;
+        instantesJugadas[numeroJugadas] = System.currentTimeMillis();
+        jugadasGanadoras[numeroJugadas] = false;
+        numeroJugadas++;
+    }
+
     /**
      * Devuelve si el juego está en modo un jugador o dos jugadores
      * @return true si es modo un jugador, false si es modo dos jugadores
@@ -280,7 +472,11 @@ public class ControladorJuego {
      * @return Fila de la última ficha o -1 si no hay
      */
     public int getUltimaFilaMovimiento() {
-        return ultimaFilaMovimiento;
+        if (numeroJugadas == 0) {
+            return -1;
+        }
+        // La última ficha de una columna está justo debajo de su primera fila libre
+        return tablero.obtenerFilaDisponible(columnasJugadas[numeroJugadas - 1]) + 1;
     }
 
     /**
@@ -288,7 +484,58 @@ public class ControladorJuego {
      * @return Columna de la última ficha o -1 si no hay
      */
     public int getUltimaColumnaMovimiento() {
-        return ultimaColumnaMovimiento;
+        return numeroJugadas > 0 ? columnasJugadas[numeroJugadas - 1] : -1;
+    }
+
+    /**
+     * Obtiene el número de fichas colocadas en la partida en curso.
+     * @return Número de jugadas
+     */
+    public int getNumeroJugadas() {
+        return numeroJugadas;
+    }
+
+    /**
+     * Obtiene la columna de una jugada de la partida en curso.
+     * @param indice Número de la jugada, desde 0
+     * @return Columna (0-6)
+     * @throws IndexOutOfBoundsException si la jugada no existe
+     */
+    public int getColumnaJugada(int indice) {
+        Objects.checkIndex(indice, numeroJugadas);
+        return columnasJugadas[indice];
+    }
+
+    /**
+     * Obtiene el instante en que se hizo una jugada de la partida en curso.
+     * @param indice Número de la jugada, desde 0
+     * @return Milisegundos desde el 1 de enero de 1970
+     * @throws IndexOutOfBoundsException si la jugada no existe
+     */
+    public long getInstanteJugada(int indice) {
+        Objects.checkIndex(indice, numeroJugadas);
+        return instantesJugadas[indice];
+    }
+
+    /**
+     * Obtiene las columnas jugadas en la partida en curso, en orden.
+     * @return Copia de las columnas (0-6)
+     */
+    public int[] getJugadas() {
+        return Arrays.copyOf(columnasJugadas, numeroJugadas);
+    }
+
+    /**
+     * Crea el registro de la partida en curso contra la máquina, para guardarla
+     * y reproducirla después.
+     * @return Registro con la configuración de la IA y las jugadas, o null en modo dos jugadores
+     */
+    public RegistroPartida crearRegistroPartida() {
+        if (!modoUnJugador || ia == null) {
+            return null;
+        }
+        return new RegistroPartida(ia.getSemilla(), ia.getNivelDificultad(), ia.getPresupuestoMs(),
+                ia.getProfundidadMaxima(), jugador2.getId(), getJugadas());
     }
 
     /**
@@ -320,7 +567,34 @@ public class ControladorJuego {
      * @param juegoTerminado Nuevo estado
      */
     public void setJuegoTerminado(boolean juegoTerminado) {
-        this.juegoTerminado = juegoTerminado;
+        if (juegoTerminado) {
+            terminarPartida();
+        } else {
+            this.juegoTerminado = false;
+        }
+    }
+
+    /**
+     * Marca la partida como terminada y, contra la máquina, guarda en la caché
+     * persistente las posiciones que ha resuelto durante la partida. El guardado
+     * escribe en disco, así que se hace en el hilo de la máquina, después de
+     * la jugada que se esté calculando y sin bloquear la interfaz.
+     */
+    private void terminarPartida() {
+        if (juegoTerminado) {
+            return;
+        }
+        juegoTerminado = true;
+        if (modoUnJugador && ia != null) {
+            InteligenciaArtificial iaPartida = ia;
+            getHiloMaquina().execute(() -> {
+                try {
+                    iaPartida.guardarEnCache();
+                } catch (RuntimeException e) {
+                    System.err.println("Error al guardar la caché de posiciones: " + e.getMessage());
+                }
+            });
+        }
     }
 
     /**
@@ -0,0 +1,35 @@
+package com.alexzafra.conecta4.controller;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento de Java Flight Recorder que se emite cada vez que la máquina supera
+ * el límite duro de tiempo de una jugada, junto con la causa estimada.
+ */
+@Name("com.alexzafra.conecta4.LimiteSuperado")
+@Label("Límite de jugada superado")
+@Category({"Conecta 4", "IA"})
+@Description("Jugada de la máquina que tardó más que su límite duro")
+public class EventoLatencia extends Event {
+    @Label("Nivel")
+    int nivel;
+
+    @Label("Límite (ms)")
+    long limiteMs;
+
+    @Label("Duración (ms)")
+    long duracionMs;
+
+    @Label("Causa")
+    String causa;
+
+    @Label("Tiempo en el recolector (ms)")
+    long recolectorMs;
+
+    @Label("Tiempo de compilación JIT (ms)")
+    long compilacionMs;
+}
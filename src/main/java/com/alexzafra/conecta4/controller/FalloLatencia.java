@@ -0,0 +1,154 @@
+package com.alexzafra.conecta4.controller;
+
+import java.lang.management.CompilationMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Registro de una jugada de la máquina que superó su límite duro de tiempo.
+ * La causa se estima comparando el exceso con el tiempo que la JVM pasó en el
+ * recolector de basura y compilando durante la jugada.
+ */
+public class FalloLatencia {
+    // Causas posibles de un fallo
+    public static final String CAUSA_RECOLECTOR = "recolector";
+    public static final String CAUSA_COMPILACION = "compilacion";
+    public static final String CAUSA_BUSQUEDA = "busqueda";
+
+    private final long instante;
+    private final int nivel;
+    private final long limiteMs;
+    private final long duracionMs;
+    private final String causa;
+    private final long recolectorMs;
+    private final long compilacionMs;
+
+    /**
+     * Crea el registro de un fallo y estima su causa.
+     * @param nivel Nivel de dificultad de la IA
+     * @param limiteMs Límite duro de la jugada
+     * @param duracionMs Duración real de la jugada
+     * @param recolectorMs Milisegundos en el recolector de basura durante la jugada
+     * @param compilacionMs Milisegundos de compilación JIT durante la jugada
+     */
+    public FalloLatencia(int nivel, long limiteMs, long duracionMs, long recolectorMs, long compilacionMs) {
+        this.instante = System.currentTimeMillis();
+        this.nivel = nivel;
+        this.limiteMs = limiteMs;
+        this.duracionMs = duracionMs;
+        this.recolectorMs = recolectorMs;
+        this.compilacionMs = compilacionMs;
+
+        // Se culpa a la pausa que explica al menos la mitad del exceso
+        long exceso = duracionMs - limiteMs;
+        if (recolectorMs * 2 >= exceso && recolectorMs >= compilacionMs) {
+            causa = CAUSA_RECOLECTOR;
+        } else if (compilacionMs * 2 >= exceso) {
+            causa = CAUSA_COMPILACION;
+        } else {
+            causa = CAUSA_BUSQUEDA;
+        }
+    }
+
+    /**
+     * Suma el tiempo que la JVM ha pasado en el recolector de basura desde que arrancó.
+     * @return Milisegundos acumulados de todos los recolectores
+     */
+    public static long tiempoRecolector() {
+        long total = 0;
+        for (GarbageCollectorMXBean recolector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, recolector.getCollectionTime());
+        }
+        return total;
+    }
+
+    /**
+     * Obtiene el tiempo que la JVM ha pasado compilando desde que arrancó.
+     * @return Milisegundos acumulados de compilación, o 0 si no se puede medir
+     */
+    public static long tiempoCompilacion() {
+        CompilationMXBean compilacion = ManagementFactory.getCompilationMXBean();
+        if (compilacion == null || !compilacion.isCompilationTimeMonitoringSupported()) {
+            return 0;
+        }
+        return compilacion.getTotalCompilationTime();
+    }
+
+    /**
+     * Publica el fallo como evento de Java Flight Recorder.
+     */
+    void publicar() {
+        EventoLatencia evento = new EventoLatencia();
+        if (evento.shouldCommit()) {
+            evento.nivel = nivel;
+            evento.limiteMs = limiteMs;
+            evento.duracionMs = duracionMs;
+            evento.causa = causa;
+            evento.recolectorMs = recolectorMs;
+            evento.compilacionMs = compilacionMs;
+            evento.commit();
+        }
+    }
+
+    /**
+     * Obtiene el momento del fallo.
+     * @return Milisegundos desde la época Unix
+     */
+    public long getInstante() {
+        return instante;
+    }
+
+    /**
+     * Obtiene el nivel de dificultad de la IA que falló.
+     * @return Nivel de dificultad
+     */
+    public int getNivel() {
+        return nivel;
+    }
+
+    /**
+     * Obtiene el límite duro de la jugada.
+     * @return Milisegundos
+     */
+    public long getLimiteMs() {
+        return limiteMs;
+    }
+
+    /**
+     * Obtiene lo que tardó realmente la jugada.
+     * @return Milisegundos
+     */
+    public long getDuracionMs() {
+        return duracionMs;
+    }
+
+    /**
+     * Obtiene la causa estimada del fallo.
+     * @return CAUSA_RECOLECTOR, CAUSA_COMPILACION o CAUSA_BUSQUEDA
+     */
+    public String getCausa() {
+        return causa;
+    }
+
+    /**
+     * Obtiene el tiempo en el recolector de basura durante la jugada.
+     * @return Milisegundos
+     */
+    public long getRecolectorMs() {
+        return recolectorMs;
+    }
+
+    /**
+     * Obtiene el tiempo de compilación JIT durante la jugada.
+     * @return Milisegundos
+     */
+    public long getCompilacionMs() {
+        return compilacionMs;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("nivel %d: %d ms de %d ms (%s; recolector %d ms, compilación %d ms)",
+                nivel, duracionMs, limiteMs, causa, recolectorMs, compilacionMs);
+    }
+}
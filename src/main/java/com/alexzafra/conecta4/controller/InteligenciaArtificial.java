@@ -1,12 +1,51 @@
 package com.alexzafra.conecta4.controller;
 
+import com.alexzafra.conecta4.controller.motor.BaseDatosFinales;
+import com.alexzafra.conecta4.controller.motor.BuscadorAlfaBeta;
+import com.alexzafra.conecta4.controller.motor.BusquedaAmenazas;
+import com.alexzafra.conecta4.controller.motor.BusquedaNumerosPrueba;
+import com.alexzafra.conecta4.controller.motor.CachePersistente;
+import com.alexzafra.conecta4.controller.motor.EstadisticasBusqueda;
+import com.alexzafra.conecta4.controller.motor.Evaluador;
+import com.alexzafra.conecta4.controller.motor.EvaluadorLotes;
+import com.alexzafra.conecta4.controller.motor.EvaluadorNeuronal;
+import com.alexzafra.conecta4.controller.motor.EvaluadorParidad;
+import com.alexzafra.conecta4.controller.motor.EvaluadorVentanas;
+import com.alexzafra.conecta4.controller.motor.EventoBusqueda;
+import com.alexzafra.conecta4.controller.motor.GestorTiempo;
+import com.alexzafra.conecta4.controller.motor.Motor;
+import com.alexzafra.conecta4.controller.motor.MotorHeuristico;
+import com.alexzafra.conecta4.controller.motor.PosicionBitboard;
+import com.alexzafra.conecta4.controller.motor.ResultadoAnalisis;
+import com.alexzafra.conecta4.controller.motor.Solucionador;
+import com.alexzafra.conecta4.controller.motor.TablaTransposicion;
+import com.alexzafra.conecta4.controller.motor.TokenCancelacion;
 import com.alexzafra.conecta4.modelos.Tablero;
 
-import java.util.Random;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 /**
  * Clase que implementa la inteligencia artificial para el juego Conecta 4.
  * Contiene diferentes niveles de dificultad para el juego contra la máquina.
+ *
+ * El nivel demencial no sigue reglas fijas: hace una búsqueda alfa-beta con
+ * tiempo limitado (PRESUPUESTO_POR_DEFECTO_MS por jugada) y, además, toda
+ * jugada tiene un límite duro (LIMITE_DURO_POR_DEFECTO_MS) al que el vigilante
+ * la corta y se juega la última profundidad completa. Las reglas avanzadas solo
+ * se usan si no llega a completarse ninguna profundidad y en los tableros
+ * reducidos. Para volver a jugar sin límite basta con setLimiteDuroMs(0).
  */
 public class InteligenciaArtificial {
     // Constantes para los niveles de dificultad
@@ -15,8 +54,46 @@ public class InteligenciaArtificial {
     public static final int NIVEL_DIFICIL = 3;
     public static final int NIVEL_DEMENCIAL = 4;
 
+    // Límites por defecto de la búsqueda del nivel demencial
+    public static final int PROFUNDIDAD_MAXIMA = Tablero.FILAS * Tablero.COLUMNAS;
+    public static final long PRESUPUESTO_POR_DEFECTO_MS = 300;
+
+    // Límite duro por jugada: al llegar a él se corta la búsqueda en curso y la
+    // jugada se registra como fallo de latencia si aun así tarda más
+    public static final long LIMITE_DURO_POR_DEFECTO_MS = 1000;
+
+    // Tiempo que se reserva dentro del límite duro para cortar y devolver la jugada
+    // (como mucho una cuarta parte del límite)
+    private static final long MARGEN_LIMITE_MS = 50;
+
+    // Fallos de latencia que se guardan como mucho (los más recientes)
+    private static final int MAXIMO_FALLOS_REGISTRADOS = 100;
+
+    // Hilo vigilante compartido que corta las búsquedas que llegan al límite duro
+    private static final ScheduledExecutorService VIGILANTE = Executors.newSingleThreadScheduledExecutor(tarea -> {
+        Thread hilo = new Thread(tarea, "conecta4-vigilante");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    // Si ya se ha pedido al vigilante que prepare Flight Recorder y las consultas a la JVM
+    private static final AtomicBoolean PREPARADO = new AtomicBoolean();
+
+    // Nombre con el que aparecen en las estadísticas las reglas de los niveles bajos
+    public static final String MOTOR_HEURISTICO = MotorHeuristico.NOMBRE;
+
+    // Jugadas del atacante que explora la búsqueda de amenazas en cada nivel
+    private static final int[] PROFUNDIDAD_AMENAZAS = {0, 0, 2, 5, 12};
+
+    // Funciones de evaluación disponibles para la búsqueda
+    public static final String EVALUADOR_VENTANAS = "ventanas";
+    public static final String EVALUADOR_RED = "red";
+
     // Generador de números aleatorios para movimientos aleatorios
-    private Random random;
+    private SplittableRandom random;
+
+    // Semilla de la sesión, necesaria para reproducir partidas
+    private long semilla;
 
     // Tablero del juego
     private Tablero tablero;
@@ -27,15 +104,105 @@ public class InteligenciaArtificial {
     // Variable para controlar si ya se ha insertado ficha en turno actual
     private boolean fichaInsertada;
 
+    // Solucionador exacto (se crea al usarlo por primera vez)
+    private Solucionador solucionador;
+
+    // Base de datos con el valor de todas las posiciones de un tablero reducido
+    private BaseDatosFinales baseDatos;
+
+    // Búsqueda por números de prueba para demostrar victorias (se crea al usarla por primera vez)
+    private BusquedaNumerosPrueba numerosPrueba;
+
+    // Buscador alfa-beta para el análisis y el nivel demencial
+    // (volatile porque el vigilante lo detiene desde otro hilo)
+    private volatile BuscadorAlfaBeta buscador;
+
+    // Valoración de lotes de posiciones en paralelo (comparte la tabla del buscador)
+    private EvaluadorLotes lotes;
+
+    // Búsqueda de victorias forzadas por amenazas
+    private BusquedaAmenazas amenazas;
+
+    // Motor que sustituye a las reglas del nivel, o null para usar el nivel
+    // (volatile porque el vigilante lo detiene desde otro hilo)
+    private volatile Motor motor;
+
+    // Parada pedida con detenerBusqueda(); dura hasta reanudarBusqueda()
+    private volatile boolean detenida;
+
+    // Tiempo de reflexión por jugada del nivel demencial
+    private long presupuestoMs = PRESUPUESTO_POR_DEFECTO_MS;
+
+    // Reparto del presupuesto según la fase, la movilidad y la estabilidad de la búsqueda
+    private boolean tiempoAdaptativo = true;
+    private int profundidadMaxima = PROFUNDIDAD_MAXIMA;
+
+    // Evaluación de las hojas de la búsqueda
+    private String evaluador = EVALUADOR_VENTANAS;
+
+    // Estadísticas de la última búsqueda
+    // (volatile porque se leen desde un hilo distinto al de la jugada)
+    private volatile EstadisticasBusqueda ultimasEstadisticas;
+
+    // Límite duro por jugada (0 para desactivarlo) e inicio de la jugada en curso
+    // (volatile porque cada jugada se puede calcular en un hilo distinto)
+    private long limiteDuroMs = LIMITE_DURO_POR_DEFECTO_MS;
+    private volatile long inicioJugada;
+
+    // Jugadas que superaron el límite duro
+    private final Deque<FalloLatencia> fallosLatencia = new ArrayDeque<>();
+    private long totalFallosLatencia;
+
     /**
      * Constructor de la IA
      * @param tablero Tablero del juego
      * @param nivel Nivel de dificultad
      */
     public InteligenciaArtificial(Tablero tablero, int nivel) {
+        this(tablero, nivel, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Constructor de la IA con una semilla fija, para partidas reproducibles
+     * @param tablero Tablero del juego
+     * @param nivel Nivel de dificultad
+     * @param semilla Semilla del generador de números aleatorios
+     */
+    public InteligenciaArtificial(Tablero tablero, int nivel, long semilla) {
         this.tablero = tablero;
         this.nivelDificultad = nivel;
-        this.random = new Random();
+        this.semilla = semilla;
+        this.random = new SplittableRandom(semilla);
+        if (limiteDuroMs > 0) {
+            prepararVigilante();
+        }
+    }
+
+    /**
+     * Reinicia el generador de números aleatorios con una semilla
+     * @param semilla Nueva semilla de la sesión
+     */
+    public void setSemilla(long semilla) {
+        this.semilla = semilla;
+        this.random = new SplittableRandom(semilla);
+    }
+
+    /**
+     * Obtiene la semilla de la sesión
+     * @return Semilla con la que se inició el generador
+     */
+    public long getSemilla() {
+        return semilla;
+    }
+
+    /**
+     * Crea un flujo de números aleatorios independiente derivado de la sesión,
+     * pensado para motores que trabajan en paralelo (uno por hilo). El resultado
+     * es reproducible si la sesión se creó con una semilla fija.
+     * @return Generador independiente para otro hilo
+     */
+    public SplittableRandom dividirGenerador() {
+        return random.split();
     }
 
     /**
@@ -54,6 +221,179 @@ public class InteligenciaArtificial {
         return nivelDificultad;
     }
 
+    /**
+     * Cambia el tiempo de reflexión por jugada del nivel demencial
+     * @param presupuestoMs Milisegundos por jugada (0 para limitar solo por profundidad)
+     */
+    public void setPresupuestoMs(long presupuestoMs) {
+        this.presupuestoMs = presupuestoMs;
+    }
+
+    /**
+     * Obtiene el tiempo de reflexión por jugada del nivel demencial
+     * @return Milisegundos por jugada
+     */
+    public long getPresupuestoMs() {
+        return presupuestoMs;
+    }
+
+    /**
+     * Activa o desactiva el reparto adaptativo del presupuesto: más tiempo en el
+     * medio juego y cuando la mejor jugada cambia entre iteraciones, y menos en la
+     * apertura, el final y las posiciones con pocas jugadas que no pierden
+     * @param tiempoAdaptativo true para repartir el tiempo, false para gastar siempre el presupuesto
+     */
+    public void setTiempoAdaptativo(boolean tiempoAdaptativo) {
+        this.tiempoAdaptativo = tiempoAdaptativo;
+    }
+
+    /**
+     * Indica si el presupuesto se reparte de forma adaptativa
+     * @return true si el tiempo es adaptativo
+     */
+    public boolean isTiempoAdaptativo() {
+        return tiempoAdaptativo;
+    }
+
+    /**
+     * Cambia la profundidad máxima de la búsqueda del nivel demencial.
+     * Con un presupuesto de 0 ms la búsqueda solo se limita por profundidad
+     * y sus decisiones son reproducibles.
+     * @param profundidadMaxima Profundidad máxima en medias jugadas
+     */
+    public void setProfundidadMaxima(int profundidadMaxima) {
+        this.profundidadMaxima = profundidadMaxima;
+    }
+
+    /**
+     * Obtiene la profundidad máxima de la búsqueda del nivel demencial
+     * @return Profundidad máxima en medias jugadas
+     */
+    public int getProfundidadMaxima() {
+        return profundidadMaxima;
+    }
+
+    /**
+     * Cambia el límite duro por jugada. Al llegar a él un vigilante corta la
+     * búsqueda y se juega la mejor columna encontrada hasta entonces. Con el
+     * límite activo las jugadas dejan de ser reproducibles si la búsqueda se
+     * corta, así que las partidas grabadas lo desactivan.
+     * @param limiteDuroMs Milisegundos por jugada (0 para desactivarlo)
+     */
+    public void setLimiteDuroMs(long limiteDuroMs) {
+        this.limiteDuroMs = limiteDuroMs;
+        if (limiteDuroMs > 0) {
+            prepararVigilante();
+        }
+    }
+
+    /**
+     * El primer evento de Flight Recorder y la primera consulta a la JVM tardan
+     * cientos de milisegundos. Solo hacen falta con el límite duro activo, así
+     * que se pagan una vez en el hilo vigilante al activarlo y no al cargar la
+     * clase ni en la primera jugada.
+     */
+    private static void prepararVigilante() {
+        if (PREPARADO.compareAndSet(false, true)) {
+            VIGILANTE.execute(() -> {
+                new EventoBusqueda();
+                new EventoLatencia();
+                FalloLatencia.tiempoRecolector();
+                FalloLatencia.tiempoCompilacion();
+            });
+        }
+    }
+
+    /**
+     * Obtiene el límite duro por jugada
+     * @return Milisegundos por jugada, o 0 si está desactivado
+     */
+    public long getLimiteDuroMs() {
+        return limiteDuroMs;
+    }
+
+    /**
+     * Obtiene las últimas jugadas que superaron el límite duro, con su causa.
+     * @return Copia de los fallos registrados, del más antiguo al más reciente
+     */
+    public List<FalloLatencia> getFallosLatencia() {
+        synchronized (fallosLatencia) {
+            return new ArrayList<>(fallosLatencia);
+        }
+    }
+
+    /**
+     * Obtiene cuántas jugadas han superado el límite duro desde que se creó la IA.
+     * @return Número total de fallos, incluidos los que ya no se guardan
+     */
+    public long getTotalFallosLatencia() {
+        synchronized (fallosLatencia) {
+            return totalFallosLatencia;
+        }
+    }
+
+    /**
+     * Usa una base de datos de análisis retrógrado para jugar de forma perfecta
+     * en un tablero reducido. Solo se consulta si el tablero tiene su tamaño;
+     * si no lo tiene, en un tablero reducido se juega con movimientoAvanzado.
+     * @param baseDatos Base de datos abierta, o null para dejar de usarla
+     */
+    public void setBaseDatos(BaseDatosFinales baseDatos) {
+        this.baseDatos = baseDatos;
+    }
+
+    /**
+     * Obtiene la base de datos de tablero reducido en uso.
+     * @return Base de datos, o null si no hay ninguna
+     */
+    public BaseDatosFinales getBaseDatos() {
+        return baseDatos;
+    }
+
+    /**
+     * Asigna un motor del registro (o cualquier otro) para que elija todas las
+     * jugadas en lugar de las reglas del nivel de dificultad. El motor conserva
+     * su propio presupuesto de tiempo; el límite duro y la cancelación de la
+     * jugada se le siguen aplicando. Solo se usa en el tablero estándar.
+     * @param motor Motor a usar, o null para volver a jugar según el nivel
+     */
+    public void setMotor(Motor motor) {
+        this.motor = motor;
+    }
+
+    /**
+     * Obtiene el motor asignado.
+     * @return Motor que elige las jugadas, o null si se juega según el nivel
+     */
+    public Motor getMotor() {
+        return motor;
+    }
+
+    /**
+     * Cambia la función de evaluación de la búsqueda. Si se pide la red
+     * neuronal y no hay ninguna cargada, se sigue usando la de ventanas.
+     * @param evaluador EVALUADOR_VENTANAS o EVALUADOR_RED
+     */
+    public void setEvaluador(String evaluador) {
+        if (!evaluador.equals(this.evaluador)) {
+            this.evaluador = evaluador;
+            // El buscador y los lotes se vuelven a crear con el nuevo evaluador
+            buscador = null;
+            if (lotes != null) {
+                lotes.close();
+                lotes = null;
+            }
+        }
+    }
+
+    /**
+     * Obtiene la función de evaluación de la búsqueda
+     * @return Nombre del evaluador
+     */
+    public String getEvaluador() {
+        return evaluador;
+    }
+
     /**
      * Obtiene la columna donde la IA realizaría su movimiento sin aplicarlo
      * @param jugadorId ID del jugador (para verificar jugadas)
@@ -61,13 +401,228 @@ public class InteligenciaArtificial {
      * @return Columna seleccionada para el movimiento
      */
     public int obtenerColumnaMovimiento(int jugadorId, int maquinaId) {
+        return calcularJugada(tablero, jugadorId, maquinaId, TokenCancelacion.NINGUNO);
+    }
+
+    /**
+     * Calcula la jugada de la máquina sobre una copia del tablero, pensado para
+     * hacerlo fuera del hilo de la interfaz. Todos los motores consultan el
+     * token y, si se cancela (al reiniciar la partida, por ejemplo), la
+     * jugada termina en pocos nodos con un resultado que se debe descartar.
+     * El tablero y el token solo se usan en esta jugada: el tablero de la IA
+     * no se toca.
+     * @param copia Copia del tablero de la partida, que solo usa la IA
+     * @param jugadorId ID del jugador
+     * @param maquinaId ID de la máquina
+     * @param cancelacion Token de esta jugada
+     * @return Columna seleccionada, o -1 si la jugada se ha cancelado antes de empezar
+     */
+    public int obtenerColumnaMovimiento(Tablero copia, int jugadorId, int maquinaId, TokenCancelacion cancelacion) {
+        if (cancelacion.isCancelado()) {
+            return -1;
+        }
+        return calcularJugada(copia, jugadorId, maquinaId, cancelacion);
+    }
+
+    /**
+     * Calcula una jugada con el vigilante del límite duro armado. Al llegar al
+     * límite el vigilante cancela el token de la jugada, que consultan todas
+     * las fases (amenazas, base de datos, caché y búsqueda), y detiene el motor
+     * asignado para que devuelva lo mejor que tenga.
+     */
+    private int calcularJugada(Tablero tablero, int jugadorId, int maquinaId, TokenCancelacion cancelacion) {
+        // Tiempos de la JVM al empezar, para estimar la causa si se supera el límite
+        long recolector = limiteDuroMs > 0 ? FalloLatencia.tiempoRecolector() : 0;
+        long compilacion = limiteDuroMs > 0 ? FalloLatencia.tiempoCompilacion() : 0;
+
+        long inicio = System.nanoTime();
+        inicioJugada = inicio;
+        ultimasEstadisticas = null;
+
+        // Las paradas de jugadas anteriores se anulan antes de armar el vigilante,
+        // para que no se pierda una alarma que salte antes de empezar a buscar
+        reanudarBusqueda();
+
+        // El vigilante corta la jugada si llega al límite duro; cancelar el token
+        // de la jugada no cancela el de quien la ha pedido
+        TokenCancelacion jugada = cancelacion.derivar();
+        ScheduledFuture<?> alarma = null;
+        if (limiteDuroMs > 0) {
+            alarma = VIGILANTE.schedule(() -> {
+                jugada.cancelar();
+                detenerBusqueda();
+            }, Math.max(1, limiteDuroMs - margenLimite()), TimeUnit.MILLISECONDS);
+        }
+
+        int columna;
+        try {
+            columna = elegirColumna(tablero, jugadorId, maquinaId, cancelacion, jugada);
+        } finally {
+            if (alarma != null && !alarma.cancel(false)) {
+                // Si la alarma ya ha saltado se espera a que termine, para que su
+                // parada no caiga sobre la jugada siguiente
+                esperar(alarma);
+            }
+        }
+
+        // Las reglas de los niveles bajos no hacen búsqueda: solo se mide su tiempo
+        if (ultimasEstadisticas == null) {
+            ultimasEstadisticas = new EstadisticasBusqueda(MOTOR_HEURISTICO, 0, 0, 0, 0, 0, 0.0,
+                    System.nanoTime() - inicio, false);
+        }
+
+        if (limiteDuroMs > 0) {
+            long duracionMs = (System.nanoTime() - inicio) / 1_000_000L;
+            if (duracionMs > limiteDuroMs) {
+                registrarFalloLatencia(duracionMs, FalloLatencia.tiempoRecolector() - recolector,
+                        FalloLatencia.tiempoCompilacion() - compilacion);
+            }
+        }
+        return columna;
+    }
+
+    /**
+     * Espera a que termine una alarma del vigilante que ya ha empezado.
+     */
+    private static void esperar(ScheduledFuture<?> alarma) {
+        try {
+            alarma.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | CancellationException e) {
+            // La alarma no devuelve nada: basta con que haya terminado
+        }
+    }
+
+    /**
+     * Pide que la búsqueda en curso termine lo antes posible; el análisis
+     * devuelve entonces la última profundidad completa. La llama el vigilante
+     * al llegar al límite duro y se puede llamar desde cualquier hilo. Si la
+     * búsqueda todavía no ha empezado, termina nada más empezar: la petición
+     * dura hasta reanudarBusqueda(), que se llama al empezar cada jugada,
+     * análisis o lote.
+     */
+    public void detenerBusqueda() {
+        // Primero la marca, para que un buscador que se cree ahora la vea
+        detenida = true;
+        BuscadorAlfaBeta actual = buscador;
+        if (actual != null) {
+            actual.detener();
+        }
+        Motor motorActual = motor;
+        if (motorActual != null) {
+            motorActual.detener();
+        }
+    }
+
+    /**
+     * Anula una petición de detenerBusqueda() anterior. Se llama al preparar una
+     * jugada o un análisis, antes de que nadie pueda detenerlo.
+     */
+    public void reanudarBusqueda() {
+        detenida = false;
+        BuscadorAlfaBeta actual = buscador;
+        if (actual != null) {
+            actual.reanudar();
+        }
+        Motor motorActual = motor;
+        if (motorActual != null) {
+            motorActual.reanudar();
+        }
+    }
+
+    /**
+     * Tiempo que puede usar la búsqueda del nivel demencial en la jugada en curso,
+     * teniendo en cuenta el presupuesto y lo que queda hasta el límite duro.
+     * @return Milisegundos para la búsqueda (0 sin límite), o -1 si ya no queda tiempo
+     */
+    private long tiempoDisponible() {
+        long restante = tiempoHastaLimite();
+        if (restante <= 0) {
+            return restante < 0 ? -1 : presupuestoMs;
+        }
+        return presupuestoMs > 0 ? Math.min(presupuestoMs, restante) : restante;
+    }
+
+    /**
+     * Tiempo que queda hasta el límite duro en la jugada en curso, descontando el margen.
+     * @return Milisegundos, 0 si no hay límite duro o -1 si ya no queda tiempo
+     */
+    private long tiempoHastaLimite() {
+        if (limiteDuroMs <= 0) {
+            return 0;
+        }
+        long restante = limiteDuroMs - margenLimite() - (System.nanoTime() - inicioJugada) / 1_000_000L;
+        return restante > 0 ? restante : -1;
+    }
+
+    /**
+     * Tiempo reservado dentro del límite duro para cortar la búsqueda y responder.
+     */
+    private long margenLimite() {
+        return Math.min(MARGEN_LIMITE_MS, limiteDuroMs / 4);
+    }
+
+    /**
+     * Guarda y publica una jugada que ha superado el límite duro.
+     */
+    private void registrarFalloLatencia(long duracionMs, long recolectorMs, long compilacionMs) {
+        FalloLatencia fallo = new FalloLatencia(nivelDificultad, limiteDuroMs, duracionMs,
+                recolectorMs, compilacionMs);
+        fallo.publicar();
+        synchronized (fallosLatencia) {
+            if (fallosLatencia.size() == MAXIMO_FALLOS_REGISTRADOS) {
+                fallosLatencia.removeFirst();
+            }
+            fallosLatencia.addLast(fallo);
+            totalFallosLatencia++;
+        }
+    }
+
+    /**
+     * Elige la columna según el nivel de dificultad
+     * @param tablero Tablero de la jugada
+     * @param jugadorId ID del jugador
+     * @param maquinaId ID de la máquina
+     * @param cancelacion Token de quien pide la jugada
+     * @param jugada Token de la jugada, que se cancela también al llegar al límite duro
+     * @return Columna seleccionada
+     */
+    private int elegirColumna(Tablero tablero, int jugadorId, int maquinaId,
+                              TokenCancelacion cancelacion, TokenCancelacion jugada) {
         // Reiniciar la variable de control
         fichaInsertada = false;
 
+        // Con un motor asignado la jugada la decide él, sea cual sea el nivel.
+        // Un motor cancelado no devuelve nada, así que el límite duro lo corta
+        // con detener() y solo la cancelación de quien pide la jugada lo cancela
+        // Los motores trabajan con bitboards de 6x7; en un tablero reducido no se usan
+        Motor motorAsignado = motor;
+        boolean estandar = tablero.esEstandar();
+        if (motorAsignado != null && estandar) {
+            motorAsignado.setCancelacion(cancelacion);
+            PosicionBitboard posicion = PosicionBitboard.desdeTablero(tablero, maquinaId);
+            int columna = motorAsignado.elegirColumna(posicion);
+            ultimasEstadisticas = motorAsignado.getEstadisticas();
+            return columna >= 0 && columna < tablero.getColumnas() && !tablero.columnaLlena(columna)
+                    ? columna : movimientoRespaldo(tablero, posicion, jugadorId, maquinaId);
+        }
+
         int columnaSeleccionada = -1;
 
+        // En un tablero reducido con base de datos la jugada perfecta sale de ella
+        if (baseDatos != null) {
+            long inicio = System.nanoTime();
+            columnaSeleccionada = baseDatos.mejorColumna(tablero, maquinaId, jugada);
+            if (columnaSeleccionada >= 0) {
+                ultimasEstadisticas = new EstadisticasBusqueda(BaseDatosFinales.NOMBRE, 1, 0, 1, 1, 0, 0.0,
+                        System.nanoTime() - inicio, false);
+                return columnaSeleccionada;
+            }
+        }
+
         // Buscar primero movimientos para ganar en una jugada
-        for (int columna = 0; columna < Tablero.COLUMNAS; columna++) {
+        for (int columna = 0; columna < tablero.getColumnas(); columna++) {
             if (!tablero.columnaLlena(columna)) {
                 int fila = tablero.obtenerFilaDisponible(columna);
 
@@ -86,15 +641,21 @@ public class InteligenciaArtificial {
             }
         }
 
+        // Comprobación rápida de victorias forzadas encadenando amenazas
+        int columnaForzada = estandar ? buscarVictoriaForzada(tablero, maquinaId, jugada) : -1;
+        if (columnaForzada >= 0) {
+            return columnaForzada;
+        }
+
         // Según el nivel, buscar la mejor jugada
         switch (nivelDificultad) {
             case NIVEL_FACIL:
-                columnaSeleccionada = movimientoFacil();
+                columnaSeleccionada = movimientoFacil(tablero);
                 break;
 
             case NIVEL_MEDIO:
                 // Buscar jugadas para bloquear al oponente
-                for (int columna = 0; columna < Tablero.COLUMNAS; columna++) {
+                for (int columna = 0; columna < tablero.getColumnas(); columna++) {
                     if (!tablero.columnaLlena(columna)) {
                         int fila = tablero.obtenerFilaDisponible(columna);
 
@@ -114,14 +675,14 @@ public class InteligenciaArtificial {
                 }
 
                 // Si no hay nada que bloquear, hacer un movimiento aleatorio
-                columnaSeleccionada = movimientoFacil();
+                columnaSeleccionada = movimientoFacil(tablero);
                 break;
 
             case NIVEL_DIFICIL:
                 // Usar las estrategias del nivel medio más algunos movimientos avanzados
 
                 // Intentar bloquear al oponente (igual que en nivel medio)
-                for (int columna = 0; columna < Tablero.COLUMNAS; columna++) {
+                for (int columna = 0; columna < tablero.getColumnas(); columna++) {
                     if (!tablero.columnaLlena(columna)) {
                         int fila = tablero.obtenerFilaDisponible(columna);
 
@@ -143,51 +704,379 @@ public class InteligenciaArtificial {
                 // Si no hay que bloquear, intentar crear una jugada de victoria en 2 movimientos
 
                 // Preferir la columna central (estratégicamente mejor)
-                if (!tablero.columnaLlena(Tablero.COLUMNAS / 2)) {
-                    return Tablero.COLUMNAS / 2;
+                if (!tablero.columnaLlena(tablero.getColumnas() / 2)) {
+                    return tablero.getColumnas() / 2;
                 }
 
                 // Si no hay nada específico, hacer un movimiento aleatorio
-                columnaSeleccionada = movimientoFacil();
+                columnaSeleccionada = movimientoFacil(tablero);
                 break;
 
             case NIVEL_DEMENCIAL:
-                // Nivel más avanzado con análisis de tablero
-
-                // Priorizar victoria inmediata y bloquear derrotas
-                // (Ya verificado anteriormente)
-
-                // Intentar jugadas estratégicas
-
-                // Preferir columna central
-                if (!tablero.columnaLlena(Tablero.COLUMNAS / 2)) {
-                    return Tablero.COLUMNAS / 2;
+                // Nivel más avanzado: búsqueda alfa-beta con tiempo limitado.
+                // Si el vigilante la corta se queda con la última profundidad completa.
+                // Si solo una jugada no pierde no hace falta buscar.
+                // Fuera del tablero estándar solo quedan las reglas avanzadas
+                if (!estandar) {
+                    columnaSeleccionada = movimientoAvanzado(tablero, jugadorId, maquinaId);
+                    break;
+                }
+                PosicionBitboard posicion = PosicionBitboard.desdeTablero(tablero, maquinaId);
+                long noPerdedoras = posicion.movimientosNoPerdedores();
+                if (!GestorTiempo.hayQueBuscar(Long.bitCount(noPerdedoras))) {
+                    columnaSeleccionada = PosicionBitboard.columnaDe(noPerdedoras);
+                    break;
                 }
 
-                // Intentar columnas adyacentes al centro
-                if (!tablero.columnaLlena((Tablero.COLUMNAS / 2) - 1)) {
-                    return (Tablero.COLUMNAS / 2) - 1;
+                // Antes se mira si la caché en disco ya conoce la jugada
+                int columnaCache = consultarCache(tablero, maquinaId, jugada);
+                if (columnaCache >= 0) {
+                    columnaSeleccionada = columnaCache;
+                    break;
                 }
-                if (!tablero.columnaLlena((Tablero.COLUMNAS / 2) + 1)) {
-                    return (Tablero.COLUMNAS / 2) + 1;
+                long tiempo = tiempoDisponible();
+                ResultadoAnalisis analisis;
+                if (tiempo < 0) {
+                    analisis = null;
+                } else if (tiempoAdaptativo && presupuestoMs > 0) {
+                    analisis = analizar(posicion, new GestorTiempo(presupuestoMs, Math.max(0, tiempoHastaLimite()),
+                            posicion.getMovimientos(), Long.bitCount(noPerdedoras)), jugada);
+                } else {
+                    analisis = analizar(posicion, profundidadMaxima, tiempo, null, jugada);
+                }
+                if (analisis != null) {
+                    columnaSeleccionada = analisis.getMejorColumna();
+                } else {
+                    // Si no hay análisis, evitar columnas que darían ventaja al oponente
+                    columnaSeleccionada = movimientoAvanzado(tablero, jugadorId, maquinaId);
                 }
-
-                // Si no hay nada específico, hacer un movimiento aleatorio pero evitando columnas que darían ventaja al oponente
-                columnaSeleccionada = movimientoAvanzado(jugadorId, maquinaId);
                 break;
 
             default:
-                columnaSeleccionada = movimientoFacil();
+                columnaSeleccionada = movimientoFacil(tablero);
         }
 
         // Si no se ha seleccionado ninguna columna válida, elegir una aleatoria
-        if (columnaSeleccionada < 0 || columnaSeleccionada >= Tablero.COLUMNAS || tablero.columnaLlena(columnaSeleccionada)) {
-            return movimientoFacil();
+        if (columnaSeleccionada < 0 || columnaSeleccionada >= tablero.getColumnas() || tablero.columnaLlena(columnaSeleccionada)) {
+            return movimientoFacil(tablero);
         }
 
         return columnaSeleccionada;
     }
 
+    /**
+     * Jugada para cuando un motor asignado se detiene antes de elegir ninguna:
+     * gana si puede, si solo una columna no pierde enseguida juega esa y, si
+     * no, aplica las reglas de movimientoAvanzado.
+     * @param tablero Tablero de la jugada
+     * @param posicion La misma posición, con la máquina al turno
+     * @param jugadorId ID del jugador
+     * @param maquinaId ID de la máquina
+     * @return Columna seleccionada
+     */
+    private int movimientoRespaldo(Tablero tablero, PosicionBitboard posicion, int jugadorId, int maquinaId) {
+        for (int columna = 0; columna < tablero.getColumnas(); columna++) {
+            if (posicion.esMovimientoGanador(columna)) {
+                return columna;
+            }
+        }
+        long noPerdedoras = posicion.movimientosNoPerdedores();
+        if (Long.bitCount(noPerdedoras) == 1) {
+            return PosicionBitboard.columnaDe(noPerdedoras);
+        }
+        return movimientoAvanzado(tablero, jugadorId, maquinaId);
+    }
+
+    /**
+     * Busca una secuencia de amenazas que gane por la fuerza, explorando más
+     * jugadas cuanto mayor es el nivel. Es mucho más barata que una búsqueda
+     * completa, así que se hace antes de gastar el presupuesto de tiempo.
+     * @param tablero Tablero de la jugada
+     * @param maquinaId ID de la máquina
+     * @param cancelacion Token de la jugada
+     * @return Columna que inicia la victoria forzada, o -1 si no se encuentra
+     */
+    private int buscarVictoriaForzada(Tablero tablero, int maquinaId, TokenCancelacion cancelacion) {
+        int profundidad = nivelDificultad >= 0 && nivelDificultad < PROFUNDIDAD_AMENAZAS.length
+                ? PROFUNDIDAD_AMENAZAS[nivelDificultad] : 0;
+        if (profundidad == 0) {
+            return -1;
+        }
+
+        if (amenazas == null) {
+            amenazas = new BusquedaAmenazas();
+        }
+        amenazas.setCancelacion(cancelacion);
+        int columna = amenazas.buscarVictoria(PosicionBitboard.desdeTablero(tablero, maquinaId), profundidad);
+        if (columna >= 0) {
+            ultimasEstadisticas = amenazas.getEstadisticas();
+        }
+        return columna;
+    }
+
+    /**
+     * Busca la jugada en la caché persistente de posiciones resueltas en partidas
+     * anteriores. Se usa la mejor columna guardada para la posición actual y, si
+     * no está, los valores de las posiciones a las que lleva cada columna: se
+     * juega una victoria demostrada, o la mejor columna si se conocen todas.
+     * @param tablero Tablero de la jugada
+     * @param maquinaId ID de la máquina
+     * @param cancelacion Token de la jugada
+     * @return Columna de la caché, o -1 si no hay caché o no basta con lo guardado
+     */
+    private int consultarCache(Tablero tablero, int maquinaId, TokenCancelacion cancelacion) {
+        CachePersistente cache = CachePersistente.getConfigurada();
+        if (cache == null || cancelacion.isCancelado()) {
+            return -1;
+        }
+        long inicio = System.nanoTime();
+        PosicionBitboard p = PosicionBitboard.desdeTablero(tablero, maquinaId);
+        int sondeos = 1;
+        int aciertos = 0;
+        int columnaElegida = -1;
+
+        long resultado = cache.consultar(p.clave());
+        int columnaGuardada = CachePersistente.columna(resultado);
+        if (resultado != CachePersistente.NO_ENCONTRADA && columnaGuardada >= 0 && p.puedeJugar(columnaGuardada)) {
+            aciertos++;
+            columnaElegida = columnaGuardada;
+        } else {
+            int mejorValor = Integer.MIN_VALUE;
+            boolean faltanColumnas = false;
+            for (int columna = 0; columna < tablero.getColumnas() && !ResultadoAnalisis.esVictoria(mejorValor); columna++) {
+                if (!p.puedeJugar(columna)) {
+                    continue;
+                }
+                // Cada consulta puede leer del disco; si se acaba el tiempo se deja de mirar
+                if (cancelacion.isCancelado()) {
+                    faltanColumnas = true;
+                    break;
+                }
+                p.jugar(columna);
+                long hijo = cache.consultar(p.clave());
+                p.deshacer(columna);
+                sondeos++;
+                if (hijo == CachePersistente.NO_ENCONTRADA) {
+                    faltanColumnas = true;
+                    continue;
+                }
+                aciertos++;
+                // El valor del hijo es para el rival
+                int valor = -CachePersistente.valor(hijo);
+                if (valor > mejorValor) {
+                    mejorValor = valor;
+                    columnaElegida = columna;
+                }
+            }
+            if (faltanColumnas && !ResultadoAnalisis.esVictoria(mejorValor)) {
+                columnaElegida = -1;
+            }
+        }
+
+        if (columnaElegida >= 0) {
+            ultimasEstadisticas = new EstadisticasBusqueda(CachePersistente.NOMBRE, sondeos, 0, sondeos, aciertos,
+                    0, 0.0, System.nanoTime() - inicio, false);
+        }
+        return columnaElegida;
+    }
+
+    /**
+     * Copia a la caché persistente las posiciones que la búsqueda ha resuelto
+     * durante la partida. Se llama al terminar cada partida.
+     * @return Número de posiciones guardadas, o 0 si no hay caché configurada
+     */
+    public int guardarEnCache() {
+        CachePersistente cache = CachePersistente.getConfigurada();
+        if (cache == null || buscador == null) {
+            return 0;
+        }
+        return cache.guardarDesde(buscador.getTabla());
+    }
+
+    /**
+     * Calcula el valor teórico exacto de una posición con la máquina al turno.
+     * Usa el solucionador de ventana nula, que conserva su tabla de transposición
+     * entre llamadas. El tablero no debe tener ya un ganador.
+     * @param copia Tablero a analizar, que no se modifica (puede ser una copia del de la partida)
+     * @param maquinaId ID de la máquina
+     * @return 0 si son tablas, positivo si gana la máquina (mayor cuanto antes gane)
+     *         y negativo si pierde
+     */
+    public int resolverPosicion(Tablero copia, int maquinaId) {
+        int valor = getSolucionador(TokenCancelacion.NINGUNO).resolver(PosicionBitboard.desdeTablero(copia, maquinaId));
+        ultimasEstadisticas = solucionador.getEstadisticas();
+        return valor;
+    }
+
+    /**
+     * Obtiene la columna que jugaría la máquina jugando de forma perfecta, sin aplicarla.
+     * @param copia Tablero a analizar, que no se modifica (puede ser una copia del de la partida)
+     * @param maquinaId ID de la máquina
+     * @return Columna con el mejor valor teórico, o -1 si el tablero está lleno
+     */
+    public int obtenerColumnaPerfecta(Tablero copia, int maquinaId) {
+        int columna = getSolucionador(TokenCancelacion.NINGUNO).mejorColumna(PosicionBitboard.desdeTablero(copia, maquinaId));
+        ultimasEstadisticas = solucionador.getEstadisticas();
+        return columna;
+    }
+
+    /**
+     * Demuestra si la máquina gana, empata o pierde una posición con la
+     * búsqueda por números de prueba, mucho más rápida que el solucionador en
+     * posiciones tácticas. Puede abandonar si supera su límite de nodos.
+     * El tablero no debe tener ya un ganador.
+     * @param copia Tablero a analizar, que no se modifica (puede ser una copia del de la partida)
+     * @param maquinaId ID de la máquina
+     * @param limiteNodos Nodos máximos de cada demostración
+     * @return BusquedaNumerosPrueba.VICTORIA, TABLAS, DERROTA o DESCONOCIDO para la máquina
+     */
+    public int demostrarPosicion(Tablero copia, int maquinaId, long limiteNodos) {
+        BusquedaNumerosPrueba busqueda = getNumerosPrueba(TokenCancelacion.NINGUNO);
+        busqueda.setLimiteNodos(limiteNodos);
+        int resultado = busqueda.resolver(PosicionBitboard.desdeTablero(copia, maquinaId));
+        ultimasEstadisticas = busqueda.getEstadisticas();
+        return resultado;
+    }
+
+    /**
+     * Busca una columna con la que la máquina gana por la fuerza, demostrándolo
+     * con la búsqueda por números de prueba.
+     * @param copia Tablero a analizar, que no se modifica (puede ser una copia del de la partida)
+     * @param maquinaId ID de la máquina
+     * @param limiteNodos Nodos máximos de la demostración
+     * @return Columna ganadora, o -1 si no se demuestra ninguna victoria
+     */
+    public int obtenerColumnaDemostrada(Tablero copia, int maquinaId, long limiteNodos) {
+        BusquedaNumerosPrueba busqueda = getNumerosPrueba(TokenCancelacion.NINGUNO);
+        busqueda.setLimiteNodos(limiteNodos);
+        int columna = busqueda.buscarVictoria(PosicionBitboard.desdeTablero(copia, maquinaId));
+        ultimasEstadisticas = busqueda.getEstadisticas();
+        return columna;
+    }
+
+    /**
+     * Analiza todas las columnas de una posición con la máquina al turno en una
+     * única búsqueda multi-PV.
+     * Cada vez que se completa una profundidad se entrega al oyente la puntuación,
+     * la profundidad y la variante principal de cada columna jugable.
+     * @param copia Tablero a analizar, que no se modifica (puede ser una copia del de la partida)
+     * @param maquinaId ID de la máquina
+     * @param profundidadMaxima Profundidad máxima en medias jugadas
+     * @param tiempoMaximoMs Tiempo máximo en milisegundos (0 para no limitarlo)
+     * @param oyente Receptor de los resultados parciales (puede ser null)
+     * @return Resultado de la última profundidad completada, o null si el tablero está lleno
+     */
+    public ResultadoAnalisis analizar(Tablero copia, int maquinaId, int profundidadMaxima,
+                                      long tiempoMaximoMs, Consumer<ResultadoAnalisis> oyente) {
+        // Una parada de la jugada anterior (el vigilante, por ejemplo) no debe cortar este análisis
+        reanudarBusqueda();
+        return analizar(PosicionBitboard.desdeTablero(copia, maquinaId), profundidadMaxima, tiempoMaximoMs,
+                oyente, TokenCancelacion.NINGUNO);
+    }
+
+    /**
+     * Analiza una posición con profundidad y tiempo fijos y el token de la jugada.
+     */
+    private ResultadoAnalisis analizar(PosicionBitboard posicion, int profundidadMaxima, long tiempoMaximoMs,
+                                       Consumer<ResultadoAnalisis> oyente, TokenCancelacion cancelacion) {
+        BuscadorAlfaBeta actual = getBuscador(cancelacion);
+        ResultadoAnalisis resultado = actual.analizar(posicion, profundidadMaxima, tiempoMaximoMs, oyente);
+        ultimasEstadisticas = actual.getEstadisticas();
+        return resultado;
+    }
+
+    /**
+     * Analiza la posición de la máquina repartiendo el tiempo con un gestor adaptativo.
+     */
+    private ResultadoAnalisis analizar(PosicionBitboard posicion, GestorTiempo gestor, TokenCancelacion cancelacion) {
+        BuscadorAlfaBeta actual = getBuscador(cancelacion);
+        ResultadoAnalisis resultado = actual.analizar(posicion, profundidadMaxima, gestor, null);
+        ultimasEstadisticas = actual.getEstadisticas();
+        return resultado;
+    }
+
+    /**
+     * Valora un lote de posiciones en paralelo con todos los núcleos, compartiendo
+     * la tabla de transposición de la IA. No debe llamarse mientras la IA busca.
+     * @param posiciones Posiciones empaquetadas con EvaluadorLotes.empaquetar()
+     * @param puntuaciones Destino de las puntuaciones, para el jugador con turno de cada posición
+     * @param profundidad Profundidad de búsqueda (0 para la evaluación estática)
+     */
+    public void evaluarLote(long[] posiciones, int[] puntuaciones, int profundidad)
+            throws InterruptedException, ExecutionException {
+        reanudarBusqueda();
+        if (lotes == null) {
+            lotes = new EvaluadorLotes(getBuscador(TokenCancelacion.NINGUNO).getTabla(), this::crearEvaluador);
+        }
+        lotes.setCancelacion(TokenCancelacion.NINGUNO);
+        lotes.valorar(posiciones, puntuaciones, profundidad);
+    }
+
+    /**
+     * Obtiene las estadísticas de la última búsqueda de la IA (nodos, nodos por segundo,
+     * profundidad, uso de la tabla de transposición, cortes y tiempo). Cada búsqueda
+     * también se publica como evento de Java Flight Recorder.
+     * @return Estadísticas de la última búsqueda, o null si todavía no ha buscado
+     */
+    public EstadisticasBusqueda getUltimasEstadisticas() {
+        return ultimasEstadisticas;
+    }
+
+    /**
+     * Obtiene la búsqueda por números de prueba, creándola la primera vez
+     * @param cancelacion Token de la llamada
+     * @return Búsqueda por números de prueba de la IA
+     */
+    private BusquedaNumerosPrueba getNumerosPrueba(TokenCancelacion cancelacion) {
+        if (numerosPrueba == null) {
+            numerosPrueba = new BusquedaNumerosPrueba();
+        }
+        numerosPrueba.setCancelacion(cancelacion);
+        return numerosPrueba;
+    }
+
+    /**
+     * Obtiene el buscador alfa-beta, creándolo la primera vez
+     * @param cancelacion Token de la llamada
+     * @return Buscador de la IA
+     */
+    private BuscadorAlfaBeta getBuscador(TokenCancelacion cancelacion) {
+        if (buscador == null) {
+            buscador = new BuscadorAlfaBeta(new TablaTransposicion(), crearEvaluador());
+            // Una parada pedida antes de crearlo también le afecta
+            if (detenida) {
+                buscador.detener();
+            }
+        }
+        buscador.setCancelacion(cancelacion);
+        return buscador;
+    }
+
+    /**
+     * Crea el evaluador configurado, o el de ventanas si no hay red disponible.
+     * En ambos casos se le suma el análisis de paridad de las amenazas.
+     * @return Evaluador para un buscador
+     */
+    private Evaluador crearEvaluador() {
+        if (EVALUADOR_RED.equals(evaluador) && EvaluadorNeuronal.estaDisponible()) {
+            return new EvaluadorParidad(new EvaluadorNeuronal());
+        }
+        return new EvaluadorParidad(new EvaluadorVentanas());
+    }
+
+    /**
+     * Obtiene el solucionador exacto, creándolo la primera vez
+     * @param cancelacion Token de la llamada
+     * @return Solucionador de la IA
+     */
+    private Solucionador getSolucionador(TokenCancelacion cancelacion) {
+        if (solucionador == null) {
+            solucionador = new Solucionador();
+        }
+        solucionador.setCancelacion(cancelacion);
+        return solucionador;
+    }
+
     /**
      * Realiza un movimiento de la IA según el nivel de dificultad
      * @param jugadorId ID del jugador (para verificar jugadas)
@@ -201,7 +1090,7 @@ public class InteligenciaArtificial {
         // Realizar movimiento según el nivel de dificultad
         switch (nivelDificultad) {
             case NIVEL_FACIL:
-                return movimientoFacil();
+                return movimientoFacil(tablero);
 
             case NIVEL_MEDIO:
                 if (!fichaInsertada) {
@@ -214,7 +1103,7 @@ public class InteligenciaArtificial {
                     comprobarDiagonales(jugadorId, maquinaId);
                 }
                 if (!fichaInsertada) {
-                    return movimientoFacil();
+                    return movimientoFacil(tablero);
                 }
                 break;
 
@@ -232,7 +1121,7 @@ public class InteligenciaArtificial {
                     comprobarDiagonales(jugadorId, maquinaId);
                 }
                 if (!fichaInsertada) {
-                    return movimientoFacil();
+                    return movimientoFacil(tablero);
                 }
                 break;
 
@@ -256,7 +1145,7 @@ public class InteligenciaArtificial {
                     comprobarDiagonales(jugadorId, maquinaId);
                 }
                 if (!fichaInsertada) {
-                    return movimientoFacil();
+                    return movimientoFacil(tablero);
                 }
                 break;
         }
@@ -267,13 +1156,21 @@ public class InteligenciaArtificial {
     }
 
     /**
-     * Realiza un movimiento aleatorio en cualquier columna no llena
-     * @return Columna donde se colocó la ficha
+     * Realiza un movimiento aleatorio en cualquier columna no llena.
+     * Se sortea entre todas las columnas y se repite si sale una llena: las
+     * partidas grabadas con RegistroPartida dependen de esta secuencia de
+     * números, así que no se debe cambiar la forma de sortear.
+     * @param tablero Tablero de la jugada
+     * @return Columna donde se colocó la ficha, o -1 si el tablero está lleno
      */
-    private int movimientoFacil() {
+    private int movimientoFacil(Tablero tablero) {
+        if (tablero.tableroLleno()) {
+            return -1;
+        }
+
         int columna;
         do {
-            columna = random.nextInt(Tablero.COLUMNAS);
+            columna = random.nextInt(tablero.getColumnas());
         } while (tablero.columnaLlena(columna));
 
         return columna;
@@ -281,14 +1178,15 @@ public class InteligenciaArtificial {
 
     /**
      * Realiza un movimiento más avanzado, evitando columnas que darían ventaja al oponente
+     * @param tablero Tablero de la jugada
      * @return Columna seleccionada
      */
-    private int movimientoAvanzado(int jugadorId, int maquinaId) {
+    private int movimientoAvanzado(Tablero tablero, int jugadorId, int maquinaId) {
         // Crear una lista con las puntuaciones de cada columna
-        int[] puntuaciones = new int[Tablero.COLUMNAS];
+        int[] puntuaciones = new int[tablero.getColumnas()];
 
         // Evaluar cada columna
-        for (int columna = 0; columna < Tablero.COLUMNAS; columna++) {
+        for (int columna = 0; columna < tablero.getColumnas(); columna++) {
             if (tablero.columnaLlena(columna)) {
                 puntuaciones[columna] = -1000; // Columna llena, evitar
                 continue;
@@ -298,15 +1196,15 @@ public class InteligenciaArtificial {
             puntuaciones[columna] = 0;
 
             // Columnas centrales son mejores
-            int distanciaCentro = Math.abs(columna - Tablero.COLUMNAS/2);
-            puntuaciones[columna] += (Tablero.COLUMNAS/2 - distanciaCentro) * 3;
+            int distanciaCentro = Math.abs(columna - tablero.getColumnas()/2);
+            puntuaciones[columna] += (tablero.getColumnas()/2 - distanciaCentro) * 3;
 
             // Verificar si esta jugada crea una amenaza para ganar
             int fila = tablero.obtenerFilaDisponible(columna);
             tablero.colocarFicha(fila, columna, maquinaId);
 
             // Buscar amenazas de ganar en el próximo turno
-            for (int col = 0; col < Tablero.COLUMNAS; col++) {
+            for (int col = 0; col < tablero.getColumnas(); col++) {
                 if (!tablero.columnaLlena(col)) {
                     int filaTemp = tablero.obtenerFilaDisponible(col);
                     tablero.colocarFicha(filaTemp, col, maquinaId);
@@ -341,7 +1239,7 @@ public class InteligenciaArtificial {
 
         // Encontrar la columna con mayor puntuación
         int mejorColumna = 0;
-        for (int col = 0; col < Tablero.COLUMNAS; col++) {
+        for (int col = 0; col < tablero.getColumnas(); col++) {
             if (puntuaciones[col] > puntuaciones[mejorColumna]) {
                 mejorColumna = col;
             }
@@ -356,7 +1254,7 @@ public class InteligenciaArtificial {
      */
     private void priorizarVictoriaMaquina(int maquinaId) {
         // Recorremos las celdas para ver las posibles jugadas
-        for (int columna = 0; columna < Tablero.COLUMNAS; columna++) {
+        for (int columna = 0; columna < tablero.getColumnas(); columna++) {
             // Verificar si la columna no está llena
             if (!tablero.columnaLlena(columna)) {
                 // Encontrar la fila disponible
@@ -384,17 +1282,17 @@ public class InteligenciaArtificial {
      */
     private void preveerJugadaFila(int jugadorId, int maquinaId) {
         // Recorrer las filas de abajo hacia arriba
-        for (int fila = Tablero.FILAS - 1; fila >= 0; fila--) {
-            for (int col = 0; col < Tablero.COLUMNAS - 1; col++) {
+        for (int fila = tablero.getFilas() - 1; fila >= 0; fila--) {
+            for (int col = 0; col < tablero.getColumnas() - 1; col++) {
                 // Verificar si hay 2 fichas consecutivas del jugador en la fila
-                if (col + 1 < Tablero.COLUMNAS &&
+                if (col + 1 < tablero.getColumnas() &&
                         tablero.obtenerCasilla(fila, col) == jugadorId &&
                         tablero.obtenerCasilla(fila, col + 1) == jugadorId) {
 
                     // Bloquear hacia la derecha si la celda está vacía y no está "en el aire"
-                    if (col + 2 < Tablero.COLUMNAS &&
+                    if (col + 2 < tablero.getColumnas() &&
                             tablero.obtenerCasilla(fila, col + 2) == Tablero.VACIO &&
-                            (fila == Tablero.FILAS - 1 || tablero.obtenerCasilla(fila + 1, col + 2) != Tablero.VACIO)) {
+                            (fila == tablero.getFilas() - 1 || tablero.obtenerCasilla(fila + 1, col + 2) != Tablero.VACIO)) {
 
                         tablero.colocarFicha(fila, col + 2, maquinaId);
                         fichaInsertada = true;
@@ -404,7 +1302,7 @@ public class InteligenciaArtificial {
                     // Bloquear hacia la izquierda si la celda está vacía y no está "en el aire"
                     if (col - 1 >= 0 &&
                             tablero.obtenerCasilla(fila, col - 1) == Tablero.VACIO &&
-                            (fila == Tablero.FILAS - 1 || tablero.obtenerCasilla(fila + 1, col - 1) != Tablero.VACIO)) {
+                            (fila == tablero.getFilas() - 1 || tablero.obtenerCasilla(fila + 1, col - 1) != Tablero.VACIO)) {
 
                         tablero.colocarFicha(fila, col - 1, maquinaId);
                         fichaInsertada = true;
@@ -422,9 +1320,9 @@ public class InteligenciaArtificial {
      */
     private void preveerJugadaColumna(int jugadorId, int maquinaId) {
         // Recorrer las columnas
-        for (int col = 0; col < Tablero.COLUMNAS; col++) {
+        for (int col = 0; col < tablero.getColumnas(); col++) {
             // Revisar de abajo hacia arriba
-            for (int fila = Tablero.FILAS - 1; fila >= 1; fila--) {
+            for (int fila = tablero.getFilas() - 1; fila >= 1; fila--) {
 
                 // Verificar si hay 2 fichas consecutivas del jugador en la columna
                 if (fila - 1 >= 0 &&
@@ -449,8 +1347,8 @@ public class InteligenciaArtificial {
      */
     private void comprobarFilas(int jugadorId, int maquinaId) {
         // Recorrer las filas de abajo hacia arriba
-        for (int fila = Tablero.FILAS - 1; fila >= 0; fila--) {
-            for (int col = 0; col <= Tablero.COLUMNAS - 3; col++) {
+        for (int fila = tablero.getFilas() - 1; fila >= 0; fila--) {
+            for (int col = 0; col <= tablero.getColumnas() - 3; col++) {
 
                 // Verificar si hay 3 fichas consecutivas del jugador en la fila
                 if (tablero.obtenerCasilla(fila, col) == jugadorId &&
@@ -458,9 +1356,9 @@ public class InteligenciaArtificial {
                         tablero.obtenerCasilla(fila, col + 2) == jugadorId) {
 
                     // Bloquear hacia la derecha si la celda está vacía y no está "en el aire"
-                    if (col + 3 < Tablero.COLUMNAS &&
+                    if (col + 3 < tablero.getColumnas() &&
                             tablero.obtenerCasilla(fila, col + 3) == Tablero.VACIO &&
-                            (fila == Tablero.FILAS - 1 || tablero.obtenerCasilla(fila + 1, col + 3) != Tablero.VACIO)) {
+                            (fila == tablero.getFilas() - 1 || tablero.obtenerCasilla(fila + 1, col + 3) != Tablero.VACIO)) {
 
                         tablero.colocarFicha(fila, col + 3, maquinaId);
                         fichaInsertada = true;
@@ -470,7 +1368,7 @@ public class InteligenciaArtificial {
                     // Bloquear hacia la izquierda si la celda está vacía y no está "en el aire"
                     if (col - 1 >= 0 &&
                             tablero.obtenerCasilla(fila, col - 1) == Tablero.VACIO &&
-                            (fila == Tablero.FILAS - 1 || tablero.obtenerCasilla(fila + 1, col - 1) != Tablero.VACIO)) {
+                            (fila == tablero.getFilas() - 1 || tablero.obtenerCasilla(fila + 1, col - 1) != Tablero.VACIO)) {
 
                         tablero.colocarFicha(fila, col - 1, maquinaId);
                         fichaInsertada = true;
@@ -488,8 +1386,8 @@ public class InteligenciaArtificial {
      */
     private void comprobarColumnas(int jugadorId, int maquinaId) {
         // Recorrer las columnas
-        for (int col = 0; col < Tablero.COLUMNAS; col++) {
-            for (int fila = Tablero.FILAS - 1; fila >= 2; fila--) {
+        for (int col = 0; col < tablero.getColumnas(); col++) {
+            for (int fila = tablero.getFilas() - 1; fila >= 2; fila--) {
 
                 // Verificar si hay 3 fichas consecutivas del jugador en la columna
                 if (tablero.obtenerCasilla(fila, col) == jugadorId &&
@@ -514,8 +1412,8 @@ public class InteligenciaArtificial {
      */
     private void comprobarDiagonales(int jugadorId, int maquinaId) {
         // Diagonales de abajo-izquierda a arriba-derecha
-        for (int fila = Tablero.FILAS - 1; fila >= 2; fila--) {
-            for (int col = 0; col <= Tablero.COLUMNAS - 3; col++) {
+        for (int fila = tablero.getFilas() - 1; fila >= 2; fila--) {
+            for (int col = 0; col <= tablero.getColumnas() - 3; col++) {
 
                 // Verificar diagonal ascendente
                 if (tablero.obtenerCasilla(fila, col) == jugadorId &&
@@ -523,7 +1421,7 @@ public class InteligenciaArtificial {
                         tablero.obtenerCasilla(fila - 2, col + 2) == jugadorId) {
 
                     // Bloquear hacia arriba-derecha
-                    if (fila - 3 >= 0 && col + 3 < Tablero.COLUMNAS &&
+                    if (fila - 3 >= 0 && col + 3 < tablero.getColumnas() &&
                             tablero.obtenerCasilla(fila - 3, col + 3) == Tablero.VACIO) {
 
                         tablero.colocarFicha(fila - 3, col + 3, maquinaId);
@@ -532,9 +1430,9 @@ public class InteligenciaArtificial {
                     }
 
                     // Bloquear hacia abajo-izquierda
-                    if (fila + 1 < Tablero.FILAS && col - 1 >= 0 &&
+                    if (fila + 1 < tablero.getFilas() && col - 1 >= 0 &&
                             tablero.obtenerCasilla(fila + 1, col - 1) == Tablero.VACIO &&
-                            (fila + 1 == Tablero.FILAS - 1 || tablero.obtenerCasilla(fila + 2, col - 1) != Tablero.VACIO)) {
+                            (fila + 1 == tablero.getFilas() - 1 || tablero.obtenerCasilla(fila + 2, col - 1) != Tablero.VACIO)) {
 
                         tablero.colocarFicha(fila + 1, col - 1, maquinaId);
                         fichaInsertada = true;
@@ -545,8 +1443,8 @@ public class InteligenciaArtificial {
         }
 
         // Diagonales de arriba-izquierda a abajo-derecha
-        for (int fila = 0; fila <= Tablero.FILAS - 3; fila++) {
-            for (int col = 0; col <= Tablero.COLUMNAS - 3; col++) {
+        for (int fila = 0; fila <= tablero.getFilas() - 3; fila++) {
+            for (int col = 0; col <= tablero.getColumnas() - 3; col++) {
 
                 // Verificar diagonal descendente
                 if (tablero.obtenerCasilla(fila, col) == jugadorId &&
@@ -554,9 +1452,9 @@ public class InteligenciaArtificial {
                         tablero.obtenerCasilla(fila + 2, col + 2) == jugadorId) {
 
                     // Bloquear hacia abajo-derecha
-                    if (fila + 3 < Tablero.FILAS && col + 3 < Tablero.COLUMNAS &&
+                    if (fila + 3 < tablero.getFilas() && col + 3 < tablero.getColumnas() &&
                             tablero.obtenerCasilla(fila + 3, col + 3) == Tablero.VACIO &&
-                            (fila + 3 == Tablero.FILAS - 1 || tablero.obtenerCasilla(fila + 4, col + 3) != Tablero.VACIO)) {
+                            (fila + 3 == tablero.getFilas() - 1 || tablero.obtenerCasilla(fila + 4, col + 3) != Tablero.VACIO)) {
 
                         tablero.colocarFicha(fila + 3, col + 3, maquinaId);
                         fichaInsertada = true;
@@ -566,7 +1464,7 @@ public class InteligenciaArtificial {
                     // Bloquear hacia arriba-izquierda
                     if (fila - 1 >= 0 && col - 1 >= 0 &&
                             tablero.obtenerCasilla(fila - 1, col - 1) == Tablero.VACIO &&
-                            (fila == Tablero.FILAS - 1 || tablero.obtenerCasilla(fila, col - 1) != Tablero.VACIO)) {
+                            (fila == tablero.getFilas() - 1 || tablero.obtenerCasilla(fila, col - 1) != Tablero.VACIO)) {
 
                         tablero.colocarFicha(fila - 1, col - 1, maquinaId);
                         fichaInsertada = true;
@@ -0,0 +1,154 @@
+package com.alexzafra.conecta4.controller;
+
+import com.alexzafra.conecta4.modelos.Tablero;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * Registro de una partida contra la máquina con todo lo necesario para
+ * reproducirla: configuración de la IA, semilla y jugadas realizadas.
+ * Se guarda como fichero de texto clave=valor; las jugadas se escriben como
+ * columnas numeradas desde 1 (por ejemplo "4453").
+ */
+public class RegistroPartida {
+    private final long semilla;
+    private final int nivel;
+    private final long presupuestoMs;
+    private final int profundidadMaxima;
+    private final int maquinaId;
+    private final int[] jugadas;
+
+    /**
+     * Crea un registro de partida.
+     * @param semilla Semilla de la IA
+     * @param nivel Nivel de dificultad de la IA
+     * @param presupuestoMs Tiempo por jugada del nivel demencial (0 para partidas reproducibles)
+     * @param profundidadMaxima Profundidad máxima de la búsqueda
+     * @param maquinaId ID del jugador que controla la máquina (1 o 2)
+     * @param jugadas Columnas jugadas en orden (0-6)
+     */
+    public RegistroPartida(long semilla, int nivel, long presupuestoMs, int profundidadMaxima,
+                           int maquinaId, int[] jugadas) {
+        this.semilla = semilla;
+        this.nivel = nivel;
+        this.presupuestoMs = presupuestoMs;
+        this.profundidadMaxima = profundidadMaxima;
+        this.maquinaId = maquinaId;
+        this.jugadas = jugadas.clone();
+    }
+
+    /**
+     * Carga un registro desde un fichero.
+     * @param archivo Ruta del fichero
+     * @return Registro leído
+     * @throws IOException si no se puede leer el fichero
+     * @throws IllegalArgumentException si el contenido no es válido
+     */
+    public static RegistroPartida cargar(Path archivo) throws IOException {
+        Properties propiedades = new Properties();
+        try (Reader lector = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            propiedades.load(lector);
+        }
+
+        try {
+            String secuencia = propiedades.getProperty("jugadas", "").trim();
+            int[] jugadas = new int[secuencia.length()];
+            for (int i = 0; i < secuencia.length(); i++) {
+                jugadas[i] = secuencia.charAt(i) - '1';
+                if (jugadas[i] < 0 || jugadas[i] >= Tablero.COLUMNAS) {
+                    throw new IllegalArgumentException("Columna no válida en la jugada " + (i + 1));
+                }
+            }
+
+            return new RegistroPartida(
+                    Long.parseLong(propiedades.getProperty("semilla").trim()),
+                    Integer.parseInt(propiedades.getProperty("nivel").trim()),
+                    Long.parseLong(propiedades.getProperty("presupuestoMs", "0").trim()),
+                    Integer.parseInt(propiedades.getProperty("profundidad",
+                            String.valueOf(InteligenciaArtificial.PROFUNDIDAD_MAXIMA)).trim()),
+                    Integer.parseInt(propiedades.getProperty("maquina", "2").trim()),
+                    jugadas);
+        } catch (NullPointerException | NumberFormatException e) {
+            throw new IllegalArgumentException("Registro de partida incompleto: " + archivo, e);
+        }
+    }
+
+    /**
+     * Guarda el registro en un fichero.
+     * @param archivo Ruta del fichero
+     * @throws IOException si no se puede escribir
+     */
+    public void guardar(Path archivo) throws IOException {
+        Properties propiedades = new Properties();
+        propiedades.setProperty("semilla", String.valueOf(semilla));
+        propiedades.setProperty("nivel", String.valueOf(nivel));
+        propiedades.setProperty("presupuestoMs", String.valueOf(presupuestoMs));
+        propiedades.setProperty("profundidad", String.valueOf(profundidadMaxima));
+        propiedades.setProperty("maquina", String.valueOf(maquinaId));
+        propiedades.setProperty("jugadas", getSecuencia());
+
+        try (Writer escritor = Files.newBufferedWriter(archivo, StandardCharsets.UTF_8)) {
+            propiedades.store(escritor, "Partida de Conecta 4");
+        }
+    }
+
+    /**
+     * Crea una IA configurada como la de la partida registrada.
+     * @param tablero Tablero sobre el que jugará la IA
+     * @return IA con la misma semilla, nivel y límites
+     */
+    public InteligenciaArtificial crearIA(Tablero tablero) {
+        InteligenciaArtificial ia = new InteligenciaArtificial(tablero, nivel, semilla);
+        ia.setPresupuestoMs(presupuestoMs);
+        ia.setProfundidadMaxima(profundidadMaxima);
+        // Un corte por el límite duro depende del reloj y rompería la repetición
+        ia.setLimiteDuroMs(0);
+        return ia;
+    }
+
+    /**
+     * Obtiene las jugadas como columnas numeradas desde 1.
+     * @return Secuencia de columnas
+     */
+    public String getSecuencia() {
+        StringBuilder secuencia = new StringBuilder();
+        for (int columna : jugadas) {
+            secuencia.append(columna + 1);
+        }
+        return secuencia.toString();
+    }
+
+    public long getSemilla() {
+        return semilla;
+    }
+
+    public int getNivel() {
+        return nivel;
+    }
+
+    public long getPresupuestoMs() {
+        return presupuestoMs;
+    }
+
+    public int getProfundidadMaxima() {
+        return profundidadMaxima;
+    }
+
+    public int getMaquinaId() {
+        return maquinaId;
+    }
+
+    /**
+     * Obtiene las jugadas realizadas.
+     * @return Columnas jugadas en orden (copia)
+     */
+    public int[] getJugadas() {
+        return jugadas.clone();
+    }
+}
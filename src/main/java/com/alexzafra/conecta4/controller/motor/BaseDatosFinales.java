@@ -0,0 +1,237 @@
+package com.alexzafra.conecta4.controller.motor;
+
+import com.alexzafra.conecta4.modelos.Tablero;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Base de datos con el valor exacto de todas las posiciones legales de un
+ * tablero reducido, generada por el análisis retrógrado. Permite jugar de
+ * forma perfecta y al instante en los modos de entrenamiento.
+ *
+ * El fichero tiene una cabecera con el tamaño del tablero seguida de las
+ * capas de posiciones de 0 fichas en adelante, con el índice de
+ * GeometriaTablero. Cada posición ocupa 2 bits (32 por long) con su valor
+ * para el jugador con turno. El fichero se proyecta en memoria en trozos de
+ * como mucho 1 GB, así que abrirlo no lee nada del disco.
+ */
+public class BaseDatosFinales implements AutoCloseable {
+    // Nombre del motor en las estadísticas
+    public static final String NOMBRE = "base de datos";
+
+    // Valores de las posiciones para el jugador con turno
+    public static final int SIN_VALOR = 0;
+    public static final int DERROTA = 1;
+    public static final int TABLAS = 2;
+    public static final int VICTORIA = 3;
+
+    // Formato del fichero
+    public static final long MAGIA = 0x4334524554524FL; // "C4RETRO"
+    // Versión 2: índice sin las posiciones con cuatro en línea vertical
+    public static final int VERSION = 2;
+    public static final int BYTES_CABECERA = 64;
+    public static final int VALORES_POR_LONG = 32;
+
+    // Tamaño de cada trozo proyectado (múltiplo de 8 para que ningún long quede partido)
+    private static final long BYTES_POR_TROZO = 1L << 30;
+
+    private final GeometriaTablero geometria;
+    private final FileChannel canal;
+    private final MappedByteBuffer[] trozos;
+    private final long[] inicioCapa;
+    private final long[] trabajo = new long[2];
+
+    private BaseDatosFinales(GeometriaTablero geometria, FileChannel canal, MappedByteBuffer[] trozos) {
+        this.geometria = geometria;
+        this.canal = canal;
+        this.trozos = trozos;
+        this.inicioCapa = iniciosCapas(geometria);
+    }
+
+    /**
+     * Abre una base de datos generada por el análisis retrógrado.
+     * @param ruta Ruta del fichero
+     * @return Base de datos proyectada en memoria
+     * @throws IOException si no se puede leer o no es una base de datos válida
+     */
+    public static BaseDatosFinales abrir(Path ruta) throws IOException {
+        FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ);
+        try {
+            ByteBuffer cabecera = ByteBuffer.allocate(BYTES_CABECERA);
+            canal.read(cabecera, 0);
+            cabecera.flip();
+            if (cabecera.remaining() < BYTES_CABECERA || cabecera.getLong(0) != MAGIA
+                    || cabecera.getInt(8) != VERSION) {
+                throw new IOException("El fichero " + ruta + " no es una base de datos de Conecta 4");
+            }
+            GeometriaTablero geometria = new GeometriaTablero(cabecera.getInt(12), cabecera.getInt(16));
+            if (canal.size() != tamanoFichero(geometria)) {
+                throw new IOException("La base de datos " + ruta + " está incompleta");
+            }
+
+            MappedByteBuffer[] trozos = new MappedByteBuffer[(int) ((canal.size() + BYTES_POR_TROZO - 1) / BYTES_POR_TROZO)];
+            for (int i = 0; i < trozos.length; i++) {
+                long inicio = i * BYTES_POR_TROZO;
+                trozos[i] = canal.map(FileChannel.MapMode.READ_ONLY, inicio, Math.min(BYTES_POR_TROZO, canal.size() - inicio));
+            }
+            return new BaseDatosFinales(geometria, canal, trozos);
+        } catch (IOException | IllegalArgumentException e) {
+            canal.close();
+            throw e instanceof IOException ? (IOException) e : new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Calcula la posición en el fichero del primer byte de cada capa.
+     * @param geometria Geometría del tablero
+     * @return Inicio de las capas de 0 a casillas fichas, más el final del fichero
+     */
+    public static long[] iniciosCapas(GeometriaTablero geometria) {
+        long[] inicios = new long[geometria.getCasillas() + 2];
+        inicios[0] = BYTES_CABECERA;
+        for (int fichas = 0; fichas <= geometria.getCasillas(); fichas++) {
+            inicios[fichas + 1] = inicios[fichas] + longsCapa(geometria, fichas) * 8;
+        }
+        return inicios;
+    }
+
+    /**
+     * Número de longs que ocupa una capa.
+     * @param geometria Geometría del tablero
+     * @param fichas Fichas de la capa
+     * @return Longs de la capa
+     */
+    public static long longsCapa(GeometriaTablero geometria, int fichas) {
+        return (geometria.tamanoCapa(fichas) + VALORES_POR_LONG - 1) / VALORES_POR_LONG;
+    }
+
+    /**
+     * Tamaño total del fichero de una base de datos.
+     * @param geometria Geometría del tablero
+     * @return Bytes
+     */
+    public static long tamanoFichero(GeometriaTablero geometria) {
+        return iniciosCapas(geometria)[geometria.getCasillas() + 1];
+    }
+
+    /**
+     * Escribe la cabecera de una base de datos.
+     * @param destino Buffer de BYTES_CABECERA bytes
+     * @param geometria Geometría del tablero
+     */
+    public static void escribirCabecera(ByteBuffer destino, GeometriaTablero geometria) {
+        destino.putLong(0, MAGIA);
+        destino.putInt(8, VERSION);
+        destino.putInt(12, geometria.getColumnas());
+        destino.putInt(16, geometria.getFilas());
+    }
+
+    /**
+     * Lee un valor de un array de valores empaquetados.
+     * @param valores Valores, 32 por long
+     * @param indice Índice del valor
+     * @return Valor de 2 bits
+     */
+    public static int leer(long[] valores, long indice) {
+        return (int) (valores[(int) (indice / VALORES_POR_LONG)] >>> ((indice % VALORES_POR_LONG) * 2)) & 3;
+    }
+
+    /**
+     * Obtiene la geometría del tablero de la base de datos.
+     * @return Geometría
+     */
+    public GeometriaTablero getGeometria() {
+        return geometria;
+    }
+
+    /**
+     * Valor de una posición para el jugador con turno.
+     * @param primero Fichas del jugador que empieza la partida
+     * @param mascara Casillas ocupadas
+     * @return VICTORIA, TABLAS, DERROTA o SIN_VALOR si ya hay cuatro en línea
+     */
+    public int valor(long primero, long mascara) {
+        int fichas = Long.bitCount(mascara);
+        long indice = geometria.indice(primero, mascara);
+        if (indice < 0) {
+            return SIN_VALOR;
+        }
+        long byteValor = inicioCapa[fichas] + indice / VALORES_POR_LONG * 8;
+        long palabra = trozos[(int) (byteValor / BYTES_POR_TROZO)].getLong((int) (byteValor % BYTES_POR_TROZO));
+        return (int) (palabra >>> ((indice % VALORES_POR_LONG) * 2)) & 3;
+    }
+
+    /**
+     * Elige la jugada perfecta en un tablero: una victoria si la hay, si no unas
+     * tablas y, si todo pierde, cualquier jugada. A igualdad de valor prefiere las
+     * columnas centrales.
+     * @param tablero Tablero del mismo tamaño que la base de datos, sin ganador
+     * @param jugadorConTurno ID del jugador que mueve
+     * @return Columna elegida, o -1 si el tablero no es de este tamaño o está lleno
+     */
+    public int mejorColumna(Tablero tablero, int jugadorConTurno) {
+        return mejorColumna(tablero, jugadorConTurno, TokenCancelacion.NINGUNO);
+    }
+
+    /**
+     * Elige la jugada perfecta como mejorColumna(Tablero, int), pero deja de
+     * consultar columnas en cuanto se cancela el token (cada consulta puede
+     * tener que leer del disco) y se queda con la mejor de las ya consultadas.
+     * @param tablero Tablero del mismo tamaño que la base de datos, sin ganador
+     * @param jugadorConTurno ID del jugador que mueve
+     * @param cancelacion Token de la jugada
+     * @return Columna elegida, o -1 si el tablero no es de este tamaño, está
+     *         lleno o se ha cancelado antes de consultar ninguna columna
+     */
+    public synchronized int mejorColumna(Tablero tablero, int jugadorConTurno, TokenCancelacion cancelacion) {
+        if (tablero.getColumnas() != geometria.getColumnas() || tablero.getFilas() != geometria.getFilas()) {
+            return -1;
+        }
+        geometria.desdeTablero(tablero, jugadorConTurno, trabajo);
+        long propias = trabajo[0];
+        long mascara = trabajo[1];
+        boolean empieza = (Long.bitCount(mascara) & 1) == 0;
+
+        int mejorColumna = -1;
+        int mejorValor = SIN_VALOR;
+        int columnas = geometria.getColumnas();
+        for (int i = 0; i < columnas && !cancelacion.isCancelado(); i++) {
+            // Del centro hacia los lados
+            int columna = columnas / 2 + (1 - 2 * (i % 2)) * (i + 1) / 2;
+            long movimiento = geometria.movimiento(mascara, columna);
+            if (movimiento == 0) {
+                continue;
+            }
+            if (geometria.hayAlineacion(propias | movimiento)) {
+                return columna;
+            }
+
+            // El valor del hijo es para el rival: su derrota es nuestra victoria
+            long primero = empieza ? propias | movimiento : propias ^ mascara;
+            int valor = VICTORIA + DERROTA - valor(primero, mascara | movimiento);
+            if (valor > mejorValor) {
+                mejorValor = valor;
+                mejorColumna = columna;
+            }
+        }
+        return mejorColumna;
+    }
+
+    /**
+     * Indica si el fichero de la base de datos sigue abierto.
+     * @return false después de close()
+     */
+    public boolean estaAbierta() {
+        return canal.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+}
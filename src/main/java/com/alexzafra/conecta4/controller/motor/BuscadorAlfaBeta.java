@@ -0,0 +1,542 @@
+package com.alexzafra.conecta4.controller.motor;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Búsqueda alfa-beta con profundización iterativa y análisis multi-PV.
+ * En cada iteración se calcula la puntuación exacta y la variante principal
+ * de todas las columnas jugables dentro de una misma búsqueda, compartiendo
+ * la tabla de transposición y el orden de jugadas de la iteración anterior.
+ *
+ * Las victorias se puntúan como VICTORIA menos el número de fichas del
+ * tablero al ganar, así el valor no depende del camino seguido y puede
+ * guardarse tal cual en la tabla de transposición.
+ */
+public class BuscadorAlfaBeta {
+    // Nombre del motor en las estadísticas
+    public static final String NOMBRE = "alfabeta";
+
+    // Puntuación base de una victoria
+    public static final int VICTORIA = 100000;
+
+    // Cota que nunca alcanza ninguna puntuación
+    private static final int INFINITO = VICTORIA * 2;
+
+    // Margen de la ventana de aspiración de cada columna raíz
+    private static final int MARGEN_ASPIRACION = 40;
+
+    // Cada cuántos nodos se comprueban el tiempo y la cancelación
+    private static final int INTERVALO_COMPROBACION = 1024;
+
+    private static final int CASILLAS = PosicionBitboard.ANCHO * PosicionBitboard.ALTO;
+    private static final int ANCHO = PosicionBitboard.ANCHO;
+
+    // Orden inicial de columnas: del centro hacia los lados
+    private static final int[] ORDEN_COLUMNAS = new int[ANCHO];
+
+    static {
+        for (int i = 0; i < ANCHO; i++) {
+            ORDEN_COLUMNAS[i] = ANCHO / 2 + (1 - 2 * (i % 2)) * (i + 1) / 2;
+        }
+    }
+
+    // Tabla de transposición y evaluador
+    private final TablaTransposicion tabla;
+    private final Evaluador evaluador;
+
+    // Variantes principales por nivel (tabla triangular)
+    private final int[][] variacion = new int[CASILLAS + 1][CASILLAS + 1];
+    private final int[] longitudVariacion = new int[CASILLAS + 1];
+
+    // Jugadas ordenadas por nivel, reservadas de antemano
+    private final long[][] jugadasPorNivel = new long[CASILLAS + 1][ANCHO];
+    private final int[][] puntuacionesPorNivel = new int[CASILLAS + 1][ANCHO];
+
+    // Estado de la búsqueda en curso
+    private long nodos;
+    private long limiteNanos;
+    private boolean respetarTiempo;
+
+    // Parada pedida con detener(): dura hasta reanudar(), así que también corta
+    // una búsqueda que todavía no había empezado cuando llegó
+    private volatile boolean detenido;
+
+    // Se atiende detener(): en el análisis, a partir de la primera profundidad
+    // completa, para que siempre haya una jugada
+    private boolean atenderParada;
+
+    // La búsqueda en curso se ha cortado (parada, cancelación o tiempo)
+    private boolean cortada;
+    private TokenCancelacion cancelacion = TokenCancelacion.NINGUNO;
+
+    // Contadores para las estadísticas
+    private long sondeosTabla;
+    private long aciertosTabla;
+    private long cortes;
+    private boolean presupuestoAgotado;
+    private EstadisticasBusqueda estadisticas;
+
+    /**
+     * Crea un buscador con su propia tabla de transposición.
+     */
+    public BuscadorAlfaBeta() {
+        this(new TablaTransposicion());
+    }
+
+    /**
+     * Crea un buscador que usa la tabla de transposición indicada.
+     * @param tabla Tabla de transposición
+     */
+    public BuscadorAlfaBeta(TablaTransposicion tabla) {
+        this(tabla, new EvaluadorParidad(new EvaluadorVentanas()));
+    }
+
+    /**
+     * Crea un buscador con una tabla de transposición y un evaluador concretos.
+     * @param tabla Tabla de transposición
+     * @param evaluador Evaluador de las hojas (exclusivo de este buscador si tiene estado)
+     */
+    public BuscadorAlfaBeta(TablaTransposicion tabla, Evaluador evaluador) {
+        this.tabla = tabla;
+        this.evaluador = evaluador;
+    }
+
+    /**
+     * Analiza todas las columnas jugables con profundización iterativa.
+     * Tras cada profundidad completada se notifica el resultado al oyente.
+     * @param posicion Posición a analizar (no se modifica)
+     * @param profundidadMaxima Profundidad máxima en medias jugadas
+     * @param tiempoMaximoMs Tiempo máximo en milisegundos (0 para no limitarlo)
+     * @param oyente Receptor de los resultados parciales (puede ser null)
+     * @return Resultado de la última profundidad completada, o null si no hay jugadas
+     */
+    public ResultadoAnalisis analizar(PosicionBitboard posicion, int profundidadMaxima,
+                                      long tiempoMaximoMs, Consumer<ResultadoAnalisis> oyente) {
+        return analizar(posicion, profundidadMaxima, tiempoMaximoMs, null, oyente);
+    }
+
+    /**
+     * Analiza todas las columnas jugables repartiendo el tiempo con un gestor:
+     * la búsqueda se corta en su tiempo máximo y, al terminar cada profundidad,
+     * el gestor decide si se empieza la siguiente.
+     * @param posicion Posición a analizar (no se modifica)
+     * @param profundidadMaxima Profundidad máxima en medias jugadas
+     * @param gestor Gestor del tiempo de esta jugada
+     * @param oyente Receptor de los resultados parciales (puede ser null)
+     * @return Resultado de la última profundidad completada, o null si no hay jugadas
+     */
+    public ResultadoAnalisis analizar(PosicionBitboard posicion, int profundidadMaxima,
+                                      GestorTiempo gestor, Consumer<ResultadoAnalisis> oyente) {
+        return analizar(posicion, profundidadMaxima, gestor.getMaximoMs(), gestor, oyente);
+    }
+
+    private ResultadoAnalisis analizar(PosicionBitboard posicion, int profundidadMaxima, long tiempoMaximoMs,
+                                       GestorTiempo gestor, Consumer<ResultadoAnalisis> oyente) {
+        EventoBusqueda evento = new EventoBusqueda();
+        evento.begin();
+
+        long inicio = System.nanoTime();
+        limiteNanos = inicio + tiempoMaximoMs * 1_000_000L;
+        respetarTiempo = false;
+        atenderParada = false;
+        cortada = cancelacion.isCancelado();
+        presupuestoAgotado = false;
+        nodos = 0;
+        sondeosTabla = 0;
+        aciertosTabla = 0;
+        cortes = 0;
+
+        // Lo que queda en la tabla de jugadas anteriores se conserva, pero con menos prioridad
+        tabla.nuevaBusqueda();
+
+        long nodosIteracionAnterior = 0;
+        double factorRamificacion = 0.0;
+
+        PosicionBitboard p = new PosicionBitboard(posicion);
+        evaluador.iniciar(p);
+        int restantes = CASILLAS - p.getMovimientos();
+        profundidadMaxima = Math.min(profundidadMaxima, restantes);
+
+        // Columnas jugables en el orden en que se van a explorar
+        int[] orden = new int[ANCHO];
+        int numeroColumnas = 0;
+        for (int columna : ORDEN_COLUMNAS) {
+            if (p.puedeJugar(columna)) {
+                orden[numeroColumnas++] = columna;
+            }
+        }
+        if (numeroColumnas == 0) {
+            estadisticas = new EstadisticasBusqueda(NOMBRE, 0, 0, 0, 0, 0, 0.0, System.nanoTime() - inicio, false);
+            return null;
+        }
+
+        int[] puntuaciones = new int[ANCHO];
+        int[] anteriores = new int[ANCHO];
+        int[][] variaciones = new int[ANCHO][];
+        ResultadoAnalisis resultado = null;
+
+        for (int profundidad = 1; profundidad <= profundidadMaxima; profundidad++) {
+            Arrays.fill(puntuaciones, ResultadoAnalisis.SIN_VALOR);
+            long nodosInicioIteracion = nodos;
+
+            for (int i = 0; i < numeroColumnas && !cortada; i++) {
+                int columna = orden[i];
+
+                if (p.esMovimientoGanador(columna)) {
+                    puntuaciones[columna] = VICTORIA - (p.getMovimientos() + 1);
+                    variaciones[columna] = new int[]{columna};
+                    continue;
+                }
+
+                long jugada = p.movimiento(columna);
+                evaluador.jugar(p, jugada);
+                p.jugarMovimiento(jugada);
+                int puntuacion = buscarColumna(p, profundidad - 1,
+                        resultado == null ? ResultadoAnalisis.SIN_VALOR : anteriores[columna]);
+                p.deshacerMovimiento(jugada);
+                evaluador.deshacer(p, jugada);
+
+                if (!cortada) {
+                    puntuaciones[columna] = puntuacion;
+                    int longitud = longitudVariacion[1];
+                    int[] pv = new int[longitud + 1];
+                    pv[0] = columna;
+                    System.arraycopy(variacion[1], 0, pv, 1, longitud);
+                    variaciones[columna] = pv;
+                }
+            }
+
+            // A partir de la primera iteración se respetan el límite de tiempo y las paradas
+            respetarTiempo = tiempoMaximoMs > 0;
+            atenderParada = true;
+
+            // Una iteración incompleta se descarta
+            if (cortada) {
+                break;
+            }
+
+            // Factor de ramificación efectivo respecto a la iteración anterior
+            long nodosIteracion = nodos - nodosInicioIteracion;
+            if (nodosIteracionAnterior > 0) {
+                factorRamificacion = (double) nodosIteracion / nodosIteracionAnterior;
+            }
+            nodosIteracionAnterior = nodosIteracion;
+
+            ordenarColumnas(orden, numeroColumnas, puntuaciones);
+            System.arraycopy(puntuaciones, 0, anteriores, 0, ANCHO);
+            resultado = new ResultadoAnalisis(profundidad, puntuaciones, variaciones, orden[0],
+                    nodos, (System.nanoTime() - inicio) / 1_000_000L);
+
+            if (oyente != null) {
+                oyente.accept(resultado);
+            }
+
+            // Si todas las columnas tienen el resultado decidido no hace falta seguir
+            if (todasDecididas(orden, numeroColumnas, puntuaciones)) {
+                break;
+            }
+            if (detenido || cancelacion.isCancelado()) {
+                break;
+            }
+            if (tiempoAgotado()) {
+                presupuestoAgotado = true;
+                break;
+            }
+            if (gestor != null && profundidad < profundidadMaxima && !gestor.seguir(resultado, factorRamificacion)) {
+                break;
+            }
+        }
+
+        estadisticas = new EstadisticasBusqueda(NOMBRE, nodos,
+                resultado == null ? 0 : resultado.getProfundidad(), sondeosTabla, aciertosTabla,
+                tabla.getEntradasHeredadas(), cortes, factorRamificacion, System.nanoTime() - inicio, presupuestoAgotado);
+        estadisticas.publicar(evento);
+
+        return resultado;
+    }
+
+    /**
+     * Calcula el valor de una posición con una búsqueda de profundidad fija y
+     * ventana completa, sin multi-PV, límite de tiempo ni estadísticas. Está
+     * pensado para valorar muchas posiciones seguidas sin coste de preparación.
+     * @param posicion Posición sin ganador (se usa como espacio de trabajo y queda igual)
+     * @param profundidad Profundidad en medias jugadas (0 para la evaluación estática)
+     * @return Puntuación para el jugador con turno
+     */
+    public int valorar(PosicionBitboard posicion, int profundidad) {
+        respetarTiempo = false;
+        atenderParada = true;
+        cortada = detenido || cancelacion.isCancelado();
+        evaluador.iniciar(posicion);
+        return negamax(posicion, Math.min(profundidad, CASILLAS - posicion.getMovimientos()),
+                -INFINITO, INFINITO, 0);
+    }
+
+    /**
+     * Obtiene las estadísticas del último análisis terminado.
+     * @return Estadísticas, o null si todavía no se ha analizado nada
+     */
+    public EstadisticasBusqueda getEstadisticas() {
+        return estadisticas;
+    }
+
+    /**
+     * Pide que la búsqueda en curso termine lo antes posible; un análisis
+     * completa antes su primera profundidad. Si no hay ninguna búsqueda en
+     * curso, la siguiente termina en cuanto puede: la petición dura hasta que
+     * se llama a reanudar().
+     */
+    public void detener() {
+        detenido = true;
+    }
+
+    /**
+     * Anula una petición de detener() anterior. Lo llama quien prepara un nuevo
+     * cálculo antes de que nadie pueda detenerlo, no la propia búsqueda al
+     * empezar, para que no se pierda una parada que llegue entre medias.
+     */
+    public void reanudar() {
+        detenido = false;
+    }
+
+    /**
+     * Asocia un token de cancelación a las búsquedas siguientes. Si se cancela,
+     * la búsqueda en curso termina en pocos nodos como con detener().
+     * @param cancelacion Token a consultar (null para ninguno)
+     */
+    public void setCancelacion(TokenCancelacion cancelacion) {
+        this.cancelacion = TokenCancelacion.oNinguno(cancelacion);
+    }
+
+    /**
+     * Obtiene el número de nodos visitados en el último análisis.
+     * @return Nodos visitados
+     */
+    public long getNodos() {
+        return nodos;
+    }
+
+    /**
+     * Obtiene la tabla de transposición del buscador.
+     * @return Tabla de transposición
+     */
+    public TablaTransposicion getTabla() {
+        return tabla;
+    }
+
+    /**
+     * Busca el valor de una columna raíz, ya jugada en la posición, usando una
+     * ventana de aspiración alrededor de su valor en la iteración anterior.
+     */
+    private int buscarColumna(PosicionBitboard p, int profundidad, int anterior) {
+        if (anterior == ResultadoAnalisis.SIN_VALOR) {
+            return -negamax(p, profundidad, -INFINITO, INFINITO, 1);
+        }
+
+        int alfa = anterior - MARGEN_ASPIRACION;
+        int beta = anterior + MARGEN_ASPIRACION;
+        int puntuacion = -negamax(p, profundidad, -beta, -alfa, 1);
+
+        // Repetir con la ventana completa si el valor se sale de la aspiración
+        if (!cortada && (puntuacion <= alfa || puntuacion >= beta)) {
+            puntuacion = -negamax(p, profundidad, -INFINITO, INFINITO, 1);
+        }
+        return puntuacion;
+    }
+
+    /**
+     * Negamax con poda alfa-beta, tabla de transposición y variante principal.
+     */
+    private int negamax(PosicionBitboard p, int profundidad, int alfa, int beta, int nivel) {
+        nodos++;
+        longitudVariacion[nivel] = 0;
+
+        if ((nodos & (INTERVALO_COMPROBACION - 1)) == 0) {
+            if (cancelacion.isCancelado() || (detenido && atenderParada)) {
+                cortada = true;
+            } else if (tiempoAgotado()) {
+                presupuestoAgotado = true;
+                cortada = true;
+            }
+        }
+        if (cortada) {
+            return 0;
+        }
+
+        int movimientos = p.getMovimientos();
+
+        // Victoria inmediata
+        long ganadoras = p.posicionesGanadoras() & p.movimientosPosibles();
+        if (ganadoras != 0) {
+            variacion[nivel][0] = PosicionBitboard.columnaDe(ganadoras & -ganadoras);
+            longitudVariacion[nivel] = 1;
+            return VICTORIA - (movimientos + 1);
+        }
+
+        // Toda jugada permite ganar al rival
+        long siguientes = p.movimientosNoPerdedores();
+        if (siguientes == 0) {
+            return -(VICTORIA - (movimientos + 2));
+        }
+
+        // Tablas si solo quedan dos casillas y nadie puede ganar
+        if (movimientos >= CASILLAS - 2) {
+            return 0;
+        }
+
+        // Cota de la regla claimeven: como mucho tablas, o derrota demostrada
+        int cota = EvaluadorParidad.cotaClaimeven(p);
+        int valorCota = cota == EvaluadorParidad.SIN_COTA ? INFINITO
+                : cota == EvaluadorParidad.COTA_TABLAS ? 0 : -(VICTORIA - CASILLAS);
+        if (valorCota <= alfa) {
+            return valorCota;
+        }
+
+        if (profundidad <= 0) {
+            return Math.min(evaluador.evaluar(p), valorCota);
+        }
+
+        // Consultar la tabla de transposición
+        int alfaOriginal = alfa;
+        long clave = p.clave();
+        long entrada = tabla.consultar(clave);
+        int columnaTabla = -1;
+        sondeosTabla++;
+        if (entrada != 0) {
+            aciertosTabla++;
+            columnaTabla = TablaTransposicion.columna(entrada);
+            if (TablaTransposicion.profundidad(entrada) >= profundidad) {
+                int valor = TablaTransposicion.valor(entrada);
+                switch (TablaTransposicion.tipo(entrada)) {
+                    case TablaTransposicion.EXACTA:
+                        return valor;
+                    case TablaTransposicion.INFERIOR:
+                        alfa = Math.max(alfa, valor);
+                        break;
+                    case TablaTransposicion.SUPERIOR:
+                        beta = Math.min(beta, valor);
+                        break;
+                }
+                if (alfa >= beta) {
+                    return valor;
+                }
+            }
+        }
+
+        int numeroJugadas = ordenarJugadas(p, siguientes, columnaTabla);
+        long[] jugadas = jugadasPorNivel[movimientos];
+
+        int mejorPuntuacion = -INFINITO;
+        int mejorColumna = -1;
+        for (int i = numeroJugadas - 1; i >= 0; i--) {
+            long jugada = jugadas[i];
+            evaluador.jugar(p, jugada);
+            p.jugarMovimiento(jugada);
+            int puntuacion = -negamax(p, profundidad - 1, -beta, -alfa, nivel + 1);
+            p.deshacerMovimiento(jugada);
+            evaluador.deshacer(p, jugada);
+
+            if (cortada) {
+                return 0;
+            }
+
+            if (puntuacion > mejorPuntuacion) {
+                mejorPuntuacion = puntuacion;
+                mejorColumna = PosicionBitboard.columnaDe(jugada);
+
+                if (puntuacion > alfa) {
+                    alfa = puntuacion;
+
+                    // Actualizar la variante principal de este nivel
+                    variacion[nivel][0] = mejorColumna;
+                    System.arraycopy(variacion[nivel + 1], 0, variacion[nivel], 1, longitudVariacion[nivel + 1]);
+                    longitudVariacion[nivel] = longitudVariacion[nivel + 1] + 1;
+
+                    if (alfa >= beta) {
+                        cortes++;
+                        break;
+                    }
+                }
+            }
+        }
+
+        int tipo;
+        if (mejorPuntuacion <= alfaOriginal) {
+            tipo = TablaTransposicion.SUPERIOR;
+        } else if (mejorPuntuacion >= beta) {
+            tipo = TablaTransposicion.INFERIOR;
+        } else {
+            tipo = TablaTransposicion.EXACTA;
+        }
+        tabla.guardar(clave, mejorPuntuacion, profundidad, tipo, mejorColumna);
+
+        return mejorPuntuacion;
+    }
+
+    /**
+     * Ordena las jugadas de un nivel: primero la de la tabla de transposición y
+     * después las que más amenazas crean, desempatando hacia el centro.
+     * @return Número de jugadas; la mejor queda al final del array
+     */
+    private int ordenarJugadas(PosicionBitboard p, long siguientes, int columnaTabla) {
+        long[] jugadas = jugadasPorNivel[p.getMovimientos()];
+        int[] puntuaciones = puntuacionesPorNivel[p.getMovimientos()];
+        int numeroJugadas = 0;
+
+        for (int i = ANCHO - 1; i >= 0; i--) {
+            int columna = ORDEN_COLUMNAS[i];
+            long jugada = siguientes & PosicionBitboard.mascaraColumna(columna);
+            if (jugada == 0) {
+                continue;
+            }
+
+            int puntuacion = columna == columnaTabla ? Integer.MAX_VALUE : p.puntuarMovimiento(jugada);
+            int pos = numeroJugadas++;
+            while (pos > 0 && puntuaciones[pos - 1] > puntuacion) {
+                jugadas[pos] = jugadas[pos - 1];
+                puntuaciones[pos] = puntuaciones[pos - 1];
+                pos--;
+            }
+            jugadas[pos] = jugada;
+            puntuaciones[pos] = puntuacion;
+        }
+
+        return numeroJugadas;
+    }
+
+    /**
+     * Ordena las columnas raíz de mejor a peor puntuación (orden estable).
+     */
+    private static void ordenarColumnas(int[] orden, int numeroColumnas, int[] puntuaciones) {
+        for (int i = 1; i < numeroColumnas; i++) {
+            int columna = orden[i];
+            int j = i;
+            while (j > 0 && puntuaciones[orden[j - 1]] < puntuaciones[columna]) {
+                orden[j] = orden[j - 1];
+                j--;
+            }
+            orden[j] = columna;
+        }
+    }
+
+    /**
+     * Indica si todas las columnas tienen victoria o derrota demostrada.
+     */
+    private static boolean todasDecididas(int[] orden, int numeroColumnas, int[] puntuaciones) {
+        for (int i = 0; i < numeroColumnas; i++) {
+            int puntuacion = puntuaciones[orden[i]];
+            if (!ResultadoAnalisis.esVictoria(puntuacion) && !ResultadoAnalisis.esDerrota(puntuacion)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Indica si se ha superado el tiempo máximo del análisis.
+     */
+    private boolean tiempoAgotado() {
+        return respetarTiempo && System.nanoTime() - limiteNanos >= 0;
+    }
+}
@@ -0,0 +1,193 @@
+package com.alexzafra.conecta4.controller.motor;
+
+/**
+ * Búsqueda en el espacio de amenazas: busca victorias forzadas explorando solo
+ * las jugadas del atacante que crean una amenaza directa (una casilla ganadora
+ * jugable ya). El defensor no tiene elección: debe tapar esa casilla, así que
+ * cada nivel solo ramifica en las jugadas del atacante y la búsqueda llega a
+ * muchas jugadas de profundidad con muy pocos nodos.
+ *
+ * Todo lo que encuentra es una victoria demostrada; si no encuentra nada no
+ * significa que no la haya, porque ignora las jugadas tranquilas.
+ */
+public class BusquedaAmenazas {
+    // Nombre del motor en las estadísticas
+    public static final String NOMBRE = "amenazas";
+
+    // Límite de nodos por defecto, para que sea siempre una comprobación barata
+    public static final long LIMITE_NODOS_POR_DEFECTO = 200_000;
+
+    // Cada cuántos nodos se comprueba la cancelación
+    private static final int INTERVALO_COMPROBACION = 1024;
+
+    // Orden de exploración de columnas: del centro hacia los lados
+    private static final int[] ORDEN_COLUMNAS = new int[PosicionBitboard.ANCHO];
+
+    static {
+        for (int i = 0; i < PosicionBitboard.ANCHO; i++) {
+            ORDEN_COLUMNAS[i] = PosicionBitboard.ANCHO / 2 + (1 - 2 * (i % 2)) * (i + 1) / 2;
+        }
+    }
+
+    private final long limiteNodos;
+    private TokenCancelacion cancelacion = TokenCancelacion.NINGUNO;
+
+    // Contadores de la última búsqueda
+    private long nodos;
+    private int longitud;
+    private boolean cancelada;
+    private EstadisticasBusqueda estadisticas;
+
+    /**
+     * Crea una búsqueda de amenazas con el límite de nodos por defecto.
+     */
+    public BusquedaAmenazas() {
+        this(LIMITE_NODOS_POR_DEFECTO);
+    }
+
+    /**
+     * Crea una búsqueda de amenazas.
+     * @param limiteNodos Nodos máximos por búsqueda
+     */
+    public BusquedaAmenazas(long limiteNodos) {
+        this.limiteNodos = limiteNodos;
+    }
+
+    /**
+     * Busca una victoria forzada mediante amenazas para el jugador con turno.
+     * Profundiza de una en una jugada del atacante, así que devuelve la victoria más corta.
+     * @param posicion Posición (no se modifica)
+     * @param profundidadMaxima Jugadas del atacante como máximo
+     * @return Columna que inicia la secuencia ganadora, o -1 si no se encuentra ninguna
+     */
+    public int buscarVictoria(PosicionBitboard posicion, int profundidadMaxima) {
+        EventoBusqueda evento = new EventoBusqueda();
+        evento.begin();
+        long inicio = System.nanoTime();
+        nodos = 0;
+        longitud = 0;
+        cancelada = cancelacion.isCancelado();
+
+        PosicionBitboard p = new PosicionBitboard(posicion);
+        int columna = -1;
+
+        long ganadoras = p.posicionesGanadoras() & p.movimientosPosibles();
+        if (ganadoras != 0) {
+            columna = PosicionBitboard.columnaDe(ganadoras & -ganadoras);
+            longitud = 1;
+        } else {
+            for (int profundidad = 1; profundidad <= profundidadMaxima && columna < 0
+                    && nodos < limiteNodos && !cancelada; profundidad++) {
+                columna = buscarRaiz(p, profundidad);
+                if (columna >= 0) {
+                    longitud = profundidad + 1;
+                }
+            }
+        }
+
+        estadisticas = new EstadisticasBusqueda(NOMBRE, nodos, longitud, 0, 0, 0, 0.0,
+                System.nanoTime() - inicio, nodos >= limiteNodos || cancelada);
+        estadisticas.publicar(evento);
+        return columna;
+    }
+
+    /**
+     * Prueba cada jugada amenazante de la raíz con una profundidad dada.
+     */
+    private int buscarRaiz(PosicionBitboard p, int profundidad) {
+        long candidatas = p.movimientosNoPerdedores();
+        for (int columna : ORDEN_COLUMNAS) {
+            long jugada = candidatas & PosicionBitboard.mascaraColumna(columna);
+            if (jugada != 0 && amenazaGanadora(p, jugada, profundidad)) {
+                return columna;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Indica si el atacante, con turno, gana forzando con amenazas.
+     * @param profundidad Jugadas del atacante restantes
+     */
+    private boolean ganaAtacante(PosicionBitboard p, int profundidad) {
+        nodos++;
+        if ((nodos & (INTERVALO_COMPROBACION - 1)) == 0 && cancelacion.isCancelado()) {
+            cancelada = true;
+        }
+        if (p.puedeGanarSiguiente()) {
+            return true;
+        }
+        if (profundidad <= 0 || nodos >= limiteNodos || cancelada) {
+            return false;
+        }
+
+        long candidatas = p.movimientosNoPerdedores();
+        for (int columna : ORDEN_COLUMNAS) {
+            long jugada = candidatas & PosicionBitboard.mascaraColumna(columna);
+            if (jugada != 0 && amenazaGanadora(p, jugada, profundidad)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Juega una jugada del atacante y comprueba si crea una amenaza que lleva a la victoria:
+     * dos amenazas directas ganan ya, y una sola obliga al defensor a taparla.
+     * @param profundidad Jugadas del atacante restantes, incluida esta
+     */
+    private boolean amenazaGanadora(PosicionBitboard p, long jugada, int profundidad) {
+        p.jugarMovimiento(jugada);
+        boolean gana = false;
+
+        // Ahora juega el defensor; si puede ganar directamente la amenaza no sirve
+        if (!p.puedeGanarSiguiente()) {
+            long amenazas = p.posicionesGanadorasRival() & p.movimientosPosibles();
+            if (amenazas != 0) {
+                if ((amenazas & (amenazas - 1)) != 0) {
+                    gana = true;
+                } else {
+                    p.jugarMovimiento(amenazas);
+                    gana = ganaAtacante(p, profundidad - 1);
+                    p.deshacerMovimiento(amenazas);
+                }
+            }
+        }
+
+        p.deshacerMovimiento(jugada);
+        return gana;
+    }
+
+    /**
+     * Asocia un token de cancelación a las búsquedas siguientes. Si se cancela,
+     * la búsqueda en curso termina sin victoria.
+     * @param cancelacion Token a consultar (null para ninguno)
+     */
+    public void setCancelacion(TokenCancelacion cancelacion) {
+        this.cancelacion = TokenCancelacion.oNinguno(cancelacion);
+    }
+
+    /**
+     * Obtiene los nodos visitados en la última búsqueda.
+     * @return Nodos visitados
+     */
+    public long getNodos() {
+        return nodos;
+    }
+
+    /**
+     * Obtiene la longitud de la última victoria encontrada.
+     * @return Jugadas del atacante hasta ganar, o 0 si no se encontró
+     */
+    public int getLongitud() {
+        return longitud;
+    }
+
+    /**
+     * Obtiene las estadísticas de la última búsqueda.
+     * @return Estadísticas, o null si todavía no se ha buscado nada
+     */
+    public EstadisticasBusqueda getEstadisticas() {
+        return estadisticas;
+    }
+}
@@ -0,0 +1,455 @@
+package com.alexzafra.conecta4.controller.motor;
+
+import java.util.Arrays;
+
+/**
+ * Búsqueda por números de prueba en profundidad (df-pn) para demostrar que
+ * una posición está ganada o perdida.
+ *
+ * En lugar de recorrer todas las jugadas hasta una profundidad, cada nodo
+ * lleva dos números: cuántas hojas faltan como mínimo para demostrar que el
+ * jugador con turno consigue su objetivo (phi) y cuántas para refutarlo
+ * (delta). La búsqueda baja siempre por el hijo más fácil de demostrar, con
+ * umbrales que la hacen volver en cuanto otro camino pasa a ser más barato.
+ * En posiciones tácticas, con árboles estrechos y profundos, demuestra una
+ * victoria con muchos menos nodos que una búsqueda alfa-beta completa.
+ *
+ * Solo se demuestra un objetivo a la vez: que gane el atacante. Para el
+ * defensor unas tablas cuentan como éxito, así que para saber si una
+ * posición es victoria, tablas o derrota puede hacer falta demostrar el
+ * objetivo de cada jugador (ver {@link #resolver(PosicionBitboard)}).
+ *
+ * Los nodos se guardan en una tabla de arrays primitivos reservada al crear
+ * la búsqueda, con un tamaño máximo en megabytes. Cuando una cubeta está
+ * llena se sustituye el nodo que menos trabajo costó calcular.
+ */
+public class BusquedaNumerosPrueba {
+    // Nombre del motor en las estadísticas
+    public static final String NOMBRE = "df-pn";
+
+    // Resultados de resolver()
+    public static final int VICTORIA = 1;
+    public static final int TABLAS = 0;
+    public static final int DERROTA = -1;
+    public static final int DESCONOCIDO = 2;
+
+    // Resultados de demostrar()
+    public static final int DEMOSTRADO = 1;
+    public static final int REFUTADO = 0;
+
+    // Tamaño por defecto de la tabla de nodos y nodos por defecto de cada demostración
+    public static final int MEGABYTES_POR_DEFECTO = 32;
+    public static final long LIMITE_NODOS_POR_DEFECTO = 5_000_000;
+
+    private static final int CASILLAS = PosicionBitboard.ANCHO * PosicionBitboard.ALTO;
+
+    // Valor de los números de prueba demostrados; las sumas se saturan en él
+    private static final int INFINITO = 100_000_000;
+
+    // Margen del truco 1 + epsilon (epsilon = 1 / EPSILON_INVERSO)
+    private static final int EPSILON_INVERSO = 4;
+
+    // Bytes de cada nodo de la tabla (clave, phi, delta y trabajo) y nodos por cubeta
+    private static final int BYTES_POR_NODO = 20;
+    private static final int CUBETA = 4;
+
+    // Cada cuántos nodos se comprueba la cancelación
+    private static final int INTERVALO_COMPROBACION = 1024;
+
+    // Orden de exploración de columnas: del centro hacia los lados
+    private static final int[] ORDEN_COLUMNAS = new int[PosicionBitboard.ANCHO];
+
+    static {
+        for (int i = 0; i < PosicionBitboard.ANCHO; i++) {
+            ORDEN_COLUMNAS[i] = PosicionBitboard.ANCHO / 2 + (1 - 2 * (i % 2)) * (i + 1) / 2;
+        }
+    }
+
+    // Tabla de nodos: la clave 0 marca un hueco libre
+    private final long[] claves;
+    private final int[] phis;
+    private final int[] deltas;
+    private final int[] trabajos;
+    private final int desplazamientoIndice;
+
+    // Jugadas de cada nivel, reservadas de antemano para no crear objetos
+    private final long[][] jugadasPorNivel = new long[CASILLAS + 1][PosicionBitboard.ANCHO];
+    private final int[][] puntuacionesPorNivel = new int[CASILLAS + 1][PosicionBitboard.ANCHO];
+    private final long[][] hijosPorNivel = new long[CASILLAS + 1][PosicionBitboard.ANCHO];
+
+    private long limiteNodos = LIMITE_NODOS_POR_DEFECTO;
+    private volatile boolean detenido;
+    private TokenCancelacion cancelacion = TokenCancelacion.NINGUNO;
+
+    // Jugador que intenta ganar en la demostración en curso (true si es el que empieza la partida)
+    private boolean atacanteEmpieza;
+
+    // Contadores de la última demostración
+    private long nodos;
+    private long sondeosTabla;
+    private long aciertosTabla;
+    private int profundidadMaxima;
+    private boolean agotada;
+    private EstadisticasBusqueda estadisticas;
+
+    /**
+     * Crea una búsqueda con la tabla de nodos del tamaño por defecto.
+     */
+    public BusquedaNumerosPrueba() {
+        this(MEGABYTES_POR_DEFECTO);
+    }
+
+    /**
+     * Crea una búsqueda cuya tabla de nodos ocupa como máximo los megabytes indicados.
+     * @param megabytes Memoria máxima de la tabla de nodos
+     */
+    public BusquedaNumerosPrueba(int megabytes) {
+        long nodosMaximos = Math.max(1024L, (long) megabytes * 1024 * 1024 / BYTES_POR_NODO);
+        int bits = 63 - Long.numberOfLeadingZeros(Math.min(nodosMaximos, 1L << 28));
+
+        claves = new long[1 << bits];
+        phis = new int[1 << bits];
+        deltas = new int[1 << bits];
+        trabajos = new int[1 << bits];
+        desplazamientoIndice = 64 - bits;
+    }
+
+    /**
+     * Calcula si una posición es victoria, tablas o derrota para el jugador con
+     * turno. Primero intenta demostrar que gana y, si se refuta, que gana el rival.
+     * La posición no debe contener ya cuatro en línea.
+     * @param posicion Posición a resolver (no se modifica)
+     * @return VICTORIA, TABLAS, DERROTA o DESCONOCIDO si se agota el límite de nodos
+     */
+    public int resolver(PosicionBitboard posicion) {
+        int gana = demostrar(posicion, true);
+        if (gana != REFUTADO) {
+            return gana == DEMOSTRADO ? VICTORIA : DESCONOCIDO;
+        }
+        int pierde = demostrar(posicion, false);
+        if (pierde == DESCONOCIDO) {
+            return DESCONOCIDO;
+        }
+        return pierde == DEMOSTRADO ? DERROTA : TABLAS;
+    }
+
+    /**
+     * Intenta demostrar que un jugador gana la posición.
+     * @param posicion Posición sin cuatro en línea (no se modifica)
+     * @param ganaJugadorConTurno true para demostrar que gana el jugador con turno,
+     *                            false para demostrar que gana su rival
+     * @return DEMOSTRADO, REFUTADO (el otro jugador gana o empata) o DESCONOCIDO
+     */
+    public int demostrar(PosicionBitboard posicion, boolean ganaJugadorConTurno) {
+        EventoBusqueda evento = new EventoBusqueda();
+        evento.begin();
+        long inicio = System.nanoTime();
+
+        long numeros = demostrarSinMedir(new PosicionBitboard(posicion), ganaJugadorConTurno);
+
+        estadisticas = new EstadisticasBusqueda(NOMBRE, nodos, profundidadMaxima, sondeosTabla, aciertosTabla,
+                0, 0.0, System.nanoTime() - inicio, agotada);
+        estadisticas.publicar(evento);
+
+        // phi y delta son para el jugador con turno
+        int phi = phi(numeros);
+        int delta = delta(numeros);
+        if (phi != 0 && delta != 0) {
+            return DESCONOCIDO;
+        }
+        return (phi == 0) == ganaJugadorConTurno ? DEMOSTRADO : REFUTADO;
+    }
+
+    /**
+     * Busca una jugada con la que el jugador con turno gana por la fuerza.
+     * @param posicion Posición sin cuatro en línea (no se modifica)
+     * @return Columna ganadora, o -1 si no se demuestra la victoria
+     */
+    public int buscarVictoria(PosicionBitboard posicion) {
+        if (demostrar(posicion, true) != DEMOSTRADO) {
+            return -1;
+        }
+
+        // El hijo ganador es uno cuyo jugador con turno tiene refutado su objetivo
+        PosicionBitboard p = new PosicionBitboard(posicion);
+        for (int columna : ORDEN_COLUMNAS) {
+            if (!p.puedeJugar(columna)) {
+                continue;
+            }
+            if (p.esMovimientoGanador(columna)) {
+                return columna;
+            }
+            p.jugar(columna);
+            int delta = delta(consultarHijo(p));
+            p.deshacer(columna);
+            if (delta == 0) {
+                return columna;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Cambia el número máximo de nodos de cada demostración.
+     * @param limiteNodos Nodos a partir de los que se abandona con DESCONOCIDO
+     */
+    public void setLimiteNodos(long limiteNodos) {
+        this.limiteNodos = limiteNodos;
+    }
+
+    /**
+     * Obtiene el número máximo de nodos de cada demostración.
+     * @return Límite de nodos
+     */
+    public long getLimiteNodos() {
+        return limiteNodos;
+    }
+
+    /**
+     * Pide que la demostración en curso termine lo antes posible con DESCONOCIDO.
+     */
+    public void detener() {
+        detenido = true;
+    }
+
+    /**
+     * Asocia un token de cancelación a las demostraciones siguientes. Si se
+     * cancela, la demostración en curso termina con DESCONOCIDO.
+     * @param cancelacion Token a consultar (null para ninguno)
+     */
+    public void setCancelacion(TokenCancelacion cancelacion) {
+        this.cancelacion = TokenCancelacion.oNinguno(cancelacion);
+    }
+
+    /**
+     * Vacía la tabla de nodos.
+     */
+    public void limpiar() {
+        Arrays.fill(claves, 0L);
+    }
+
+    /**
+     * Obtiene el número de nodos que caben en la tabla.
+     * @return Capacidad de la tabla de nodos
+     */
+    public int getCapacidad() {
+        return claves.length;
+    }
+
+    /**
+     * Obtiene el número de nodos expandidos en la última demostración.
+     * @return Nodos expandidos
+     */
+    public long getNodos() {
+        return nodos;
+    }
+
+    /**
+     * Obtiene las estadísticas de la última demostración.
+     * @return Estadísticas, o null si todavía no se ha demostrado nada
+     */
+    public EstadisticasBusqueda getEstadisticas() {
+        return estadisticas;
+    }
+
+    /**
+     * Demuestra desde la raíz sin publicar estadísticas.
+     * @return phi y delta de la raíz empaquetados
+     */
+    private long demostrarSinMedir(PosicionBitboard p, boolean ganaJugadorConTurno) {
+        nodos = 0;
+        sondeosTabla = 0;
+        aciertosTabla = 0;
+        profundidadMaxima = 0;
+        agotada = false;
+        detenido = cancelacion.isCancelado();
+        atacanteEmpieza = ((p.getMovimientos() & 1) == 0) == ganaJugadorConTurno;
+
+        if (p.puedeGanarSiguiente()) {
+            return empaquetar(0, INFINITO);
+        }
+
+        long numeros = consultarHijo(p);
+        if (phi(numeros) != 0 && delta(numeros) != 0) {
+            mid(p, INFINITO, INFINITO, 0);
+            numeros = consultarHijo(p);
+        }
+        return numeros;
+    }
+
+    /**
+     * Expande un nodo hasta que su phi o su delta alcanzan los umbrales.
+     * El jugador con turno no puede ganar directamente ni perder en la siguiente.
+     */
+    private void mid(PosicionBitboard p, int umbralPhi, int umbralDelta, int nivel) {
+        if ((++nodos & (INTERVALO_COMPROBACION - 1)) == 0 && cancelacion.isCancelado()) {
+            detenido = true;
+        }
+        if (nodos >= limiteNodos || detenido) {
+            agotada = true;
+            return;
+        }
+        profundidadMaxima = Math.max(profundidadMaxima, nivel);
+        long nodosAntes = nodos;
+
+        // Generar las jugadas que no pierden de inmediato, primero las que crean más
+        // amenazas y después del centro hacia los lados (a igualdad de números se elige la primera)
+        long siguientes = p.movimientosNoPerdedores();
+        long[] jugadas = jugadasPorNivel[p.getMovimientos()];
+        int[] puntuaciones = puntuacionesPorNivel[p.getMovimientos()];
+        int numeroJugadas = 0;
+        for (int columna : ORDEN_COLUMNAS) {
+            long jugada = siguientes & PosicionBitboard.mascaraColumna(columna);
+            if (jugada != 0) {
+                int puntuacion = p.puntuarMovimiento(jugada);
+                int pos = numeroJugadas++;
+                while (pos > 0 && puntuaciones[pos - 1] < puntuacion) {
+                    jugadas[pos] = jugadas[pos - 1];
+                    puntuaciones[pos] = puntuaciones[pos - 1];
+                    pos--;
+                }
+                jugadas[pos] = jugada;
+                puntuaciones[pos] = puntuacion;
+            }
+        }
+
+        // Números de los hijos; tras expandir uno solo se vuelve a leer ese
+        long[] hijos = hijosPorNivel[p.getMovimientos()];
+        for (int i = 0; i < numeroJugadas; i++) {
+            p.jugarMovimiento(jugadas[i]);
+            hijos[i] = consultarHijo(p);
+            p.deshacerMovimiento(jugadas[i]);
+        }
+
+        int phi;
+        int delta;
+        while (true) {
+            // phi es el menor delta de los hijos y delta la suma de sus phi
+            phi = INFINITO;
+            delta = 0;
+            int mejor = -1;
+            int phiMejor = 0;
+            int deltaSegundo = INFINITO;
+            for (int i = 0; i < numeroJugadas; i++) {
+                int phiHijo = phi(hijos[i]);
+                int deltaHijo = delta(hijos[i]);
+                delta = Math.min(INFINITO, delta + phiHijo);
+                if (deltaHijo < phi) {
+                    deltaSegundo = phi;
+                    phi = deltaHijo;
+                    mejor = i;
+                    phiMejor = phiHijo;
+                } else if (deltaHijo < deltaSegundo) {
+                    deltaSegundo = deltaHijo;
+                }
+            }
+
+            if (phi >= umbralPhi || delta >= umbralDelta || agotada) {
+                break;
+            }
+
+            // Umbrales del hijo: volver en cuanto deje de ser el mejor o supere el presupuesto
+            // (con el truco 1 + epsilon para no cambiar de rama por diferencias pequeñas)
+            int umbralPhiHijo = umbralDelta - delta + phiMejor;
+            int umbralDeltaHijo = Math.min(umbralPhi, deltaSegundo + 1 + deltaSegundo / EPSILON_INVERSO);
+            p.jugarMovimiento(jugadas[mejor]);
+            mid(p, umbralPhiHijo, umbralDeltaHijo, nivel + 1);
+            hijos[mejor] = consultarHijo(p);
+            p.deshacerMovimiento(jugadas[mejor]);
+        }
+
+        guardar(clave(p), phi, delta, (int) Math.min(Integer.MAX_VALUE, nodos - nodosAntes + 1));
+    }
+
+    /**
+     * Obtiene phi y delta de una posición: de las reglas si está decidida,
+     * de la tabla si ya se ha visto o una estimación inicial si es nueva.
+     */
+    private long consultarHijo(PosicionBitboard p) {
+        boolean atacanteAlTurno = ((p.getMovimientos() & 1) == 0) == atacanteEmpieza;
+
+        if (p.puedeGanarSiguiente()) {
+            return empaquetar(0, INFINITO);
+        }
+        long siguientes = p.movimientosNoPerdedores();
+        if (siguientes == 0) {
+            return empaquetar(INFINITO, 0);
+        }
+        // Con dos casillas libres y sin amenazas la partida acaba en tablas,
+        // que son éxito para el defensor y fracaso para el atacante
+        if (p.getMovimientos() >= CASILLAS - 2) {
+            return atacanteAlTurno ? empaquetar(INFINITO, 0) : empaquetar(0, INFINITO);
+        }
+        // Regla claimeven: el jugador con turno como mucho empata o pierde
+        int cota = EvaluadorParidad.cotaClaimeven(p);
+        if (cota == EvaluadorParidad.COTA_DERROTA || (atacanteAlTurno && cota == EvaluadorParidad.COTA_TABLAS)) {
+            return empaquetar(INFINITO, 0);
+        }
+
+        long clave = clave(p);
+        sondeosTabla++;
+        int base = cubeta(clave);
+        for (int i = base; i < base + CUBETA; i++) {
+            if (claves[i] == clave) {
+                aciertosTabla++;
+                return empaquetar(phis[i], deltas[i]);
+            }
+        }
+
+        // Nodo nuevo: basta con refutar una jugada para demostrarlo y hay que refutarlas todas
+        // para refutarlo. Cada amenaza de ventaja lo hace más difícil de demostrar o de refutar
+        int ventaja = Long.bitCount(p.posicionesGanadoras()) - Long.bitCount(p.posicionesGanadorasRival());
+        return empaquetar(1 + Math.max(0, -ventaja), Long.bitCount(siguientes) + Math.max(0, ventaja));
+    }
+
+    /**
+     * Guarda un nodo. Si su cubeta está llena sustituye al que menos trabajo costó.
+     */
+    private void guardar(long clave, int phi, int delta, int trabajo) {
+        int base = cubeta(clave);
+        int elegido = base;
+        for (int i = base; i < base + CUBETA; i++) {
+            if (claves[i] == clave || claves[i] == 0) {
+                elegido = i;
+                break;
+            }
+            if (trabajos[i] < trabajos[elegido]) {
+                elegido = i;
+            }
+        }
+        if (claves[elegido] == clave) {
+            trabajo = (int) Math.min(Integer.MAX_VALUE, (long) trabajos[elegido] + trabajo);
+        }
+        claves[elegido] = clave;
+        phis[elegido] = phi;
+        deltas[elegido] = delta;
+        trabajos[elegido] = trabajo;
+    }
+
+    /**
+     * Clave de un nodo: la de la posición junto con el jugador atacante, para
+     * poder conservar la tabla entre demostraciones. Nunca vale 0.
+     */
+    private long clave(PosicionBitboard p) {
+        return ((p.clave() << 1) | (atacanteEmpieza ? 1 : 0)) + 1;
+    }
+
+    /**
+     * Primera entrada de la cubeta de una clave.
+     */
+    private int cubeta(long clave) {
+        return (int) ((clave * 0x9E3779B97F4A7C15L) >>> desplazamientoIndice) & ~(CUBETA - 1);
+    }
+
+    private static long empaquetar(int phi, int delta) {
+        return ((long) phi << 32) | delta;
+    }
+
+    private static int phi(long numeros) {
+        return (int) (numeros >>> 32);
+    }
+
+    private static int delta(long numeros) {
+        return (int) numeros;
+    }
+}
@@ -0,0 +1,330 @@
+package com.alexzafra.conecta4.controller.motor;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Caché en disco de valores demostrados de posiciones, que se conserva entre
+ * ejecuciones para que la máquina no empiece siempre en frío.
+ *
+ * El fichero se proyecta en memoria al abrirlo y tiene un tamaño fijo: una
+ * cabecera y una tabla de entradas agrupadas en cubetas de CUBETA entradas.
+ * Cada apertura es una nueva generación; al consultar una entrada se marca
+ * con la generación actual y, si una cubeta está llena, se sustituye la
+ * entrada de generación más antigua (LRU por generaciones). Al abrir se
+ * eliminan las entradas que llevan demasiadas generaciones sin usarse.
+ *
+ * Solo guarda entradas exactas de la tabla de la búsqueda alfa-beta que
+ * están demostradas: victorias, derrotas o valores calculados hasta el
+ * final de la partida. Se activa con -Dconecta4.cache=ruta.
+ */
+public class CachePersistente implements AutoCloseable {
+    // Nombre del motor en las estadísticas cuando la jugada sale de la caché
+    public static final String NOMBRE = "cache";
+
+    // Propiedad del sistema con la ruta del fichero
+    public static final String PROPIEDAD_RUTA = "conecta4.cache";
+
+    // Entradas por defecto (16 MB) y generaciones que sobrevive una entrada sin usarse
+    public static final int ENTRADAS_POR_DEFECTO = 1 << 20;
+    public static final int EDAD_MAXIMA = 64;
+
+    // Valor que se devuelve cuando una posición no está en la caché
+    public static final long NO_ENCONTRADA = 0L;
+
+    // Formato del fichero
+    private static final long MAGIA = 0x43344341434845L; // "C4CACHE"
+    private static final int VERSION = 1;
+    private static final int BYTES_CABECERA = 64;
+    private static final int BYTES_POR_ENTRADA = 16;
+    private static final int CUBETA = 4;
+
+    // Campos de la cabecera
+    private static final int POS_MAGIA = 0;
+    private static final int POS_VERSION = 8;
+    private static final int POS_ENTRADAS = 12;
+    private static final int POS_GENERACION = 16;
+
+    // Bit que marca un resultado encontrado (así un valor 0 con columna -1 no se confunde)
+    private static final long ENCONTRADA = 1L << 40;
+
+    private static final int CASILLAS = PosicionBitboard.ANCHO * PosicionBitboard.ALTO;
+
+    // Caché compartida de la aplicación, abierta la primera vez que se pide
+    private static CachePersistente configurada;
+    private static boolean configuradaAbierta;
+
+    private final FileChannel canal;
+    private final FileLock bloqueo;
+    private final MappedByteBuffer mapa;
+    private final int entradas;
+    private final int generacion;
+
+    private CachePersistente(FileChannel canal, FileLock bloqueo, MappedByteBuffer mapa, int entradas, int generacion) {
+        this.canal = canal;
+        this.bloqueo = bloqueo;
+        this.mapa = mapa;
+        this.entradas = entradas;
+        this.generacion = generacion;
+    }
+
+    /**
+     * Abre o crea un fichero de caché y empieza una nueva generación.
+     * Si el fichero existe con otro formato o tamaño se vacía.
+     * @param ruta Ruta del fichero
+     * @param entradasMaximas Número de entradas (se redondea a potencia de 2)
+     * @return Caché abierta
+     * @throws IOException si no se puede abrir o si otro proceso la está usando
+     */
+    public static CachePersistente abrir(Path ruta, int entradasMaximas) throws IOException {
+        int entradas = Integer.highestOneBit(Math.max(CUBETA, entradasMaximas));
+        long tamano = BYTES_CABECERA + (long) entradas * BYTES_POR_ENTRADA;
+
+        FileChannel canal = FileChannel.open(ruta, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            FileLock bloqueo = canal.tryLock();
+            if (bloqueo == null) {
+                throw new IOException("La caché " + ruta + " está en uso por otro proceso");
+            }
+
+            boolean valida = canal.size() == tamano;
+            MappedByteBuffer mapa = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamano);
+            if (!valida || mapa.getLong(POS_MAGIA) != MAGIA || mapa.getInt(POS_VERSION) != VERSION
+                    || mapa.getInt(POS_ENTRADAS) != entradas) {
+                // Fichero nuevo o de otro formato: se deja vacío
+                for (long i = 0; i < tamano; i += 8) {
+                    mapa.putLong((int) i, 0L);
+                }
+                mapa.putLong(POS_MAGIA, MAGIA);
+                mapa.putInt(POS_VERSION, VERSION);
+                mapa.putInt(POS_ENTRADAS, entradas);
+            }
+
+            int generacion = mapa.getInt(POS_GENERACION) + 1;
+            mapa.putInt(POS_GENERACION, generacion);
+
+            CachePersistente cache = new CachePersistente(canal, bloqueo, mapa, entradas, generacion);
+            cache.compactar(EDAD_MAXIMA);
+            return cache;
+        } catch (IOException | OverlappingFileLockException e) {
+            canal.close();
+            throw e instanceof IOException ? (IOException) e : new IOException(e);
+        }
+    }
+
+    /**
+     * Obtiene la caché configurada con -Dconecta4.cache. Se abre una sola vez
+     * por proceso y se cierra al salir.
+     * @return Caché compartida, o null si no está configurada o no se puede abrir
+     */
+    public static synchronized CachePersistente getConfigurada() {
+        if (!configuradaAbierta) {
+            configuradaAbierta = true;
+            String ruta = System.getProperty(PROPIEDAD_RUTA);
+            if (ruta != null && !ruta.isEmpty()) {
+                try {
+                    configurada = abrir(Paths.get(ruta), ENTRADAS_POR_DEFECTO);
+                    Runtime.getRuntime().addShutdownHook(new Thread(configurada::close, "conecta4-cache"));
+                } catch (IOException e) {
+                    System.err.println("No se pudo abrir la caché de posiciones " + ruta + ": " + e.getMessage());
+                }
+            }
+        }
+        return configurada;
+    }
+
+    /**
+     * Busca una posición y, si está, la marca como usada en esta generación.
+     * @param clave Clave de la posición
+     * @return Resultado empaquetado (ver valor() y columna()), o NO_ENCONTRADA
+     */
+    public synchronized long consultar(long clave) {
+        if (clave == 0) {
+            return NO_ENCONTRADA;
+        }
+        int base = cubeta(clave);
+        for (int i = 0; i < CUBETA; i++) {
+            int posicion = posicionEntrada(base + i);
+            if (mapa.getLong(posicion) == clave) {
+                long datos = mapa.getLong(posicion + 8);
+                mapa.putLong(posicion + 8, empaquetar(valor(datos | ENCONTRADA), columna(datos | ENCONTRADA)));
+                return datos | ENCONTRADA;
+            }
+        }
+        return NO_ENCONTRADA;
+    }
+
+    /**
+     * Guarda el valor demostrado de una posición. Si su cubeta está llena se
+     * sustituye la entrada usada hace más generaciones.
+     * @param clave Clave de la posición
+     * @param valor Valor para el jugador con turno, en la escala de BuscadorAlfaBeta
+     * @param columna Mejor columna, o -1 si no se conoce
+     */
+    public synchronized void guardar(long clave, int valor, int columna) {
+        if (clave == 0) {
+            return;
+        }
+        int base = cubeta(clave);
+        int elegida = -1;
+        int edadElegida = -1;
+        for (int i = 0; i < CUBETA; i++) {
+            int posicion = posicionEntrada(base + i);
+            long guardada = mapa.getLong(posicion);
+            if (guardada == clave || guardada == 0) {
+                elegida = posicion;
+                break;
+            }
+            int edad = generacion - generacionDe(mapa.getLong(posicion + 8));
+            if (edad > edadElegida) {
+                edadElegida = edad;
+                elegida = posicion;
+            }
+        }
+        mapa.putLong(elegida, clave);
+        mapa.putLong(elegida + 8, empaquetar(valor, columna));
+    }
+
+    /**
+     * Copia a la caché las entradas demostradas de una tabla de transposición
+     * de la búsqueda alfa-beta: las exactas que son victoria o derrota, o que
+     * se calcularon con profundidad suficiente para llegar al final.
+     * @param tabla Tabla de transposición de un BuscadorAlfaBeta
+     * @return Número de entradas copiadas
+     */
+    public int guardarDesde(TablaTransposicion tabla) {
+        int[] copiadas = new int[1];
+        tabla.recorrer((clave, datos) -> {
+            if (TablaTransposicion.tipo(datos) != TablaTransposicion.EXACTA) {
+                return;
+            }
+            int valor = TablaTransposicion.valor(datos);
+            boolean demostrado = ResultadoAnalisis.esVictoria(valor) || ResultadoAnalisis.esDerrota(valor)
+                    || TablaTransposicion.profundidad(datos) >= CASILLAS - movimientosDeClave(clave);
+            if (demostrado) {
+                guardar(clave, valor, TablaTransposicion.columna(datos));
+                copiadas[0]++;
+            }
+        });
+        return copiadas[0];
+    }
+
+    /**
+     * Elimina las entradas que llevan más de un número de generaciones sin usarse.
+     * @param edadMaxima Generaciones que puede pasar una entrada sin usarse
+     * @return Número de entradas eliminadas
+     */
+    public synchronized int compactar(int edadMaxima) {
+        int eliminadas = 0;
+        for (int i = 0; i < entradas; i++) {
+            int posicion = posicionEntrada(i);
+            if (mapa.getLong(posicion) != 0
+                    && generacion - generacionDe(mapa.getLong(posicion + 8)) > edadMaxima) {
+                mapa.putLong(posicion, 0L);
+                mapa.putLong(posicion + 8, 0L);
+                eliminadas++;
+            }
+        }
+        return eliminadas;
+    }
+
+    /**
+     * Cuenta las entradas ocupadas.
+     * @return Número de posiciones guardadas
+     */
+    public synchronized int getOcupadas() {
+        int ocupadas = 0;
+        for (int i = 0; i < entradas; i++) {
+            if (mapa.getLong(posicionEntrada(i)) != 0) {
+                ocupadas++;
+            }
+        }
+        return ocupadas;
+    }
+
+    /**
+     * Obtiene la capacidad de la caché.
+     * @return Número de entradas
+     */
+    public int getEntradas() {
+        return entradas;
+    }
+
+    /**
+     * Obtiene la generación de esta apertura de la caché.
+     * @return Número de veces que se ha abierto el fichero
+     */
+    public int getGeneracion() {
+        return generacion;
+    }
+
+    /**
+     * Extrae el valor de un resultado de consultar().
+     * @param resultado Resultado encontrado
+     * @return Valor para el jugador con turno
+     */
+    public static int valor(long resultado) {
+        return (int) resultado;
+    }
+
+    /**
+     * Extrae la mejor columna de un resultado de consultar().
+     * @param resultado Resultado encontrado
+     * @return Columna, o -1 si no se conoce
+     */
+    public static int columna(long resultado) {
+        return ((int) (resultado >>> 32) & 0xFF) - 1;
+    }
+
+    /**
+     * Calcula cuántas fichas tiene la posición de una clave. En cada columna la
+     * clave vale fichas propias + máscara, que está entre 2^altura - 1 y
+     * 2^(altura + 1) - 2, así que la altura sale del bit más alto de clave + 1.
+     */
+    static int movimientosDeClave(long clave) {
+        int movimientos = 0;
+        for (int columna = 0; columna < PosicionBitboard.ANCHO; columna++) {
+            long bits = (clave >>> (columna * PosicionBitboard.ALTO_BITS)) & ((1L << PosicionBitboard.ALTO_BITS) - 1);
+            movimientos += 63 - Long.numberOfLeadingZeros(bits + 1);
+        }
+        return movimientos;
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            mapa.force();
+            bloqueo.release();
+            canal.close();
+        } catch (IOException e) {
+            System.err.println("Error al cerrar la caché de posiciones: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Empaqueta valor, columna y generación actual en el segundo long de una entrada.
+     */
+    private long empaquetar(int valor, int columna) {
+        return (valor & 0xFFFFFFFFL) | ((long) ((columna + 1) & 0xFF) << 32) | ((long) generacion << 41);
+    }
+
+    private static int generacionDe(long datos) {
+        return (int) (datos >>> 41);
+    }
+
+    private int cubeta(long clave) {
+        int bits = Integer.numberOfTrailingZeros(entradas);
+        return (int) ((clave * 0x9E3779B97F4A7C15L) >>> (64 - bits)) & ~(CUBETA - 1);
+    }
+
+    private static int posicionEntrada(int indice) {
+        return BYTES_CABECERA + indice * BYTES_POR_ENTRADA;
+    }
+}
@@ -0,0 +1,201 @@
+package com.alexzafra.conecta4.controller.motor;
+
+/**
+ * Estadísticas de una búsqueda de la IA: nodos, profundidad, uso de la tabla
+ * de transposición, cortes y tiempo empleado. Es inmutable.
+ */
+public class EstadisticasBusqueda {
+    private final String motor;
+    private final long nodos;
+    private final int profundidad;
+    private final long sondeosTabla;
+    private final long aciertosTabla;
+    private final long entradasHeredadas;
+    private final long cortes;
+    private final double factorRamificacion;
+    private final long tiempoNanos;
+    private final boolean presupuestoAgotado;
+
+    /**
+     * Crea un registro de estadísticas.
+     * @param motor Nombre del motor que hizo la búsqueda
+     * @param nodos Nodos visitados
+     * @param profundidad Profundidad completada en medias jugadas
+     * @param sondeosTabla Consultas a la tabla de transposición
+     * @param aciertosTabla Consultas que encontraron la posición
+     * @param cortes Cortes beta producidos
+     * @param factorRamificacion Factor de ramificación efectivo de la última iteración
+     * @param tiempoNanos Tiempo empleado en nanosegundos
+     * @param presupuestoAgotado true si la búsqueda se cortó por tiempo
+     */
+    public EstadisticasBusqueda(String motor, long nodos, int profundidad, long sondeosTabla,
+                                long aciertosTabla, long cortes, double factorRamificacion,
+                                long tiempoNanos, boolean presupuestoAgotado) {
+        this(motor, nodos, profundidad, sondeosTabla, aciertosTabla, 0, cortes, factorRamificacion,
+                tiempoNanos, presupuestoAgotado);
+    }
+
+    /**
+     * Crea un registro de estadísticas de un motor cuya tabla de transposición
+     * se conserva entre búsquedas.
+     * @param motor Nombre del motor que hizo la búsqueda
+     * @param nodos Nodos visitados
+     * @param profundidad Profundidad completada en medias jugadas
+     * @param sondeosTabla Consultas a la tabla de transposición
+     * @param aciertosTabla Consultas que encontraron la posición
+     * @param entradasHeredadas Entradas de búsquedas anteriores que se han usado
+     * @param cortes Cortes beta producidos
+     * @param factorRamificacion Factor de ramificación efectivo de la última iteración
+     * @param tiempoNanos Tiempo empleado en nanosegundos
+     * @param presupuestoAgotado true si la búsqueda se cortó por tiempo
+     */
+    public EstadisticasBusqueda(String motor, long nodos, int profundidad, long sondeosTabla,
+                                long aciertosTabla, long entradasHeredadas, long cortes,
+                                double factorRamificacion, long tiempoNanos, boolean presupuestoAgotado) {
+        this.motor = motor;
+        this.nodos = nodos;
+        this.profundidad = profundidad;
+        this.sondeosTabla = sondeosTabla;
+        this.aciertosTabla = aciertosTabla;
+        this.entradasHeredadas = entradasHeredadas;
+        this.cortes = cortes;
+        this.factorRamificacion = factorRamificacion;
+        this.tiempoNanos = tiempoNanos;
+        this.presupuestoAgotado = presupuestoAgotado;
+    }
+
+    /**
+     * Obtiene el nombre del motor que hizo la búsqueda.
+     * @return Nombre del motor
+     */
+    public String getMotor() {
+        return motor;
+    }
+
+    /**
+     * Obtiene los nodos visitados.
+     * @return Número de nodos
+     */
+    public long getNodos() {
+        return nodos;
+    }
+
+    /**
+     * Obtiene la velocidad de la búsqueda.
+     * @return Nodos por segundo
+     */
+    public long getNodosPorSegundo() {
+        return tiempoNanos > 0 ? nodos * 1_000_000_000L / tiempoNanos : 0;
+    }
+
+    /**
+     * Obtiene la profundidad completada.
+     * @return Profundidad en medias jugadas
+     */
+    public int getProfundidad() {
+        return profundidad;
+    }
+
+    /**
+     * Obtiene las consultas a la tabla de transposición.
+     * @return Número de consultas
+     */
+    public long getSondeosTabla() {
+        return sondeosTabla;
+    }
+
+    /**
+     * Obtiene las consultas que encontraron la posición en la tabla.
+     * @return Número de aciertos
+     */
+    public long getAciertosTabla() {
+        return aciertosTabla;
+    }
+
+    /**
+     * Obtiene la proporción de aciertos en la tabla de transposición.
+     * @return Tasa de aciertos entre 0 y 1
+     */
+    public double getTasaAciertosTabla() {
+        return sondeosTabla > 0 ? (double) aciertosTabla / sondeosTabla : 0.0;
+    }
+
+    /**
+     * Obtiene cuántas entradas de la tabla de transposición venían de búsquedas
+     * anteriores (por ejemplo, de la jugada previa) y se han vuelto a usar.
+     * @return Número de entradas heredadas
+     */
+    public long getEntradasHeredadas() {
+        return entradasHeredadas;
+    }
+
+    /**
+     * Obtiene los cortes beta producidos.
+     * @return Número de cortes
+     */
+    public long getCortes() {
+        return cortes;
+    }
+
+    /**
+     * Obtiene el factor de ramificación efectivo (nodos de la última iteración
+     * entre los de la anterior).
+     * @return Factor de ramificación, o 0 si solo hubo una iteración
+     */
+    public double getFactorRamificacion() {
+        return factorRamificacion;
+    }
+
+    /**
+     * Obtiene el tiempo empleado.
+     * @return Nanosegundos
+     */
+    public long getTiempoNanos() {
+        return tiempoNanos;
+    }
+
+    /**
+     * Obtiene el tiempo empleado.
+     * @return Milisegundos
+     */
+    public long getTiempoMs() {
+        return tiempoNanos / 1_000_000L;
+    }
+
+    /**
+     * Indica si la búsqueda se detuvo por agotar el tiempo disponible.
+     * @return true si se agotó el presupuesto
+     */
+    public boolean isPresupuestoAgotado() {
+        return presupuestoAgotado;
+    }
+
+    /**
+     * Completa y registra el evento de Java Flight Recorder de la búsqueda.
+     * @param evento Evento que se empezó a medir al iniciar la búsqueda
+     */
+    public void publicar(EventoBusqueda evento) {
+        if (!evento.shouldCommit()) {
+            return;
+        }
+        evento.motor = motor;
+        evento.nodos = nodos;
+        evento.nodosPorSegundo = getNodosPorSegundo();
+        evento.profundidad = profundidad;
+        evento.sondeosTabla = sondeosTabla;
+        evento.aciertosTabla = aciertosTabla;
+        evento.entradasHeredadas = entradasHeredadas;
+        evento.cortes = cortes;
+        evento.factorRamificacion = factorRamificacion;
+        evento.presupuestoAgotado = presupuestoAgotado;
+        evento.commit();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: prof %d, %d nodos (%d n/s), tabla %d/%d (%.1f%%, %d heredadas), %d cortes, ramificación %.2f, %d ms%s",
+                motor, profundidad, nodos, getNodosPorSegundo(), aciertosTabla, sondeosTabla,
+                getTasaAciertosTabla() * 100, entradasHeredadas, cortes, factorRamificacion, getTiempoMs(),
+                presupuestoAgotado ? " (tiempo agotado)" : "");
+    }
+}
@@ -0,0 +1,61 @@
+package com.alexzafra.conecta4.controller.motor;
+
+/**
+ * Evaluación estática de ventanas para muchas posiciones de una vez, en el
+ * formato empaquetado de {@link EvaluadorLotes} (dos longs por posición).
+ * Da los mismos valores que {@link EvaluadorVentanas}.
+ *
+ * Si la aplicación se ha compilado con el perfil vectorial de Maven y la JVM
+ * se arranca con --add-modules jdk.incubator.vector se usa la versión
+ * vectorial, que evalúa varias posiciones a la vez en los carriles de un
+ * registro SIMD; si no, la versión escalar. Cada instancia solo puede usarse
+ * desde un hilo.
+ */
+public interface EvaluacionPorLotes {
+    // Módulo de la API de vectores y clase que lo usa
+    String MODULO_VECTORES = "jdk.incubator.vector";
+    String CLASE_VECTORIAL = "com.alexzafra.conecta4.controller.motor.EvaluacionPorLotesVectorial";
+
+    /**
+     * Evalúa un rango de posiciones empaquetadas.
+     * @param posiciones Posiciones empaquetadas, dos longs por posición
+     * @param puntuaciones Destino de las puntuaciones, para el jugador con turno
+     * @param desde Primera posición (incluida)
+     * @param hasta Última posición (excluida)
+     */
+    void evaluar(long[] posiciones, int[] puntuaciones, int desde, int hasta);
+
+    /**
+     * Obtiene el nombre de la implementación.
+     * @return "vectorial" o "escalar"
+     */
+    String getNombre();
+
+    /**
+     * Crea la mejor implementación disponible con los pesos cargados al arrancar.
+     * @return Evaluación por lotes
+     */
+    static EvaluacionPorLotes crear() {
+        return crear(PesosEvaluacion.getPesos());
+    }
+
+    /**
+     * Crea la mejor implementación disponible con unos pesos concretos.
+     * @param pesos Pesos en el formato de EvaluadorVentanas
+     * @return Versión vectorial si está compilada y el módulo está cargado, o escalar si no
+     */
+    static EvaluacionPorLotes crear(int[] pesos) {
+        if (ModuleLayer.boot().findModule(MODULO_VECTORES).isPresent()) {
+            try {
+                // Por reflexión para que esta clase cargue aunque el módulo no esté
+                return (EvaluacionPorLotes) Class.forName(CLASE_VECTORIAL)
+                        .getConstructor(int[].class).newInstance((Object) pesos);
+            } catch (ClassNotFoundException e) {
+                // Compilada sin el perfil vectorial
+            } catch (ReflectiveOperationException | LinkageError e) {
+                System.err.println("No se pudo usar la evaluación vectorial: " + e);
+            }
+        }
+        return new EvaluacionPorLotesEscalar(pesos);
+    }
+}
@@ -0,0 +1,33 @@
+package com.alexzafra.conecta4.controller.motor;
+
+/**
+ * Evaluación por lotes que recorre las posiciones una a una con
+ * {@link EvaluadorVentanas}. Es la referencia y la alternativa cuando la API
+ * de vectores no está disponible.
+ */
+public class EvaluacionPorLotesEscalar implements EvaluacionPorLotes {
+    private final EvaluadorVentanas evaluador;
+    private final PosicionBitboard posicion = new PosicionBitboard();
+
+    /**
+     * Crea una evaluación escalar.
+     * @param pesos Pesos en el formato de EvaluadorVentanas
+     */
+    public EvaluacionPorLotesEscalar(int[] pesos) {
+        this.evaluador = new EvaluadorVentanas(pesos);
+    }
+
+    @Override
+    public void evaluar(long[] posiciones, int[] puntuaciones, int desde, int hasta) {
+        for (int i = desde; i < hasta; i++) {
+            long mascara = posiciones[i * EvaluadorLotes.LONGS_POR_POSICION + 1];
+            posicion.colocar(posiciones[i * EvaluadorLotes.LONGS_POR_POSICION], mascara, Long.bitCount(mascara));
+            puntuaciones[i] = evaluador.evaluar(posicion);
+        }
+    }
+
+    @Override
+    public String getNombre() {
+        return "escalar";
+    }
+}
@@ -0,0 +1,40 @@
+package com.alexzafra.conecta4.controller.motor;
+
+/**
+ * Función de evaluación heurística usada en las hojas de la búsqueda.
+ * Los evaluadores con estado incremental reciben cada jugada y su deshacer;
+ * en ambas llamadas la posición es la anterior a la jugada, con su autor al turno.
+ * Un evaluador con estado solo puede usarse desde un hilo.
+ */
+public interface Evaluador {
+
+    /**
+     * Evalúa una posición desde el punto de vista del jugador con turno.
+     * @param posicion Posición a evaluar
+     * @return Puntuación heurística (positiva si favorece al jugador con turno)
+     */
+    int evaluar(PosicionBitboard posicion);
+
+    /**
+     * Prepara el estado incremental para empezar a buscar desde una posición.
+     * @param posicion Posición raíz
+     */
+    default void iniciar(PosicionBitboard posicion) {
+    }
+
+    /**
+     * Notifica una jugada antes de aplicarla a la posición.
+     * @param posicion Posición antes de la jugada
+     * @param movimiento Bit de la casilla donde cae la ficha
+     */
+    default void jugar(PosicionBitboard posicion, long movimiento) {
+    }
+
+    /**
+     * Notifica que se ha deshecho una jugada, después de quitarla de la posición.
+     * @param posicion Posición ya sin la jugada
+     * @param movimiento Bit de la casilla que queda libre
+     */
+    default void deshacer(PosicionBitboard posicion, long movimiento) {
+    }
+}
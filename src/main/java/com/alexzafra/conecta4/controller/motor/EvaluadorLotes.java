@@ -0,0 +1,206 @@
+package com.alexzafra.conecta4.controller.motor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Valoración de lotes de posiciones en paralelo, pensada para trabajos de
+ * análisis que puntúan millones de posiciones y miden posiciones por segundo
+ * en lugar de latencia por jugada.
+ *
+ * Las posiciones llegan empaquetadas en un array de long, dos por posición
+ * (fichas del jugador con turno y máscara de fichas), y las puntuaciones se
+ * escriben en un array de int. Todos los hilos comparten la tabla de
+ * transposición; cada uno tiene su buscador, su evaluador y su posición de
+ * trabajo, creados una sola vez, así que valorar un lote no crea objetos por
+ * posición. Los hilos toman bloques de posiciones de un contador común.
+ *
+ * Para la evaluación estática de ventanas sin búsqueda, evaluar() pasa los
+ * bloques a la evaluación por lotes de cada hilo, que es vectorial si está
+ * disponible (ver {@link EvaluacionPorLotes}).
+ *
+ * Si se cancela el token del evaluador, cada hilo deja de tomar bloques y
+ * abandona la búsqueda de la posición en curso, y valorar() o evaluar()
+ * lanzan CancellationException porque las puntuaciones quedan incompletas.
+ */
+public class EvaluadorLotes implements AutoCloseable {
+    // Longs por posición empaquetada
+    public static final int LONGS_POR_POSICION = 2;
+
+    // Posiciones que toma un hilo cada vez
+    private static final int TAMANO_BLOQUE = 64;
+
+    private final TablaTransposicion tabla;
+    private final BuscadorAlfaBeta[] buscadores;
+    private final PosicionBitboard[] trabajo;
+    private final EvaluacionPorLotes[] estaticas;
+    private final ExecutorService ejecutor;
+    private volatile TokenCancelacion cancelacion = TokenCancelacion.NINGUNO;
+
+    /**
+     * Crea un evaluador de lotes con un hilo por núcleo.
+     * @param tabla Tabla de transposición compartida
+     * @param fabricaEvaluador Crea un evaluador de hojas para cada hilo
+     */
+    public EvaluadorLotes(TablaTransposicion tabla, Supplier<Evaluador> fabricaEvaluador) {
+        this(tabla, fabricaEvaluador, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Crea un evaluador de lotes.
+     * @param tabla Tabla de transposición compartida
+     * @param fabricaEvaluador Crea un evaluador de hojas para cada hilo
+     * @param hilos Número de hilos
+     */
+    public EvaluadorLotes(TablaTransposicion tabla, Supplier<Evaluador> fabricaEvaluador, int hilos) {
+        this.tabla = tabla;
+        this.buscadores = new BuscadorAlfaBeta[hilos];
+        this.trabajo = new PosicionBitboard[hilos];
+        this.estaticas = new EvaluacionPorLotes[hilos];
+        for (int i = 0; i < hilos; i++) {
+            buscadores[i] = new BuscadorAlfaBeta(tabla, fabricaEvaluador.get());
+            trabajo[i] = new PosicionBitboard();
+            estaticas[i] = EvaluacionPorLotes.crear();
+        }
+        this.ejecutor = Executors.newFixedThreadPool(hilos, tarea -> {
+            Thread hilo = new Thread(tarea, "conecta4-lotes");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /**
+     * Escribe una posición en un array de posiciones empaquetadas.
+     * @param posicion Posición a empaquetar
+     * @param destino Array de posiciones empaquetadas
+     * @param indice Número de la posición dentro del array
+     */
+    public static void empaquetar(PosicionBitboard posicion, long[] destino, int indice) {
+        destino[indice * LONGS_POR_POSICION] = posicion.getPosicionActual();
+        destino[indice * LONGS_POR_POSICION + 1] = posicion.getMascara();
+    }
+
+    /**
+     * Valora todas las posiciones de un lote en paralelo. Ninguna posición
+     * puede tener ya cuatro en línea.
+     * @param posiciones Posiciones empaquetadas, dos longs por posición
+     * @param puntuaciones Destino de las puntuaciones, para el jugador con turno
+     * @param profundidad Profundidad de búsqueda (0 para la evaluación estática)
+     * @throws CancellationException si se cancela el token del evaluador
+     */
+    public void valorar(long[] posiciones, int[] puntuaciones, int profundidad)
+            throws InterruptedException, ExecutionException {
+        TokenCancelacion token = cancelacion;
+        for (BuscadorAlfaBeta buscador : buscadores) {
+            buscador.setCancelacion(token);
+        }
+        repartir(posiciones, puntuaciones, token, (hilo, inicio, fin) -> {
+            BuscadorAlfaBeta buscador = buscadores[hilo];
+            PosicionBitboard p = trabajo[hilo];
+            for (int i = inicio; i < fin; i++) {
+                long mascara = posiciones[i * LONGS_POR_POSICION + 1];
+                p.colocar(posiciones[i * LONGS_POR_POSICION], mascara, Long.bitCount(mascara));
+                puntuaciones[i] = buscador.valorar(p, profundidad);
+            }
+        });
+    }
+
+    /**
+     * Puntúa todas las posiciones de un lote en paralelo solo con la
+     * evaluación de ventanas, sin búsqueda ni reglas de paridad: da lo mismo
+     * que {@link EvaluadorVentanas} con los pesos cargados al arrancar.
+     * @param posiciones Posiciones empaquetadas, dos longs por posición
+     * @param puntuaciones Destino de las puntuaciones, para el jugador con turno
+     * @throws CancellationException si se cancela el token del evaluador
+     */
+    public void evaluar(long[] posiciones, int[] puntuaciones)
+            throws InterruptedException, ExecutionException {
+        repartir(posiciones, puntuaciones, cancelacion,
+                (hilo, inicio, fin) -> estaticas[hilo].evaluar(posiciones, puntuaciones, inicio, fin));
+    }
+
+    /**
+     * Reparte un lote en bloques entre los hilos y espera a que terminen.
+     * @param posiciones Posiciones empaquetadas, dos longs por posición
+     * @param puntuaciones Destino de las puntuaciones
+     * @param token Token que deja de repartir bloques al cancelarse
+     * @param bloque Trabajo de un hilo sobre un bloque de posiciones
+     * @throws CancellationException si se cancela el token
+     */
+    private void repartir(long[] posiciones, int[] puntuaciones, TokenCancelacion token, Bloque bloque)
+            throws InterruptedException, ExecutionException {
+        int total = posiciones.length / LONGS_POR_POSICION;
+        if (puntuaciones.length < total) {
+            throw new IllegalArgumentException("El array de puntuaciones es demasiado pequeño");
+        }
+
+        AtomicInteger siguiente = new AtomicInteger();
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int h = 0; h < buscadores.length; h++) {
+            int hilo = h;
+            tareas.add(ejecutor.submit(() -> {
+                int inicio;
+                while (!token.isCancelado() && (inicio = siguiente.getAndAdd(TAMANO_BLOQUE)) < total) {
+                    bloque.procesar(hilo, inicio, Math.min(total, inicio + TAMANO_BLOQUE));
+                }
+            }));
+        }
+        for (Future<?> tarea : tareas) {
+            tarea.get();
+        }
+        if (token.isCancelado()) {
+            throw new CancellationException("Valoración del lote cancelada");
+        }
+    }
+
+    /**
+     * Trabajo de un hilo sobre un bloque de posiciones.
+     */
+    private interface Bloque {
+        void procesar(int hilo, int inicio, int fin);
+    }
+
+    /**
+     * Asocia un token de cancelación a los lotes siguientes.
+     * @param cancelacion Token a consultar (null para ninguno)
+     */
+    public void setCancelacion(TokenCancelacion cancelacion) {
+        this.cancelacion = TokenCancelacion.oNinguno(cancelacion);
+    }
+
+    /**
+     * Obtiene la tabla de transposición compartida.
+     * @return Tabla de transposición
+     */
+    public TablaTransposicion getTabla() {
+        return tabla;
+    }
+
+    /**
+     * Obtiene el nombre de la evaluación por lotes que usa evaluar().
+     * @return "escalar" o "vectorial" con sus carriles
+     */
+    public String getNombreEvaluacion() {
+        return estaticas[0].getNombre();
+    }
+
+    /**
+     * Obtiene el número de hilos del evaluador.
+     * @return Hilos
+     */
+    public int getHilos() {
+        return buscadores.length;
+    }
+
+    @Override
+    public void close() {
+        ejecutor.shutdown();
+    }
+}
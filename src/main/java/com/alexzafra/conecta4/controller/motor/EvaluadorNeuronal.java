@@ -0,0 +1,161 @@
+package com.alexzafra.conecta4.controller.motor;
+
+/**
+ * Evaluador basado en una red neuronal pequeña ({@link RedNeuronal}).
+ *
+ * La primera capa se acumula de forma incremental: por cada nivel de la
+ * búsqueda se guardan las sumas de la primera capa desde el punto de vista de
+ * cada jugador, y una jugada solo suma la fila de pesos de la casilla ocupada.
+ * Deshacer no necesita cálculo porque basta con volver al nivel anterior.
+ * Todos los buffers se reservan al crear el evaluador, así que evaluar un
+ * nodo no crea objetos. Cada instancia solo puede usarse desde un hilo.
+ */
+public class EvaluadorNeuronal implements Evaluador {
+    // Factor entre la salida de la red y los puntos de la búsqueda
+    public static final float ESCALA = 40f;
+
+    private static final int CASILLAS = RedNeuronal.CASILLAS;
+
+    // Casilla de la red (columna * ALTO + fila) de cada bit del tablero
+    private static final int[] CASILLA_DE_BIT = new int[PosicionBitboard.ANCHO * PosicionBitboard.ALTO_BITS];
+
+    static {
+        for (int columna = 0; columna < PosicionBitboard.ANCHO; columna++) {
+            for (int fila = 0; fila < PosicionBitboard.ALTO; fila++) {
+                CASILLA_DE_BIT[columna * PosicionBitboard.ALTO_BITS + fila] = columna * PosicionBitboard.ALTO + fila;
+            }
+        }
+    }
+
+    private final int ocultas;
+    private final int segunda;
+    private final float[] w1;
+    private final float[] b1;
+    private final float[] w2;
+    private final float[] b2;
+    private final float[] w3;
+    private final float b3;
+
+    // Acumuladores de la primera capa por número de fichas y perspectiva:
+    // acumuladores[((movimientos * 2) + paridad) * ocultas + j], donde la paridad
+    // indica el jugador (0 el que empezó la posición con movimientos pares)
+    private final float[] acumuladores;
+
+    // Salida de la primera capa tras la activación
+    private final float[] capa1;
+
+    /**
+     * Crea un evaluador con la red cargada al arrancar.
+     * @throws IllegalStateException si no hay ninguna red disponible
+     */
+    public EvaluadorNeuronal() {
+        this(redCargada());
+    }
+
+    /**
+     * Crea un evaluador con una red concreta.
+     * @param red Pesos de la red
+     */
+    public EvaluadorNeuronal(RedNeuronal red) {
+        this.ocultas = red.getOcultas();
+        this.segunda = red.getSegunda();
+        this.w1 = red.getW1();
+        this.b1 = red.getB1();
+        this.w2 = red.getW2();
+        this.b2 = red.getB2();
+        this.w3 = red.getW3();
+        this.b3 = red.getB3();
+        this.acumuladores = new float[(CASILLAS + 1) * 2 * ocultas];
+        this.capa1 = new float[ocultas];
+    }
+
+    /**
+     * Indica si hay una red cargada con la que crear evaluadores neuronales.
+     * @return true si hay red disponible
+     */
+    public static boolean estaDisponible() {
+        return RedNeuronal.getCargada() != null;
+    }
+
+    private static RedNeuronal redCargada() {
+        RedNeuronal red = RedNeuronal.getCargada();
+        if (red == null) {
+            throw new IllegalStateException("No hay ninguna red neuronal disponible");
+        }
+        return red;
+    }
+
+    @Override
+    public void iniciar(PosicionBitboard posicion) {
+        int movimientos = posicion.getMovimientos();
+        long propias = posicion.getPosicionActual();
+        long rivales = propias ^ posicion.getMascara();
+
+        // Perspectiva del jugador con turno y perspectiva del rival
+        int baseTurno = ((movimientos * 2) + (movimientos & 1)) * ocultas;
+        int baseRival = ((movimientos * 2) + ((movimientos + 1) & 1)) * ocultas;
+        System.arraycopy(b1, 0, acumuladores, baseTurno, ocultas);
+        System.arraycopy(b1, 0, acumuladores, baseRival, ocultas);
+
+        for (long fichas = propias; fichas != 0; fichas &= fichas - 1) {
+            int casilla = CASILLA_DE_BIT[Long.numberOfTrailingZeros(fichas)];
+            sumar(baseTurno, casilla * ocultas);
+            sumar(baseRival, (CASILLAS + casilla) * ocultas);
+        }
+        for (long fichas = rivales; fichas != 0; fichas &= fichas - 1) {
+            int casilla = CASILLA_DE_BIT[Long.numberOfTrailingZeros(fichas)];
+            sumar(baseTurno, (CASILLAS + casilla) * ocultas);
+            sumar(baseRival, casilla * ocultas);
+        }
+    }
+
+    private void sumar(int base, int fila) {
+        for (int j = 0; j < ocultas; j++) {
+            acumuladores[base + j] += w1[fila + j];
+        }
+    }
+
+    @Override
+    public void jugar(PosicionBitboard posicion, long movimiento) {
+        int movimientos = posicion.getMovimientos();
+        int autor = movimientos & 1;
+        int casilla = CASILLA_DE_BIT[Long.numberOfTrailingZeros(movimiento)];
+
+        // La ficha es propia para su autor y del rival para el otro jugador
+        int origenAutor = ((movimientos * 2) + autor) * ocultas;
+        int origenOtro = ((movimientos * 2) + (autor ^ 1)) * ocultas;
+        int destinoAutor = origenAutor + 2 * ocultas;
+        int destinoOtro = origenOtro + 2 * ocultas;
+        int filaPropia = casilla * ocultas;
+        int filaRival = (CASILLAS + casilla) * ocultas;
+
+        for (int j = 0; j < ocultas; j++) {
+            acumuladores[destinoAutor + j] = acumuladores[origenAutor + j] + w1[filaPropia + j];
+            acumuladores[destinoOtro + j] = acumuladores[origenOtro + j] + w1[filaRival + j];
+        }
+    }
+
+    @Override
+    public int evaluar(PosicionBitboard posicion) {
+        int movimientos = posicion.getMovimientos();
+        int base = ((movimientos * 2) + (movimientos & 1)) * ocultas;
+
+        for (int j = 0; j < ocultas; j++) {
+            capa1[j] = Math.max(0f, acumuladores[base + j]);
+        }
+
+        float salida = b3;
+        for (int k = 0; k < segunda; k++) {
+            float suma = b2[k];
+            int fila = k * ocultas;
+            for (int j = 0; j < ocultas; j++) {
+                suma += w2[fila + j] * capa1[j];
+            }
+            if (suma > 0f) {
+                salida += w3[k] * suma;
+            }
+        }
+
+        return Math.round(salida * ESCALA);
+    }
+}
@@ -0,0 +1,170 @@
+package com.alexzafra.conecta4.controller.motor;
+
+/**
+ * Conocimiento de zugzwang de Conecta 4 basado en la paridad de las filas.
+ *
+ * Numerando las filas desde abajo empezando en 1, al llenarse el tablero el
+ * primer jugador tiende a quedarse las casillas de filas impares y el segundo
+ * las de filas pares. De ahí salen dos reglas:
+ * <ul>
+ *   <li>Claimeven: si todas las columnas tienen un número par de casillas
+ *       libres, el jugador que no tiene el turno puede responder siempre
+ *       encima de la jugada del rival y quedarse todas las casillas libres de
+ *       filas pares. Si ni rellenando así el tablero el jugador con turno
+ *       consigue cuatro en línea, como mucho empata; y si además el otro sí
+ *       los consigue, pierde. Es una cota demostrada que sirve para podar.</li>
+ *   <li>Control de amenazas: en cada columna manda la amenaza más baja. Una
+ *       amenaza en fila impar favorece al primer jugador y una en fila par al
+ *       segundo; quien tiene amenazas buenas y el rival ninguna suele ganar
+ *       por zugzwang. Esto se usa como puntuación heurística.</li>
+ * </ul>
+ * Como evaluador envuelve a otro y le suma la puntuación de las amenazas.
+ */
+public class EvaluadorParidad implements Evaluador {
+    // Resultados de la regla claimeven
+    public static final int SIN_COTA = 1;
+    public static final int COTA_TABLAS = 0;
+    public static final int COTA_DERROTA = -1;
+
+    // Puntos por amenaza según su paridad y por controlar el zugzwang
+    private static final int PESO_AMENAZA = 8;
+    private static final int PESO_AMENAZA_BUENA = 24;
+    private static final int PESO_CONTROL = 60;
+
+    // Filas 1, 3 y 5 contando desde abajo, y filas 2, 4 y 6
+    public static final long FILAS_IMPARES = filas(0);
+    public static final long FILAS_PARES = filas(1);
+
+    private static final long TABLERO = FILAS_IMPARES | FILAS_PARES;
+
+    private final Evaluador base;
+
+    /**
+     * Crea un evaluador que suma el análisis de paridad al de otro evaluador.
+     * @param base Evaluador principal
+     */
+    public EvaluadorParidad(Evaluador base) {
+        this.base = base;
+    }
+
+    @Override
+    public int evaluar(PosicionBitboard posicion) {
+        return base.evaluar(posicion) + puntuarAmenazas(posicion);
+    }
+
+    @Override
+    public void iniciar(PosicionBitboard posicion) {
+        base.iniciar(posicion);
+    }
+
+    @Override
+    public void jugar(PosicionBitboard posicion, long movimiento) {
+        base.jugar(posicion, movimiento);
+    }
+
+    @Override
+    public void deshacer(PosicionBitboard posicion, long movimiento) {
+        base.deshacer(posicion, movimiento);
+    }
+
+    /**
+     * Aplica la regla claimeven a la posición.
+     * @param posicion Posición con el jugador que tiene el turno
+     * @return COTA_DERROTA si el jugador con turno pierde, COTA_TABLAS si como
+     *         mucho empata, o SIN_COTA si la regla no se aplica o no decide nada
+     */
+    public static int cotaClaimeven(PosicionBitboard posicion) {
+        long mascara = posicion.getMascara();
+
+        // Todas las columnas con casillas libres pares: la más baja libre está en fila impar
+        if ((posicion.movimientosPosibles() & FILAS_PARES) != 0) {
+            return SIN_COTA;
+        }
+
+        long libres = TABLERO & ~mascara;
+        long propias = posicion.getPosicionActual() | (libres & FILAS_IMPARES);
+        if (PosicionBitboard.hayAlineacion(propias)) {
+            return SIN_COTA;
+        }
+
+        long rivales = (posicion.getPosicionActual() ^ mascara) | (libres & FILAS_PARES);
+        return PosicionBitboard.hayAlineacion(rivales) ? COTA_DERROTA : COTA_TABLAS;
+    }
+
+    /**
+     * Puntúa las amenazas de ambos jugadores según su paridad.
+     * @param posicion Posición a evaluar
+     * @return Puntuación desde el punto de vista del jugador con turno
+     */
+    public static int puntuarAmenazas(PosicionBitboard posicion) {
+        long mascara = posicion.getMascara();
+        boolean turnoDelPrimero = (posicion.getMovimientos() & 1) == 0;
+        long primero = turnoDelPrimero ? posicion.getPosicionActual() : posicion.getPosicionActual() ^ mascara;
+        long segundo = primero ^ mascara;
+
+        long amenazasPrimero = PosicionBitboard.calcularPosicionesGanadoras(primero, mascara);
+        long amenazasSegundo = PosicionBitboard.calcularPosicionesGanadoras(segundo, mascara);
+        if ((amenazasPrimero | amenazasSegundo) == 0) {
+            return 0;
+        }
+
+        int puntuacion = 0;
+        int columnasPrimero = 0;
+        int columnasSegundo = 0;
+
+        for (int columna = 0; columna < PosicionBitboard.ANCHO; columna++) {
+            long columnaMascara = PosicionBitboard.mascaraColumna(columna);
+            long delPrimero = amenazasPrimero & columnaMascara;
+            long delSegundo = amenazasSegundo & columnaMascara;
+            if ((delPrimero | delSegundo) == 0) {
+                continue;
+            }
+
+            // Solo cuenta la amenaza más baja: las de encima no llegan a jugarse
+            long inferior = Long.lowestOneBit(delPrimero | delSegundo);
+            boolean primeroAmenaza = (delPrimero & inferior) != 0;
+            boolean segundoAmenaza = (delSegundo & inferior) != 0;
+            if (primeroAmenaza && segundoAmenaza) {
+                continue;
+            }
+
+            if (primeroAmenaza) {
+                if ((inferior & FILAS_IMPARES) != 0) {
+                    columnasPrimero++;
+                } else {
+                    puntuacion += PESO_AMENAZA;
+                }
+            } else {
+                if ((inferior & FILAS_PARES) != 0) {
+                    columnasSegundo++;
+                } else {
+                    puntuacion -= PESO_AMENAZA;
+                }
+            }
+        }
+
+        puntuacion += PESO_AMENAZA_BUENA * (columnasPrimero - columnasSegundo);
+
+        // Quien tiene amenazas de su paridad y el rival ninguna controla el zugzwang
+        if (columnasPrimero > 0 && columnasSegundo == 0) {
+            puntuacion += PESO_CONTROL;
+        } else if (columnasSegundo > 0 && columnasPrimero == 0) {
+            puntuacion -= PESO_CONTROL;
+        }
+
+        return turnoDelPrimero ? puntuacion : -puntuacion;
+    }
+
+    /**
+     * Máscara con las filas de índice inicial, inicial + 2 e inicial + 4.
+     */
+    private static long filas(int inicial) {
+        long resultado = 0L;
+        for (int columna = 0; columna < PosicionBitboard.ANCHO; columna++) {
+            for (int fila = inicial; fila < PosicionBitboard.ALTO; fila += 2) {
+                resultado |= 1L << (columna * PosicionBitboard.ALTO_BITS + fila);
+            }
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,167 @@
+package com.alexzafra.conecta4.controller.motor;
+
+import java.util.Arrays;
+
+/**
+ * Evaluación heurística de posiciones basada en ventanas de cuatro casillas.
+ * Cada una de las 69 ventanas en las que cabe un cuatro en línea puntúa a favor
+ * del jugador que tiene fichas en ella si el rival no tiene ninguna, y cada
+ * casilla ocupada suma su peso posicional.
+ *
+ * La evaluación es lineal en los pesos: es el producto escalar del array de
+ * pesos por el de características de la posición, lo que permite ajustarlos
+ * automáticamente (ver {@link PesosEvaluacion}).
+ */
+public class EvaluadorVentanas implements Evaluador {
+    // Posiciones en el array de pesos
+    public static final int PESO_UNA = 0;
+    public static final int PESO_DOS = 1;
+    public static final int PESO_TRES = 2;
+    public static final int PRIMERA_CASILLA = 3;
+    public static final int NUM_PESOS = PRIMERA_CASILLA + PosicionBitboard.ANCHO * PosicionBitboard.ALTO;
+
+    // Máscaras de todas las ventanas de cuatro casillas
+    private static final long[] VENTANAS = calcularVentanas();
+
+    // Puntos por ventana según el número de fichas de un solo jugador (0-4)
+    private final int[] pesoVentana = new int[5];
+
+    // Peso posicional indexado por bit del tablero
+    private final int[] pesoBit = new int[PosicionBitboard.ANCHO * PosicionBitboard.ALTO_BITS];
+
+    /**
+     * Crea un evaluador con los pesos cargados al arrancar.
+     */
+    public EvaluadorVentanas() {
+        this(PesosEvaluacion.getPesos());
+    }
+
+    /**
+     * Crea un evaluador con unos pesos concretos.
+     * @param pesos Array de NUM_PESOS pesos: tres por ventana y uno por casilla
+     *              (columna a columna, de abajo arriba)
+     */
+    public EvaluadorVentanas(int[] pesos) {
+        if (pesos.length != NUM_PESOS) {
+            throw new IllegalArgumentException("Se esperaban " + NUM_PESOS + " pesos y hay " + pesos.length);
+        }
+        pesoVentana[1] = pesos[PESO_UNA];
+        pesoVentana[2] = pesos[PESO_DOS];
+        pesoVentana[3] = pesos[PESO_TRES];
+        for (int columna = 0; columna < PosicionBitboard.ANCHO; columna++) {
+            for (int fila = 0; fila < PosicionBitboard.ALTO; fila++) {
+                pesoBit[columna * PosicionBitboard.ALTO_BITS + fila] =
+                        pesos[PRIMERA_CASILLA + columna * PosicionBitboard.ALTO + fila];
+            }
+        }
+    }
+
+    /**
+     * Evalúa una posición desde el punto de vista del jugador con turno.
+     * @param posicion Posición a evaluar
+     * @return Puntuación heurística (positiva si favorece al jugador con turno)
+     */
+    @Override
+    public int evaluar(PosicionBitboard posicion) {
+        long propias = posicion.getPosicionActual();
+        long rivales = propias ^ posicion.getMascara();
+        int puntuacion = 0;
+
+        for (long ventana : VENTANAS) {
+            long enVentanaPropias = propias & ventana;
+            long enVentanaRivales = rivales & ventana;
+
+            if (enVentanaRivales == 0) {
+                puntuacion += pesoVentana[Long.bitCount(enVentanaPropias)];
+            } else if (enVentanaPropias == 0) {
+                puntuacion -= pesoVentana[Long.bitCount(enVentanaRivales)];
+            }
+        }
+
+        // Pesos posicionales: se recorren solo las casillas ocupadas
+        for (long fichas = propias; fichas != 0; fichas &= fichas - 1) {
+            puntuacion += pesoBit[Long.numberOfTrailingZeros(fichas)];
+        }
+        for (long fichas = rivales; fichas != 0; fichas &= fichas - 1) {
+            puntuacion -= pesoBit[Long.numberOfTrailingZeros(fichas)];
+        }
+
+        return puntuacion;
+    }
+
+    /**
+     * Calcula las características de una posición, de forma que la evaluación
+     * sea la suma de cada característica por su peso.
+     * @param posicion Posición desde el punto de vista del jugador con turno
+     * @param destino Array donde se escriben las NUM_PESOS características
+     * @param desplazamiento Primera posición del array que se escribe
+     */
+    public static void caracteristicas(PosicionBitboard posicion, byte[] destino, int desplazamiento) {
+        long propias = posicion.getPosicionActual();
+        long rivales = propias ^ posicion.getMascara();
+        Arrays.fill(destino, desplazamiento, desplazamiento + NUM_PESOS, (byte) 0);
+
+        for (long ventana : VENTANAS) {
+            int fichasPropias = Long.bitCount(propias & ventana);
+            int fichasRivales = Long.bitCount(rivales & ventana);
+
+            // Las ventanas completas no tienen peso (la partida ya habría terminado)
+            if (fichasRivales == 0 && fichasPropias > 0 && fichasPropias < 4) {
+                destino[desplazamiento + PESO_UNA + fichasPropias - 1]++;
+            } else if (fichasPropias == 0 && fichasRivales > 0 && fichasRivales < 4) {
+                destino[desplazamiento + PESO_UNA + fichasRivales - 1]--;
+            }
+        }
+
+        for (int columna = 0; columna < PosicionBitboard.ANCHO; columna++) {
+            for (int fila = 0; fila < PosicionBitboard.ALTO; fila++) {
+                long bit = 1L << (columna * PosicionBitboard.ALTO_BITS + fila);
+                int indice = desplazamiento + PRIMERA_CASILLA + columna * PosicionBitboard.ALTO + fila;
+                destino[indice] = (byte) ((propias & bit) != 0 ? 1 : (rivales & bit) != 0 ? -1 : 0);
+            }
+        }
+    }
+
+    /**
+     * Obtiene las máscaras de todas las ventanas de cuatro casillas del tablero.
+     * @return Copia del array de ventanas
+     */
+    public static long[] getVentanas() {
+        return VENTANAS.clone();
+    }
+
+    /**
+     * Genera las máscaras de las ventanas horizontales, verticales y diagonales.
+     */
+    private static long[] calcularVentanas() {
+        int ancho = PosicionBitboard.ANCHO;
+        int alto = PosicionBitboard.ALTO;
+        long[] ventanas = new long[ancho * alto * 4];
+        int total = 0;
+
+        // Direcciones: horizontal, vertical, diagonal ascendente y descendente
+        int[][] direcciones = {{1, 0}, {0, 1}, {1, 1}, {1, -1}};
+
+        for (int columna = 0; columna < ancho; columna++) {
+            for (int fila = 0; fila < alto; fila++) {
+                for (int[] direccion : direcciones) {
+                    int columnaFinal = columna + 3 * direccion[0];
+                    int filaFinal = fila + 3 * direccion[1];
+                    if (columnaFinal < 0 || columnaFinal >= ancho || filaFinal < 0 || filaFinal >= alto) {
+                        continue;
+                    }
+
+                    long ventana = 0L;
+                    for (int i = 0; i < 4; i++) {
+                        int c = columna + i * direccion[0];
+                        int f = fila + i * direccion[1];
+                        ventana |= 1L << (c * PosicionBitboard.ALTO_BITS + f);
+                    }
+                    ventanas[total++] = ventana;
+                }
+            }
+        }
+
+        return Arrays.copyOf(ventanas, total);
+    }
+}
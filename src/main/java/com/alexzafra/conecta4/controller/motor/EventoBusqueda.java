@@ -0,0 +1,48 @@
+package com.alexzafra.conecta4.controller.motor;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento de Java Flight Recorder que se emite al terminar cada búsqueda de la IA.
+ * Su duración es la de la búsqueda, así que permite medir la latencia de la
+ * máquina en grabaciones de producción.
+ */
+@Name("com.alexzafra.conecta4.Busqueda")
+@Label("Búsqueda de la IA")
+@Category({"Conecta 4", "IA"})
+@Description("Estadísticas de una búsqueda de la inteligencia artificial")
+public class EventoBusqueda extends Event {
+    @Label("Motor")
+    String motor;
+
+    @Label("Nodos")
+    long nodos;
+
+    @Label("Nodos por segundo")
+    long nodosPorSegundo;
+
+    @Label("Profundidad")
+    int profundidad;
+
+    @Label("Consultas a la tabla")
+    long sondeosTabla;
+
+    @Label("Aciertos en la tabla")
+    long aciertosTabla;
+
+    @Label("Entradas heredadas")
+    long entradasHeredadas;
+
+    @Label("Cortes beta")
+    long cortes;
+
+    @Label("Factor de ramificación")
+    double factorRamificacion;
+
+    @Label("Presupuesto agotado")
+    boolean presupuestoAgotado;
+}
@@ -0,0 +1,305 @@
+package com.alexzafra.conecta4.controller.motor;
+
+import com.alexzafra.conecta4.modelos.Tablero;
+
+import java.util.Arrays;
+
+/**
+ * Bitboards e índices de posiciones para tableros de cualquier tamaño, usados
+ * por el análisis retrógrado y la base de datos de tableros reducidos.
+ *
+ * Los bitboards tienen el mismo formato que PosicionBitboard: cada columna
+ * ocupa filas + 1 bits, de abajo arriba. Además cada posición tiene un índice
+ * denso dentro de su capa (las posiciones con el mismo número de fichas).
+ * Cada columna es uno de sus estados posibles (altura y dueño de cada
+ * ficha) sin cuatro en línea vertical, y el índice es el orden de la tupla de
+ * estados entre las que suman las fichas de la capa con las que corresponden
+ * a cada jugador. Las posiciones con cuatro en línea vertical no tienen
+ * índice, y las que lo tienen en horizontal o en diagonal sí; esto basta para
+ * que cada capa de un tablero de 6x6 quepa en un array.
+ */
+public class GeometriaTablero {
+    private final int columnas;
+    private final int filas;
+    private final int casillas;
+    private final int altoBits;
+
+    private final long filaInferior;
+    private final long tablero;
+    private final long[] mascarasColumna;
+
+    // Estados de una columna sin cuatro en línea vertical, en orden. El código
+    // de un estado es 1 << altura | fichas del primer jugador, y vale lo mismo
+    // que los bits de la columna en primero + mascara + filaInferior
+    private final int[] codigos;
+    private final int[] alturas;
+    private final int[] primeras;
+
+    // Orden de cada código entre los estados, o -1 si tiene cuatro en línea vertical
+    private final int[] ordenCodigo;
+
+    // Formas de llenar las columnas c..columnas-1 con s fichas, p del primer jugador
+    private final long[] formas;
+
+    // Formas de llenar las columnas c+1.. con las fichas que dejan los estados
+    // anteriores al de la columna c: antes[c][estado][s][p]
+    private final long[] antes;
+
+    private final int maximoPrimeras;
+
+    /**
+     * Crea la geometría de un tablero.
+     * @param columnas Número de columnas
+     * @param filas Número de filas
+     * @throws IllegalArgumentException si el tablero no cabe en un bitboard
+     */
+    public GeometriaTablero(int columnas, int filas) {
+        if (filas < Tablero.MINIMO_LADO || columnas < Tablero.MINIMO_LADO
+                || (filas + 1) * columnas > Tablero.MAXIMO_CASILLAS_BITBOARD) {
+            throw new IllegalArgumentException("Tamaño de tablero no válido: " + columnas + "x" + filas);
+        }
+        this.columnas = columnas;
+        this.filas = filas;
+        this.casillas = columnas * filas;
+        this.altoBits = filas + 1;
+        this.maximoPrimeras = fichasPrimero(casillas);
+
+        long inferior = 0L;
+        mascarasColumna = new long[columnas];
+        for (int columna = 0; columna < columnas; columna++) {
+            inferior |= 1L << (columna * altoBits);
+            mascarasColumna[columna] = ((1L << filas) - 1) << (columna * altoBits);
+        }
+        filaInferior = inferior;
+        tablero = inferior * ((1L << filas) - 1);
+
+        // Estados de una columna, por altura y después por fichas del primer jugador
+        ordenCodigo = new int[1 << altoBits];
+        Arrays.fill(ordenCodigo, -1);
+        int[] codigosTemp = new int[1 << altoBits];
+        int estados = 0;
+        for (int altura = 0; altura <= filas; altura++) {
+            for (int fichas = 0; fichas < 1 << altura; fichas++) {
+                if (!hayVertical(fichas, altura)) {
+                    int codigo = (1 << altura) | fichas;
+                    ordenCodigo[codigo] = estados;
+                    codigosTemp[estados++] = codigo;
+                }
+            }
+        }
+        codigos = Arrays.copyOf(codigosTemp, estados);
+        alturas = new int[estados];
+        primeras = new int[estados];
+        for (int e = 0; e < estados; e++) {
+            alturas[e] = 31 - Integer.numberOfLeadingZeros(codigos[e]);
+            primeras[e] = Integer.bitCount(codigos[e]) - 1;
+        }
+
+        formas = new long[(columnas + 1) * (casillas + 1) * (maximoPrimeras + 1)];
+        antes = new long[columnas * estados * (casillas + 1) * (maximoPrimeras + 1)];
+        formas[posFormas(columnas, 0, 0)] = 1;
+        for (int c = columnas - 1; c >= 0; c--) {
+            for (int s = 0; s <= casillas; s++) {
+                for (int p = 0; p <= maximoPrimeras; p++) {
+                    long acumulado = 0;
+                    for (int e = 0; e < estados; e++) {
+                        antes[posAntes(c, e, s, p)] = acumulado;
+                        acumulado += formasResto(c + 1, s - alturas[e], p - primeras[e]);
+                    }
+                    formas[posFormas(c, s, p)] = acumulado;
+                }
+            }
+        }
+    }
+
+    /**
+     * Indica si las fichas de una columna tienen cuatro iguales seguidas.
+     */
+    private static boolean hayVertical(int fichas, int altura) {
+        for (int fila = 0; fila + 4 <= altura; fila++) {
+            int cuatro = (fichas >>> fila) & 0xF;
+            if (cuatro == 0 || cuatro == 0xF) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int posFormas(int c, int s, int p) {
+        return (c * (casillas + 1) + s) * (maximoPrimeras + 1) + p;
+    }
+
+    private int posAntes(int c, int e, int s, int p) {
+        return ((c * codigos.length + e) * (casillas + 1) + s) * (maximoPrimeras + 1) + p;
+    }
+
+    /**
+     * Formas de llenar las columnas c.. con s fichas, p del primer jugador (0 si no es posible).
+     */
+    private long formasResto(int c, int s, int p) {
+        return s < 0 || p < 0 || p > s || p > maximoPrimeras ? 0 : formas[posFormas(c, s, p)];
+    }
+
+    /**
+     * Obtiene el número de columnas.
+     * @return Columnas
+     */
+    public int getColumnas() {
+        return columnas;
+    }
+
+    /**
+     * Obtiene el número de filas.
+     * @return Filas
+     */
+    public int getFilas() {
+        return filas;
+    }
+
+    /**
+     * Obtiene el número de casillas del tablero.
+     * @return Columnas × filas
+     */
+    public int getCasillas() {
+        return casillas;
+    }
+
+    /**
+     * Número de posiciones de la capa con un número de fichas dado, sin contar
+     * las que tienen cuatro en línea vertical.
+     * @param fichas Fichas en el tablero
+     * @return Tamaño de la capa
+     */
+    public long tamanoCapa(int fichas) {
+        return formas[posFormas(0, fichas, fichasPrimero(fichas))];
+    }
+
+    /**
+     * Calcula el índice de una posición dentro de su capa.
+     * @param primero Fichas del jugador que empieza la partida
+     * @param mascara Casillas ocupadas
+     * @return Índice entre 0 y tamanoCapa(fichas) - 1, o -1 si la posición
+     *         tiene cuatro en línea vertical
+     */
+    public long indice(long primero, long mascara) {
+        int fichas = Long.bitCount(mascara);
+        int s = fichas;
+        int p = fichasPrimero(fichas);
+        long bits = primero + mascara + filaInferior;
+        long indice = 0;
+        for (int columna = 0; columna < columnas; columna++) {
+            int estado = ordenCodigo[(int) (bits >>> (columna * altoBits)) & ((1 << altoBits) - 1)];
+            if (estado < 0) {
+                return -1;
+            }
+            indice += antes[posAntes(columna, estado, s, p)];
+            s -= alturas[estado];
+            p -= primeras[estado];
+        }
+        return indice;
+    }
+
+    /**
+     * Reconstruye la posición de un índice de una capa.
+     * @param fichas Fichas de la capa
+     * @param indice Índice dentro de la capa
+     * @param destino Recibe las fichas del jugador que empieza en [0] y la máscara en [1]
+     */
+    public void posicion(int fichas, long indice, long[] destino) {
+        int s = fichas;
+        int p = fichasPrimero(fichas);
+        long primero = 0L;
+        long mascara = 0L;
+        for (int columna = 0; columna < columnas; columna++) {
+            // El último estado cuyo acumulado no supera lo que queda del índice
+            int estado = 0;
+            int hasta = codigos.length - 1;
+            while (estado < hasta) {
+                int medio = (estado + hasta + 1) >>> 1;
+                if (antes[posAntes(columna, medio, s, p)] <= indice) {
+                    estado = medio;
+                } else {
+                    hasta = medio - 1;
+                }
+            }
+            indice -= antes[posAntes(columna, estado, s, p)];
+            int altura = alturas[estado];
+            primero |= (long) (codigos[estado] ^ (1 << altura)) << (columna * altoBits);
+            mascara |= ((1L << altura) - 1) << (columna * altoBits);
+            s -= altura;
+            p -= primeras[estado];
+        }
+        destino[0] = primero;
+        destino[1] = mascara;
+    }
+
+    /**
+     * Número de fichas del jugador que empieza cuando hay un número de fichas en total.
+     * @param fichas Fichas en el tablero
+     * @return Fichas del primer jugador
+     */
+    public static int fichasPrimero(int fichas) {
+        return (fichas + 1) / 2;
+    }
+
+    /**
+     * Casilla donde caería una ficha en una columna.
+     * @param mascara Casillas ocupadas
+     * @param columna Columna
+     * @return Bit de la casilla, o 0 si la columna está llena
+     */
+    public long movimiento(long mascara, int columna) {
+        return (mascara + (filaInferior & mascarasColumna[columna])) & mascarasColumna[columna];
+    }
+
+    /**
+     * Casillas libres más bajas de todas las columnas no llenas.
+     * @param mascara Casillas ocupadas
+     * @return Máscara de jugadas posibles
+     */
+    public long movimientosPosibles(long mascara) {
+        return (mascara + filaInferior) & tablero;
+    }
+
+    /**
+     * Indica si unas fichas tienen cuatro en línea en este tablero.
+     * @param fichas Fichas de un jugador
+     * @return true si hay cuatro en línea
+     */
+    public boolean hayAlineacion(long fichas) {
+        // Vertical, horizontal y las dos diagonales
+        for (int paso : new int[]{1, altoBits, altoBits - 1, altoBits + 1}) {
+            long pares = fichas & (fichas >>> paso);
+            if ((pares & (pares >>> (2 * paso))) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Convierte un tablero del juego a bitboards.
+     * @param t Tablero del mismo tamaño que esta geometría
+     * @param jugador ID cuyas fichas se devuelven en [0]
+     * @param destino Recibe las fichas del jugador en [0] y la máscara en [1]
+     */
+    public void desdeTablero(Tablero t, int jugador, long[] destino) {
+        long propias = 0L;
+        long mascara = 0L;
+        for (int columna = 0; columna < columnas; columna++) {
+            for (int fila = 0; fila < filas; fila++) {
+                // La fila 0 del tablero es la de arriba
+                int casilla = t.obtenerCasilla(filas - 1 - fila, columna);
+                if (casilla != Tablero.VACIO) {
+                    long bit = 1L << (columna * altoBits + fila);
+                    mascara |= bit;
+                    if (casilla == jugador) {
+                        propias |= bit;
+                    }
+                }
+            }
+        }
+        destino[0] = propias;
+        destino[1] = mascara;
+    }
+}
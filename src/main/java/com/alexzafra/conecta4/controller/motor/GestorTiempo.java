@@ -0,0 +1,148 @@
+package com.alexzafra.conecta4.controller.motor;
+
+/**
+ * Reparto adaptativo del tiempo de reflexión de una jugada.
+ *
+ * En lugar de gastar siempre el mismo presupuesto, el tiempo objetivo de la
+ * jugada depende de la fase de la partida (poco en la apertura, más en el
+ * medio juego, donde se deciden las partidas) y del número de jugadas que no
+ * pierden de inmediato: con una sola no hace falta buscar y con pocas basta
+ * con menos tiempo. Durante la profundización iterativa el objetivo crece si
+ * la mejor columna o su puntuación cambian entre iteraciones, y la búsqueda
+ * no empieza una iteración que, por el factor de ramificación, no podría
+ * terminar antes del tiempo máximo.
+ *
+ * Se crea uno por jugada y solo puede usarse desde el hilo de la búsqueda.
+ */
+public class GestorTiempo {
+    // Fichas hasta las que se considera apertura y a partir de las que se considera final
+    public static final int FIN_APERTURA = 6;
+    public static final int INICIO_FINAL = 26;
+
+    // Factor del presupuesto en cada fase de la partida
+    private static final double FACTOR_APERTURA = 0.5;
+    private static final double FACTOR_MEDIO_JUEGO = 1.5;
+    private static final double FACTOR_FINAL = 0.75;
+
+    // Factor con dos jugadas que no pierden (con una no se busca)
+    private static final double FACTOR_DOS_JUGADAS = 0.5;
+
+    // Ampliación del objetivo cuando la variante principal cambia
+    private static final double AMPLIACION_INESTABLE = 1.5;
+
+    // Cambio de puntuación entre iteraciones que se considera inestable
+    private static final int SALTO_PUNTUACION = 50;
+
+    // Iteraciones seguidas con la misma mejor columna para terminar antes del objetivo
+    private static final int ITERACIONES_ESTABLES = 4;
+
+    // El tiempo máximo es este múltiplo del objetivo (sin pasar del disponible)
+    private static final double MULTIPLO_MAXIMO = 3.0;
+
+    private final long inicioNanos;
+    private final long maximoMs;
+    private double objetivoMs;
+
+    // Estado de la iteración anterior
+    private int columnaAnterior = -1;
+    private int puntuacionAnterior = ResultadoAnalisis.SIN_VALOR;
+    private int iteracionesEstables;
+    private long finIteracionAnteriorNanos;
+    private int cambiosMejorColumna;
+
+    /**
+     * Calcula el tiempo de una jugada.
+     * @param presupuestoMs Tiempo medio por jugada
+     * @param disponibleMs Tiempo que queda hasta el límite duro (0 si no hay límite)
+     * @param movimientos Fichas en el tablero
+     * @param jugadasNoPerdedoras Jugadas que no pierden de inmediato
+     */
+    public GestorTiempo(long presupuestoMs, long disponibleMs, int movimientos, int jugadasNoPerdedoras) {
+        this.inicioNanos = System.nanoTime();
+
+        double fase = movimientos < FIN_APERTURA ? FACTOR_APERTURA
+                : movimientos < INICIO_FINAL ? FACTOR_MEDIO_JUEGO : FACTOR_FINAL;
+        double movilidad = jugadasNoPerdedoras <= 2 ? FACTOR_DOS_JUGADAS : 1.0;
+        double objetivo = presupuestoMs * fase * movilidad;
+
+        long maximo = (long) Math.ceil(objetivo * MULTIPLO_MAXIMO);
+        if (disponibleMs > 0) {
+            maximo = Math.min(maximo, disponibleMs);
+        }
+        this.maximoMs = Math.max(1, maximo);
+        this.objetivoMs = Math.min(objetivo, maximoMs);
+        this.finIteracionAnteriorNanos = inicioNanos;
+    }
+
+    /**
+     * Indica si hace falta buscar: con una sola jugada que no pierde se juega directamente.
+     * @param jugadasNoPerdedoras Jugadas que no pierden de inmediato
+     * @return true si la elección no es forzada
+     */
+    public static boolean hayQueBuscar(int jugadasNoPerdedoras) {
+        return jugadasNoPerdedoras != 1;
+    }
+
+    /**
+     * Decide, al terminar una iteración, si se empieza la siguiente.
+     * @param resultado Resultado de la iteración terminada
+     * @param factorRamificacion Nodos de esta iteración respecto a la anterior (0 si no se conoce)
+     * @return true si hay tiempo para otra iteración
+     */
+    public boolean seguir(ResultadoAnalisis resultado, double factorRamificacion) {
+        long ahora = System.nanoTime();
+        double transcurridoMs = (ahora - inicioNanos) / 1e6;
+        double iteracionMs = (ahora - finIteracionAnteriorNanos) / 1e6;
+        finIteracionAnteriorNanos = ahora;
+
+        // Una variante principal que cambia pide más tiempo; una estable, menos
+        int columna = resultado.getMejorColumna();
+        int puntuacion = resultado.getPuntuacion(columna);
+        boolean estable = columna == columnaAnterior;
+        if (!estable || (puntuacionAnterior != ResultadoAnalisis.SIN_VALOR
+                && Math.abs(puntuacion - puntuacionAnterior) >= SALTO_PUNTUACION)) {
+            if (columnaAnterior >= 0) {
+                cambiosMejorColumna++;
+                objetivoMs = Math.min(maximoMs, objetivoMs * AMPLIACION_INESTABLE);
+            }
+            iteracionesEstables = 0;
+        } else {
+            iteracionesEstables++;
+        }
+        columnaAnterior = columna;
+        puntuacionAnterior = puntuacion;
+
+        double objetivo = iteracionesEstables >= ITERACIONES_ESTABLES ? objetivoMs / 2 : objetivoMs;
+        if (transcurridoMs >= objetivo) {
+            return false;
+        }
+
+        // No empezar una iteración que no terminaría antes del máximo
+        double prevista = iteracionMs * Math.max(1.0, factorRamificacion);
+        return transcurridoMs + prevista < maximoMs;
+    }
+
+    /**
+     * Obtiene el tiempo máximo de la jugada, a partir del cual se corta la búsqueda.
+     * @return Milisegundos
+     */
+    public long getMaximoMs() {
+        return maximoMs;
+    }
+
+    /**
+     * Obtiene el tiempo objetivo actual de la jugada.
+     * @return Milisegundos
+     */
+    public long getObjetivoMs() {
+        return (long) objetivoMs;
+    }
+
+    /**
+     * Obtiene cuántas veces ha cambiado la mejor columna entre iteraciones.
+     * @return Cambios de la variante principal
+     */
+    public int getCambiosMejorColumna() {
+        return cambiosMejorColumna;
+    }
+}
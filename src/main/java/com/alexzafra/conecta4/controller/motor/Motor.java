@@ -0,0 +1,86 @@
+package com.alexzafra.conecta4.controller.motor;
+
+import java.util.function.Consumer;
+
+/**
+ * Motor de juego intercambiable: elige una jugada o analiza una posición y
+ * deja las estadísticas de su último cálculo. Los motores disponibles se
+ * registran por nombre en RegistroMotores, de modo que cada mesa puede usar
+ * uno distinto y se pueden comparar varios en el mismo proceso.
+ *
+ * Cada motor declara la memoria y los hilos que usa como máximo, para repartir
+ * la máquina entre varias mesas. Un motor solo puede calcular una jugada a la
+ * vez; detener() y el token de cancelación se pueden usar desde otro hilo.
+ */
+public interface Motor {
+
+    /**
+     * Obtiene el nombre con el que el motor está registrado y aparece en las estadísticas.
+     * @return Nombre del motor
+     */
+    String getNombre();
+
+    /**
+     * Elige la jugada del jugador con turno.
+     * @param posicion Posición sin ganador (no se modifica)
+     * @return Columna elegida, o -1 si no hay jugadas o el cálculo se ha cancelado
+     */
+    default int elegirColumna(PosicionBitboard posicion) {
+        ResultadoAnalisis resultado = analizar(posicion, null);
+        return resultado != null ? resultado.getMejorColumna() : -1;
+    }
+
+    /**
+     * Analiza todas las columnas jugables. Los motores iterativos entregan al
+     * oyente cada resultado parcial; los demás solo el final. Las puntuaciones
+     * solo se pueden comparar entre columnas del mismo resultado.
+     * @param posicion Posición sin ganador (no se modifica)
+     * @param oyente Receptor de los resultados parciales (puede ser null)
+     * @return Resultado final, o null si no hay jugadas o el cálculo se ha cancelado
+     */
+    ResultadoAnalisis analizar(PosicionBitboard posicion, Consumer<ResultadoAnalisis> oyente);
+
+    /**
+     * Cambia el tiempo de reflexión por jugada.
+     * @param presupuestoMs Milisegundos por jugada (0 para limitar solo por profundidad o simulaciones)
+     */
+    void setPresupuestoMs(long presupuestoMs);
+
+    /**
+     * Pide que el cálculo en curso termine lo antes posible devolviendo lo
+     * mejor que tenga. Si todavía no ha empezado, el siguiente termina nada más
+     * empezar: la petición dura hasta reanudar(). Se puede llamar desde
+     * cualquier hilo.
+     */
+    void detener();
+
+    /**
+     * Anula una petición de detener() anterior. Se llama al preparar un nuevo
+     * cálculo, antes de que nadie pueda detenerlo.
+     */
+    void reanudar();
+
+    /**
+     * Asocia un token de cancelación a los cálculos siguientes.
+     * @param cancelacion Token a consultar (null para ninguno)
+     */
+    void setCancelacion(TokenCancelacion cancelacion);
+
+    /**
+     * Obtiene las estadísticas del último cálculo.
+     * @return Estadísticas, o null si todavía no ha calculado nada
+     */
+    EstadisticasBusqueda getEstadisticas();
+
+    /**
+     * Obtiene la memoria que reserva el motor como máximo (tablas, árboles).
+     * @return Megabytes
+     */
+    int getMemoriaMegabytes();
+
+    /**
+     * Obtiene los hilos que usa el motor mientras calcula.
+     * @return Número de hilos
+     */
+    int getHilos();
+}
@@ -0,0 +1,119 @@
+package com.alexzafra.conecta4.controller.motor;
+
+import java.util.function.Consumer;
+
+/**
+ * Motor de búsqueda alfa-beta con profundización iterativa, el mismo que usa
+ * el nivel demencial: evaluación de ventanas con paridad de amenazas, tabla de
+ * transposición que se conserva entre jugadas y reparto adaptativo del tiempo.
+ */
+public class MotorAlfaBeta implements Motor {
+    // Nombre del motor en el registro y en las estadísticas
+    public static final String NOMBRE = BuscadorAlfaBeta.NOMBRE;
+
+    // Tiempo de reflexión por jugada si no se indica otro
+    public static final long PRESUPUESTO_POR_DEFECTO_MS = 300;
+
+    // Profundidad con la que se comprueba una jugada forzada
+    private static final int PROFUNDIDAD_FORZADA = 2;
+
+    private final BuscadorAlfaBeta buscador;
+    private final int megabytes;
+    private long presupuestoMs = PRESUPUESTO_POR_DEFECTO_MS;
+    private int profundidadMaxima = Solucionador.CASILLAS;
+    private TokenCancelacion cancelacion = TokenCancelacion.NINGUNO;
+
+    /**
+     * Crea el motor con una tabla de transposición del tamaño por defecto.
+     */
+    public MotorAlfaBeta() {
+        this(TablaTransposicion.MEGABYTES_POR_DEFECTO);
+    }
+
+    /**
+     * Crea el motor con una tabla de transposición del tamaño indicado.
+     * @param megabytes Memoria de la tabla de transposición
+     */
+    public MotorAlfaBeta(int megabytes) {
+        this.megabytes = megabytes;
+        buscador = new BuscadorAlfaBeta(new TablaTransposicion(megabytes),
+                new EvaluadorParidad(new EvaluadorVentanas()));
+    }
+
+    @Override
+    public String getNombre() {
+        return NOMBRE;
+    }
+
+    @Override
+    public ResultadoAnalisis analizar(PosicionBitboard posicion, Consumer<ResultadoAnalisis> oyente) {
+        int profundidad = Math.min(profundidadMaxima, Solucionador.CASILLAS - posicion.getMovimientos());
+        ResultadoAnalisis resultado;
+
+        long noPerdedoras = posicion.puedeGanarSiguiente() ? 0 : posicion.movimientosNoPerdedores();
+        if (!GestorTiempo.hayQueBuscar(Long.bitCount(noPerdedoras))) {
+            // Con una sola jugada que no pierde basta con confirmarla
+            resultado = buscador.analizar(posicion, Math.min(profundidad, PROFUNDIDAD_FORZADA), 0, oyente);
+        } else if (presupuestoMs > 0) {
+            resultado = buscador.analizar(posicion, profundidad, new GestorTiempo(presupuestoMs, 0,
+                    posicion.getMovimientos(), Long.bitCount(noPerdedoras)), oyente);
+        } else {
+            resultado = buscador.analizar(posicion, profundidad, 0, oyente);
+        }
+        // Un cálculo cancelado no tiene resultado aunque haya completado alguna profundidad
+        return cancelacion.isCancelado() ? null : resultado;
+    }
+
+    @Override
+    public void setPresupuestoMs(long presupuestoMs) {
+        this.presupuestoMs = presupuestoMs;
+    }
+
+    /**
+     * Cambia la profundidad máxima. Con un presupuesto de 0 ms es lo único que
+     * limita la búsqueda y las jugadas son reproducibles.
+     * @param profundidadMaxima Profundidad máxima en medias jugadas
+     */
+    public void setProfundidadMaxima(int profundidadMaxima) {
+        this.profundidadMaxima = profundidadMaxima;
+    }
+
+    @Override
+    public void detener() {
+        buscador.detener();
+    }
+
+    @Override
+    public void reanudar() {
+        buscador.reanudar();
+    }
+
+    @Override
+    public void setCancelacion(TokenCancelacion cancelacion) {
+        this.cancelacion = TokenCancelacion.oNinguno(cancelacion);
+        buscador.setCancelacion(cancelacion);
+    }
+
+    @Override
+    public EstadisticasBusqueda getEstadisticas() {
+        return buscador.getEstadisticas();
+    }
+
+    @Override
+    public int getMemoriaMegabytes() {
+        return megabytes;
+    }
+
+    @Override
+    public int getHilos() {
+        return 1;
+    }
+
+    /**
+     * Obtiene el buscador del motor, por ejemplo para consultar su tabla.
+     * @return Buscador alfa-beta
+     */
+    public BuscadorAlfaBeta getBuscador() {
+        return buscador;
+    }
+}
@@ -0,0 +1,128 @@
+package com.alexzafra.conecta4.controller.motor;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Motor de reglas sin búsqueda, equivalente a los niveles bajos de la IA:
+ * gana si puede, evita las jugadas que dejan ganar al rival en la siguiente
+ * y entre las demás prefiere las que crean más amenazas y las más centrales,
+ * desempatando al azar. Cuesta unos pocos cientos de nanosegundos por jugada.
+ */
+public class MotorHeuristico implements Motor {
+    // Nombre del motor en el registro y en las estadísticas
+    public static final String NOMBRE = "heuristico";
+
+    // Puntuación de una jugada que gana o que deja ganar al rival
+    private static final int GANADORA = 1000;
+    private static final int PERDEDORA = -1000;
+
+    // Peso de cada amenaza creada frente a la cercanía al centro
+    private static final int PESO_AMENAZA = 4;
+
+    private final NucleoSimulacion generador;
+    private EstadisticasBusqueda estadisticas;
+
+    /**
+     * Crea el motor.
+     * @param semilla Semilla para desempatar entre jugadas iguales
+     */
+    public MotorHeuristico(long semilla) {
+        generador = new NucleoSimulacion(semilla);
+    }
+
+    @Override
+    public String getNombre() {
+        return NOMBRE;
+    }
+
+    @Override
+    public ResultadoAnalisis analizar(PosicionBitboard posicion, Consumer<ResultadoAnalisis> oyente) {
+        long inicio = System.nanoTime();
+        int[] puntuaciones = new int[PosicionBitboard.ANCHO];
+        int[][] variaciones = new int[PosicionBitboard.ANCHO][];
+        Arrays.fill(puntuaciones, ResultadoAnalisis.SIN_VALOR);
+
+        // Jugadas que no dejan ganar al rival; si no hay ninguna, todas pierden igual
+        boolean puedeGanar = posicion.puedeGanarSiguiente();
+        long noPerdedoras = puedeGanar ? 0 : posicion.movimientosNoPerdedores();
+
+        int mejorColumna = -1;
+        int empates = 0;
+        int evaluadas = 0;
+        for (int columna = 0; columna < PosicionBitboard.ANCHO; columna++) {
+            if (!posicion.puedeJugar(columna)) {
+                continue;
+            }
+            evaluadas++;
+            long jugada = posicion.movimiento(columna);
+            int puntuacion;
+            if (posicion.esMovimientoGanador(columna)) {
+                puntuacion = GANADORA;
+            } else if (puedeGanar || (jugada & noPerdedoras) == 0) {
+                puntuacion = PERDEDORA;
+            } else {
+                puntuacion = PESO_AMENAZA * posicion.puntuarMovimiento(jugada)
+                        - Math.abs(columna - PosicionBitboard.ANCHO / 2);
+            }
+            puntuaciones[columna] = puntuacion;
+            variaciones[columna] = new int[]{columna};
+
+            // Desempate uniforme entre las mejores (muestreo por reservorio)
+            if (mejorColumna < 0 || puntuacion > puntuaciones[mejorColumna]) {
+                mejorColumna = columna;
+                empates = 1;
+            } else if (puntuacion == puntuaciones[mejorColumna]
+                    && NucleoSimulacion.acotar(generador.siguiente(), ++empates) == 0) {
+                mejorColumna = columna;
+            }
+        }
+
+        estadisticas = new EstadisticasBusqueda(NOMBRE, evaluadas, mejorColumna < 0 ? 0 : 1, 0, 0, 0, 0.0,
+                System.nanoTime() - inicio, false);
+        if (mejorColumna < 0) {
+            return null;
+        }
+        ResultadoAnalisis resultado = new ResultadoAnalisis(1, puntuaciones, variaciones, mejorColumna,
+                evaluadas, (System.nanoTime() - inicio) / 1_000_000L);
+        if (oyente != null) {
+            oyente.accept(resultado);
+        }
+        return resultado;
+    }
+
+    @Override
+    public void setPresupuestoMs(long presupuestoMs) {
+        // Las reglas no usan tiempo de reflexión
+    }
+
+    @Override
+    public void detener() {
+        // Cada jugada es instantánea
+    }
+
+    @Override
+    public void reanudar() {
+        // Cada jugada es instantánea
+    }
+
+    @Override
+    public void setCancelacion(TokenCancelacion cancelacion) {
+        // Cada jugada es instantánea
+    }
+
+    @Override
+    public EstadisticasBusqueda getEstadisticas() {
+        return estadisticas;
+    }
+
+    @Override
+    public int getMemoriaMegabytes() {
+        return 0;
+    }
+
+    @Override
+    public int getHilos() {
+        return 1;
+    }
+}
@@ -0,0 +1,408 @@
+package com.alexzafra.conecta4.controller.motor;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Motor de búsqueda en árbol de Monte Carlo (UCT). Cada iteración baja por el
+ * árbol eligiendo el hijo con mejor cota UCB1, añade un nodo y termina la
+ * partida al azar con el núcleo de simulación; el resultado se propaga hacia
+ * la raíz. Se juega la columna más visitada.
+ *
+ * El árbol se guarda en arrays reservados al crear el motor, con el tamaño
+ * que permite su presupuesto de memoria; cuando se llena se siguen haciendo
+ * simulaciones desde las hojas sin añadir nodos. Al crear un nodo solo se
+ * consideran las jugadas que no dejan ganar al rival en la siguiente, y si
+ * hay una jugada ganadora solo esa, así que las tácticas inmediatas no
+ * dependen del azar.
+ */
+public class MotorMonteCarlo implements Motor {
+    // Nombre del motor en el registro y en las estadísticas
+    public static final String NOMBRE = "mcts";
+
+    // Tiempo de reflexión por jugada si no se indica otro
+    public static final long PRESUPUESTO_POR_DEFECTO_MS = 300;
+
+    // Simulaciones por jugada cuando no hay presupuesto de tiempo
+    public static final int SIMULACIONES_POR_DEFECTO = 20000;
+
+    // Memoria del árbol si no se indica otra
+    public static final int MEGABYTES_POR_DEFECTO = 16;
+
+    private static final int ANCHO = PosicionBitboard.ANCHO;
+    private static final int CASILLAS = PosicionBitboard.ANCHO * PosicionBitboard.ALTO;
+
+    // Bytes de cada nodo: hijos, visitas, puntos, jugadas pendientes y estado
+    private static final int BYTES_POR_NODO = ANCHO * 4 + 4 + 4 + 8 + 1;
+
+    // Constante de exploración de UCB1
+    private static final double EXPLORACION = 1.4;
+
+    // Cada cuántas simulaciones se comprueban el tiempo y la cancelación
+    private static final int INTERVALO_COMPROBACION = 256;
+
+    // Estado de un nodo según la jugada que lleva a él
+    private static final byte ABIERTO = 0;
+    private static final byte GANADO = 1;
+    private static final byte EMPATADO = 2;
+
+    // Puntos de una simulación para el jugador que hizo la jugada del nodo
+    // (medios puntos: 2 victoria, 1 tablas, 0 derrota)
+    private static final int PUNTOS_VICTORIA = 2;
+    private static final int PUNTOS_TABLAS = 1;
+
+    // Árbol: el nodo 0 es la raíz, así que 0 en hijos indica que no hay hijo
+    private final int capacidad;
+    private final int[] hijos;
+    private final int[] visitas;
+    private final int[] puntos;
+    private final long[] pendientes;
+    private final byte[] estado;
+    private int nodosUsados;
+
+    private final int megabytes;
+    private final NucleoSimulacion nucleo;
+    private long presupuestoMs = PRESUPUESTO_POR_DEFECTO_MS;
+    private int simulaciones = SIMULACIONES_POR_DEFECTO;
+
+    // Parada pedida desde otro hilo; dura hasta reanudar()
+    private volatile boolean detenido;
+    private TokenCancelacion cancelacion = TokenCancelacion.NINGUNO;
+    private EstadisticasBusqueda estadisticas;
+
+    /**
+     * Crea el motor con la memoria por defecto.
+     * @param semilla Semilla de las simulaciones
+     */
+    public MotorMonteCarlo(long semilla) {
+        this(MEGABYTES_POR_DEFECTO, semilla);
+    }
+
+    /**
+     * Crea el motor con un árbol que ocupa como máximo los megabytes indicados.
+     * @param megabytes Memoria máxima del árbol
+     * @param semilla Semilla de las simulaciones
+     */
+    public MotorMonteCarlo(int megabytes, long semilla) {
+        this.megabytes = megabytes;
+        capacidad = (int) Math.max(1024, Math.min(Integer.MAX_VALUE / ANCHO,
+                (long) megabytes * 1024 * 1024 / BYTES_POR_NODO));
+        hijos = new int[capacidad * ANCHO];
+        visitas = new int[capacidad];
+        puntos = new int[capacidad];
+        pendientes = new long[capacidad];
+        estado = new byte[capacidad];
+        nucleo = new NucleoSimulacion(semilla);
+    }
+
+    @Override
+    public String getNombre() {
+        return NOMBRE;
+    }
+
+    @Override
+    public ResultadoAnalisis analizar(PosicionBitboard posicion, Consumer<ResultadoAnalisis> oyente) {
+        EventoBusqueda evento = new EventoBusqueda();
+        evento.begin();
+        long inicio = System.nanoTime();
+        // Una parada pedida con detener() se atiende en la primera comprobación,
+        // cuando ya hay simulaciones para elegir jugada
+        boolean cortado = cancelacion.isCancelado();
+
+        PosicionBitboard p = new PosicionBitboard(posicion);
+        nodosUsados = 1;
+        iniciarNodo(0, p, false);
+
+        long limiteNanos = presupuestoMs > 0 ? inicio + presupuestoMs * 1_000_000L : Long.MAX_VALUE;
+        long maximoSimulaciones = presupuestoMs > 0 ? Long.MAX_VALUE : simulaciones;
+        boolean presupuestoAgotado = false;
+
+        int[] camino = new int[CASILLAS + 1];
+        int[] columnas = new int[CASILLAS];
+        int profundidadMaxima = 0;
+        long iteraciones = 0;
+
+        // Sin jugadas (tablero lleno) no hay nada que simular
+        boolean hayJugadas = pendientes[0] != 0;
+        while (hayJugadas && iteraciones < maximoSimulaciones) {
+            if (iteraciones > 0 && iteraciones % INTERVALO_COMPROBACION == 0) {
+                if (detenido || cancelacion.isCancelado()) {
+                    cortado = true;
+                }
+                if (System.nanoTime() >= limiteNanos) {
+                    presupuestoAgotado = true;
+                    break;
+                }
+            }
+            if (cortado) {
+                break;
+            }
+
+            int longitud = iterar(p, camino, columnas);
+            profundidadMaxima = Math.max(profundidadMaxima, longitud);
+            iteraciones++;
+        }
+
+        estadisticas = new EstadisticasBusqueda(NOMBRE, iteraciones, profundidadMaxima, 0, 0, 0, 0.0,
+                System.nanoTime() - inicio, presupuestoAgotado);
+        estadisticas.publicar(evento);
+
+        if (cancelacion.isCancelado() || hijos(0) == 0) {
+            return null;
+        }
+        ResultadoAnalisis resultado = crearResultado(p, profundidadMaxima, iteraciones,
+                (System.nanoTime() - inicio) / 1_000_000L);
+        if (oyente != null) {
+            oyente.accept(resultado);
+        }
+        return resultado;
+    }
+
+    /**
+     * Hace una iteración: selección, expansión, simulación y propagación.
+     * La posición queda como estaba.
+     * @return Longitud del camino recorrido desde la raíz
+     */
+    private int iterar(PosicionBitboard p, int[] camino, int[] columnas) {
+        int nodo = 0;
+        int longitud = 0;
+        camino[0] = 0;
+        int valor;
+
+        while (true) {
+            if (estado[nodo] == GANADO) {
+                valor = PUNTOS_VICTORIA;
+                break;
+            }
+            if (estado[nodo] == EMPATADO) {
+                valor = PUNTOS_TABLAS;
+                break;
+            }
+
+            long pendientesNodo = pendientes[nodo];
+            if (pendientesNodo != 0) {
+                if (nodosUsados == capacidad) {
+                    // Árbol lleno: se simula desde aquí sin añadir nodos
+                    valor = PUNTOS_TABLAS - nucleo.simular(p);
+                    break;
+                }
+
+                // Expansión de una jugada pendiente elegida al azar
+                long bit = NucleoSimulacion.seleccionar(pendientesNodo,
+                        NucleoSimulacion.acotar(nucleo.siguiente(), Long.bitCount(pendientesNodo)));
+                pendientes[nodo] = pendientesNodo ^ bit;
+                int columna = Long.numberOfTrailingZeros(bit);
+                boolean gana = p.esMovimientoGanador(columna);
+                int hijo = nodosUsados++;
+                hijos[nodo * ANCHO + columna] = hijo;
+
+                p.jugar(columna);
+                columnas[longitud++] = columna;
+                camino[longitud] = hijo;
+                iniciarNodo(hijo, p, gana);
+
+                if (estado[hijo] == GANADO) {
+                    valor = PUNTOS_VICTORIA;
+                } else if (estado[hijo] == EMPATADO) {
+                    valor = PUNTOS_TABLAS;
+                } else {
+                    // La simulación puntúa para el jugador con turno, que es el rival
+                    valor = PUNTOS_TABLAS - nucleo.simular(p);
+                }
+                break;
+            }
+
+            // Selección del hijo con mejor cota UCB1
+            int mejorHijo = 0;
+            int mejorColumna = -1;
+            double mejorCota = Double.NEGATIVE_INFINITY;
+            double logaritmo = Math.log(visitas[nodo]);
+            for (int columna = 0; columna < ANCHO; columna++) {
+                int hijo = hijos[nodo * ANCHO + columna];
+                if (hijo == 0) {
+                    continue;
+                }
+                double cota = puntos[hijo] / (2.0 * visitas[hijo])
+                        + EXPLORACION * Math.sqrt(logaritmo / visitas[hijo]);
+                if (cota > mejorCota) {
+                    mejorCota = cota;
+                    mejorHijo = hijo;
+                    mejorColumna = columna;
+                }
+            }
+
+            p.jugar(mejorColumna);
+            columnas[longitud++] = mejorColumna;
+            camino[longitud] = mejorHijo;
+            nodo = mejorHijo;
+        }
+
+        // Propagación: cada nivel puntúa para el jugador que hizo su jugada
+        for (int i = longitud; i >= 0; i--) {
+            int n = camino[i];
+            visitas[n]++;
+            puntos[n] += valor;
+            valor = PUNTOS_VICTORIA - valor;
+        }
+        for (int i = longitud - 1; i >= 0; i--) {
+            p.deshacer(columnas[i]);
+        }
+        return longitud;
+    }
+
+    /**
+     * Prepara un nodo recién creado para la posición a la que lleva.
+     * @param gana true si la jugada que lleva al nodo conecta cuatro
+     */
+    private void iniciarNodo(int nodo, PosicionBitboard p, boolean gana) {
+        Arrays.fill(hijos, nodo * ANCHO, nodo * ANCHO + ANCHO, 0);
+        visitas[nodo] = 0;
+        puntos[nodo] = 0;
+        if (gana) {
+            estado[nodo] = GANADO;
+            pendientes[nodo] = 0;
+        } else if (p.getMovimientos() == CASILLAS) {
+            estado[nodo] = EMPATADO;
+            pendientes[nodo] = 0;
+        } else {
+            estado[nodo] = ABIERTO;
+            pendientes[nodo] = columnasCandidatas(p);
+        }
+    }
+
+    /**
+     * Columnas que merece la pena explorar: las ganadoras si las hay y si no
+     * las que no dejan ganar al rival (todas si cualquiera pierde).
+     * @return Máscara con un bit por columna
+     */
+    private static long columnasCandidatas(PosicionBitboard p) {
+        long jugadas;
+        if (p.puedeGanarSiguiente()) {
+            jugadas = p.posicionesGanadoras() & p.movimientosPosibles();
+        } else {
+            jugadas = p.movimientosNoPerdedores();
+            if (jugadas == 0) {
+                jugadas = p.movimientosPosibles();
+            }
+        }
+
+        long candidatas = 0;
+        for (int columna = 0; columna < ANCHO; columna++) {
+            if ((jugadas & PosicionBitboard.mascaraColumna(columna)) != 0) {
+                candidatas |= 1L << columna;
+            }
+        }
+        return candidatas;
+    }
+
+    /**
+     * Número de hijos creados de un nodo.
+     */
+    private int hijos(int nodo) {
+        int cuenta = 0;
+        for (int columna = 0; columna < ANCHO; columna++) {
+            if (hijos[nodo * ANCHO + columna] != 0) {
+                cuenta++;
+            }
+        }
+        return cuenta;
+    }
+
+    /**
+     * Construye el resultado a partir de la raíz: cada columna explorada puntúa
+     * su media de -1000 (siempre pierde) a 1000 (siempre gana), las jugables
+     * descartadas por perder de inmediato -1000, y la variante principal sigue
+     * los hijos más visitados.
+     */
+    private ResultadoAnalisis crearResultado(PosicionBitboard p, int profundidad, long iteraciones, long tiempoMs) {
+        int[] puntuaciones = new int[ANCHO];
+        int[][] variaciones = new int[ANCHO][];
+        int mejorColumna = -1;
+        for (int columna = 0; columna < ANCHO; columna++) {
+            int hijo = hijos[columna];
+            if (hijo != 0) {
+                puntuaciones[columna] = (int) Math.round(1000.0 * puntos[hijo] / visitas[hijo] - 1000);
+                variaciones[columna] = variacion(columna, hijo);
+                if (mejorColumna < 0 || visitas[hijo] > visitas[hijos[mejorColumna]]) {
+                    mejorColumna = columna;
+                }
+            } else if (p.puedeJugar(columna)) {
+                puntuaciones[columna] = -1000;
+                variaciones[columna] = new int[]{columna};
+            } else {
+                puntuaciones[columna] = ResultadoAnalisis.SIN_VALOR;
+            }
+        }
+        return new ResultadoAnalisis(profundidad, puntuaciones, variaciones, mejorColumna, iteraciones, tiempoMs);
+    }
+
+    /**
+     * Variante principal desde un hijo de la raíz, siguiendo los nodos más visitados.
+     */
+    private int[] variacion(int columna, int nodo) {
+        int[] columnas = new int[CASILLAS];
+        int longitud = 0;
+        columnas[longitud++] = columna;
+        while (true) {
+            int mejor = 0;
+            int mejorColumna = -1;
+            for (int c = 0; c < ANCHO; c++) {
+                int hijo = hijos[nodo * ANCHO + c];
+                if (hijo != 0 && (mejor == 0 || visitas[hijo] > visitas[mejor])) {
+                    mejor = hijo;
+                    mejorColumna = c;
+                }
+            }
+            if (mejor == 0) {
+                break;
+            }
+            columnas[longitud++] = mejorColumna;
+            nodo = mejor;
+        }
+        return Arrays.copyOf(columnas, longitud);
+    }
+
+    @Override
+    public void setPresupuestoMs(long presupuestoMs) {
+        this.presupuestoMs = presupuestoMs;
+    }
+
+    /**
+     * Cambia las simulaciones por jugada que se hacen sin presupuesto de tiempo.
+     * Con el mismo número y la misma semilla las jugadas son reproducibles.
+     * @param simulaciones Simulaciones por jugada
+     */
+    public void setSimulaciones(int simulaciones) {
+        this.simulaciones = simulaciones;
+    }
+
+    @Override
+    public void detener() {
+        detenido = true;
+    }
+
+    @Override
+    public void reanudar() {
+        detenido = false;
+    }
+
+    @Override
+    public void setCancelacion(TokenCancelacion cancelacion) {
+        this.cancelacion = TokenCancelacion.oNinguno(cancelacion);
+    }
+
+    @Override
+    public EstadisticasBusqueda getEstadisticas() {
+        return estadisticas;
+    }
+
+    @Override
+    public int getMemoriaMegabytes() {
+        return megabytes;
+    }
+
+    @Override
+    public int getHilos() {
+        return 1;
+    }
+}
@@ -0,0 +1,173 @@
+package com.alexzafra.conecta4.controller.motor;
+
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
+
+/**
+ * Motor que juega de forma perfecta con el solucionador exacto en cuanto la
+ * posición es lo bastante pequeña para resolverla en poco tiempo; antes usa
+ * la búsqueda alfa-beta con su presupuesto. El solucionador no tiene límite
+ * de tiempo: a partir de FICHAS_PARA_RESOLVER fichas suele tardar menos de un
+ * segundo, pero una posición difícil puede costar más que el presupuesto.
+ *
+ * La puntuación de cada columna resuelta es la del solucionador (0 tablas,
+ * positiva si gana el jugador con turno), y la profundidad del resultado son
+ * las casillas libres.
+ */
+public class MotorSolucionador implements Motor {
+    // Nombre del motor en el registro y en las estadísticas
+    public static final String NOMBRE = Solucionador.NOMBRE;
+
+    // Fichas a partir de las cuales se resuelve la posición en lugar de buscar
+    public static final int FICHAS_PARA_RESOLVER = 14;
+
+    private final Solucionador solucionador;
+    private final MotorAlfaBeta apertura;
+    private final int megabytesTabla;
+
+    // Parada pedida con detener(); dura hasta reanudar()
+    private volatile boolean detenido;
+    private TokenCancelacion cancelacion = TokenCancelacion.NINGUNO;
+    private EstadisticasBusqueda estadisticas;
+
+    /**
+     * Crea el motor con tablas de transposición del tamaño por defecto.
+     */
+    public MotorSolucionador() {
+        this(TablaTransposicion.MEGABYTES_POR_DEFECTO);
+    }
+
+    /**
+     * Crea el motor. El solucionador y la búsqueda de la apertura tienen cada
+     * uno su tabla de transposición del tamaño indicado.
+     * @param megabytes Memoria de cada tabla de transposición
+     */
+    public MotorSolucionador(int megabytes) {
+        megabytesTabla = megabytes;
+        solucionador = new Solucionador(new TablaTransposicion(megabytes));
+        apertura = new MotorAlfaBeta(megabytes);
+    }
+
+    @Override
+    public String getNombre() {
+        return NOMBRE;
+    }
+
+    @Override
+    public ResultadoAnalisis analizar(PosicionBitboard posicion, Consumer<ResultadoAnalisis> oyente) {
+        if (posicion.getMovimientos() < FICHAS_PARA_RESOLVER) {
+            ResultadoAnalisis resultado = apertura.analizar(posicion, oyente);
+            estadisticas = apertura.getEstadisticas();
+            return resultado;
+        }
+
+        long inicio = System.nanoTime();
+        // La resolución se corta con detener() o con el token externo
+        TokenCancelacion externo = cancelacion;
+        TokenCancelacion token = new TokenCancelacion() {
+            @Override
+            public boolean isCancelado() {
+                return detenido || externo.isCancelado();
+            }
+        };
+        solucionador.setCancelacion(token);
+
+        int[] puntuaciones = new int[PosicionBitboard.ANCHO];
+        int[][] variaciones = new int[PosicionBitboard.ANCHO][];
+        Arrays.fill(puntuaciones, ResultadoAnalisis.SIN_VALOR);
+        int mejorColumna = -1;
+        long nodos = 0;
+        long sondeos = 0;
+        long aciertos = 0;
+        long cortes = 0;
+        PosicionBitboard p = new PosicionBitboard(posicion);
+
+        // Una victoria inmediata no necesita resolver las demás columnas
+        boolean ganaYa = false;
+        for (int columna = 0; columna < PosicionBitboard.ANCHO && !ganaYa; columna++) {
+            if (p.esMovimientoGanador(columna)) {
+                puntuaciones[columna] = (Solucionador.CASILLAS - p.getMovimientos()) / 2;
+                variaciones[columna] = new int[]{columna};
+                mejorColumna = columna;
+                ganaYa = true;
+            }
+        }
+
+        try {
+            for (int columna = 0; columna < PosicionBitboard.ANCHO && !ganaYa; columna++) {
+                if (!p.puedeJugar(columna)) {
+                    continue;
+                }
+                p.jugar(columna);
+                puntuaciones[columna] = -solucionador.resolver(p, false);
+                p.deshacer(columna);
+                EstadisticasBusqueda parciales = solucionador.getEstadisticas();
+                nodos += parciales.getNodos();
+                sondeos += parciales.getSondeosTabla();
+                aciertos += parciales.getAciertosTabla();
+                cortes += parciales.getCortes();
+                variaciones[columna] = new int[]{columna};
+                if (mejorColumna < 0 || puntuaciones[columna] > puntuaciones[mejorColumna]) {
+                    mejorColumna = columna;
+                }
+            }
+        } catch (CancellationException e) {
+            // Con detener() se juega la mejor columna resuelta hasta ahora
+            if (externo.isCancelado()) {
+                mejorColumna = -1;
+            }
+        }
+
+        long tiempo = System.nanoTime() - inicio;
+        estadisticas = new EstadisticasBusqueda(NOMBRE, nodos, Solucionador.CASILLAS - posicion.getMovimientos(),
+                sondeos, aciertos, cortes, 0.0, tiempo, false);
+        if (mejorColumna < 0) {
+            return null;
+        }
+        ResultadoAnalisis resultado = new ResultadoAnalisis(Solucionador.CASILLAS - posicion.getMovimientos(),
+                puntuaciones, variaciones, mejorColumna, nodos, tiempo / 1_000_000L);
+        if (oyente != null) {
+            oyente.accept(resultado);
+        }
+        return resultado;
+    }
+
+    @Override
+    public void setPresupuestoMs(long presupuestoMs) {
+        apertura.setPresupuestoMs(presupuestoMs);
+    }
+
+    @Override
+    public void detener() {
+        detenido = true;
+        apertura.detener();
+    }
+
+    @Override
+    public void reanudar() {
+        detenido = false;
+        apertura.reanudar();
+    }
+
+    @Override
+    public void setCancelacion(TokenCancelacion cancelacion) {
+        this.cancelacion = TokenCancelacion.oNinguno(cancelacion);
+        apertura.setCancelacion(cancelacion);
+    }
+
+    @Override
+    public EstadisticasBusqueda getEstadisticas() {
+        return estadisticas;
+    }
+
+    @Override
+    public int getMemoriaMegabytes() {
+        return 2 * megabytesTabla;
+    }
+
+    @Override
+    public int getHilos() {
+        return 1;
+    }
+}
@@ -0,0 +1,136 @@
+package com.alexzafra.conecta4.controller.motor;
+
+/**
+ * Núcleo de simulación de partidas aleatorias hasta el final, para MCTS,
+ * muestreo y estadísticas. Trabaja solo con operaciones de bitboard sobre
+ * variables locales y un generador xorshift64*, así que una simulación no
+ * crea objetos ni necesita reintentar columnas llenas: la jugada se elige
+ * directamente entre los bits de las casillas jugables.
+ *
+ * Cada instancia tiene su propio generador y solo puede usarse desde un hilo.
+ */
+public class NucleoSimulacion {
+    // Resultados de una simulación para el jugador con turno al empezar
+    public static final int VICTORIA = 1;
+    public static final int TABLAS = 0;
+    public static final int DERROTA = -1;
+
+    private static final int CASILLAS = PosicionBitboard.ANCHO * PosicionBitboard.ALTO;
+
+    // Fila inferior de cada columna y todas las casillas del tablero
+    private static final long FILA_INFERIOR = filaInferior();
+    private static final long TABLERO = FILA_INFERIOR * ((1L << PosicionBitboard.ALTO) - 1);
+
+    // Estado del generador xorshift64* (nunca es 0)
+    private long estado;
+
+    /**
+     * Crea un núcleo con una semilla.
+     * @param semilla Semilla del generador (cualquier valor)
+     */
+    public NucleoSimulacion(long semilla) {
+        // Mezcla de splitmix64 para que semillas parecidas den secuencias distintas
+        long z = semilla + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        estado = z != 0 ? z : 0x9E3779B97F4A7C15L;
+    }
+
+    /**
+     * Juega una partida aleatoria hasta el final.
+     * @param posicionActual Fichas del jugador con turno
+     * @param mascara Casillas ocupadas
+     * @return VICTORIA, TABLAS o DERROTA para el jugador con turno al empezar
+     */
+    public int simular(long posicionActual, long mascara) {
+        long actual = posicionActual;
+        int signo = VICTORIA;
+
+        for (int movimientos = Long.bitCount(mascara); movimientos < CASILLAS; movimientos++) {
+            long posibles = (mascara + FILA_INFERIOR) & TABLERO;
+            long jugada = seleccionar(posibles, acotar(siguiente(), Long.bitCount(posibles)));
+
+            long propias = actual | jugada;
+            if (PosicionBitboard.hayAlineacion(propias)) {
+                return signo;
+            }
+
+            // Cambio de turno: las fichas del rival son las ocupadas que no son propias
+            mascara |= jugada;
+            actual = propias ^ mascara;
+            signo = -signo;
+        }
+        return TABLAS;
+    }
+
+    /**
+     * Juega una partida aleatoria desde una posición.
+     * @param posicion Posición sin ganador (no se modifica)
+     * @return VICTORIA, TABLAS o DERROTA para el jugador con turno
+     */
+    public int simular(PosicionBitboard posicion) {
+        return simular(posicion.getPosicionActual(), posicion.getMascara());
+    }
+
+    /**
+     * Juega varias partidas aleatorias y devuelve la puntuación media.
+     * @param posicion Posición sin ganador (no se modifica)
+     * @param partidas Número de simulaciones
+     * @return Puntuación media entre 0 (siempre pierde) y 1 (siempre gana) para el jugador con turno
+     */
+    public double puntuar(PosicionBitboard posicion, int partidas) {
+        long actual = posicion.getPosicionActual();
+        long mascara = posicion.getMascara();
+        long suma = 0;
+        for (int i = 0; i < partidas; i++) {
+            suma += simular(actual, mascara) + 1;
+        }
+        return suma / (2.0 * partidas);
+    }
+
+    /**
+     * Siguiente número del generador xorshift64*.
+     * @return 64 bits aleatorios
+     */
+    public long siguiente() {
+        long x = estado;
+        x ^= x >>> 12;
+        x ^= x << 25;
+        x ^= x >>> 27;
+        estado = x;
+        return x * 0x2545F4914F6CDD1DL;
+    }
+
+    /**
+     * Reduce un número aleatorio al rango [0, n) con una multiplicación en
+     * lugar de un módulo.
+     * @param aleatorio 64 bits aleatorios
+     * @param n Tamaño del rango (mayor que 0)
+     * @return Número entre 0 y n - 1
+     */
+    public static int acotar(long aleatorio, int n) {
+        return (int) (((aleatorio >>> 32) * n) >>> 32);
+    }
+
+    /**
+     * Obtiene el bit activo número indice de un conjunto, contando desde el menos significativo.
+     * @param bits Conjunto de bits
+     * @param indice Posición del bit buscado (menor que el número de bits activos)
+     * @return Máscara con solo ese bit
+     */
+    public static long seleccionar(long bits, int indice) {
+        for (; indice > 0; indice--) {
+            bits &= bits - 1;
+        }
+        return bits & -bits;
+    }
+
+    private static long filaInferior() {
+        long fila = 0L;
+        for (int columna = 0; columna < PosicionBitboard.ANCHO; columna++) {
+            fila |= PosicionBitboard.mascaraInferior(columna);
+        }
+        return fila;
+    }
+}
@@ -0,0 +1,145 @@
+package com.alexzafra.conecta4.controller.motor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Lectura y escritura de los pesos del evaluador de ventanas.
+ * Al arrancar se cargan del fichero indicado en la propiedad del sistema
+ * "conecta4.pesos", o si no existe, del recurso /ia/pesos.txt. Si tampoco
+ * está disponible se usan los pesos originales escritos a mano.
+ *
+ * El fichero es texto con los números separados por espacios; las líneas
+ * que empiezan por '#' son comentarios.
+ */
+public class PesosEvaluacion {
+    // Propiedad del sistema con la ruta de un fichero de pesos
+    public static final String PROPIEDAD_RUTA = "conecta4.pesos";
+
+    // Recurso con los pesos incluidos en la aplicación
+    public static final String RECURSO = "/ia/pesos.txt";
+
+    // Pesos usados por los evaluadores creados sin pesos explícitos
+    private static final int[] PESOS = cargarAlArrancar();
+
+    private PesosEvaluacion() {
+    }
+
+    /**
+     * Obtiene los pesos cargados al arrancar.
+     * @return Copia del array de pesos
+     */
+    public static int[] getPesos() {
+        return PESOS.clone();
+    }
+
+    /**
+     * Pesos originales: 1, 4 y 16 puntos por ventana con una, dos o tres fichas
+     * y 3 puntos por ficha en la columna central.
+     * @return Array nuevo con los pesos por defecto
+     */
+    public static int[] pesosPorDefecto() {
+        int[] pesos = new int[EvaluadorVentanas.NUM_PESOS];
+        pesos[EvaluadorVentanas.PESO_UNA] = 1;
+        pesos[EvaluadorVentanas.PESO_DOS] = 4;
+        pesos[EvaluadorVentanas.PESO_TRES] = 16;
+        int columnaCentral = PosicionBitboard.ANCHO / 2;
+        for (int fila = 0; fila < PosicionBitboard.ALTO; fila++) {
+            pesos[EvaluadorVentanas.PRIMERA_CASILLA + columnaCentral * PosicionBitboard.ALTO + fila] = 3;
+        }
+        return pesos;
+    }
+
+    /**
+     * Lee unos pesos de un fichero de texto.
+     * @param lector Origen del texto
+     * @return Pesos leídos
+     * @throws IOException si no se puede leer
+     * @throws IllegalArgumentException si el número de pesos no es el esperado
+     */
+    public static int[] leer(Reader lector) throws IOException {
+        int[] pesos = new int[EvaluadorVentanas.NUM_PESOS];
+        int total = 0;
+
+        BufferedReader lineas = new BufferedReader(lector);
+        String linea;
+        while ((linea = lineas.readLine()) != null) {
+            linea = linea.trim();
+            if (linea.isEmpty() || linea.startsWith("#")) {
+                continue;
+            }
+            for (String numero : linea.split("\\s+")) {
+                if (total == pesos.length) {
+                    throw new IllegalArgumentException("Sobran pesos en el fichero");
+                }
+                pesos[total++] = Integer.parseInt(numero);
+            }
+        }
+
+        if (total != pesos.length) {
+            throw new IllegalArgumentException("Se esperaban " + pesos.length + " pesos y hay " + total);
+        }
+        return pesos;
+    }
+
+    /**
+     * Escribe unos pesos en un fichero con el formato que entiende {@link #leer}.
+     * @param archivo Fichero de destino
+     * @param pesos Pesos a escribir
+     * @param comentario Comentario de cabecera (puede ser null)
+     * @throws IOException si no se puede escribir
+     */
+    public static void escribir(Path archivo, int[] pesos, String comentario) throws IOException {
+        try (Writer escritor = Files.newBufferedWriter(archivo, StandardCharsets.UTF_8)) {
+            if (comentario != null) {
+                escritor.write("# " + comentario + "\n");
+            }
+            escritor.write("# Ventanas con una, dos y tres fichas\n");
+            escritor.write(pesos[EvaluadorVentanas.PESO_UNA] + " " + pesos[EvaluadorVentanas.PESO_DOS]
+                    + " " + pesos[EvaluadorVentanas.PESO_TRES] + "\n");
+            escritor.write("# Casillas, una línea por columna (de abajo arriba)\n");
+            for (int columna = 0; columna < PosicionBitboard.ANCHO; columna++) {
+                StringBuilder linea = new StringBuilder();
+                for (int fila = 0; fila < PosicionBitboard.ALTO; fila++) {
+                    if (fila > 0) {
+                        linea.append(' ');
+                    }
+                    linea.append(pesos[EvaluadorVentanas.PRIMERA_CASILLA + columna * PosicionBitboard.ALTO + fila]);
+                }
+                escritor.write(linea + "\n");
+            }
+        }
+    }
+
+    /**
+     * Carga los pesos de arranque según el orden de prioridad descrito en la clase.
+     */
+    private static int[] cargarAlArrancar() {
+        String ruta = System.getProperty(PROPIEDAD_RUTA);
+        if (ruta != null) {
+            try (Reader lector = Files.newBufferedReader(Paths.get(ruta), StandardCharsets.UTF_8)) {
+                return leer(lector);
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Error al cargar los pesos de " + ruta + ": " + e.getMessage());
+            }
+        }
+
+        try (InputStream entrada = PesosEvaluacion.class.getResourceAsStream(RECURSO)) {
+            if (entrada != null) {
+                return leer(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Error al cargar los pesos de " + RECURSO + ": " + e.getMessage());
+        }
+
+        return pesosPorDefecto();
+    }
+}
@@ -0,0 +1,392 @@
+package com.alexzafra.conecta4.controller.motor;
+
+import com.alexzafra.conecta4.modelos.Tablero;
+
+/**
+ * Representación compacta de una posición de Conecta 4 mediante bitboards.
+ * Cada columna ocupa ALTO + 1 bits (el bit extra sirve de separador), empezando
+ * por la fila inferior. Se guardan las fichas del jugador que tiene el turno y
+ * la máscara de casillas ocupadas, lo que permite jugar y deshacer en O(1).
+ */
+public class PosicionBitboard {
+    // Dimensiones del tablero
+    public static final int ANCHO = Tablero.COLUMNAS;
+    public static final int ALTO = Tablero.FILAS;
+
+    // Bits por columna (incluye el bit separador)
+    public static final int ALTO_BITS = ALTO + 1;
+
+    // Máscaras precalculadas
+    private static final long MASCARA_INFERIOR = mascaraInferior();
+    private static final long MASCARA_TABLERO = MASCARA_INFERIOR * ((1L << ALTO) - 1);
+
+    // Fichas del jugador que tiene el turno
+    private long posicionActual;
+
+    // Casillas ocupadas por cualquiera de los dos jugadores
+    private long mascara;
+
+    // Número de fichas colocadas
+    private int movimientos;
+
+    /**
+     * Crea una posición vacía.
+     */
+    public PosicionBitboard() {
+        this(0L, 0L, 0);
+    }
+
+    /**
+     * Crea una posición a partir de sus bitboards.
+     * @param posicionActual Fichas del jugador que tiene el turno
+     * @param mascara Casillas ocupadas
+     * @param movimientos Número de fichas colocadas
+     */
+    public PosicionBitboard(long posicionActual, long mascara, int movimientos) {
+        this.posicionActual = posicionActual;
+        this.mascara = mascara;
+        this.movimientos = movimientos;
+    }
+
+    /**
+     * Crea una copia independiente de otra posición.
+     * @param otra Posición a copiar
+     */
+    public PosicionBitboard(PosicionBitboard otra) {
+        this(otra.posicionActual, otra.mascara, otra.movimientos);
+    }
+
+    /**
+     * Sustituye el contenido de la posición, para reutilizarla sin crear objetos.
+     * @param posicionActual Fichas del jugador que tiene el turno
+     * @param mascara Casillas ocupadas
+     * @param movimientos Número de fichas colocadas
+     */
+    public void colocar(long posicionActual, long mascara, int movimientos) {
+        this.posicionActual = posicionActual;
+        this.mascara = mascara;
+        this.movimientos = movimientos;
+    }
+
+    /**
+     * Construye la posición equivalente a un tablero del juego.
+     * @param tablero Tablero del juego de 6x7
+     * @param jugadorConTurno ID del jugador al que le toca mover
+     * @return Posición en formato bitboard
+     * @throws IllegalArgumentException si el tablero no es de 6x7
+     */
+    public static PosicionBitboard desdeTablero(Tablero tablero, int jugadorConTurno) {
+        if (!tablero.esEstandar()) {
+            throw new IllegalArgumentException("Tablero de " + tablero.getFilas() + "x" + tablero.getColumnas()
+                    + ": las posiciones bitboard solo son de " + ALTO + "x" + ANCHO);
+        }
+        long posicion = 0L;
+        long mascara = 0L;
+        int movimientos = 0;
+
+        for (int columna = 0; columna < ANCHO; columna++) {
+            // La fila 0 del tablero es la superior, aquí la fila 0 es la inferior
+            for (int fila = ALTO - 1; fila >= 0; fila--) {
+                int casilla = tablero.obtenerCasilla(fila, columna);
+                if (casilla == Tablero.VACIO) {
+                    break;
+                }
+
+                long bit = 1L << (columna * ALTO_BITS + (ALTO - 1 - fila));
+                mascara |= bit;
+                if (casilla == jugadorConTurno) {
+                    posicion |= bit;
+                }
+                movimientos++;
+            }
+        }
+
+        return new PosicionBitboard(posicion, mascara, movimientos);
+    }
+
+    /**
+     * Construye una posición a partir de una secuencia de columnas numeradas desde 1
+     * (por ejemplo "4453"), el formato habitual de los solucionadores de Conecta 4.
+     * @param secuencia Secuencia de columnas
+     * @return Posición resultante
+     * @throws IllegalArgumentException si la secuencia contiene jugadas no válidas
+     */
+    public static PosicionBitboard desdeSecuencia(String secuencia) {
+        PosicionBitboard posicion = new PosicionBitboard();
+        for (int i = 0; i < secuencia.length(); i++) {
+            int columna = secuencia.charAt(i) - '1';
+            if (columna < 0 || columna >= ANCHO || !posicion.puedeJugar(columna)
+                    || posicion.esMovimientoGanador(columna)) {
+                throw new IllegalArgumentException("Jugada no válida en la posición " + (i + 1) + ": " + secuencia);
+            }
+            posicion.jugar(columna);
+        }
+        return posicion;
+    }
+
+    /**
+     * Indica si se puede jugar en una columna.
+     * @param columna Columna (0-6)
+     * @return true si la columna no está llena
+     */
+    public boolean puedeJugar(int columna) {
+        return (mascara & mascaraSuperior(columna)) == 0;
+    }
+
+    /**
+     * Juega una ficha del jugador con turno en la columna indicada.
+     * @param columna Columna (0-6), debe ser jugable
+     */
+    public void jugar(int columna) {
+        jugarMovimiento(movimiento(columna));
+    }
+
+    /**
+     * Obtiene el bit de la casilla donde caería una ficha en una columna.
+     * @param columna Columna no llena (0-6)
+     * @return Bit de la casilla destino
+     */
+    public long movimiento(int columna) {
+        return (mascara + mascaraInferior(columna)) & mascaraColumna(columna);
+    }
+
+    /**
+     * Juega una ficha dada como bit de la casilla destino.
+     * @param movimiento Bit de la casilla donde cae la ficha
+     */
+    public void jugarMovimiento(long movimiento) {
+        posicionActual ^= mascara;
+        mascara |= movimiento;
+        movimientos++;
+    }
+
+    /**
+     * Deshace la última ficha jugada en una columna.
+     * @param columna Columna de la última jugada
+     */
+    public void deshacer(int columna) {
+        deshacerMovimiento(Long.highestOneBit(mascara & mascaraColumna(columna)));
+    }
+
+    /**
+     * Deshace una jugada dada como bit de la casilla que ocupó.
+     * @param movimiento Bit de la casilla que se libera
+     */
+    public void deshacerMovimiento(long movimiento) {
+        mascara ^= movimiento;
+        posicionActual ^= mascara;
+        movimientos--;
+    }
+
+    /**
+     * Indica si jugar en una columna da la victoria al jugador con turno.
+     * @param columna Columna jugable
+     * @return true si la jugada conecta cuatro
+     */
+    public boolean esMovimientoGanador(int columna) {
+        return (posicionesGanadoras() & movimientosPosibles() & mascaraColumna(columna)) != 0;
+    }
+
+    /**
+     * Indica si el jugador con turno puede ganar en esta misma jugada.
+     * @return true si existe una jugada ganadora inmediata
+     */
+    public boolean puedeGanarSiguiente() {
+        return (posicionesGanadoras() & movimientosPosibles()) != 0;
+    }
+
+    /**
+     * Calcula las jugadas posibles que no permiten al rival ganar en la jugada siguiente.
+     * Solo debe llamarse si el jugador con turno no puede ganar directamente.
+     * @return Máscara con una casilla por cada jugada que no pierde de inmediato
+     */
+    public long movimientosNoPerdedores() {
+        long posibles = movimientosPosibles();
+        long ganadorasRival = posicionesGanadorasRival();
+        long forzadas = posibles & ganadorasRival;
+
+        if (forzadas != 0) {
+            // Si el rival tiene más de una amenaza directa no hay defensa
+            if ((forzadas & (forzadas - 1)) != 0) {
+                return 0;
+            }
+            posibles = forzadas;
+        }
+
+        // Evitar jugar justo debajo de una amenaza del rival
+        return posibles & ~(ganadorasRival >>> 1);
+    }
+
+    /**
+     * Puntuación para ordenar jugadas: número de amenazas que crea la jugada.
+     * @param movimiento Bit de la casilla donde cae la ficha
+     * @return Número de casillas ganadoras tras la jugada
+     */
+    public int puntuarMovimiento(long movimiento) {
+        return Long.bitCount(calcularPosicionesGanadoras(posicionActual | movimiento, mascara));
+    }
+
+    /**
+     * Máscara con la casilla libre más baja de cada columna no llena.
+     * @return Máscara de jugadas posibles
+     */
+    public long movimientosPosibles() {
+        return (mascara + MASCARA_INFERIOR) & MASCARA_TABLERO;
+    }
+
+    /**
+     * Casillas libres que completarían cuatro en línea para el jugador con turno.
+     * @return Máscara de casillas ganadoras
+     */
+    public long posicionesGanadoras() {
+        return calcularPosicionesGanadoras(posicionActual, mascara);
+    }
+
+    /**
+     * Casillas libres que completarían cuatro en línea para el rival.
+     * @return Máscara de casillas ganadoras del rival
+     */
+    public long posicionesGanadorasRival() {
+        return calcularPosicionesGanadoras(posicionActual ^ mascara, mascara);
+    }
+
+    /**
+     * Clave única de la posición, útil para la tabla de transposición.
+     * @return Clave de 49 bits
+     */
+    public long clave() {
+        return posicionActual + mascara;
+    }
+
+    /**
+     * Obtiene las fichas del jugador con turno.
+     * @return Bitboard del jugador con turno
+     */
+    public long getPosicionActual() {
+        return posicionActual;
+    }
+
+    /**
+     * Obtiene las casillas ocupadas.
+     * @return Máscara de casillas ocupadas
+     */
+    public long getMascara() {
+        return mascara;
+    }
+
+    /**
+     * Obtiene el número de fichas colocadas.
+     * @return Número de jugadas realizadas
+     */
+    public int getMovimientos() {
+        return movimientos;
+    }
+
+    /**
+     * Calcula las casillas libres que completarían cuatro en línea para un jugador.
+     * @param posicion Fichas del jugador
+     * @param mascara Casillas ocupadas
+     * @return Máscara de casillas ganadoras
+     */
+    public static long calcularPosicionesGanadoras(long posicion, long mascara) {
+        // Vertical
+        long r = (posicion << 1) & (posicion << 2) & (posicion << 3);
+
+        // Horizontal
+        long p = (posicion << ALTO_BITS) & (posicion << 2 * ALTO_BITS);
+        r |= p & (posicion << 3 * ALTO_BITS);
+        r |= p & (posicion >>> ALTO_BITS);
+        p = (posicion >>> ALTO_BITS) & (posicion >>> 2 * ALTO_BITS);
+        r |= p & (posicion << ALTO_BITS);
+        r |= p & (posicion >>> 3 * ALTO_BITS);
+
+        // Diagonal descendente
+        p = (posicion << ALTO) & (posicion << 2 * ALTO);
+        r |= p & (posicion << 3 * ALTO);
+        r |= p & (posicion >>> ALTO);
+        p = (posicion >>> ALTO) & (posicion >>> 2 * ALTO);
+        r |= p & (posicion << ALTO);
+        r |= p & (posicion >>> 3 * ALTO);
+
+        // Diagonal ascendente
+        p = (posicion << (ALTO + 2)) & (posicion << 2 * (ALTO + 2));
+        r |= p & (posicion << 3 * (ALTO + 2));
+        r |= p & (posicion >>> (ALTO + 2));
+        p = (posicion >>> (ALTO + 2)) & (posicion >>> 2 * (ALTO + 2));
+        r |= p & (posicion << (ALTO + 2));
+        r |= p & (posicion >>> 3 * (ALTO + 2));
+
+        return r & (MASCARA_TABLERO ^ mascara);
+    }
+
+    /**
+     * Indica si un bitboard contiene cuatro fichas alineadas.
+     * @param posicion Fichas de un jugador
+     * @return true si hay cuatro en línea
+     */
+    public static boolean hayAlineacion(long posicion) {
+        // Horizontal
+        long m = posicion & (posicion >>> ALTO_BITS);
+        if ((m & (m >>> 2 * ALTO_BITS)) != 0) return true;
+
+        // Diagonal descendente
+        m = posicion & (posicion >>> ALTO);
+        if ((m & (m >>> 2 * ALTO)) != 0) return true;
+
+        // Diagonal ascendente
+        m = posicion & (posicion >>> (ALTO + 2));
+        if ((m & (m >>> 2 * (ALTO + 2))) != 0) return true;
+
+        // Vertical
+        m = posicion & (posicion >>> 1);
+        return (m & (m >>> 2)) != 0;
+    }
+
+    /**
+     * Bit de la casilla superior de una columna.
+     * @param columna Columna (0-6)
+     * @return Máscara con la casilla superior
+     */
+    public static long mascaraSuperior(int columna) {
+        return (1L << (ALTO - 1)) << columna * ALTO_BITS;
+    }
+
+    /**
+     * Bit de la casilla inferior de una columna.
+     * @param columna Columna (0-6)
+     * @return Máscara con la casilla inferior
+     */
+    public static long mascaraInferior(int columna) {
+        return 1L << columna * ALTO_BITS;
+    }
+
+    /**
+     * Máscara con todas las casillas de una columna.
+     * @param columna Columna (0-6)
+     * @return Máscara de la columna
+     */
+    public static long mascaraColumna(int columna) {
+        return ((1L << ALTO) - 1) << columna * ALTO_BITS;
+    }
+
+    /**
+     * Columna a la que pertenece el bit de una casilla.
+     * @param movimiento Bit de una casilla
+     * @return Columna (0-6)
+     */
+    public static int columnaDe(long movimiento) {
+        return Long.numberOfTrailingZeros(movimiento) / ALTO_BITS;
+    }
+
+    /**
+     * Calcula la máscara con la casilla inferior de todas las columnas.
+     * @return Máscara inferior del tablero
+     */
+    private static long mascaraInferior() {
+        long resultado = 0L;
+        for (int columna = 0; columna < ANCHO; columna++) {
+            resultado |= mascaraInferior(columna);
+        }
+        return resultado;
+    }
+}
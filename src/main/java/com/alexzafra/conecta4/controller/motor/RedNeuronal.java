@@ -0,0 +1,218 @@
+package com.alexzafra.conecta4.controller.motor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Pesos de la red del evaluador neuronal: dos capas ocultas ReLU y una salida
+ * lineal. La entrada son las 42 casillas del jugador con turno seguidas de
+ * las 42 del rival (columna a columna, de abajo arriba).
+ *
+ * Los pesos se cargan al arrancar del fichero indicado en la propiedad del
+ * sistema "conecta4.red" o del recurso /ia/red.txt. El fichero es texto: los
+ * tamaños de las dos capas ocultas y después todos los valores en el orden
+ * w1, b1, w2, b2, w3, b3. Las líneas que empiezan por '#' son comentarios.
+ */
+public class RedNeuronal {
+    // Número de entradas: casillas propias y casillas del rival
+    public static final int CASILLAS = PosicionBitboard.ANCHO * PosicionBitboard.ALTO;
+    public static final int ENTRADAS = 2 * CASILLAS;
+
+    // Propiedad del sistema con la ruta de un fichero de red
+    public static final String PROPIEDAD_RUTA = "conecta4.red";
+
+    // Recurso con la red incluida en la aplicación
+    public static final String RECURSO = "/ia/red.txt";
+
+    // Red cargada al arrancar, o null si no hay ninguna disponible
+    private static final RedNeuronal CARGADA = cargarAlArrancar();
+
+    private final int ocultas;
+    private final int segunda;
+
+    // w1[entrada * ocultas + j], w2[k * ocultas + j], w3[k]
+    private final float[] w1;
+    private final float[] b1;
+    private final float[] w2;
+    private final float[] b2;
+    private final float[] w3;
+    private final float b3;
+
+    /**
+     * Crea una red con sus pesos (los arrays no se copian).
+     * @param ocultas Neuronas de la primera capa oculta
+     * @param segunda Neuronas de la segunda capa oculta
+     */
+    public RedNeuronal(int ocultas, int segunda, float[] w1, float[] b1, float[] w2,
+                       float[] b2, float[] w3, float b3) {
+        if (w1.length != ENTRADAS * ocultas || b1.length != ocultas || w2.length != ocultas * segunda
+                || b2.length != segunda || w3.length != segunda) {
+            throw new IllegalArgumentException("Tamaños de la red incoherentes");
+        }
+        this.ocultas = ocultas;
+        this.segunda = segunda;
+        this.w1 = w1;
+        this.b1 = b1;
+        this.w2 = w2;
+        this.b2 = b2;
+        this.w3 = w3;
+        this.b3 = b3;
+    }
+
+    /**
+     * Obtiene la red cargada al arrancar.
+     * @return Red, o null si no se encontró ningún fichero válido
+     */
+    public static RedNeuronal getCargada() {
+        return CARGADA;
+    }
+
+    /**
+     * Lee una red de un fichero de texto.
+     * @param lector Origen del texto
+     * @return Red leída
+     * @throws IOException si no se puede leer
+     * @throws IllegalArgumentException si el contenido no es válido
+     */
+    public static RedNeuronal leer(Reader lector) throws IOException {
+        BufferedReader lineas = new BufferedReader(lector);
+        float[] valores = null;
+        int ocultas = 0;
+        int segunda = 0;
+        int total = 0;
+
+        String linea;
+        while ((linea = lineas.readLine()) != null) {
+            linea = linea.trim();
+            if (linea.isEmpty() || linea.startsWith("#")) {
+                continue;
+            }
+            for (String numero : linea.split("\\s+")) {
+                if (valores == null) {
+                    // Los dos primeros números son los tamaños de las capas
+                    if (ocultas == 0) {
+                        ocultas = Integer.parseInt(numero);
+                    } else {
+                        segunda = Integer.parseInt(numero);
+                        valores = new float[ENTRADAS * ocultas + ocultas + ocultas * segunda + 2 * segunda + 1];
+                    }
+                } else {
+                    if (total == valores.length) {
+                        throw new IllegalArgumentException("Sobran valores en el fichero de la red");
+                    }
+                    valores[total++] = Float.parseFloat(numero);
+                }
+            }
+        }
+
+        if (valores == null || total != valores.length) {
+            throw new IllegalArgumentException("Fichero de la red incompleto");
+        }
+
+        int pos = 0;
+        float[] w1 = Arrays.copyOfRange(valores, pos, pos += ENTRADAS * ocultas);
+        float[] b1 = Arrays.copyOfRange(valores, pos, pos += ocultas);
+        float[] w2 = Arrays.copyOfRange(valores, pos, pos += ocultas * segunda);
+        float[] b2 = Arrays.copyOfRange(valores, pos, pos += segunda);
+        float[] w3 = Arrays.copyOfRange(valores, pos, pos += segunda);
+        return new RedNeuronal(ocultas, segunda, w1, b1, w2, b2, w3, valores[pos]);
+    }
+
+    /**
+     * Escribe la red en un fichero con el formato que entiende {@link #leer}.
+     * @param archivo Fichero de destino
+     * @param comentario Comentario de cabecera (puede ser null)
+     * @throws IOException si no se puede escribir
+     */
+    public void escribir(Path archivo, String comentario) throws IOException {
+        try (Writer escritor = Files.newBufferedWriter(archivo, StandardCharsets.UTF_8)) {
+            if (comentario != null) {
+                escritor.write("# " + comentario + "\n");
+            }
+            escritor.write(ocultas + " " + segunda + "\n");
+            escribirFilas(escritor, w1, ocultas);
+            escribirFilas(escritor, b1, ocultas);
+            escribirFilas(escritor, w2, ocultas);
+            escribirFilas(escritor, b2, segunda);
+            escribirFilas(escritor, w3, segunda);
+            escritor.write(String.format(Locale.ROOT, "%.6g%n", b3));
+        }
+    }
+
+    private static void escribirFilas(Writer escritor, float[] valores, int porFila) throws IOException {
+        StringBuilder linea = new StringBuilder();
+        for (int i = 0; i < valores.length; i++) {
+            linea.append(String.format(Locale.ROOT, "%.6g", valores[i]));
+            linea.append((i + 1) % porFila == 0 ? '\n' : ' ');
+        }
+        escritor.write(linea.toString());
+    }
+
+    public int getOcultas() {
+        return ocultas;
+    }
+
+    public int getSegunda() {
+        return segunda;
+    }
+
+    /**
+     * Pesos de la primera capa (acceso directo para el evaluador, no se copian).
+     */
+    float[] getW1() {
+        return w1;
+    }
+
+    float[] getB1() {
+        return b1;
+    }
+
+    float[] getW2() {
+        return w2;
+    }
+
+    float[] getB2() {
+        return b2;
+    }
+
+    float[] getW3() {
+        return w3;
+    }
+
+    float getB3() {
+        return b3;
+    }
+
+    /**
+     * Carga la red de arranque: primero la propiedad del sistema y después el recurso.
+     */
+    private static RedNeuronal cargarAlArrancar() {
+        String ruta = System.getProperty(PROPIEDAD_RUTA);
+        if (ruta != null) {
+            try (Reader lector = Files.newBufferedReader(Paths.get(ruta), StandardCharsets.UTF_8)) {
+                return leer(lector);
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Error al cargar la red de " + ruta + ": " + e.getMessage());
+            }
+        }
+
+        try (InputStream entrada = RedNeuronal.class.getResourceAsStream(RECURSO)) {
+            if (entrada != null) {
+                return leer(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Error al cargar la red de " + RECURSO + ": " + e.getMessage());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,73 @@
+package com.alexzafra.conecta4.controller.motor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registro de los motores disponibles por nombre. Trae registrados el
+ * heurístico, el alfa-beta, el de Monte Carlo y el solucionador, y se pueden
+ * añadir otros. Cada llamada a crear() devuelve un motor nuevo con su propia
+ * memoria, de modo que varias mesas pueden jugar a la vez con motores
+ * distintos o con varias instancias del mismo.
+ */
+public final class RegistroMotores {
+
+    /**
+     * Crea instancias de un motor.
+     */
+    @FunctionalInterface
+    public interface Fabrica {
+        /**
+         * Crea un motor nuevo.
+         * @param semilla Semilla para los motores con azar (los demás la ignoran)
+         * @return Motor listo para usar
+         */
+        Motor crear(long semilla);
+    }
+
+    private static final Map<String, Fabrica> FABRICAS = new LinkedHashMap<>();
+
+    static {
+        registrar(MotorHeuristico.NOMBRE, MotorHeuristico::new);
+        registrar(MotorAlfaBeta.NOMBRE, semilla -> new MotorAlfaBeta());
+        registrar(MotorMonteCarlo.NOMBRE, MotorMonteCarlo::new);
+        registrar(MotorSolucionador.NOMBRE, semilla -> new MotorSolucionador());
+    }
+
+    private RegistroMotores() {
+    }
+
+    /**
+     * Registra un motor, sustituyendo al que tuviera el mismo nombre.
+     * @param nombre Nombre del motor
+     * @param fabrica Fábrica de instancias
+     */
+    public static synchronized void registrar(String nombre, Fabrica fabrica) {
+        FABRICAS.put(nombre, fabrica);
+    }
+
+    /**
+     * Crea un motor registrado.
+     * @param nombre Nombre del motor
+     * @param semilla Semilla para los motores con azar
+     * @return Motor nuevo
+     * @throws IllegalArgumentException si no hay ningún motor con ese nombre
+     */
+    public static synchronized Motor crear(String nombre, long semilla) {
+        Fabrica fabrica = FABRICAS.get(nombre);
+        if (fabrica == null) {
+            throw new IllegalArgumentException("Motor desconocido: " + nombre + " (disponibles: " + FABRICAS.keySet() + ")");
+        }
+        return fabrica.crear(semilla);
+    }
+
+    /**
+     * Obtiene los nombres de los motores registrados, en orden de registro.
+     * @return Copia de la lista de nombres
+     */
+    public static synchronized List<String> getNombres() {
+        return new ArrayList<>(FABRICAS.keySet());
+    }
+}
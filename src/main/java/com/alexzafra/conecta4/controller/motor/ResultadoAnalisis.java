@@ -0,0 +1,125 @@
+package com.alexzafra.conecta4.controller.motor;
+
+/**
+ * Resultado de una iteración del análisis multi-PV.
+ * Contiene, para cada columna jugable, su puntuación y su variante principal
+ * a la profundidad alcanzada. Es inmutable y se puede pasar entre hilos.
+ */
+public class ResultadoAnalisis {
+    // Valor que indica que una columna no se puede jugar
+    public static final int SIN_VALOR = Integer.MIN_VALUE;
+
+    private final int profundidad;
+    private final int[] puntuaciones;
+    private final int[][] variaciones;
+    private final int mejorColumna;
+    private final long nodos;
+    private final long tiempoMs;
+
+    /**
+     * Crea un resultado de análisis.
+     * @param profundidad Profundidad completada
+     * @param puntuaciones Puntuación de cada columna (SIN_VALOR si no es jugable)
+     * @param variaciones Variante principal de cada columna, empezando por la propia columna
+     * @param mejorColumna Columna con mejor puntuación
+     * @param nodos Nodos visitados hasta el momento
+     * @param tiempoMs Tiempo transcurrido desde el inicio del análisis
+     */
+    public ResultadoAnalisis(int profundidad, int[] puntuaciones, int[][] variaciones,
+                             int mejorColumna, long nodos, long tiempoMs) {
+        this.profundidad = profundidad;
+        this.puntuaciones = puntuaciones.clone();
+        this.variaciones = new int[variaciones.length][];
+        for (int i = 0; i < variaciones.length; i++) {
+            this.variaciones[i] = variaciones[i] == null ? new int[0] : variaciones[i].clone();
+        }
+        this.mejorColumna = mejorColumna;
+        this.nodos = nodos;
+        this.tiempoMs = tiempoMs;
+    }
+
+    /**
+     * Obtiene la profundidad de búsqueda completada.
+     * @return Profundidad en medias jugadas
+     */
+    public int getProfundidad() {
+        return profundidad;
+    }
+
+    /**
+     * Indica si una columna se puede jugar.
+     * @param columna Columna (0-6)
+     * @return true si la columna tiene puntuación
+     */
+    public boolean esJugable(int columna) {
+        return puntuaciones[columna] != SIN_VALOR;
+    }
+
+    /**
+     * Obtiene la puntuación de una columna para el jugador con turno.
+     * @param columna Columna (0-6)
+     * @return Puntuación, o SIN_VALOR si no es jugable
+     */
+    public int getPuntuacion(int columna) {
+        return puntuaciones[columna];
+    }
+
+    /**
+     * Obtiene la variante principal que empieza jugando en una columna.
+     * @param columna Columna (0-6)
+     * @return Secuencia de columnas (copia)
+     */
+    public int[] getVariacionPrincipal(int columna) {
+        return variaciones[columna].clone();
+    }
+
+    /**
+     * Obtiene la mejor columna encontrada.
+     * @return Mejor columna, o -1 si no hay ninguna jugable
+     */
+    public int getMejorColumna() {
+        return mejorColumna;
+    }
+
+    /**
+     * Obtiene la puntuación de la mejor columna.
+     * @return Puntuación de la mejor columna
+     */
+    public int getMejorPuntuacion() {
+        return mejorColumna < 0 ? SIN_VALOR : puntuaciones[mejorColumna];
+    }
+
+    /**
+     * Obtiene los nodos visitados.
+     * @return Número de nodos
+     */
+    public long getNodos() {
+        return nodos;
+    }
+
+    /**
+     * Obtiene el tiempo empleado.
+     * @return Milisegundos desde el inicio del análisis
+     */
+    public long getTiempoMs() {
+        return tiempoMs;
+    }
+
+    /**
+     * Indica si una puntuación corresponde a una victoria demostrada.
+     * @param puntuacion Puntuación de una columna
+     * @return true si es victoria segura
+     */
+    public static boolean esVictoria(int puntuacion) {
+        return puntuacion != SIN_VALOR && puntuacion > BuscadorAlfaBeta.VICTORIA - 100;
+    }
+
+    /**
+     * Indica si una puntuación corresponde a una derrota demostrada.
+     * @param puntuacion Puntuación de una columna
+     * @return true si es derrota segura
+     */
+    public static boolean esDerrota(int puntuacion) {
+        return puntuacion != SIN_VALOR && puntuacion < -BuscadorAlfaBeta.VICTORIA + 100;
+    }
+}
@@ -0,0 +1,347 @@
+package com.alexzafra.conecta4.controller.motor;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Solucionador exacto de posiciones de Conecta 4.
+ * Calcula el valor teórico de una posición mediante búsquedas de ventana nula
+ * sucesivas (búsqueda binaria sobre la puntuación, al estilo de MTD(f)) sobre
+ * un negamax con poda alfa-beta respaldado por la tabla de transposición.
+ *
+ * La puntuación sigue el convenio habitual: 0 es tablas, un valor positivo
+ * indica que gana el jugador con turno y es mayor cuanto antes gane
+ * ((43 - fichas al ganar) / 2), y un valor negativo que pierde.
+ *
+ * Una resolución no tiene resultado parcial, así que si se cancela su token
+ * se abandona lanzando CancellationException, sin guardar nada a medias en
+ * la tabla de transposición.
+ */
+public class Solucionador {
+    // Nombre del motor en las estadísticas
+    public static final String NOMBRE = "solucionador";
+
+    // Número total de casillas
+    public static final int CASILLAS = PosicionBitboard.ANCHO * PosicionBitboard.ALTO;
+
+    // Límites de la puntuación
+    public static final int PUNTUACION_MINIMA = -CASILLAS / 2 + 3;
+    public static final int PUNTUACION_MAXIMA = (CASILLAS + 1) / 2 - 3;
+
+    // Orden de exploración de columnas: del centro hacia los lados
+    private static final int[] ORDEN_COLUMNAS = new int[PosicionBitboard.ANCHO];
+
+    static {
+        for (int i = 0; i < PosicionBitboard.ANCHO; i++) {
+            ORDEN_COLUMNAS[i] = PosicionBitboard.ANCHO / 2 + (1 - 2 * (i % 2)) * (i + 1) / 2;
+        }
+    }
+
+    // Cada cuántos nodos se comprueba la cancelación
+    private static final int INTERVALO_COMPROBACION = 1024;
+
+    // Tabla de transposición compartida entre búsquedas
+    private final TablaTransposicion tabla;
+
+    // Jugadas ordenadas por nivel, reservadas de antemano para no crear objetos
+    private final long[][] jugadasPorNivel = new long[CASILLAS + 1][PosicionBitboard.ANCHO];
+    private final int[][] puntuacionesPorNivel = new int[CASILLAS + 1][PosicionBitboard.ANCHO];
+
+    // Contadores de la última resolución
+    private long nodos;
+    private long sondeosTabla;
+    private long aciertosTabla;
+    private long cortes;
+    private EstadisticasBusqueda estadisticas;
+
+    private TokenCancelacion cancelacion = TokenCancelacion.NINGUNO;
+
+    /**
+     * Crea un solucionador con una tabla de transposición del tamaño por defecto.
+     */
+    public Solucionador() {
+        this(new TablaTransposicion());
+    }
+
+    /**
+     * Crea un solucionador que usa la tabla de transposición indicada.
+     * @param tabla Tabla de transposición
+     */
+    public Solucionador(TablaTransposicion tabla) {
+        this.tabla = tabla;
+    }
+
+    /**
+     * Calcula el valor exacto de una posición.
+     * La posición no debe contener ya cuatro en línea.
+     * @param posicion Posición a resolver (no se modifica)
+     * @return Puntuación exacta para el jugador con turno
+     * @throws CancellationException si se cancela el token del solucionador
+     */
+    public int resolver(PosicionBitboard posicion) {
+        return resolver(posicion, false);
+    }
+
+    /**
+     * Calcula el valor de una posición.
+     * @param posicion Posición a resolver (no se modifica)
+     * @param debil Si es true solo distingue victoria (1), tablas (0) y derrota (-1)
+     * @return Puntuación para el jugador con turno
+     * @throws CancellationException si se cancela el token del solucionador
+     */
+    public int resolver(PosicionBitboard posicion, boolean debil) {
+        EventoBusqueda evento = new EventoBusqueda();
+        evento.begin();
+        long inicio = System.nanoTime();
+        reiniciarContadores();
+
+        int valor = resolverSinMedir(new PosicionBitboard(posicion), debil);
+
+        registrarEstadisticas(posicion, inicio, evento);
+        return valor;
+    }
+
+    /**
+     * Resuelve una posición sin reiniciar los contadores ni publicar estadísticas.
+     */
+    private int resolverSinMedir(PosicionBitboard p, boolean debil) {
+        if (p.puedeGanarSiguiente()) {
+            return debil ? 1 : (CASILLAS + 1 - p.getMovimientos()) / 2;
+        }
+
+        int minimo = -(CASILLAS - p.getMovimientos()) / 2;
+        int maximo = (CASILLAS + 1 - p.getMovimientos()) / 2;
+        if (debil) {
+            minimo = -1;
+            maximo = 1;
+        }
+
+        // Reducir el intervalo con búsquedas de ventana nula hasta que se cierre
+        while (minimo < maximo) {
+            int medio = minimo + (maximo - minimo) / 2;
+
+            // Acercar la prueba a 0 primero, donde suelen estar los valores reales
+            if (medio <= 0 && minimo / 2 < medio) {
+                medio = minimo / 2;
+            } else if (medio >= 0 && maximo / 2 > medio) {
+                medio = maximo / 2;
+            }
+
+            int resultado = negamax(p, medio, medio + 1);
+            if (resultado <= medio) {
+                maximo = resultado;
+            } else {
+                minimo = resultado;
+            }
+        }
+
+        return debil ? Integer.signum(minimo) : minimo;
+    }
+
+    /**
+     * Calcula la mejor columna para el jugador con turno jugando de forma perfecta.
+     * @param posicion Posición a analizar (no se modifica)
+     * @return Mejor columna, o -1 si no hay ninguna jugable
+     * @throws CancellationException si se cancela el token del solucionador
+     */
+    public int mejorColumna(PosicionBitboard posicion) {
+        EventoBusqueda evento = new EventoBusqueda();
+        evento.begin();
+        long inicio = System.nanoTime();
+        reiniciarContadores();
+
+        PosicionBitboard p = new PosicionBitboard(posicion);
+        int mejorColumna = -1;
+        int mejorPuntuacion = Integer.MIN_VALUE;
+
+        for (int columna : ORDEN_COLUMNAS) {
+            if (!p.puedeJugar(columna)) {
+                continue;
+            }
+            if (p.esMovimientoGanador(columna)) {
+                mejorColumna = columna;
+                break;
+            }
+
+            p.jugar(columna);
+            int puntuacion = -resolverSinMedir(new PosicionBitboard(p), false);
+            p.deshacer(columna);
+
+            if (puntuacion > mejorPuntuacion) {
+                mejorPuntuacion = puntuacion;
+                mejorColumna = columna;
+            }
+        }
+
+        registrarEstadisticas(posicion, inicio, evento);
+        return mejorColumna;
+    }
+
+    /**
+     * Asocia un token de cancelación a las resoluciones siguientes.
+     * @param cancelacion Token a consultar (null para ninguno)
+     */
+    public void setCancelacion(TokenCancelacion cancelacion) {
+        this.cancelacion = TokenCancelacion.oNinguno(cancelacion);
+    }
+
+    /**
+     * Obtiene el número de nodos visitados en la última resolución.
+     * @return Nodos visitados
+     */
+    public long getNodos() {
+        return nodos;
+    }
+
+    /**
+     * Obtiene las estadísticas de la última resolución.
+     * @return Estadísticas, o null si todavía no se ha resuelto nada
+     */
+    public EstadisticasBusqueda getEstadisticas() {
+        return estadisticas;
+    }
+
+    /**
+     * Pone a cero los contadores antes de una resolución.
+     */
+    private void reiniciarContadores() {
+        nodos = 0;
+        sondeosTabla = 0;
+        aciertosTabla = 0;
+        cortes = 0;
+        tabla.nuevaBusqueda();
+    }
+
+    /**
+     * Guarda las estadísticas de la resolución y las publica en Flight Recorder.
+     */
+    private void registrarEstadisticas(PosicionBitboard posicion, long inicio, EventoBusqueda evento) {
+        estadisticas = new EstadisticasBusqueda(NOMBRE, nodos, CASILLAS - posicion.getMovimientos(),
+                sondeosTabla, aciertosTabla, tabla.getEntradasHeredadas(), cortes, 0.0, System.nanoTime() - inicio, false);
+        estadisticas.publicar(evento);
+    }
+
+    /**
+     * Obtiene la tabla de transposición del solucionador.
+     * @return Tabla de transposición
+     */
+    public TablaTransposicion getTabla() {
+        return tabla;
+    }
+
+    /**
+     * Negamax con poda alfa-beta y tabla de transposición.
+     * Se supone que el jugador con turno no puede ganar directamente.
+     */
+    private int negamax(PosicionBitboard p, int alfa, int beta) {
+        nodos++;
+        if ((nodos & (INTERVALO_COMPROBACION - 1)) == 0 && cancelacion.isCancelado()) {
+            throw new CancellationException("Resolución cancelada");
+        }
+
+        int movimientos = p.getMovimientos();
+        long siguientes = p.movimientosNoPerdedores();
+
+        // Toda jugada pierde en la siguiente
+        if (siguientes == 0) {
+            return -(CASILLAS - movimientos) / 2;
+        }
+
+        // Tablas si solo quedan dos casillas y nadie puede ganar
+        if (movimientos >= CASILLAS - 2) {
+            return 0;
+        }
+
+        int alfaOriginal = alfa;
+
+        // Cota inferior: el rival no puede ganar en su siguiente jugada
+        int minimo = -(CASILLAS - 2 - movimientos) / 2;
+        if (alfa < minimo) {
+            alfa = minimo;
+            if (alfa >= beta) {
+                return alfa;
+            }
+        }
+
+        // Cota superior: no podemos ganar en esta jugada
+        int maximo = (CASILLAS - 1 - movimientos) / 2;
+        if (beta > maximo) {
+            beta = maximo;
+            if (alfa >= beta) {
+                return beta;
+            }
+        }
+
+        // Cota de la regla claimeven: el rival se queda las filas pares
+        int cota = EvaluadorParidad.cotaClaimeven(p);
+        if (cota != EvaluadorParidad.SIN_COTA && beta > cota) {
+            beta = cota;
+            if (alfa >= beta) {
+                return beta;
+            }
+        }
+
+        // Consultar la tabla de transposición
+        long clave = p.clave();
+        long entrada = tabla.consultar(clave);
+        sondeosTabla++;
+        if (entrada != 0) {
+            aciertosTabla++;
+            int valor = TablaTransposicion.valor(entrada);
+            switch (TablaTransposicion.tipo(entrada)) {
+                case TablaTransposicion.EXACTA:
+                    return valor;
+                case TablaTransposicion.INFERIOR:
+                    alfa = Math.max(alfa, valor);
+                    break;
+                case TablaTransposicion.SUPERIOR:
+                    beta = Math.min(beta, valor);
+                    break;
+            }
+            if (alfa >= beta) {
+                return valor;
+            }
+        }
+
+        // Ordenar las jugadas por el número de amenazas que crean, desempatando hacia el centro
+        long[] jugadas = jugadasPorNivel[movimientos];
+        int[] puntuaciones = puntuacionesPorNivel[movimientos];
+        int numeroJugadas = 0;
+        for (int i = PosicionBitboard.ANCHO - 1; i >= 0; i--) {
+            long jugada = siguientes & PosicionBitboard.mascaraColumna(ORDEN_COLUMNAS[i]);
+            if (jugada != 0) {
+                int puntuacion = p.puntuarMovimiento(jugada);
+                int pos = numeroJugadas++;
+                while (pos > 0 && puntuaciones[pos - 1] > puntuacion) {
+                    jugadas[pos] = jugadas[pos - 1];
+                    puntuaciones[pos] = puntuaciones[pos - 1];
+                    pos--;
+                }
+                jugadas[pos] = jugada;
+                puntuaciones[pos] = puntuacion;
+            }
+        }
+
+        int mejorColumna = -1;
+        for (int i = numeroJugadas - 1; i >= 0; i--) {
+            long jugada = jugadas[i];
+            p.jugarMovimiento(jugada);
+            int puntuacion = -negamax(p, -beta, -alfa);
+            p.deshacerMovimiento(jugada);
+
+            if (puntuacion >= beta) {
+                cortes++;
+                tabla.guardar(clave, puntuacion, TablaTransposicion.PROFUNDIDAD_COMPLETA,
+                        TablaTransposicion.INFERIOR, PosicionBitboard.columnaDe(jugada));
+                return puntuacion;
+            }
+            if (puntuacion > alfa) {
+                alfa = puntuacion;
+                mejorColumna = PosicionBitboard.columnaDe(jugada);
+            }
+        }
+
+        tabla.guardar(clave, alfa, TablaTransposicion.PROFUNDIDAD_COMPLETA,
+                alfa > alfaOriginal ? TablaTransposicion.EXACTA : TablaTransposicion.SUPERIOR, mejorColumna);
+        return alfa;
+    }
+}
@@ -0,0 +1,276 @@
+package com.alexzafra.conecta4.controller.motor;
+
+import java.util.Arrays;
+
+/**
+ * Tabla de transposición para las búsquedas de la IA.
+ * Guarda para cada posición ya analizada su valor, el tipo de cota, la
+ * profundidad de la búsqueda y la mejor columna encontrada. Los datos se
+ * empaquetan en arrays de long para no crear objetos por entrada.
+ *
+ * Varios hilos pueden compartir la tabla sin bloqueos: cada entrada guarda
+ * la clave combinada con los datos mediante XOR, de modo que si dos hilos
+ * escriben a la vez la misma entrada y se mezclan una clave y unos datos de
+ * escrituras distintas, la comprobación falla y se trata como un fallo de
+ * la tabla en lugar de devolver datos de otra posición.
+ *
+ * La tabla no se vacía entre jugadas ni entre partidas. Cada búsqueda empieza
+ * una generación nueva y cada entrada guarda la generación en la que se
+ * escribió o se usó por última vez. Las entradas se agrupan en cubetas de
+ * cuatro y, al guardar una posición nueva, se sustituye la entrada de la
+ * cubeta que vale menos: la de menor profundidad, descontando por cada
+ * generación de antigüedad. Así los resultados profundos de la jugada
+ * anterior se siguen aprovechando y los de posiciones que ya no pueden
+ * aparecer se van sustituyendo primero.
+ */
+public class TablaTransposicion {
+    // Tipos de cota del valor guardado
+    public static final int EXACTA = 1;
+    public static final int INFERIOR = 2;
+    public static final int SUPERIOR = 3;
+
+    // Profundidad que se usa para valores resueltos hasta el final de la partida
+    public static final int PROFUNDIDAD_COMPLETA = 0xFF;
+
+    // Tamaño por defecto de la tabla en megabytes
+    public static final int MEGABYTES_POR_DEFECTO = 16;
+
+    // Bytes que ocupa cada entrada (clave + datos)
+    private static final int BYTES_POR_ENTRADA = 16;
+
+    // Entradas de cada cubeta
+    private static final int CUBETA = 4;
+
+    // Profundidad que pierde una entrada por cada generación de antigüedad al elegir cuál sustituir
+    private static final int PROFUNDIDAD_POR_GENERACION = 8;
+
+    // Posición de cada campo dentro de los datos empaquetados
+    private static final int DESPLAZAMIENTO_PROFUNDIDAD = 32;
+    private static final int DESPLAZAMIENTO_TIPO = 40;
+    private static final int DESPLAZAMIENTO_MOVIMIENTO = 42;
+    private static final int DESPLAZAMIENTO_GENERACION = 46;
+    private static final long MASCARA_GENERACION = 0xFFL << DESPLAZAMIENTO_GENERACION;
+
+    // Entradas de la tabla
+    private final long[] claves;
+    private final long[] datos;
+
+    // Desplazamiento para obtener el índice a partir del hash
+    private final int desplazamientoIndice;
+
+    // Generación de la búsqueda en curso (de 0 a 255, vuelve a empezar)
+    private int generacion;
+
+    // Entradas de búsquedas anteriores usadas en la búsqueda en curso
+    // (aproximado si varios hilos comparten la tabla)
+    private long entradasHeredadas;
+
+    /**
+     * Crea una tabla con el tamaño por defecto.
+     */
+    public TablaTransposicion() {
+        this(MEGABYTES_POR_DEFECTO);
+    }
+
+    /**
+     * Crea una tabla que ocupa como máximo los megabytes indicados.
+     * @param megabytes Memoria máxima de la tabla
+     */
+    public TablaTransposicion(int megabytes) {
+        long entradasMaximas = Math.max(1024L, (long) megabytes * 1024 * 1024 / BYTES_POR_ENTRADA);
+        int bits = 63 - Long.numberOfLeadingZeros(Math.min(entradasMaximas, 1L << 30));
+
+        claves = new long[1 << bits];
+        datos = new long[1 << bits];
+
+        // El hash elige la cubeta y la cubeta ocupa CUBETA entradas seguidas
+        desplazamientoIndice = 64 - bits + Integer.numberOfTrailingZeros(CUBETA);
+    }
+
+    /**
+     * Empieza una búsqueda nueva: las entradas escritas hasta ahora pasan a ser
+     * de generaciones anteriores y se pone a cero el contador de heredadas.
+     */
+    public void nuevaBusqueda() {
+        generacion = (generacion + 1) & 0xFF;
+        entradasHeredadas = 0;
+    }
+
+    /**
+     * Busca una posición en la tabla.
+     * @param clave Clave de la posición
+     * @return Datos empaquetados de la entrada, o 0 si no está en la tabla
+     */
+    public long consultar(long clave) {
+        int inicio = indice(clave);
+        for (int indice = inicio; indice < inicio + CUBETA; indice++) {
+            long entrada = datos[indice];
+            if (entrada != 0L && (claves[indice] ^ entrada) == clave) {
+                // Una entrada de una búsqueda anterior que sigue sirviendo pasa a la generación actual
+                if (generacion(entrada) != generacion) {
+                    entrada = (entrada & ~MASCARA_GENERACION) | ((long) generacion << DESPLAZAMIENTO_GENERACION);
+                    claves[indice] = clave ^ entrada;
+                    datos[indice] = entrada;
+                    entradasHeredadas++;
+                }
+                return entrada;
+            }
+        }
+        return 0L;
+    }
+
+    /**
+     * Guarda el resultado de una búsqueda. Si la posición ya está en su cubeta
+     * se actualiza; si no, ocupa un hueco libre o sustituye la entrada que menos
+     * vale por profundidad y antigüedad.
+     * @param clave Clave de la posición
+     * @param valor Valor de la posición
+     * @param profundidad Profundidad restante con la que se calculó
+     * @param tipo Tipo de cota (EXACTA, INFERIOR o SUPERIOR)
+     * @param columna Mejor columna encontrada, o -1 si no se conoce
+     */
+    public void guardar(long clave, int valor, int profundidad, int tipo, int columna) {
+        int inicio = indice(clave);
+        int elegida = inicio;
+        int menorValor = Integer.MAX_VALUE;
+        for (int indice = inicio; indice < inicio + CUBETA; indice++) {
+            long actual = datos[indice];
+            if (actual == 0L || (claves[indice] ^ actual) == clave) {
+                elegida = indice;
+                break;
+            }
+            int edad = (generacion - generacion(actual)) & 0xFF;
+            int valorEntrada = profundidad(actual) - edad * PROFUNDIDAD_POR_GENERACION;
+            if (valorEntrada < menorValor) {
+                menorValor = valorEntrada;
+                elegida = indice;
+            }
+        }
+
+        long entrada = empaquetar(valor, profundidad, tipo, columna)
+                | ((long) generacion << DESPLAZAMIENTO_GENERACION);
+        claves[elegida] = clave ^ entrada;
+        datos[elegida] = entrada;
+    }
+
+    /**
+     * Vacía la tabla.
+     */
+    public void limpiar() {
+        Arrays.fill(claves, 0L);
+        Arrays.fill(datos, 0L);
+        entradasHeredadas = 0;
+    }
+
+    /**
+     * Obtiene cuántas entradas escritas en búsquedas anteriores se han
+     * encontrado en la búsqueda en curso, contando cada una una sola vez.
+     * Mide lo que se ahorra por no vaciar la tabla entre jugadas.
+     * @return Entradas heredadas desde la última llamada a nuevaBusqueda()
+     */
+    public long getEntradasHeredadas() {
+        return entradasHeredadas;
+    }
+
+    /**
+     * Obtiene la generación de la búsqueda en curso.
+     * @return Generación, de 0 a 255
+     */
+    public int getGeneracion() {
+        return generacion;
+    }
+
+    /**
+     * Recorre todas las entradas ocupadas de la tabla.
+     * @param visitante Recibe la clave y los datos empaquetados de cada entrada
+     */
+    public void recorrer(Visitante visitante) {
+        for (int i = 0; i < claves.length; i++) {
+            long entrada = datos[i];
+            if (entrada != 0L) {
+                visitante.visitar(claves[i] ^ entrada, entrada);
+            }
+        }
+    }
+
+    /**
+     * Recibe las entradas de la tabla al recorrerla.
+     */
+    public interface Visitante {
+        /**
+         * @param clave Clave de la posición
+         * @param datos Datos empaquetados de la entrada
+         */
+        void visitar(long clave, long datos);
+    }
+
+    /**
+     * Obtiene el número de entradas de la tabla.
+     * @return Capacidad de la tabla
+     */
+    public int getCapacidad() {
+        return claves.length;
+    }
+
+    /**
+     * Extrae el valor de unos datos empaquetados.
+     * @param datos Datos devueltos por consultar()
+     * @return Valor guardado
+     */
+    public static int valor(long datos) {
+        return (int) datos;
+    }
+
+    /**
+     * Extrae la profundidad de unos datos empaquetados.
+     * @param datos Datos devueltos por consultar()
+     * @return Profundidad guardada
+     */
+    public static int profundidad(long datos) {
+        return (int) (datos >>> DESPLAZAMIENTO_PROFUNDIDAD) & 0xFF;
+    }
+
+    /**
+     * Extrae el tipo de cota de unos datos empaquetados.
+     * @param datos Datos devueltos por consultar()
+     * @return EXACTA, INFERIOR o SUPERIOR
+     */
+    public static int tipo(long datos) {
+        return (int) (datos >>> DESPLAZAMIENTO_TIPO) & 0x3;
+    }
+
+    /**
+     * Extrae la mejor columna de unos datos empaquetados.
+     * @param datos Datos devueltos por consultar()
+     * @return Columna guardada, o -1 si no se conoce
+     */
+    public static int columna(long datos) {
+        return ((int) (datos >>> DESPLAZAMIENTO_MOVIMIENTO) & 0xF) - 1;
+    }
+
+    /**
+     * Extrae la generación de unos datos empaquetados.
+     * @param datos Datos devueltos por consultar()
+     * @return Generación en la que se escribió o usó la entrada por última vez
+     */
+    public static int generacion(long datos) {
+        return (int) (datos >>> DESPLAZAMIENTO_GENERACION) & 0xFF;
+    }
+
+    /**
+     * Empaqueta los campos de una entrada en un único long.
+     */
+    private static long empaquetar(int valor, int profundidad, int tipo, int columna) {
+        return (valor & 0xFFFFFFFFL)
+                | ((long) (profundidad & 0xFF) << DESPLAZAMIENTO_PROFUNDIDAD)
+                | ((long) tipo << DESPLAZAMIENTO_TIPO)
+                | ((long) (columna + 1) << DESPLAZAMIENTO_MOVIMIENTO);
+    }
+
+    /**
+     * Calcula el índice de la primera entrada de la cubeta de una clave mezclando sus bits.
+     */
+    private int indice(long clave) {
+        return (int) ((clave * 0x9E3779B97F4A7C15L) >>> desplazamientoIndice) * CUBETA;
+    }
+}
@@ -0,0 +1,63 @@
+package com.alexzafra.conecta4.controller.motor;
+
+/**
+ * Señal para cancelar un cálculo de la IA desde otro hilo. La interfaz crea
+ * uno por jugada o análisis y lo cancela al reiniciar la partida, cambiar de
+ * modo o cerrar la ventana; los motores lo consultan cada cierto número de
+ * nodos y abandonan la búsqueda en cuanto lo ven cancelado.
+ *
+ * A diferencia de detener(), que pide al motor que devuelva lo mejor que
+ * tenga, una cancelación indica que el resultado ya no le interesa a nadie.
+ * Un token cancelado lo sigue estando para siempre.
+ */
+public class TokenCancelacion {
+    // Token que nunca se cancela, para los cálculos sin dueño
+    public static final TokenCancelacion NINGUNO = new TokenCancelacion() {
+        @Override
+        public void cancelar() {
+            // Este token no se puede cancelar
+        }
+    };
+
+    private volatile boolean cancelado;
+
+    /**
+     * Cancela el cálculo asociado. Se puede llamar desde cualquier hilo y más de una vez.
+     */
+    public void cancelar() {
+        cancelado = true;
+    }
+
+    /**
+     * Indica si se ha cancelado el cálculo.
+     * @return true si se ha cancelado
+     */
+    public boolean isCancelado() {
+        return cancelado;
+    }
+
+    /**
+     * Crea un token hijo: se cancela al cancelarlo a él o al cancelar este,
+     * pero cancelarlo no afecta a este. Sirve para cortar una parte de un
+     * cálculo (una jugada que llega a su límite de tiempo, por ejemplo).
+     * @return Token nuevo sin cancelar, salvo que este ya lo esté
+     */
+    public TokenCancelacion derivar() {
+        TokenCancelacion padre = this;
+        return new TokenCancelacion() {
+            @Override
+            public boolean isCancelado() {
+                return super.isCancelado() || padre.isCancelado();
+            }
+        };
+    }
+
+    /**
+     * Devuelve el token indicado, o NINGUNO si es null.
+     * @param token Token o null
+     * @return Token no nulo
+     */
+    static TokenCancelacion oNinguno(TokenCancelacion token) {
+        return token != null ? token : NINGUNO;
+    }
+}
@@ -0,0 +1,244 @@
+package com.alexzafra.conecta4.herramientas;
+
+import com.alexzafra.conecta4.controller.motor.EvaluadorVentanas;
+import com.alexzafra.conecta4.controller.motor.PesosEvaluacion;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Ajusta los pesos del evaluador de ventanas a partir de partidas de autojuego.
+ * Primero genera un corpus de posiciones con el resultado final de su partida
+ * ({@link CorpusAutojuego}) y después minimiza el error cuadrático entre ese
+ * resultado y la predicción sigmoide(K · evaluación) con descenso por
+ * gradiente (Adam). Como la
+ * evaluación es lineal en los pesos, el corpus se guarda como una matriz de
+ * características en un único byte[] y el gradiente se calcula en paralelo
+ * por bloques.
+ *
+ * Uso: &lt;salida&gt; [partidas] [configuración] [jugadasApertura] [iteraciones] [semilla]
+ * La configuración de autojuego tiene la forma nivel[/ms[/profundidad]] (por defecto 4/0/6).
+ * El fichero resultante se copia en src/main/resources/ia/pesos.txt o se indica
+ * con -Dconecta4.pesos=ruta.
+ */
+public class AjustadorPesos {
+    private static final int NUM_PESOS = EvaluadorVentanas.NUM_PESOS;
+
+    // Parámetros de Adam
+    private static final double TASA_APRENDIZAJE = 0.3;
+    private static final double BETA1 = 0.9;
+    private static final double BETA2 = 0.999;
+    private static final double EPSILON = 1e-8;
+
+    // Corpus: características de cada posición y resultado para el jugador con turno
+    private final byte[] caracteristicas;
+    private final float[] resultados;
+    private final int posiciones;
+
+    private final ExecutorService ejecutor;
+    private final int bloques;
+
+    /**
+     * Crea un ajustador sobre un corpus ya generado, calculando de una vez las
+     * características de todas sus posiciones.
+     * @param corpus Posiciones con sus resultados
+     * @param ejecutor Hilos con los que calcular el error y el gradiente
+     * @param bloques Número de bloques en que se reparte el corpus
+     */
+    public AjustadorPesos(CorpusAutojuego corpus, ExecutorService ejecutor, int bloques) {
+        this.posiciones = corpus.getTamano();
+        this.caracteristicas = new byte[posiciones * NUM_PESOS];
+        this.resultados = new float[posiciones];
+        for (int i = 0; i < posiciones; i++) {
+            EvaluadorVentanas.caracteristicas(corpus.getPosicion(i), caracteristicas, i * NUM_PESOS);
+            resultados[i] = corpus.getResultado(i);
+        }
+        this.ejecutor = ejecutor;
+        this.bloques = bloques;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        if (args.length < 1) {
+            System.out.println("Uso: <salida> [partidas] [configuración] [jugadasApertura] [iteraciones] [semilla]");
+            System.exit(2);
+        }
+
+        Path salida = Paths.get(args[0]);
+        int partidas = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        TorneoAutojuego.Configuracion config = TorneoAutojuego.Configuracion.leer(args.length > 2 ? args[2] : "4/0/6");
+        int apertura = args.length > 3 ? Integer.parseInt(args[3]) : 6;
+        int iteraciones = args.length > 4 ? Integer.parseInt(args[4]) : 500;
+        long semilla = args.length > 5 ? Long.parseLong(args[5]) : System.nanoTime();
+        int hilos = Runtime.getRuntime().availableProcessors();
+
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        try {
+            long inicio = System.nanoTime();
+            CorpusAutojuego corpus = CorpusAutojuego.generar(partidas, config, apertura, semilla, ejecutor, hilos);
+            System.out.printf("Corpus: %d posiciones de %d partidas (%.1f s)%n",
+                    corpus.getTamano(), partidas, (System.nanoTime() - inicio) / 1e9);
+
+            AjustadorPesos ajustador = new AjustadorPesos(corpus, ejecutor, hilos * 4);
+            int[] iniciales = PesosEvaluacion.getPesos();
+            double k = ajustador.ajustarEscala(iniciales);
+            System.out.printf("Escala K = %.5f, error inicial %.6f%n", k, ajustador.error(toDouble(iniciales), k));
+
+            int[] pesos = ajustador.ajustar(iniciales, k, iteraciones);
+            System.out.printf("Error final %.6f%n", ajustador.error(toDouble(pesos), k));
+
+            PesosEvaluacion.escribir(salida, pesos, String.format(
+                    "Ajustados con %d posiciones de autojuego %s, semilla %d", corpus.getTamano(), config, semilla));
+            System.out.println("Pesos guardados en " + salida);
+        } finally {
+            ejecutor.shutdown();
+        }
+    }
+
+    /**
+     * Busca la constante K de la sigmoide que mejor ajusta los pesos actuales,
+     * para que el ajuste posterior conserve su escala.
+     * @param pesos Pesos actuales
+     * @return Constante K
+     */
+    public double ajustarEscala(int[] pesos) throws InterruptedException, ExecutionException {
+        double[] w = toDouble(pesos);
+        double mejorK = 0.01;
+        double mejorError = error(w, mejorK);
+
+        // Búsqueda en escala logarítmica y después refinado por sección áurea
+        for (double k = 0.001; k < 1.0; k *= 1.5) {
+            double e = error(w, k);
+            if (e < mejorError) {
+                mejorError = e;
+                mejorK = k;
+            }
+        }
+
+        double a = mejorK / 1.5;
+        double b = mejorK * 1.5;
+        double razon = (Math.sqrt(5) - 1) / 2;
+        for (int i = 0; i < 30; i++) {
+            double c = b - razon * (b - a);
+            double d = a + razon * (b - a);
+            if (error(w, c) < error(w, d)) {
+                b = d;
+            } else {
+                a = c;
+            }
+        }
+        return (a + b) / 2;
+    }
+
+    /**
+     * Ajusta los pesos con descenso por gradiente.
+     * @param iniciales Pesos de partida
+     * @param k Constante de la sigmoide
+     * @param iteraciones Número de pasos
+     * @return Pesos ajustados y redondeados
+     */
+    public int[] ajustar(int[] iniciales, double k, int iteraciones) throws InterruptedException, ExecutionException {
+        double[] w = toDouble(iniciales);
+        double[] m = new double[NUM_PESOS];
+        double[] v = new double[NUM_PESOS];
+
+        for (int t = 1; t <= iteraciones; t++) {
+            double[] gradiente = gradiente(w, k);
+            for (int i = 0; i < NUM_PESOS; i++) {
+                m[i] = BETA1 * m[i] + (1 - BETA1) * gradiente[i];
+                v[i] = BETA2 * v[i] + (1 - BETA2) * gradiente[i] * gradiente[i];
+                double mCorregido = m[i] / (1 - Math.pow(BETA1, t));
+                double vCorregido = v[i] / (1 - Math.pow(BETA2, t));
+                w[i] -= TASA_APRENDIZAJE * mCorregido / (Math.sqrt(vCorregido) + EPSILON);
+            }
+            if (t % 50 == 0 || t == iteraciones) {
+                System.out.printf("Iteración %d: error %.6f%n", t, gradiente[NUM_PESOS]);
+            }
+        }
+
+        int[] pesos = new int[NUM_PESOS];
+        for (int i = 0; i < NUM_PESOS; i++) {
+            pesos[i] = (int) Math.round(w[i]);
+        }
+        return pesos;
+    }
+
+    /**
+     * Calcula el error cuadrático medio de unos pesos sobre el corpus.
+     */
+    public double error(double[] w, double k) throws InterruptedException, ExecutionException {
+        return calcular(w, k, false)[NUM_PESOS];
+    }
+
+    /**
+     * Calcula el gradiente del error medio; la última posición del resultado es el error.
+     */
+    private double[] gradiente(double[] w, double k) throws InterruptedException, ExecutionException {
+        return calcular(w, k, true);
+    }
+
+    /**
+     * Recorre el corpus en bloques paralelos acumulando error y, si se pide, gradiente.
+     */
+    private double[] calcular(double[] w, double k, boolean conGradiente)
+            throws InterruptedException, ExecutionException {
+        List<Future<double[]>> tareas = new ArrayList<>(bloques);
+        int tamanoBloque = (posiciones + bloques - 1) / bloques;
+
+        for (int b = 0; b < bloques; b++) {
+            int desde = b * tamanoBloque;
+            int hasta = Math.min(posiciones, desde + tamanoBloque);
+            tareas.add(ejecutor.submit(() -> {
+                double[] acumulado = new double[NUM_PESOS + 1];
+                for (int p = desde; p < hasta; p++) {
+                    int base = p * NUM_PESOS;
+                    double evaluacion = 0;
+                    for (int i = 0; i < NUM_PESOS; i++) {
+                        evaluacion += w[i] * caracteristicas[base + i];
+                    }
+
+                    double prediccion = 1.0 / (1.0 + Math.exp(-k * evaluacion));
+                    double diferencia = prediccion - resultados[p];
+                    acumulado[NUM_PESOS] += diferencia * diferencia;
+
+                    if (conGradiente) {
+                        double factor = diferencia * prediccion * (1 - prediccion);
+                        for (int i = 0; i < NUM_PESOS; i++) {
+                            acumulado[i] += factor * caracteristicas[base + i];
+                        }
+                    }
+                }
+                return acumulado;
+            }));
+        }
+
+        double[] total = new double[NUM_PESOS + 1];
+        for (Future<double[]> tarea : tareas) {
+            double[] parcial = tarea.get();
+            for (int i = 0; i <= NUM_PESOS; i++) {
+                total[i] += parcial[i];
+            }
+        }
+
+        double n = Math.max(1, posiciones);
+        for (int i = 0; i < NUM_PESOS; i++) {
+            total[i] *= 2 * k / n;
+        }
+        total[NUM_PESOS] /= n;
+        return total;
+    }
+
+    private static double[] toDouble(int[] pesos) {
+        double[] resultado = new double[pesos.length];
+        for (int i = 0; i < pesos.length; i++) {
+            resultado[i] = pesos[i];
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,212 @@
+package com.alexzafra.conecta4.herramientas;
+
+import com.alexzafra.conecta4.controller.motor.BaseDatosFinales;
+import com.alexzafra.conecta4.controller.motor.GeometriaTablero;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Análisis retrógrado completo de un tablero reducido (por ejemplo 4x5, 5x5
+ * o 5x6, en columnas x filas). Recorre todas las posiciones legales capa a
+ * capa, desde el tablero lleno hasta el vacío: el valor de cada posición
+ * sale de los de la capa siguiente, que ya están calculados. Cada capa se reparte entre los
+ * hilos en bloques de posiciones múltiplos de 32, de modo que ningún long
+ * del array de valores empaquetados lo escriben dos hilos. Solo hay en
+ * memoria la capa que se calcula y la siguiente; cada capa terminada se
+ * escribe en el fichero de la base de datos, que luego puede abrirse con
+ * BaseDatosFinales.
+ *
+ * El índice denso deja fuera las posiciones con cuatro en línea vertical, y
+ * con ello la capa más grande de 6x6 cabe en un array (unos 6,7 GB, y hacen
+ * falta dos a la vez). Los hijos que se consultan nunca tienen cuatro en
+ * línea: una jugada que lo hace gana antes de buscar su índice.
+ *
+ * Uso: columnas filas fichero [hilos]
+ */
+public class AnalisisRetrogrado {
+    // Posiciones que toma un hilo cada vez (múltiplo de 32)
+    private static final int TAMANO_BLOQUE = BaseDatosFinales.VALORES_POR_LONG * 1024;
+
+    private final GeometriaTablero geometria;
+
+    private AnalisisRetrogrado(GeometriaTablero geometria) {
+        this.geometria = geometria;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        if (args.length < 3) {
+            System.err.println("Uso: columnas filas fichero [hilos]");
+            return;
+        }
+        GeometriaTablero geometria = new GeometriaTablero(Integer.parseInt(args[0]), Integer.parseInt(args[1]));
+        Path ruta = Paths.get(args[2]);
+        int hilos = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        System.out.printf("Tablero de %d columnas y %d filas: %,d posiciones, %,d bytes%n",
+                geometria.getColumnas(), geometria.getFilas(), totalPosiciones(geometria),
+                BaseDatosFinales.tamanoFichero(geometria));
+
+        // Cada capa tiene que caber en un array de long
+        for (int fichas = 0; fichas <= geometria.getCasillas(); fichas++) {
+            if (BaseDatosFinales.longsCapa(geometria, fichas) > Integer.MAX_VALUE - 8) {
+                System.err.println("La capa de " + fichas + " fichas es demasiado grande para el análisis completo");
+                return;
+            }
+        }
+
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        try {
+            new AnalisisRetrogrado(geometria).generar(ruta, ejecutor, hilos);
+        } finally {
+            ejecutor.shutdown();
+        }
+    }
+
+    /**
+     * Calcula todas las capas y escribe la base de datos.
+     */
+    private void generar(Path ruta, ExecutorService ejecutor, int hilos)
+            throws IOException, InterruptedException, ExecutionException {
+        long[] inicios = BaseDatosFinales.iniciosCapas(geometria);
+        long inicio = System.nanoTime();
+
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long[] siguiente = null;
+            long[] totales = new long[4];
+            for (int fichas = geometria.getCasillas(); fichas >= 0; fichas--) {
+                long[] capa = new long[(int) BaseDatosFinales.longsCapa(geometria, fichas)];
+                long[] cuentas = calcularCapa(fichas, capa, siguiente, ejecutor, hilos);
+                escribir(canal, capa, inicios[fichas]);
+                for (int v = 0; v < totales.length; v++) {
+                    totales[v] += cuentas[v];
+                }
+                System.out.printf("%2d fichas: %,14d victorias %,14d tablas %,14d derrotas %,14d terminales%n",
+                        fichas, cuentas[BaseDatosFinales.VICTORIA], cuentas[BaseDatosFinales.TABLAS],
+                        cuentas[BaseDatosFinales.DERROTA], cuentas[BaseDatosFinales.SIN_VALOR]);
+                siguiente = capa;
+            }
+
+            // La cabecera se escribe al final: un fichero a medias no se puede abrir
+            ByteBuffer cabecera = ByteBuffer.allocate(BaseDatosFinales.BYTES_CABECERA);
+            BaseDatosFinales.escribirCabecera(cabecera, geometria);
+            canal.write(cabecera, 0);
+
+            String[] nombres = {"tablas", "gana el que empieza", "pierde el que empieza"};
+            int inicial = BaseDatosFinales.leer(siguiente, 0);
+            System.out.printf("Posiciones legales: %,d. Posición inicial: %s (%.1f s)%n",
+                    totales[BaseDatosFinales.VICTORIA] + totales[BaseDatosFinales.TABLAS] + totales[BaseDatosFinales.DERROTA],
+                    inicial == BaseDatosFinales.VICTORIA ? nombres[1] : inicial == BaseDatosFinales.DERROTA ? nombres[2] : nombres[0],
+                    (System.nanoTime() - inicio) / 1e9);
+        }
+    }
+
+    /**
+     * Calcula en paralelo los valores de una capa a partir de la siguiente.
+     * @return Número de posiciones de cada valor
+     */
+    private long[] calcularCapa(int fichas, long[] capa, long[] siguiente, ExecutorService ejecutor, int hilos)
+            throws InterruptedException, ExecutionException {
+        long tamano = geometria.tamanoCapa(fichas);
+        AtomicLong proximo = new AtomicLong();
+        List<Future<long[]>> tareas = new ArrayList<>();
+        for (int h = 0; h < hilos; h++) {
+            tareas.add(ejecutor.submit(() -> {
+                long[] cuentas = new long[4];
+                long[] posicion = new long[2];
+                long desde;
+                while ((desde = proximo.getAndAdd(TAMANO_BLOQUE)) < tamano) {
+                    long hasta = Math.min(tamano, desde + TAMANO_BLOQUE);
+                    for (long indice = desde; indice < hasta; indice++) {
+                        geometria.posicion(fichas, indice, posicion);
+                        int valor = valorar(fichas, posicion[0], posicion[1], siguiente);
+                        capa[(int) (indice / BaseDatosFinales.VALORES_POR_LONG)] |=
+                                (long) valor << ((indice % BaseDatosFinales.VALORES_POR_LONG) * 2);
+                        cuentas[valor]++;
+                    }
+                }
+                return cuentas;
+            }));
+        }
+
+        long[] cuentas = new long[4];
+        for (Future<long[]> tarea : tareas) {
+            long[] parciales = tarea.get();
+            for (int v = 0; v < cuentas.length; v++) {
+                cuentas[v] += parciales[v];
+            }
+        }
+        return cuentas;
+    }
+
+    /**
+     * Valor de una posición para el jugador con turno.
+     * @param siguiente Valores de la capa con una ficha más
+     * @return VICTORIA, TABLAS, DERROTA o SIN_VALOR si ya tiene cuatro en línea
+     */
+    private int valorar(int fichas, long primero, long mascara, long[] siguiente) {
+        long segundo = primero ^ mascara;
+        if (geometria.hayAlineacion(primero) || geometria.hayAlineacion(segundo)) {
+            return BaseDatosFinales.SIN_VALOR;
+        }
+        if (fichas == geometria.getCasillas()) {
+            return BaseDatosFinales.TABLAS;
+        }
+
+        boolean empieza = (fichas & 1) == 0;
+        long propias = empieza ? primero : segundo;
+        int mejor = BaseDatosFinales.DERROTA;
+        for (long posibles = geometria.movimientosPosibles(mascara); posibles != 0; posibles &= posibles - 1) {
+            long movimiento = posibles & -posibles;
+            if (geometria.hayAlineacion(propias | movimiento)) {
+                return BaseDatosFinales.VICTORIA;
+            }
+            long indice = geometria.indice(empieza ? primero | movimiento : primero, mascara | movimiento);
+            int hijo = BaseDatosFinales.leer(siguiente, indice);
+            if (hijo == BaseDatosFinales.DERROTA) {
+                return BaseDatosFinales.VICTORIA;
+            }
+            if (hijo == BaseDatosFinales.TABLAS) {
+                mejor = BaseDatosFinales.TABLAS;
+            }
+        }
+        return mejor;
+    }
+
+    /**
+     * Escribe una capa en su posición del fichero.
+     */
+    private static void escribir(FileChannel canal, long[] capa, long posicion) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8 * 8192);
+        for (int i = 0; i < capa.length; ) {
+            buffer.clear();
+            while (i < capa.length && buffer.hasRemaining()) {
+                buffer.putLong(capa[i++]);
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                posicion += canal.write(buffer, posicion);
+            }
+        }
+    }
+
+    private static long totalPosiciones(GeometriaTablero geometria) {
+        long total = 0;
+        for (int fichas = 0; fichas <= geometria.getCasillas(); fichas++) {
+            total += geometria.tamanoCapa(fichas);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,117 @@
+package com.alexzafra.conecta4.herramientas;
+
+import com.alexzafra.conecta4.controller.InteligenciaArtificial;
+import com.alexzafra.conecta4.controller.motor.BuscadorAlfaBeta;
+import com.alexzafra.conecta4.controller.motor.Evaluador;
+import com.alexzafra.conecta4.controller.motor.EvaluadorNeuronal;
+import com.alexzafra.conecta4.controller.motor.EvaluadorVentanas;
+import com.alexzafra.conecta4.controller.motor.PosicionBitboard;
+import com.alexzafra.conecta4.controller.motor.TablaTransposicion;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Compara el evaluador de ventanas con el neuronal: coste por hoja, nodos por
+ * segundo en una búsqueda de profundidad fija y fuerza en un torneo entre
+ * dos IAs que solo se diferencian en el evaluador.
+ *
+ * Uso: [posiciones] [profundidad] [partidas] [semilla]
+ */
+public class BancoEvaluadores {
+    // Repeticiones de la medida de coste por hoja
+    private static final int RONDAS_HOJAS = 200;
+
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
+        int numPosiciones = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int profundidad = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int partidas = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        long semilla = args.length > 3 ? Long.parseLong(args[3]) : 1;
+
+        if (!EvaluadorNeuronal.estaDisponible()) {
+            System.out.println("No hay ninguna red neuronal cargada");
+            System.exit(1);
+        }
+
+        PosicionBitboard[] posiciones = generarPosiciones(numPosiciones, new SplittableRandom(semilla));
+
+        // Dos pasadas: la primera solo sirve para calentar el compilador JIT
+        for (int pasada = 0; pasada < 2; pasada++) {
+            boolean mostrar = pasada == 1;
+            medir("ventanas", new EvaluadorVentanas(), posiciones, profundidad, mostrar);
+            medir("red", new EvaluadorNeuronal(), posiciones, profundidad, mostrar);
+        }
+
+        System.out.println();
+        TorneoAutojuego.Configuracion ventanas = TorneoAutojuego.Configuracion.leer(
+                "4/0/" + profundidad + "/" + InteligenciaArtificial.EVALUADOR_VENTANAS);
+        TorneoAutojuego.Configuracion red = TorneoAutojuego.Configuracion.leer(
+                "4/0/" + profundidad + "/" + InteligenciaArtificial.EVALUADOR_RED);
+        TorneoAutojuego torneo = new TorneoAutojuego(red, ventanas, 4, semilla);
+        torneo.jugar(partidas, Runtime.getRuntime().availableProcessors());
+        torneo.imprimirResultados();
+    }
+
+    /**
+     * Mide el coste por hoja (jugar, evaluar y deshacer) y la velocidad de la búsqueda.
+     */
+    private static void medir(String nombre, Evaluador evaluador, PosicionBitboard[] posiciones,
+                              int profundidad, boolean mostrar) {
+        long hojas = 0;
+        long suma = 0;
+        long inicio = System.nanoTime();
+        for (int ronda = 0; ronda < RONDAS_HOJAS; ronda++) {
+            for (PosicionBitboard posicion : posiciones) {
+                evaluador.iniciar(posicion);
+                for (int columna = 0; columna < PosicionBitboard.ANCHO; columna++) {
+                    if (!posicion.puedeJugar(columna)) {
+                        continue;
+                    }
+                    long movimiento = posicion.movimiento(columna);
+                    evaluador.jugar(posicion, movimiento);
+                    posicion.jugarMovimiento(movimiento);
+                    suma += evaluador.evaluar(posicion);
+                    posicion.deshacerMovimiento(movimiento);
+                    evaluador.deshacer(posicion, movimiento);
+                    hojas++;
+                }
+            }
+        }
+        long nanosHojas = System.nanoTime() - inicio;
+
+        BuscadorAlfaBeta buscador = new BuscadorAlfaBeta(new TablaTransposicion(), evaluador);
+        long nodos = 0;
+        inicio = System.nanoTime();
+        for (PosicionBitboard posicion : posiciones) {
+            buscador.getTabla().limpiar();
+            buscador.analizar(posicion, profundidad, 0, null);
+            nodos += buscador.getNodos();
+        }
+        long nanosBusqueda = System.nanoTime() - inicio;
+
+        if (mostrar) {
+            System.out.printf("%-9s %6.1f ns/hoja   %,12d nodos/s   (%d nodos a profundidad %d, suma %d)%n",
+                    nombre, (double) nanosHojas / hojas, nodos * 1_000_000_000L / Math.max(1, nanosBusqueda),
+                    nodos, profundidad, suma);
+        }
+    }
+
+    /**
+     * Genera posiciones de mitad de partida con jugadas aleatorias que no ganan.
+     */
+    private static PosicionBitboard[] generarPosiciones(int cantidad, SplittableRandom random) {
+        PosicionBitboard[] posiciones = new PosicionBitboard[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            PosicionBitboard posicion = new PosicionBitboard();
+            int jugadas = 6 + random.nextInt(14);
+            while (posicion.getMovimientos() < jugadas) {
+                int columna = random.nextInt(PosicionBitboard.ANCHO);
+                if (posicion.puedeJugar(columna) && !posicion.esMovimientoGanador(columna)) {
+                    posicion.jugar(columna);
+                }
+            }
+            posiciones[i] = posicion;
+        }
+        return posiciones;
+    }
+}
@@ -0,0 +1,84 @@
+package com.alexzafra.conecta4.herramientas;
+
+import com.alexzafra.conecta4.controller.motor.EvaluadorLotes;
+import com.alexzafra.conecta4.controller.motor.EvaluadorParidad;
+import com.alexzafra.conecta4.controller.motor.EvaluadorVentanas;
+import com.alexzafra.conecta4.controller.motor.PosicionBitboard;
+import com.alexzafra.conecta4.controller.motor.TablaTransposicion;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Mide el rendimiento en posiciones por segundo de la valoración por lotes
+ * con un hilo y con todos los núcleos. Con profundidad 0 mide también la
+ * evaluación estática de ventanas de EvaluadorLotes.evaluar().
+ *
+ * Uso: [posiciones] [profundidad] [semilla]
+ */
+public class BancoLotes {
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
+        int numPosiciones = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int profundidad = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        long semilla = args.length > 2 ? Long.parseLong(args[2]) : 1;
+
+        long[] posiciones = generarPosiciones(numPosiciones, new SplittableRandom(semilla));
+        int[] puntuaciones = new int[numPosiciones];
+        int nucleos = Runtime.getRuntime().availableProcessors();
+
+        for (int hilos : nucleos > 1 ? new int[]{1, nucleos} : new int[]{1}) {
+            TablaTransposicion tabla = new TablaTransposicion();
+            try (EvaluadorLotes lotes = new EvaluadorLotes(tabla,
+                    () -> new EvaluadorParidad(new EvaluadorVentanas()), hilos)) {
+                // Dos pasadas: la primera solo sirve para calentar el compilador JIT
+                for (int pasada = 0; pasada < 2; pasada++) {
+                    tabla.limpiar();
+                    long inicio = System.nanoTime();
+                    lotes.valorar(posiciones, puntuaciones, profundidad);
+                    long nanos = System.nanoTime() - inicio;
+                    if (pasada == 1) {
+                        long suma = 0;
+                        for (int puntuacion : puntuaciones) {
+                            suma += puntuacion;
+                        }
+                        System.out.printf("%2d hilos: %,12d posiciones/s a profundidad %d (suma %d)%n",
+                                hilos, numPosiciones * 1_000_000_000L / Math.max(1, nanos), profundidad, suma);
+                    }
+                }
+                if (profundidad == 0) {
+                    for (int pasada = 0; pasada < 2; pasada++) {
+                        long inicio = System.nanoTime();
+                        lotes.evaluar(posiciones, puntuaciones);
+                        long nanos = System.nanoTime() - inicio;
+                        if (pasada == 1) {
+                            System.out.printf("%2d hilos: %,12d posiciones/s con la evaluación %s%n",
+                                    hilos, numPosiciones * 1_000_000_000L / Math.max(1, nanos),
+                                    lotes.getNombreEvaluacion());
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Genera posiciones empaquetadas de mitad de partida con jugadas aleatorias que no ganan.
+     */
+    private static long[] generarPosiciones(int cantidad, SplittableRandom random) {
+        long[] posiciones = new long[cantidad * EvaluadorLotes.LONGS_POR_POSICION];
+        PosicionBitboard posicion = new PosicionBitboard();
+        for (int i = 0; i < cantidad; i++) {
+            posicion.colocar(0L, 0L, 0);
+            int jugadas = 6 + random.nextInt(20);
+            int intentos = 0;
+            while (posicion.getMovimientos() < jugadas && intentos++ < 200) {
+                int columna = random.nextInt(PosicionBitboard.ANCHO);
+                if (posicion.puedeJugar(columna) && !posicion.esMovimientoGanador(columna)) {
+                    posicion.jugar(columna);
+                }
+            }
+            EvaluadorLotes.empaquetar(posicion, posiciones, i);
+        }
+        return posiciones;
+    }
+}
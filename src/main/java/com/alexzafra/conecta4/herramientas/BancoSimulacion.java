@@ -0,0 +1,73 @@
+package com.alexzafra.conecta4.herramientas;
+
+import com.alexzafra.conecta4.controller.motor.NucleoSimulacion;
+import com.alexzafra.conecta4.controller.motor.PosicionBitboard;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Mide cuántas partidas aleatorias por segundo juega el núcleo de simulación
+ * desde una posición, con un hilo y con todos los núcleos, y muestra el
+ * reparto de resultados.
+ *
+ * Uso: [partidas por hilo] [secuencia de jugadas, columnas 1-7] [semilla]
+ */
+public class BancoSimulacion {
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
+        int partidas = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        PosicionBitboard posicion = args.length > 1 && !args[1].isEmpty()
+                ? PosicionBitboard.desdeSecuencia(args[1]) : new PosicionBitboard();
+        long semilla = args.length > 2 ? Long.parseLong(args[2]) : 1;
+
+        // Calentamiento del compilador JIT
+        simular(posicion, partidas / 10, semilla);
+
+        int nucleos = Runtime.getRuntime().availableProcessors();
+        for (int hilos : nucleos > 1 ? new int[]{1, nucleos} : new int[]{1}) {
+            ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+            try {
+                long inicio = System.nanoTime();
+                List<Future<long[]>> tareas = new ArrayList<>();
+                for (int h = 0; h < hilos; h++) {
+                    long semillaHilo = semilla + h;
+                    tareas.add(ejecutor.submit(() -> simular(posicion, partidas, semillaHilo)));
+                }
+                long[] total = new long[3];
+                for (Future<long[]> tarea : tareas) {
+                    long[] resultado = tarea.get();
+                    for (int i = 0; i < total.length; i++) {
+                        total[i] += resultado[i];
+                    }
+                }
+                long nanos = System.nanoTime() - inicio;
+                long jugadas = (long) partidas * hilos;
+
+                System.out.printf("%2d hilos: %,12d partidas/s   (gana %.1f%%, tablas %.1f%%, pierde %.1f%%)%n",
+                        hilos, jugadas * 1_000_000_000L / Math.max(1, nanos),
+                        100.0 * total[0] / jugadas, 100.0 * total[1] / jugadas, 100.0 * total[2] / jugadas);
+            } finally {
+                ejecutor.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Juega partidas aleatorias con un núcleo propio.
+     * @return Victorias, tablas y derrotas del jugador con turno
+     */
+    private static long[] simular(PosicionBitboard posicion, int partidas, long semilla) {
+        NucleoSimulacion nucleo = new NucleoSimulacion(semilla);
+        long actual = posicion.getPosicionActual();
+        long mascara = posicion.getMascara();
+        long[] resultados = new long[3];
+        for (int i = 0; i < partidas; i++) {
+            resultados[1 - nucleo.simular(actual, mascara)]++;
+        }
+        return resultados;
+    }
+}
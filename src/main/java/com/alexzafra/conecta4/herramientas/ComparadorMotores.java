@@ -0,0 +1,206 @@
+package com.alexzafra.conecta4.herramientas;
+
+import com.alexzafra.conecta4.controller.motor.Motor;
+import com.alexzafra.conecta4.controller.motor.PosicionBitboard;
+import com.alexzafra.conecta4.controller.motor.RegistroMotores;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Compara motores del registro en el mismo proceso: todos contra todos, con
+ * varias mesas a la vez y un motor nuevo por mesa. El número de mesas se
+ * ajusta a lo que declara cada motor, para no pasar de los núcleos ni de la
+ * mitad de la memoria de la JVM. Al final muestra, por motor, la puntuación,
+ * el tiempo y los nodos por jugada, y el resultado de cada emparejamiento.
+ *
+ * Uso: [motores] [partidas] [ms] [jugadasApertura] [semilla]
+ * Los motores van separados por comas, por ejemplo "heuristico,alfabeta,mcts";
+ * por defecto se comparan todos los registrados.
+ */
+public class ComparadorMotores {
+    private static final int CASILLAS = PosicionBitboard.ANCHO * PosicionBitboard.ALTO;
+
+    // Contadores por motor
+    private static final int PUNTOS_DOBLES = 0;
+    private static final int PARTIDAS = 1;
+    private static final int JUGADAS = 2;
+    private static final int NANOS = 3;
+    private static final int NODOS = 4;
+    private static final int CONTADORES = 5;
+
+    private final List<String> nombres;
+    private final long presupuestoMs;
+    private final int jugadasApertura;
+    private final long semilla;
+
+    // Contadores de cada motor, compartidos entre mesas
+    private final AtomicLongArray contadores;
+
+    public ComparadorMotores(List<String> nombres, long presupuestoMs, int jugadasApertura, long semilla) {
+        this.nombres = nombres;
+        this.presupuestoMs = presupuestoMs;
+        this.jugadasApertura = jugadasApertura;
+        this.semilla = semilla;
+        this.contadores = new AtomicLongArray(nombres.size() * CONTADORES);
+    }
+
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
+        List<String> nombres = args.length > 0 ? List.of(args[0].split(",")) : RegistroMotores.getNombres();
+        int partidas = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        long presupuestoMs = args.length > 2 ? Long.parseLong(args[2]) : 100;
+        int apertura = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+        long semilla = args.length > 4 ? Long.parseLong(args[4]) : System.nanoTime();
+
+        System.out.printf("Motores %s: %d partidas por pareja, %d ms por jugada, %d jugadas de apertura, semilla %d%n%n",
+                nombres, partidas, presupuestoMs, apertura, semilla);
+
+        ComparadorMotores comparador = new ComparadorMotores(nombres, presupuestoMs, apertura, semilla);
+        for (int a = 0; a < nombres.size(); a++) {
+            for (int b = a + 1; b < nombres.size(); b++) {
+                comparador.enfrentar(a, b, partidas);
+            }
+        }
+        System.out.println();
+        comparador.imprimirResultados();
+    }
+
+    /**
+     * Juega las partidas de una pareja repartidas en varias mesas.
+     * @param a Índice del primer motor
+     * @param b Índice del segundo motor
+     * @param partidas Número de partidas
+     */
+    public void enfrentar(int a, int b, int partidas) throws InterruptedException, ExecutionException {
+        int mesas = calcularMesas(nombres.get(a), nombres.get(b));
+        long[] resultados = new long[3];
+        ExecutorService ejecutor = Executors.newFixedThreadPool(mesas);
+        AtomicInteger siguiente = new AtomicInteger();
+        try {
+            // Cada mesa crea sus dos motores y va tomando partidas pendientes
+            List<Future<long[]>> tareas = new ArrayList<>();
+            for (int mesa = 0; mesa < mesas; mesa++) {
+                long semillaMesa = semilla + (a * 31L + b) * 1_000_003L + mesa;
+                tareas.add(ejecutor.submit(() -> {
+                    Motor motorA = crear(nombres.get(a), semillaMesa);
+                    Motor motorB = crear(nombres.get(b), ~semillaMesa);
+                    long[] parciales = new long[3];
+                    int partida;
+                    while ((partida = siguiente.getAndIncrement()) < partidas) {
+                        parciales[jugarPartida(partida, a, motorA, b, motorB)]++;
+                    }
+                    return parciales;
+                }));
+            }
+            for (Future<long[]> tarea : tareas) {
+                long[] parciales = tarea.get();
+                for (int i = 0; i < 3; i++) {
+                    resultados[i] += parciales[i];
+                }
+            }
+        } finally {
+            ejecutor.shutdown();
+        }
+
+        System.out.printf("%s contra %s: +%d =%d -%d (%d mesas)%n", nombres.get(a), nombres.get(b),
+                resultados[0], resultados[1], resultados[2], mesas);
+    }
+
+    /**
+     * Mesas que caben a la vez según los hilos y la memoria que declaran los motores.
+     */
+    private int calcularMesas(String nombreA, String nombreB) {
+        Motor motorA = crear(nombreA, 0);
+        Motor motorB = crear(nombreB, 0);
+
+        // En cada mesa solo piensa un motor a la vez, pero los dos ocupan memoria
+        int hilos = Math.max(motorA.getHilos(), motorB.getHilos());
+        long megabytes = Math.max(1, motorA.getMemoriaMegabytes() + motorB.getMemoriaMegabytes());
+        long memoriaMaxima = Runtime.getRuntime().maxMemory() / (2 * 1024 * 1024);
+
+        int porHilos = Math.max(1, Runtime.getRuntime().availableProcessors() / hilos);
+        int porMemoria = (int) Math.max(1, Math.min(Integer.MAX_VALUE, memoriaMaxima / megabytes));
+        return Math.min(porHilos, porMemoria);
+    }
+
+    private Motor crear(String nombre, long semillaMotor) {
+        Motor motor = RegistroMotores.crear(nombre, semillaMotor);
+        motor.setPresupuestoMs(presupuestoMs);
+        return motor;
+    }
+
+    /**
+     * Juega una partida. En las partidas pares A juega primero y en las impares B.
+     * @return 0 si gana A, 1 si hay tablas y 2 si gana B
+     */
+    private int jugarPartida(int partida, int a, Motor motorA, int b, Motor motorB) {
+        SplittableRandom random = new SplittableRandom(semilla + partida * 0x9E3779B97F4A7C15L);
+        PosicionBitboard posicion = new PosicionBitboard();
+        boolean turnoDeA = partida % 2 == 0;
+
+        while (posicion.getMovimientos() < CASILLAS) {
+            int columna;
+            if (posicion.getMovimientos() < jugadasApertura) {
+                do {
+                    columna = random.nextInt(PosicionBitboard.ANCHO);
+                } while (!posicion.puedeJugar(columna));
+            } else {
+                Motor motor = turnoDeA ? motorA : motorB;
+                long inicio = System.nanoTime();
+                columna = motor.elegirColumna(posicion);
+                registrarJugada(turnoDeA ? a : b, System.nanoTime() - inicio, motor.getEstadisticas().getNodos());
+            }
+
+            if (posicion.esMovimientoGanador(columna)) {
+                registrarResultado(a, b, turnoDeA ? 2 : 0);
+                return turnoDeA ? 0 : 2;
+            }
+            posicion.jugar(columna);
+            turnoDeA = !turnoDeA;
+        }
+        registrarResultado(a, b, 1);
+        return 1;
+    }
+
+    private void registrarJugada(int motor, long nanos, long nodos) {
+        contadores.incrementAndGet(motor * CONTADORES + JUGADAS);
+        contadores.addAndGet(motor * CONTADORES + NANOS, nanos);
+        contadores.addAndGet(motor * CONTADORES + NODOS, nodos);
+    }
+
+    /**
+     * Suma el resultado a los dos motores.
+     * @param puntosDoblesA Puntos de A por dos (2 victoria, 1 tablas, 0 derrota)
+     */
+    private void registrarResultado(int a, int b, int puntosDoblesA) {
+        contadores.addAndGet(a * CONTADORES + PUNTOS_DOBLES, puntosDoblesA);
+        contadores.addAndGet(b * CONTADORES + PUNTOS_DOBLES, 2 - puntosDoblesA);
+        contadores.incrementAndGet(a * CONTADORES + PARTIDAS);
+        contadores.incrementAndGet(b * CONTADORES + PARTIDAS);
+    }
+
+    /**
+     * Muestra, por motor, la puntuación, el coste por jugada y lo que declara usar.
+     */
+    public void imprimirResultados() {
+        System.out.printf("%-14s %9s %11s %12s %14s %8s %6s%n", "Motor", "Partidas", "Puntuación",
+                "ms/jugada", "nodos/jugada", "Memoria", "Hilos");
+        for (int i = 0; i < nombres.size(); i++) {
+            long partidas = contadores.get(i * CONTADORES + PARTIDAS);
+            long jugadas = Math.max(1, contadores.get(i * CONTADORES + JUGADAS));
+            Motor motor = crear(nombres.get(i), 0);
+            System.out.printf("%-14s %9d %10.1f%% %12.2f %14d %5d MB %6d%n", nombres.get(i), partidas,
+                    partidas > 0 ? contadores.get(i * CONTADORES + PUNTOS_DOBLES) * 50.0 / partidas : 0.0,
+                    contadores.get(i * CONTADORES + NANOS) / 1e6 / jugadas,
+                    contadores.get(i * CONTADORES + NODOS) / jugadas,
+                    motor.getMemoriaMegabytes(), motor.getHilos());
+        }
+    }
+}
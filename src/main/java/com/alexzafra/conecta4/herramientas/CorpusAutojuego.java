@@ -0,0 +1,172 @@
+package com.alexzafra.conecta4.herramientas;
+
+import com.alexzafra.conecta4.controller.InteligenciaArtificial;
+import com.alexzafra.conecta4.controller.motor.PosicionBitboard;
+import com.alexzafra.conecta4.modelos.Tablero;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Posiciones de partidas de autojuego con el resultado final de cada partida
+ * desde el punto de vista del jugador con turno (1 gana, 0.5 tablas, 0 pierde).
+ * Se guardan en arrays primitivos: los dos bitboards de cada posición y su resultado.
+ */
+public class CorpusAutojuego {
+    private long[] propias;
+    private long[] mascaras;
+    private float[] resultados;
+    private int tamano;
+
+    private CorpusAutojuego(int capacidad) {
+        int inicial = Math.max(1, capacidad);
+        propias = new long[inicial];
+        mascaras = new long[inicial];
+        resultados = new float[inicial];
+    }
+
+    /**
+     * Juega partidas de autojuego en paralelo y guarda cada posición tranquila
+     * (sin victoria inmediata para el jugador con turno) tras la apertura.
+     * @param partidas Número de partidas
+     * @param config Configuración de las dos IAs
+     * @param jugadasApertura Jugadas aleatorias al principio de cada partida
+     * @param semilla Semilla del corpus; cada partida deriva la suya de ella
+     * @param ejecutor Hilos disponibles
+     * @param hilos Número de tareas que se reparten las partidas
+     * @return Corpus con todas las posiciones
+     */
+    public static CorpusAutojuego generar(int partidas, TorneoAutojuego.Configuracion config, int jugadasApertura,
+                                          long semilla, ExecutorService ejecutor, int hilos)
+            throws InterruptedException, ExecutionException {
+        AtomicInteger siguiente = new AtomicInteger();
+        List<Future<CorpusAutojuego>> tareas = new ArrayList<>();
+
+        for (int i = 0; i < hilos; i++) {
+            tareas.add(ejecutor.submit(() -> {
+                CorpusAutojuego corpus = new CorpusAutojuego(partidas * 30 / hilos + 64);
+                Tablero tablero = new Tablero();
+                InteligenciaArtificial ia = config.crear(tablero);
+                int[] turnos = new int[Tablero.FILAS * Tablero.COLUMNAS];
+
+                int indice;
+                while ((indice = siguiente.getAndIncrement()) < partidas) {
+                    SplittableRandom random = new SplittableRandom(semilla + indice * 0x9E3779B97F4A7C15L);
+                    ia.setSemilla(random.nextLong());
+                    tablero.reiniciar();
+                    PosicionBitboard posicion = new PosicionBitboard();
+
+                    int primera = corpus.tamano;
+                    int ganador = Tablero.VACIO;
+                    int turno = Tablero.JUGADOR_1;
+
+                    for (int jugada = 0; !tablero.tableroLleno(); jugada++) {
+                        if (jugada >= jugadasApertura && !posicion.puedeGanarSiguiente()) {
+                            turnos[corpus.tamano - primera] = turno;
+                            corpus.anadir(posicion.getPosicionActual(), posicion.getMascara(), 0f);
+                        }
+
+                        int rival = turno == Tablero.JUGADOR_1 ? Tablero.JUGADOR_2 : Tablero.JUGADOR_1;
+                        int columna = jugada < jugadasApertura
+                                ? columnaAleatoria(posicion, random)
+                                : ia.obtenerColumnaMovimiento(rival, turno);
+
+                        int fila = tablero.obtenerFilaDisponible(columna);
+                        tablero.colocarFicha(fila, columna, turno);
+                        posicion.jugar(columna);
+                        if (tablero.hayGanador(fila, columna)) {
+                            ganador = turno;
+                            break;
+                        }
+                        turno = rival;
+                    }
+
+                    // Ya se conoce el resultado: completar las posiciones de la partida
+                    for (int j = primera; j < corpus.tamano; j++) {
+                        int turnoPosicion = turnos[j - primera];
+                        corpus.resultados[j] = ganador == Tablero.VACIO ? 0.5f : ganador == turnoPosicion ? 1f : 0f;
+                    }
+                }
+                return corpus;
+            }));
+        }
+
+        CorpusAutojuego total = new CorpusAutojuego(0);
+        for (Future<CorpusAutojuego> tarea : tareas) {
+            total.anadirTodo(tarea.get());
+        }
+        return total;
+    }
+
+    private static int columnaAleatoria(PosicionBitboard posicion, SplittableRandom random) {
+        int columna;
+        do {
+            columna = random.nextInt(PosicionBitboard.ANCHO);
+        } while (!posicion.puedeJugar(columna));
+        return columna;
+    }
+
+    private void anadir(long propia, long mascara, float resultado) {
+        asegurarCapacidad(tamano + 1);
+        propias[tamano] = propia;
+        mascaras[tamano] = mascara;
+        resultados[tamano++] = resultado;
+    }
+
+    private void anadirTodo(CorpusAutojuego otro) {
+        asegurarCapacidad(tamano + otro.tamano);
+        System.arraycopy(otro.propias, 0, propias, tamano, otro.tamano);
+        System.arraycopy(otro.mascaras, 0, mascaras, tamano, otro.tamano);
+        System.arraycopy(otro.resultados, 0, resultados, tamano, otro.tamano);
+        tamano += otro.tamano;
+    }
+
+    private void asegurarCapacidad(int necesaria) {
+        if (necesaria > resultados.length) {
+            int capacidad = Math.max(necesaria, resultados.length * 2);
+            propias = Arrays.copyOf(propias, capacidad);
+            mascaras = Arrays.copyOf(mascaras, capacidad);
+            resultados = Arrays.copyOf(resultados, capacidad);
+        }
+    }
+
+    /**
+     * Reconstruye una posición del corpus.
+     * @param indice Índice de la posición
+     * @return Posición con el jugador que tenía el turno
+     */
+    public PosicionBitboard getPosicion(int indice) {
+        return new PosicionBitboard(propias[indice], mascaras[indice], Long.bitCount(mascaras[indice]));
+    }
+
+    /**
+     * Fichas del jugador con turno en una posición.
+     */
+    public long getPropias(int indice) {
+        return propias[indice];
+    }
+
+    /**
+     * Fichas del rival en una posición.
+     */
+    public long getRivales(int indice) {
+        return propias[indice] ^ mascaras[indice];
+    }
+
+    /**
+     * Resultado final de la partida para el jugador con turno.
+     */
+    public float getResultado(int indice) {
+        return resultados[indice];
+    }
+
+    public int getTamano() {
+        return tamano;
+    }
+}
@@ -0,0 +1,303 @@
+package com.alexzafra.conecta4.herramientas;
+
+import com.alexzafra.conecta4.controller.motor.PosicionBitboard;
+import com.alexzafra.conecta4.controller.motor.RedNeuronal;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Entrena la red del evaluador neuronal con posiciones de autojuego.
+ * La red predice el resultado de la partida con una sigmoide sobre su salida
+ * y se ajusta con Adam minimizando la entropía cruzada. Cada posición se usa
+ * también reflejada (el tablero es simétrico) y un 10% se reserva para validar.
+ *
+ * Uso: &lt;salida&gt; [partidas] [configuración] [épocas] [ocultas] [segunda] [semilla]
+ * El fichero resultante se copia en src/main/resources/ia/red.txt o se indica
+ * con -Dconecta4.red=ruta.
+ */
+public class EntrenadorRed {
+    private static final int CASILLAS = RedNeuronal.CASILLAS;
+    private static final int ENTRADAS = RedNeuronal.ENTRADAS;
+
+    // Parámetros de Adam
+    private static final float TASA_APRENDIZAJE = 0.002f;
+    private static final float BETA1 = 0.9f;
+    private static final float BETA2 = 0.999f;
+    private static final float EPSILON = 1e-8f;
+    private static final int TAMANO_LOTE = 64;
+
+    private final int ocultas;
+    private final int segunda;
+
+    // Parámetros de la red en un único array: w1, b1, w2, b2, w3, b3
+    private final float[] parametros;
+    private final float[] gradientes;
+    private final float[] momento;
+    private final float[] varianza;
+    private final int inicioB1;
+    private final int inicioW2;
+    private final int inicioB2;
+    private final int inicioW3;
+    private final int inicioB3;
+
+    // Buffers de una pasada
+    private final int[] activas = new int[CASILLAS];
+    private final float[] a1;
+    private final float[] h1;
+    private final float[] z2;
+    private final float[] dh1;
+    private int pasos;
+
+    /**
+     * Crea un entrenador con pesos iniciales aleatorios.
+     * @param ocultas Neuronas de la primera capa oculta
+     * @param segunda Neuronas de la segunda capa oculta
+     * @param random Generador para la inicialización
+     */
+    public EntrenadorRed(int ocultas, int segunda, SplittableRandom random) {
+        this.ocultas = ocultas;
+        this.segunda = segunda;
+        inicioB1 = ENTRADAS * ocultas;
+        inicioW2 = inicioB1 + ocultas;
+        inicioB2 = inicioW2 + ocultas * segunda;
+        inicioW3 = inicioB2 + segunda;
+        inicioB3 = inicioW3 + segunda;
+
+        parametros = new float[inicioB3 + 1];
+        gradientes = new float[parametros.length];
+        momento = new float[parametros.length];
+        varianza = new float[parametros.length];
+        a1 = new float[ocultas];
+        h1 = new float[ocultas];
+        z2 = new float[segunda];
+        dh1 = new float[ocultas];
+
+        // Inicialización de He uniforme; cada posición activa unas 20 entradas
+        inicializar(0, inicioB1, 20, random);
+        inicializar(inicioW2, inicioB2, ocultas, random);
+        inicializar(inicioW3, inicioB3, segunda, random);
+    }
+
+    private void inicializar(int desde, int hasta, int entradas, SplittableRandom random) {
+        double limite = Math.sqrt(6.0 / entradas);
+        for (int i = desde; i < hasta; i++) {
+            parametros[i] = (float) ((random.nextDouble() * 2 - 1) * limite);
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        if (args.length < 1) {
+            System.out.println("Uso: <salida> [partidas] [configuración] [épocas] [ocultas] [segunda] [semilla]");
+            System.exit(2);
+        }
+
+        Path salida = Paths.get(args[0]);
+        int partidas = args.length > 1 ? Integer.parseInt(args[1]) : 4000;
+        TorneoAutojuego.Configuracion config = TorneoAutojuego.Configuracion.leer(args.length > 2 ? args[2] : "4/0/6");
+        int epocas = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+        int ocultas = args.length > 4 ? Integer.parseInt(args[4]) : 32;
+        int segunda = args.length > 5 ? Integer.parseInt(args[5]) : 16;
+        long semilla = args.length > 6 ? Long.parseLong(args[6]) : System.nanoTime();
+        int hilos = Runtime.getRuntime().availableProcessors();
+
+        CorpusAutojuego corpus;
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        try {
+            long inicio = System.nanoTime();
+            corpus = CorpusAutojuego.generar(partidas, config, 6, semilla, ejecutor, hilos);
+            System.out.printf("Corpus: %d posiciones de %d partidas (%.1f s)%n",
+                    corpus.getTamano(), partidas, (System.nanoTime() - inicio) / 1e9);
+        } finally {
+            ejecutor.shutdown();
+        }
+
+        SplittableRandom random = new SplittableRandom(semilla);
+        EntrenadorRed entrenador = new EntrenadorRed(ocultas, segunda, random.split());
+
+        // Orden aleatorio fijo; el último 10% se reserva para validación
+        int[] indices = new int[corpus.getTamano()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = i;
+        }
+        barajar(indices, indices.length, random);
+        int entrenamiento = indices.length * 9 / 10;
+
+        for (int epoca = 1; epoca <= epocas; epoca++) {
+            barajar(indices, entrenamiento, random);
+            double perdida = entrenador.entrenarEpoca(corpus, indices, entrenamiento, random);
+            double validacion = entrenador.perdida(corpus, indices, entrenamiento, indices.length);
+            System.out.printf("Época %d: pérdida %.5f, validación %.5f%n", epoca, perdida, validacion);
+        }
+
+        entrenador.crearRed().escribir(salida, String.format(
+                "Entrenada con %d posiciones de autojuego %s, semilla %d", corpus.getTamano(), config, semilla));
+        System.out.println("Red guardada en " + salida);
+    }
+
+    private static void barajar(int[] indices, int hasta, SplittableRandom random) {
+        for (int i = hasta - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = indices[i];
+            indices[i] = indices[j];
+            indices[j] = tmp;
+        }
+    }
+
+    /**
+     * Recorre una vez las posiciones de entrenamiento en lotes.
+     * @return Pérdida media de la época
+     */
+    public double entrenarEpoca(CorpusAutojuego corpus, int[] indices, int hasta, SplittableRandom random) {
+        double total = 0;
+        for (int inicio = 0; inicio < hasta; inicio += TAMANO_LOTE) {
+            int fin = Math.min(hasta, inicio + TAMANO_LOTE);
+            Arrays.fill(gradientes, 0f);
+            for (int i = inicio; i < fin; i++) {
+                int p = indices[i];
+                total += pasada(corpus.getPropias(p), corpus.getRivales(p), corpus.getResultado(p),
+                        random.nextBoolean(), true);
+            }
+            actualizar(fin - inicio);
+        }
+        return total / hasta;
+    }
+
+    /**
+     * Calcula la pérdida media sobre un rango de posiciones sin modificar la red.
+     */
+    public double perdida(CorpusAutojuego corpus, int[] indices, int desde, int hasta) {
+        double total = 0;
+        for (int i = desde; i < hasta; i++) {
+            int p = indices[i];
+            total += pasada(corpus.getPropias(p), corpus.getRivales(p), corpus.getResultado(p), false, false);
+        }
+        return total / Math.max(1, hasta - desde);
+    }
+
+    /**
+     * Propaga una posición y, si se pide, acumula su gradiente.
+     * @return Entropía cruzada de la predicción
+     */
+    private double pasada(long propias, long rivales, float resultado, boolean reflejar, boolean acumular) {
+        int numActivas = 0;
+        for (long fichas = propias; fichas != 0; fichas &= fichas - 1) {
+            activas[numActivas++] = casilla(Long.numberOfTrailingZeros(fichas), reflejar);
+        }
+        for (long fichas = rivales; fichas != 0; fichas &= fichas - 1) {
+            activas[numActivas++] = CASILLAS + casilla(Long.numberOfTrailingZeros(fichas), reflejar);
+        }
+
+        for (int j = 0; j < ocultas; j++) {
+            a1[j] = parametros[inicioB1 + j];
+        }
+        for (int i = 0; i < numActivas; i++) {
+            int fila = activas[i] * ocultas;
+            for (int j = 0; j < ocultas; j++) {
+                a1[j] += parametros[fila + j];
+            }
+        }
+        for (int j = 0; j < ocultas; j++) {
+            h1[j] = Math.max(0f, a1[j]);
+        }
+
+        float salida = parametros[inicioB3];
+        for (int k = 0; k < segunda; k++) {
+            float suma = parametros[inicioB2 + k];
+            int fila = inicioW2 + k * ocultas;
+            for (int j = 0; j < ocultas; j++) {
+                suma += parametros[fila + j] * h1[j];
+            }
+            z2[k] = suma;
+            if (suma > 0f) {
+                salida += parametros[inicioW3 + k] * suma;
+            }
+        }
+
+        double prediccion = 1.0 / (1.0 + Math.exp(-salida));
+        double p = Math.min(1 - 1e-7, Math.max(1e-7, prediccion));
+        double perdida = -(resultado * Math.log(p) + (1 - resultado) * Math.log(1 - p));
+        if (!acumular) {
+            return perdida;
+        }
+
+        // Retropropagación
+        float dSalida = (float) (prediccion - resultado);
+        gradientes[inicioB3] += dSalida;
+        Arrays.fill(dh1, 0f);
+        for (int k = 0; k < segunda; k++) {
+            if (z2[k] <= 0f) {
+                continue;
+            }
+            gradientes[inicioW3 + k] += dSalida * z2[k];
+            float dz2 = dSalida * parametros[inicioW3 + k];
+            gradientes[inicioB2 + k] += dz2;
+            int fila = inicioW2 + k * ocultas;
+            for (int j = 0; j < ocultas; j++) {
+                gradientes[fila + j] += dz2 * h1[j];
+                dh1[j] += dz2 * parametros[fila + j];
+            }
+        }
+        for (int j = 0; j < ocultas; j++) {
+            if (a1[j] <= 0f) {
+                dh1[j] = 0f;
+            }
+            gradientes[inicioB1 + j] += dh1[j];
+        }
+        for (int i = 0; i < numActivas; i++) {
+            int fila = activas[i] * ocultas;
+            for (int j = 0; j < ocultas; j++) {
+                gradientes[fila + j] += dh1[j];
+            }
+        }
+        return perdida;
+    }
+
+    /**
+     * Casilla de la red de un bit del tablero, opcionalmente reflejada horizontalmente.
+     */
+    private static int casilla(int bit, boolean reflejar) {
+        int columna = bit / PosicionBitboard.ALTO_BITS;
+        int fila = bit % PosicionBitboard.ALTO_BITS;
+        if (reflejar) {
+            columna = PosicionBitboard.ANCHO - 1 - columna;
+        }
+        return columna * PosicionBitboard.ALTO + fila;
+    }
+
+    /**
+     * Aplica un paso de Adam con el gradiente medio del lote.
+     */
+    private void actualizar(int tamanoLote) {
+        pasos++;
+        float correccion1 = 1 - (float) Math.pow(BETA1, pasos);
+        float correccion2 = 1 - (float) Math.pow(BETA2, pasos);
+        for (int i = 0; i < parametros.length; i++) {
+            float g = gradientes[i] / tamanoLote;
+            momento[i] = BETA1 * momento[i] + (1 - BETA1) * g;
+            varianza[i] = BETA2 * varianza[i] + (1 - BETA2) * g * g;
+            parametros[i] -= TASA_APRENDIZAJE * (momento[i] / correccion1)
+                    / ((float) Math.sqrt(varianza[i] / correccion2) + EPSILON);
+        }
+    }
+
+    /**
+     * Crea una red con una copia de los parámetros actuales.
+     * @return Red entrenada
+     */
+    public RedNeuronal crearRed() {
+        return new RedNeuronal(ocultas, segunda,
+                Arrays.copyOfRange(parametros, 0, inicioB1),
+                Arrays.copyOfRange(parametros, inicioB1, inicioW2),
+                Arrays.copyOfRange(parametros, inicioW2, inicioB2),
+                Arrays.copyOfRange(parametros, inicioB2, inicioW3),
+                Arrays.copyOfRange(parametros, inicioW3, inicioB3),
+                parametros[inicioB3]);
+    }
+}
@@ -0,0 +1,102 @@
+package com.alexzafra.conecta4.herramientas;
+
+import com.alexzafra.conecta4.controller.motor.BusquedaNumerosPrueba;
+import com.alexzafra.conecta4.controller.motor.PosicionBitboard;
+
+import java.util.SplittableRandom;
+
+/**
+ * Genera problemas de "juegan y ganan": posiciones de partidas aleatorias en
+ * las que el jugador con turno gana por la fuerza con una única columna y no
+ * tiene una victoria inmediata. La victoria y la unicidad se demuestran con
+ * la búsqueda por números de prueba.
+ *
+ * Escribe una línea por problema con la secuencia de jugadas (columnas
+ * numeradas desde 1), la columna ganadora y los nodos de la demostración,
+ * que sirven como medida de dificultad.
+ *
+ * Uso: [problemas] [semilla] [limite de nodos] [fichas minimas] [fichas maximas]
+ */
+public class GeneradorProblemas {
+    public static void main(String[] args) {
+        int problemas = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        long semilla = args.length > 1 ? Long.parseLong(args[1]) : 1;
+        long limiteNodos = args.length > 2 ? Long.parseLong(args[2]) : 200_000;
+        int fichasMinimas = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        int fichasMaximas = args.length > 4 ? Integer.parseInt(args[4]) : 24;
+
+        SplittableRandom random = new SplittableRandom(semilla);
+        BusquedaNumerosPrueba busqueda = new BusquedaNumerosPrueba();
+        busqueda.setLimiteNodos(limiteNodos);
+
+        int encontrados = 0;
+        int intentos = 0;
+        long inicio = System.nanoTime();
+        while (encontrados < problemas) {
+            intentos++;
+            StringBuilder secuencia = new StringBuilder();
+            PosicionBitboard posicion = posicionAleatoria(random,
+                    fichasMinimas + random.nextInt(fichasMaximas - fichasMinimas + 1), secuencia);
+            if (posicion == null || posicion.puedeGanarSiguiente()) {
+                continue;
+            }
+
+            int columna = busqueda.buscarVictoria(posicion);
+            if (columna < 0) {
+                continue;
+            }
+            long nodos = busqueda.getNodos();
+            if (esVictoriaUnica(busqueda, posicion, columna)) {
+                encontrados++;
+                System.out.println(secuencia + "\t" + (columna + 1) + "\t" + nodos);
+            }
+        }
+        System.err.printf("%d problemas en %d posiciones (%.1f s)%n",
+                encontrados, intentos, (System.nanoTime() - inicio) / 1e9);
+    }
+
+    /**
+     * Juega jugadas aleatorias que no pierden de inmediato.
+     * @return Posición tras las jugadas, o null si la partida se decide antes
+     */
+    private static PosicionBitboard posicionAleatoria(SplittableRandom random, int fichas, StringBuilder secuencia) {
+        PosicionBitboard posicion = new PosicionBitboard();
+        while (posicion.getMovimientos() < fichas) {
+            if (posicion.puedeGanarSiguiente()) {
+                return null;
+            }
+            long siguientes = posicion.movimientosNoPerdedores();
+            if (siguientes == 0) {
+                return null;
+            }
+            int elegida = random.nextInt(Long.bitCount(siguientes));
+            for (int i = 0; i < elegida; i++) {
+                siguientes &= siguientes - 1;
+            }
+            long jugada = siguientes & -siguientes;
+            secuencia.append(PosicionBitboard.columnaDe(jugada) + 1);
+            posicion.jugarMovimiento(jugada);
+        }
+        return posicion;
+    }
+
+    /**
+     * Comprueba que ninguna otra columna gana: tras cada una debe poder
+     * demostrarse que el rival no pierde.
+     */
+    private static boolean esVictoriaUnica(BusquedaNumerosPrueba busqueda, PosicionBitboard posicion, int ganadora) {
+        PosicionBitboard p = new PosicionBitboard(posicion);
+        for (int columna = 0; columna < PosicionBitboard.ANCHO; columna++) {
+            if (columna == ganadora || !p.puedeJugar(columna)) {
+                continue;
+            }
+            p.jugar(columna);
+            int resultado = busqueda.demostrar(p, false);
+            p.deshacer(columna);
+            if (resultado != BusquedaNumerosPrueba.REFUTADO) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
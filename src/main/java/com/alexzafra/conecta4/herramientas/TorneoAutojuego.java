@@ -0,0 +1,295 @@
+package com.alexzafra.conecta4.herramientas;
+
+import com.alexzafra.conecta4.controller.InteligenciaArtificial;
+import com.alexzafra.conecta4.modelos.Tablero;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Torneo sin interfaz entre dos configuraciones de la IA, repartido entre
+ * todos los núcleos. Cada partida empieza con unas jugadas aleatorias y los
+ * colores se alternan, de modo que ninguna configuración juega siempre primero.
+ *
+ * Uso: &lt;configA&gt; &lt;configB&gt; [partidas] [jugadasApertura] [semilla]
+ * Cada configuración tiene la forma nivel[/ms[/profundidad[/evaluador]]], por
+ * ejemplo "4/100" o "4/0/8/red".
+ */
+public class TorneoAutojuego {
+    // Número de cubetas del histograma de latencias (potencias de 2 en microsegundos)
+    private static final int CUBETAS = 40;
+
+    // Resultados desde el punto de vista de la configuración A
+    private static final int VICTORIA_A = 0;
+    private static final int TABLAS = 1;
+    private static final int VICTORIA_B = 2;
+
+    private final Configuracion configA;
+    private final Configuracion configB;
+    private final int jugadasApertura;
+    private final long semilla;
+
+    // Contadores de resultados, compartidos entre hilos
+    private final AtomicLongArray resultados = new AtomicLongArray(3);
+
+    // Histogramas de latencia por jugada de cada configuración
+    private final AtomicLongArray latenciasA = new AtomicLongArray(CUBETAS);
+    private final AtomicLongArray latenciasB = new AtomicLongArray(CUBETAS);
+
+    /**
+     * Crea un torneo.
+     * @param configA Primera configuración
+     * @param configB Segunda configuración
+     * @param jugadasApertura Jugadas aleatorias al inicio de cada partida
+     * @param semilla Semilla del torneo; cada partida deriva la suya de ella
+     */
+    public TorneoAutojuego(Configuracion configA, Configuracion configB, int jugadasApertura, long semilla) {
+        this.configA = configA;
+        this.configB = configB;
+        this.jugadasApertura = jugadasApertura;
+        this.semilla = semilla;
+    }
+
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
+        if (args.length < 2) {
+            System.out.println("Uso: <configA> <configB> [partidas] [jugadasApertura] [semilla]");
+            System.out.println("     configuración: nivel[/ms[/profundidad[/evaluador]]], por ejemplo 4/100");
+            System.exit(2);
+        }
+
+        Configuracion configA = Configuracion.leer(args[0]);
+        Configuracion configB = Configuracion.leer(args[1]);
+        int partidas = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        int apertura = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+        long semilla = args.length > 4 ? Long.parseLong(args[4]) : System.nanoTime();
+        int hilos = Runtime.getRuntime().availableProcessors();
+
+        System.out.printf("%s contra %s: %d partidas, %d jugadas de apertura, semilla %d, %d hilos%n",
+                configA, configB, partidas, apertura, semilla, hilos);
+
+        TorneoAutojuego torneo = new TorneoAutojuego(configA, configB, apertura, semilla);
+        long inicio = System.nanoTime();
+        torneo.jugar(partidas, hilos);
+        System.out.printf("Tiempo total: %.1f s%n%n", (System.nanoTime() - inicio) / 1e9);
+
+        torneo.imprimirResultados();
+    }
+
+    /**
+     * Juega las partidas repartiéndolas entre varios hilos.
+     * @param partidas Número de partidas
+     * @param hilos Número de hilos
+     */
+    public void jugar(int partidas, int hilos) throws InterruptedException, ExecutionException {
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        AtomicInteger siguiente = new AtomicInteger();
+        try {
+            // Cada hilo reutiliza su tablero y sus dos IAs y va tomando partidas pendientes
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int i = 0; i < hilos; i++) {
+                tareas.add(ejecutor.submit(() -> {
+                    Tablero tablero = new Tablero();
+                    InteligenciaArtificial iaA = configA.crear(tablero);
+                    InteligenciaArtificial iaB = configB.crear(tablero);
+                    int partida;
+                    while ((partida = siguiente.getAndIncrement()) < partidas) {
+                        resultados.incrementAndGet(jugarPartida(partida, tablero, iaA, iaB));
+                    }
+                }));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+        } finally {
+            ejecutor.shutdown();
+        }
+    }
+
+    /**
+     * Juega una partida. En las partidas pares A juega primero y en las impares B.
+     * @param partida Índice de la partida, del que se deriva su semilla
+     * @return VICTORIA_A, TABLAS o VICTORIA_B
+     */
+    private int jugarPartida(int partida, Tablero tablero, InteligenciaArtificial iaA,
+                             InteligenciaArtificial iaB) {
+        SplittableRandom random = new SplittableRandom(semilla + partida * 0x9E3779B97F4A7C15L);
+        iaA.setSemilla(random.nextLong());
+        iaB.setSemilla(random.nextLong());
+        tablero.reiniciar();
+
+        int jugadorA = partida % 2 == 0 ? Tablero.JUGADOR_1 : Tablero.JUGADOR_2;
+        int turno = Tablero.JUGADOR_1;
+
+        for (int jugada = 0; !tablero.tableroLleno(); jugada++) {
+            int columna;
+            if (jugada < jugadasApertura) {
+                columna = columnaAleatoria(tablero, random);
+            } else {
+                boolean esA = turno == jugadorA;
+                InteligenciaArtificial ia = esA ? iaA : iaB;
+                long inicio = System.nanoTime();
+                columna = ia.obtenerColumnaMovimiento(otro(turno), turno);
+                registrarLatencia(esA ? latenciasA : latenciasB, System.nanoTime() - inicio);
+            }
+
+            int fila = tablero.obtenerFilaDisponible(columna);
+            tablero.colocarFicha(fila, columna, turno);
+            if (tablero.hayGanador(fila, columna)) {
+                return turno == jugadorA ? VICTORIA_A : VICTORIA_B;
+            }
+            turno = otro(turno);
+        }
+        return TABLAS;
+    }
+
+    private static int columnaAleatoria(Tablero tablero, SplittableRandom random) {
+        int columna;
+        do {
+            columna = random.nextInt(Tablero.COLUMNAS);
+        } while (tablero.columnaLlena(columna));
+        return columna;
+    }
+
+    private static void registrarLatencia(AtomicLongArray histograma, long nanos) {
+        long micros = Math.max(1, nanos / 1000);
+        int cubeta = Math.min(CUBETAS - 1, 63 - Long.numberOfLeadingZeros(micros));
+        histograma.incrementAndGet(cubeta);
+    }
+
+    /**
+     * Muestra el resultado con su intervalo de confianza y los histogramas de latencia.
+     */
+    public void imprimirResultados() {
+        long victoriasA = resultados.get(VICTORIA_A);
+        long tablas = resultados.get(TABLAS);
+        long victoriasB = resultados.get(VICTORIA_B);
+        long total = victoriasA + tablas + victoriasB;
+        if (total == 0) {
+            return;
+        }
+
+        // Puntuación media de A y su desviación típica por partida
+        double puntuacion = (victoriasA + 0.5 * tablas) / total;
+        double varianza = (victoriasA * Math.pow(1 - puntuacion, 2)
+                + tablas * Math.pow(0.5 - puntuacion, 2)
+                + victoriasB * Math.pow(puntuacion, 2)) / total;
+        double margen = 1.96 * Math.sqrt(varianza / total);
+
+        System.out.printf("%s: +%d =%d -%d (%d partidas)%n", configA, victoriasA, tablas, victoriasB, total);
+        System.out.printf("Puntuación de %s: %.1f%% ± %.1f%% (95%%)%n", configA, puntuacion * 100, margen * 100);
+        System.out.printf("Diferencia Elo: %s [%s, %s]%n", elo(puntuacion),
+                elo(puntuacion - margen), elo(puntuacion + margen));
+
+        System.out.println();
+        imprimirHistograma("Latencia por jugada de " + configA, latenciasA);
+        imprimirHistograma("Latencia por jugada de " + configB, latenciasB);
+    }
+
+    private static String elo(double puntuacion) {
+        if (puntuacion <= 0) {
+            return "-inf";
+        }
+        if (puntuacion >= 1) {
+            return "+inf";
+        }
+        return String.format("%+.0f", -400 * Math.log10(1 / puntuacion - 1));
+    }
+
+    private static void imprimirHistograma(String titulo, AtomicLongArray histograma) {
+        long total = 0;
+        long maximo = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            total += histograma.get(i);
+            maximo = Math.max(maximo, histograma.get(i));
+        }
+        System.out.println(titulo + " (" + total + " jugadas):");
+        if (total == 0) {
+            return;
+        }
+
+        long acumulado = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            long cuenta = histograma.get(i);
+            if (cuenta == 0) {
+                continue;
+            }
+            acumulado += cuenta;
+            int barra = (int) Math.max(1, cuenta * 40 / maximo);
+            System.out.printf("  < %10s  %8d  %5.1f%%  %s%n", formatearMicros(1L << (i + 1)),
+                    cuenta, acumulado * 100.0 / total, "#".repeat(barra));
+        }
+        System.out.println();
+    }
+
+    private static String formatearMicros(long micros) {
+        if (micros >= 1_000_000) {
+            return (micros / 1_000_000) + " s";
+        }
+        if (micros >= 1000) {
+            return (micros / 1000) + " ms";
+        }
+        return micros + " µs";
+    }
+
+    private static int otro(int jugadorId) {
+        return jugadorId == Tablero.JUGADOR_1 ? Tablero.JUGADOR_2 : Tablero.JUGADOR_1;
+    }
+
+    /**
+     * Configuración de un participante: nivel, tiempo por jugada, profundidad y evaluador.
+     */
+    public static class Configuracion {
+        private final int nivel;
+        private final long presupuestoMs;
+        private final int profundidad;
+        private final String evaluador;
+
+        public Configuracion(int nivel, long presupuestoMs, int profundidad, String evaluador) {
+            this.nivel = nivel;
+            this.presupuestoMs = presupuestoMs;
+            this.profundidad = profundidad;
+            this.evaluador = evaluador;
+        }
+
+        /**
+         * Interpreta una configuración con la forma nivel[/ms[/profundidad[/evaluador]]].
+         * @param texto Configuración
+         * @return Configuración leída
+         */
+        public static Configuracion leer(String texto) {
+            String[] partes = texto.split("/");
+            int nivel = Integer.parseInt(partes[0]);
+            long presupuestoMs = partes.length > 1
+                    ? Long.parseLong(partes[1]) : InteligenciaArtificial.PRESUPUESTO_POR_DEFECTO_MS;
+            int profundidad = partes.length > 2
+                    ? Integer.parseInt(partes[2]) : InteligenciaArtificial.PROFUNDIDAD_MAXIMA;
+            String evaluador = partes.length > 3 ? partes[3] : InteligenciaArtificial.EVALUADOR_VENTANAS;
+            return new Configuracion(nivel, presupuestoMs, profundidad, evaluador);
+        }
+
+        /**
+         * Crea una IA con esta configuración.
+         * @param tablero Tablero sobre el que jugará
+         * @return IA configurada
+         */
+        public InteligenciaArtificial crear(Tablero tablero) {
+            InteligenciaArtificial ia = new InteligenciaArtificial(tablero, nivel);
+            ia.setPresupuestoMs(presupuestoMs);
+            ia.setProfundidadMaxima(profundidad);
+            ia.setEvaluador(evaluador);
+            return ia;
+        }
+
+        @Override
+        public String toString() {
+            return nivel + "/" + presupuestoMs + "/" + profundidad + "/" + evaluador;
+        }
+    }
+}
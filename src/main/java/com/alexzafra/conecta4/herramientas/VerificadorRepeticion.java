@@ -0,0 +1,124 @@
+package com.alexzafra.conecta4.herramientas;
+
+import com.alexzafra.conecta4.controller.InteligenciaArtificial;
+import com.alexzafra.conecta4.controller.RegistroPartida;
+import com.alexzafra.conecta4.modelos.Tablero;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Herramienta de línea de comandos para grabar partidas de la IA y comprobar
+ * después que, con la misma semilla y configuración, la máquina toma
+ * exactamente las mismas decisiones.
+ *
+ * Uso:
+ *   grabar &lt;archivo&gt; &lt;nivel&gt; &lt;semilla&gt; [profundidad] [nivelRival]
+ *   verificar &lt;archivo&gt;
+ */
+public class VerificadorRepeticion {
+    // Profundidad por defecto de las partidas grabadas (sin límite de tiempo)
+    private static final int PROFUNDIDAD_POR_DEFECTO = 8;
+
+    // ID de la máquina en las partidas grabadas; el rival juega primero
+    private static final int MAQUINA_ID = Tablero.JUGADOR_2;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 4 && args[0].equals("grabar")) {
+            Path archivo = Paths.get(args[1]);
+            int nivel = Integer.parseInt(args[2]);
+            long semilla = Long.parseLong(args[3]);
+            int profundidad = args.length > 4 ? Integer.parseInt(args[4]) : PROFUNDIDAD_POR_DEFECTO;
+            int nivelRival = args.length > 5 ? Integer.parseInt(args[5]) : InteligenciaArtificial.NIVEL_FACIL;
+
+            RegistroPartida registro = grabar(nivel, semilla, profundidad, nivelRival);
+            registro.guardar(archivo);
+            System.out.println("Partida grabada en " + archivo + ": " + registro.getSecuencia());
+        } else if (args.length == 2 && args[0].equals("verificar")) {
+            RegistroPartida registro = RegistroPartida.cargar(Paths.get(args[1]));
+            int divergencia = verificar(registro);
+            if (divergencia >= 0) {
+                System.out.println("La jugada " + (divergencia + 1) + " no coincide con la grabada");
+                System.exit(1);
+            }
+            System.out.println("Repetición correcta: " + registro.getJugadas().length + " jugadas idénticas");
+        } else {
+            System.out.println("Uso: grabar <archivo> <nivel> <semilla> [profundidad] [nivelRival]");
+            System.out.println("     verificar <archivo>");
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Juega una partida completa de la IA contra un rival también sembrado.
+     * La búsqueda se limita solo por profundidad para que sea reproducible.
+     * @param nivel Nivel de la máquina
+     * @param semilla Semilla de la máquina; el rival usa una derivada
+     * @param profundidad Profundidad máxima de la búsqueda
+     * @param nivelRival Nivel del rival
+     * @return Registro de la partida
+     */
+    public static RegistroPartida grabar(int nivel, long semilla, int profundidad, int nivelRival) {
+        Tablero tablero = new Tablero();
+        InteligenciaArtificial maquina = new InteligenciaArtificial(tablero, nivel, semilla);
+        maquina.setPresupuestoMs(0);
+        maquina.setProfundidadMaxima(profundidad);
+        maquina.setLimiteDuroMs(0);
+
+        // El rival no comparte generador con la máquina para no alterar su secuencia
+        InteligenciaArtificial rival = new InteligenciaArtificial(tablero, nivelRival, ~semilla);
+        rival.setPresupuestoMs(0);
+        rival.setProfundidadMaxima(profundidad);
+        rival.setLimiteDuroMs(0);
+
+        int[] jugadas = new int[Tablero.FILAS * Tablero.COLUMNAS];
+        int numJugadas = 0;
+        int turno = Tablero.JUGADOR_1;
+        boolean terminada = false;
+
+        while (!terminada && !tablero.tableroLleno()) {
+            int columna = turno == MAQUINA_ID
+                    ? maquina.obtenerColumnaMovimiento(otro(MAQUINA_ID), MAQUINA_ID)
+                    : rival.obtenerColumnaMovimiento(MAQUINA_ID, otro(MAQUINA_ID));
+            int fila = tablero.obtenerFilaDisponible(columna);
+            tablero.colocarFicha(fila, columna, turno);
+            jugadas[numJugadas++] = columna;
+
+            terminada = tablero.hayGanador(fila, columna);
+            turno = otro(turno);
+        }
+
+        return new RegistroPartida(semilla, nivel, 0, profundidad, MAQUINA_ID,
+                Arrays.copyOf(jugadas, numJugadas));
+    }
+
+    /**
+     * Repite una partida grabada: las jugadas del rival se toman del registro
+     * y las de la máquina se vuelven a calcular.
+     * @param registro Partida grabada
+     * @return Índice de la primera jugada de la máquina distinta, o -1 si todas coinciden
+     */
+    public static int verificar(RegistroPartida registro) {
+        Tablero tablero = new Tablero();
+        InteligenciaArtificial maquina = registro.crearIA(tablero);
+        int maquinaId = registro.getMaquinaId();
+        int[] jugadas = registro.getJugadas();
+        int turno = Tablero.JUGADOR_1;
+
+        for (int i = 0; i < jugadas.length; i++) {
+            if (turno == maquinaId
+                    && maquina.obtenerColumnaMovimiento(otro(maquinaId), maquinaId) != jugadas[i]) {
+                return i;
+            }
+            tablero.colocarFicha(tablero.obtenerFilaDisponible(jugadas[i]), jugadas[i], turno);
+            turno = otro(turno);
+        }
+        return -1;
+    }
+
+    private static int otro(int jugadorId) {
+        return jugadorId == Tablero.JUGADOR_1 ? Tablero.JUGADOR_2 : Tablero.JUGADOR_1;
+    }
+}
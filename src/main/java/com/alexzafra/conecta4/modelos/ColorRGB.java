@@ -0,0 +1,109 @@
+package com.alexzafra.conecta4.modelos;
+
+/**
+ * Color de las fichas de un jugador como componentes RGB de 0 a 255.
+ * No depende de AWT ni de JavaFX, para que el núcleo del juego se pueda usar
+ * sin interfaz gráfica; la vista lo convierte a su propio tipo de color.
+ * Es inmutable.
+ */
+public final class ColorRGB {
+    // Colores por defecto de las fichas
+    public static final ColorRGB ROJO = new ColorRGB(255, 0, 0);
+    public static final ColorRGB AMARILLO = new ColorRGB(255, 255, 0);
+
+    private final int rojo;
+    private final int verde;
+    private final int azul;
+    private final int alfa;
+
+    /**
+     * Crea un color opaco.
+     * @param rojo Componente roja (0-255)
+     * @param verde Componente verde (0-255)
+     * @param azul Componente azul (0-255)
+     */
+    public ColorRGB(int rojo, int verde, int azul) {
+        this(rojo, verde, azul, 255);
+    }
+
+    /**
+     * Crea un color con transparencia.
+     * @param rojo Componente roja (0-255)
+     * @param verde Componente verde (0-255)
+     * @param azul Componente azul (0-255)
+     * @param alfa Opacidad (0 transparente, 255 opaco)
+     * @throws IllegalArgumentException si alguna componente está fuera de rango
+     */
+    public ColorRGB(int rojo, int verde, int azul, int alfa) {
+        if ((rojo | verde | azul | alfa) < 0 || rojo > 255 || verde > 255 || azul > 255 || alfa > 255) {
+            throw new IllegalArgumentException("Componente de color fuera de rango: "
+                    + rojo + ", " + verde + ", " + azul + ", " + alfa);
+        }
+        this.rojo = rojo;
+        this.verde = verde;
+        this.azul = azul;
+        this.alfa = alfa;
+    }
+
+    /**
+     * Obtiene la componente roja.
+     * @return Valor de 0 a 255
+     */
+    public int getRojo() {
+        return rojo;
+    }
+
+    /**
+     * Obtiene la componente verde.
+     * @return Valor de 0 a 255
+     */
+    public int getVerde() {
+        return verde;
+    }
+
+    /**
+     * Obtiene la componente azul.
+     * @return Valor de 0 a 255
+     */
+    public int getAzul() {
+        return azul;
+    }
+
+    /**
+     * Obtiene la opacidad.
+     * @return Valor de 0 (transparente) a 255 (opaco)
+     */
+    public int getAlfa() {
+        return alfa;
+    }
+
+    /**
+     * Representación hexadecimal del color, sin la opacidad.
+     * @return Texto con la forma #RRGGBB
+     */
+    public String toHex() {
+        return String.format("#%02X%02X%02X", rojo, verde, azul);
+    }
+
+    @Override
+    public boolean equals(Object otro) {
+        if (this == otro) {
+            return true;
+        }
+        if (!(otro instanceof ColorRGB)) {
+            return false;
+        }
+        ColorRGB color = (ColorRGB) otro;
+        return rojo == color.rojo && verde == color.verde && azul == color.azul && alfa == color.alfa;
+    }
+
+    @Override
+    public int hashCode() {
+        return (alfa << 24) | (rojo << 16) | (verde << 8) | azul;
+    }
+
+    @Override
+    public String toString() {
+        return alfa == 255 ? toHex() : toHex() + String.format("%02X", alfa);
+    }
+}
@@ -1,7 +1,5 @@
 package com.alexzafra.conecta4.modelos;
 
-import java.awt.Color;
-
 /**
  * Clase que representa a un jugador del Conecta 4.
  * Guarda información como el nombre, color y puntuación.
@@ -9,7 +7,7 @@ import java.awt.Color;
 public class Jugador {
     private int id;             // Identificador del jugador (1 o 2)
     private String nombre;      // Nombre del jugador
-    private Color color;        // Color de las fichas del jugador
+    private ColorRGB color;        // Color de las fichas del jugador
     private int puntuacion;     // Puntuación acumulada (partidas ganadas)
 
     /**
@@ -18,7 +16,7 @@ public class Jugador {
      * @param nombre Nombre del jugador
      * @param color Color de las fichas del jugador
      */
-    public Jugador(int id, String nombre, Color color) {
+    public Jugador(int id, String nombre, ColorRGB color) {
         this.id = id;
         this.nombre = nombre;
         this.color = color;
@@ -53,7 +51,7 @@ public class Jugador {
      * Obtiene el color de las fichas del jugador.
      * @return Color de las fichas
      */
-    public Color getColor() {
+    public ColorRGB getColor() {
         return color;
     }
 
@@ -61,7 +59,7 @@ public class Jugador {
      * Establece el color de las fichas del jugador.
      * @param color Nuevo color para las fichas
      */
-    public void setColor(Color color) {
+    public void setColor(ColorRGB color) {
         this.color = color;
     }
 
@@ -80,6 +78,15 @@ public class Jugador {
         puntuacion++;
     }
 
+    /**
+     * Resta 1 punto al jugador (al deshacer la jugada con la que ganó).
+     */
+    public void decrementarPuntuacion() {
+        if (puntuacion > 0) {
+            puntuacion--;
+        }
+    }
+
     /**
      * Reinicia la puntuación del jugador a 0.
      */
@@ -5,15 +5,24 @@ package com.alexzafra.conecta4.modelos;
  * Mantiene el estado del tablero y proporciona métodos para manipularlo.
  */
 public class Tablero {
-    // Constantes que definen el tamaño del tablero
+    // Constantes que definen el tamaño del tablero normal
     public static final int FILAS = 6;
     public static final int COLUMNAS = 7;
 
+    // Límites de los tableros de otros tamaños: caben en un bitboard de 64 bits
+    // con una casilla libre encima de cada columna
+    public static final int MINIMO_LADO = 4;
+    public static final int MAXIMO_CASILLAS_BITBOARD = 64;
+
     // Constantes para representar el estado de las celdas
     public static final int VACIO = 0;
     public static final int JUGADOR_1 = 1;
     public static final int JUGADOR_2 = 2;
 
+    // Tamaño de este tablero
+    private final int filas;
+    private final int columnas;
+
     // Matriz que representa el tablero
     private int[][] matriz;
 
@@ -21,19 +30,75 @@ public class Tablero {
     private int[][] posicionesGanadoras;
 
     /**
-     * Constructor del tablero. Inicializa un tablero vacío.
+     * Constructor del tablero. Inicializa un tablero vacío de 6 filas y 7 columnas.
      */
     public Tablero() {
-        matriz = new int[FILAS][COLUMNAS];
+        this(FILAS, COLUMNAS);
+    }
+
+    /**
+     * Crea un tablero vacío de otro tamaño, por ejemplo para los modos de
+     * entrenamiento en tableros reducidos.
+     * @param filas Número de filas (al menos 4)
+     * @param columnas Número de columnas (al menos 4)
+     * @throws IllegalArgumentException si el tablero es demasiado pequeño o no cabe en un bitboard
+     */
+    public Tablero(int filas, int columnas) {
+        if (filas < MINIMO_LADO || columnas < MINIMO_LADO || (filas + 1) * columnas > MAXIMO_CASILLAS_BITBOARD) {
+            throw new IllegalArgumentException("Tamaño de tablero no válido: " + filas + "x" + columnas);
+        }
+        this.filas = filas;
+        this.columnas = columnas;
+        matriz = new int[filas][columnas];
         reiniciar();
     }
 
+    /**
+     * Crea una copia independiente de un tablero, por ejemplo para que la IA
+     * calcule su jugada en otro hilo sin tocar el tablero de la partida.
+     * @param otro Tablero a copiar
+     */
+    public Tablero(Tablero otro) {
+        this.filas = otro.filas;
+        this.columnas = otro.columnas;
+        matriz = new int[filas][];
+        for (int fila = 0; fila < filas; fila++) {
+            matriz[fila] = otro.matriz[fila].clone();
+        }
+        posicionesGanadoras = otro.posicionesGanadoras;
+    }
+
+    /**
+     * Obtiene el número de filas del tablero.
+     * @return Filas
+     */
+    public int getFilas() {
+        return filas;
+    }
+
+    /**
+     * Obtiene el número de columnas del tablero.
+     * @return Columnas
+     */
+    public int getColumnas() {
+        return columnas;
+    }
+
+    /**
+     * Indica si el tablero tiene el tamaño normal de 6 filas y 7 columnas, el
+     * único que admiten los motores de búsqueda.
+     * @return true si es un tablero de 6x7
+     */
+    public boolean esEstandar() {
+        return filas == FILAS && columnas == COLUMNAS;
+    }
+
     /**
      * Reinicia el tablero para una nueva partida. Todas las celdas se vacían.
      */
     public void reiniciar() {
-        for (int fila = 0; fila < FILAS; fila++) {
-            for (int columna = 0; columna < COLUMNAS; columna++) {
+        for (int fila = 0; fila < filas; fila++) {
+            for (int columna = 0; columna < columnas; columna++) {
                 matriz[fila][columna] = VACIO;
             }
         }
@@ -42,7 +107,7 @@ public class Tablero {
 
     /**
      * Verifica si una columna está llena (no se pueden colocar más fichas).
-     * @param columna Índice de la columna a verificar (0-6)
+     * @param columna Índice de la columna a verificar (desde 0)
      * @return true si la columna está llena, false en caso contrario
      */
     public boolean columnaLlena(int columna) {
@@ -53,11 +118,11 @@ public class Tablero {
     /**
      * Encuentra la primera fila disponible en una columna (de abajo hacia arriba)
      * donde se puede colocar una ficha.
-     * @param columna Índice de la columna (0-6)
+     * @param columna Índice de la columna (desde 0)
      * @return Índice de la fila disponible, o -1 si la columna está llena
      */
     public int obtenerFilaDisponible(int columna) {
-        for (int fila = FILAS - 1; fila >= 0; fila--) {
+        for (int fila = filas - 1; fila >= 0; fila--) {
             if (matriz[fila][columna] == VACIO) {
                 return fila;
             }
@@ -67,18 +132,36 @@ public class Tablero {
 
     /**
      * Coloca una ficha en el tablero en la posición especificada.
-     * @param fila Fila donde colocar la ficha (0-5)
-     * @param columna Columna donde colocar la ficha (0-6)
+     * @param fila Fila donde colocar la ficha (desde 0, la de arriba)
+     * @param columna Columna donde colocar la ficha (desde 0)
      * @param jugador Código del jugador (1 o 2)
      */
     public void colocarFicha(int fila, int columna, int jugador) {
         matriz[fila][columna] = jugador;
     }
 
+    /**
+     * Retira la ficha de arriba de una columna, deshaciendo la última jugada
+     * hecha en ella.
+     * @param columna Columna de la ficha (desde 0)
+     * @return Fila de la ficha retirada, o -1 si la columna estaba vacía
+     */
+    public int retirarFicha(int columna) {
+        int fila = obtenerFilaDisponible(columna) + 1;
+        if (fila >= filas) {
+            return -1;
+        }
+        matriz[fila][columna] = VACIO;
+
+        // Si había una línea ganadora, pasaba por la última ficha colocada
+        posicionesGanadoras = null;
+        return fila;
+    }
+
     /**
      * Obtiene el valor de una celda del tablero.
-     * @param fila Fila de la celda (0-5)
-     * @param columna Columna de la celda (0-6)
+     * @param fila Fila de la celda (desde 0, la de arriba)
+     * @param columna Columna de la celda (desde 0)
      * @return Valor de la celda (VACIO, JUGADOR_1 o JUGADOR_2)
      */
     public int obtenerCasilla(int fila, int columna) {
@@ -90,7 +173,7 @@ public class Tablero {
      * @return true si el tablero está lleno (empate), false en caso contrario
      */
     public boolean tableroLleno() {
-        for (int col = 0; col < COLUMNAS; col++) {
+        for (int col = 0; col < columnas; col++) {
             if (!columnaLlena(col)) {
                 return false;
             }
@@ -130,7 +213,7 @@ public class Tablero {
         int contador = 0;
         int columnaInicial = 0;
 
-        for (int col = 0; col < COLUMNAS; col++) {
+        for (int col = 0; col < columnas; col++) {
             if (matriz[fila][col] == jugador) {
                 if (contador == 0) columnaInicial = col;
                 contador++;
@@ -162,7 +245,7 @@ public class Tablero {
         int contador = 0;
         int filaInicial = 0;
 
-        for (int fila = 0; fila < FILAS; fila++) {
+        for (int fila = 0; fila < filas; fila++) {
             if (matriz[fila][columna] == jugador) {
                 if (contador == 0) filaInicial = fila;
                 contador++;
@@ -196,7 +279,7 @@ public class Tablero {
         int filaInicial = fila;
         int columnaInicial = columna;
 
-        while (filaInicial < FILAS - 1 && columnaInicial > 0) {
+        while (filaInicial < filas - 1 && columnaInicial > 0) {
             filaInicial++;
             columnaInicial--;
         }
@@ -208,7 +291,7 @@ public class Tablero {
         int filaGanadora = 0;
         int columnaGanadora = 0;
 
-        while (f >= 0 && c < COLUMNAS) {
+        while (f >= 0 && c < columnas) {
             if (matriz[f][c] == jugador) {
                 if (contador == 0) {
                     filaGanadora = f;
@@ -260,7 +343,7 @@ public class Tablero {
         int filaGanadora = 0;
         int columnaGanadora = 0;
 
-        while (f < FILAS && c < COLUMNAS) {
+        while (f < filas && c < columnas) {
             if (matriz[f][c] == jugador) {
                 if (contador == 0) {
                     filaGanadora = f;
@@ -1,8 +1,15 @@
 package com.alexzafra.conecta4.vista;
 
+import com.alexzafra.conecta4.controller.AnalisisEnSegundoPlano;
 import com.alexzafra.conecta4.controller.ControladorJuego;
+import com.alexzafra.conecta4.controller.motor.BuscadorAlfaBeta;
+import com.alexzafra.conecta4.controller.motor.PosicionBitboard;
+import com.alexzafra.conecta4.controller.motor.ResultadoAnalisis;
+import com.alexzafra.conecta4.modelos.ColorRGB;
+import com.alexzafra.conecta4.modelos.Jugador;
 import com.alexzafra.conecta4.modelos.Tablero;
 import com.alexzafra.conecta4.util.SistemaAudio;
+import javafx.animation.AnimationTimer;
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
 import javafx.scene.canvas.Canvas;
@@ -13,6 +20,9 @@ import javafx.scene.effect.Lighting;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.Pane;
 import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.TextAlignment;
 import javafx.util.Duration;
 
 /**
@@ -59,6 +69,24 @@ public class TableroView extends Pane {
     // Variables para seguimiento del ratón
     private int columnaActual;
 
+    // Colores de las fichas ya convertidos a JavaFX y el color del modelo del que salen
+    private ColorRGB colorOrigenJugador1;
+    private ColorRGB colorOrigenJugador2;
+    private Color colorFichaJugador1;
+    private Color colorFichaJugador2;
+
+    // Límites del análisis que alimenta las pistas
+    private static final int PROFUNDIDAD_PISTAS = Tablero.FILAS * Tablero.COLUMNAS;
+    private static final long TIEMPO_MAXIMO_PISTAS_MS = 10000;
+
+    // Capa independiente donde se dibujan las pistas por columna
+    private Canvas capaPistas;
+    private boolean mostrarPistas;
+    private AnalisisEnSegundoPlano analisisPistas;
+    private AnimationTimer temporizadorPistas;
+    private long claveAnalizada = -1;
+    private ResultadoAnalisis pistasDibujadas;
+
     /**
      * Constructor del panel del tablero.
      * @param controlador Controlador del juego
@@ -74,9 +102,14 @@ public class TableroView extends Pane {
         esMovimientoIA = false;
 
         // Crear canvas
-        canvas = new Canvas(Tablero.COLUMNAS * tamanoCelda, Tablero.FILAS * tamanoCelda);
+        canvas = new Canvas(controlador.getTablero().getColumnas() * tamanoCelda, controlador.getTablero().getFilas() * tamanoCelda);
         getChildren().add(canvas);
 
+        // Crear la capa de pistas encima del tablero (no recibe eventos del ratón)
+        capaPistas = new Canvas(canvas.getWidth(), canvas.getHeight());
+        capaPistas.setMouseTransparent(true);
+        getChildren().add(capaPistas);
+
         // Establecer estilo del panel
         setStyle("-fx-background-color: #14328c;"); // Azul oscuro
         getStyleClass().add("tablero");
@@ -178,8 +211,8 @@ public class TableroView extends Pane {
             double altoDisponible = altoVentana - margenVertical * 2;
 
             // Calcular tamaño de celda basado en el espacio disponible
-            double tamanoOptimoCeldaAncho = anchoDisponible / Tablero.COLUMNAS;
-            double tamanoOptimoCeldaAlto = altoDisponible / Tablero.FILAS;
+            double tamanoOptimoCeldaAncho = anchoDisponible / controlador.getTablero().getColumnas();
+            double tamanoOptimoCeldaAlto = altoDisponible / controlador.getTablero().getFilas();
 
             // Usar el menor para mantener las celdas cuadradas, con un límite máximo
             tamanoCelda = Math.min(Math.min(tamanoOptimoCeldaAncho, tamanoOptimoCeldaAlto), 200);
@@ -188,16 +221,25 @@ public class TableroView extends Pane {
             tamanoFicha = tamanoCelda * 0.8;
 
             // Actualizar tamaño del canvas
-            double anchoCanvas = Tablero.COLUMNAS * tamanoCelda;
-            double altoCanvas = Tablero.FILAS * tamanoCelda;
+            double anchoCanvas = controlador.getTablero().getColumnas() * tamanoCelda;
+            double altoCanvas = controlador.getTablero().getFilas() * tamanoCelda;
 
             canvas.setWidth(anchoCanvas);
             canvas.setHeight(altoCanvas);
+            capaPistas.setWidth(anchoCanvas);
+            capaPistas.setHeight(altoCanvas);
 
             // Centrar el canvas horizontalmente
             double xPos = (anchoVentana - anchoCanvas) / 2;
             canvas.setLayoutX(xPos > 0 ? xPos : 0);
             canvas.setLayoutY(0);
+            capaPistas.setLayoutX(canvas.getLayoutX());
+            capaPistas.setLayoutY(0);
+
+            // Redibujar las pistas con el nuevo tamaño
+            if (mostrarPistas && pistasDibujadas != null) {
+                dibujarPistas(pistasDibujadas);
+            }
 
             // Redibujar el tablero con los nuevos tamaños
             dibujarTablero();
@@ -250,7 +292,7 @@ public class TableroView extends Pane {
         int columna = (int)(e.getX() / tamanoCelda);
 
         // Verificar que la columna es válida
-        if (columna < 0 || columna >= Tablero.COLUMNAS) {
+        if (columna < 0 || columna >= controlador.getTablero().getColumnas()) {
             return;
         }
 
@@ -339,69 +381,36 @@ public class TableroView extends Pane {
      * Realiza el movimiento real en el modelo después de que termine la animación visual
      */
     private void realizarMovimientoReal() {
-        // Realizar el movimiento en el modelo según quien lo realizó
+        // Realizar el movimiento en el modelo a través del controlador, que lo anota
+        // en el registro de jugadas
         boolean movimientoExitoso;
         if (esMovimientoIA) {
-            // Para la IA, colocamos directamente la ficha
-            int fila = controlador.getTablero().obtenerFilaDisponible(columnaAnimacion);
-            controlador.getTablero().colocarFicha(fila, columnaAnimacion, controlador.getJugador2().getId());
-
-            // Actualizar variables para controlar el estado del juego
-            ultimaFilaIA = fila;
-            ultimaColumnaIA = columnaAnimacion;
-            mostrarUltimaJugadaIA = true;
-
-            // Iniciar temporizador para desactivar el resaltado
-            if (animacionUltimaJugadaIA != null) {
-                animacionUltimaJugadaIA.stop();
+            movimientoExitoso = controlador.realizarMovimientoMaquina(columnaAnimacion);
+
+            if (movimientoExitoso) {
+                // Resaltar la ficha de la IA durante unos segundos
+                marcarUltimaJugadaIA(controlador.getUltimaFilaMovimiento(), controlador.getUltimaColumnaMovimiento());
             }
-            animacionUltimaJugadaIA.play();
+        } else {
+            // Para el jugador humano, usamos el método normal
+            movimientoExitoso = controlador.realizarMovimiento(columnaAnimacion);
+        }
 
-            // Verificar si la IA ganó
-            if (controlador.getTablero().hayGanador(fila, columnaAnimacion)) {
-                controlador.setJuegoTerminado(true);
-                controlador.getJugador2().incrementarPuntuacion();
+        // Si hay ganador, iniciar efecto de parpadeo
+        if (movimientoExitoso && controlador.isJuegoTerminado()) {
+            if (!controlador.isEmpate()) {
                 iniciarEfectoParpadeo();
                 try {
                     SistemaAudio.getInstancia().reproducirEfecto("victoria");
                 } catch (Exception e) {
                     System.err.println("Error al reproducir sonido de victoria: " + e.getMessage());
                 }
-            } else if (controlador.getTablero().tableroLleno()) {
-                // Verificar empate
-                controlador.setJuegoTerminado(true);
-                controlador.setEmpate(true);
+            } else {
                 try {
                     SistemaAudio.getInstancia().reproducirEfecto("empate");
                 } catch (Exception e) {
                     System.err.println("Error al reproducir sonido de empate: " + e.getMessage());
                 }
-            } else {
-                // Cambiar turno al jugador humano
-                controlador.cambiarTurno();
-            }
-
-            movimientoExitoso = true;
-        } else {
-            // Para el jugador humano, usamos el método normal
-            movimientoExitoso = controlador.realizarMovimiento(columnaAnimacion);
-
-            // Si hay ganador, iniciar efecto de parpadeo
-            if (movimientoExitoso && controlador.isJuegoTerminado()) {
-                if (!controlador.isEmpate()) {
-                    iniciarEfectoParpadeo();
-                    try {
-                        SistemaAudio.getInstancia().reproducirEfecto("victoria");
-                    } catch (Exception e) {
-                        System.err.println("Error al reproducir sonido de victoria: " + e.getMessage());
-                    }
-                } else {
-                    try {
-                        SistemaAudio.getInstancia().reproducirEfecto("empate");
-                    } catch (Exception e) {
-                        System.err.println("Error al reproducir sonido de empate: " + e.getMessage());
-                    }
-                }
             }
         }
 
@@ -417,7 +426,7 @@ public class TableroView extends Pane {
      */
     public void iniciarAnimacionCaidaIA(int columna) {
         // Verificar si la columna es válida y no está llena
-        if (columna < 0 || columna >= Tablero.COLUMNAS || controlador.getTablero().columnaLlena(columna)) {
+        if (columna < 0 || columna >= controlador.getTablero().getColumnas() || controlador.getTablero().columnaLlena(columna)) {
             return;
         }
 
@@ -521,8 +530,8 @@ public class TableroView extends Pane {
             lighting.setSurfaceScale(1.5);
 
             // Dibujar celdas y fichas ya colocadas
-            for (int fila = 0; fila < Tablero.FILAS; fila++) {
-                for (int col = 0; col < Tablero.COLUMNAS; col++) {
+            for (int fila = 0; fila < tablero.getFilas(); fila++) {
+                for (int col = 0; col < tablero.getColumnas(); col++) {
                     double x = col * tamanoCelda + tamanoCelda / 2;
                     double y = fila * tamanoCelda + tamanoCelda / 2;
 
@@ -565,14 +574,14 @@ public class TableroView extends Pane {
 
                     // Dibujar ficha si existe en esta celda
                     if (valorCelda == Tablero.JUGADOR_1) {
-                        gc.setFill(convertirAwtColorAJavaFX(controlador.getJugador1().getColor()));
+                        gc.setFill(colorFicha(controlador.getJugador1()));
                         gc.fillOval(x - tamanoFicha/2, y - tamanoFicha/2, tamanoFicha, tamanoFicha);
 
                         // Agregar brillo a la ficha
                         gc.setFill(Color.color(1, 1, 1, 0.3));
                         gc.fillOval(x - tamanoFicha/4, y - tamanoFicha/3, tamanoFicha/4, tamanoFicha/4);
                     } else if (valorCelda == Tablero.JUGADOR_2) {
-                        Color colorFicha = convertirAwtColorAJavaFX(controlador.getJugador2().getColor());
+                        Color colorFicha = colorFicha(controlador.getJugador2());
                         gc.setFill(colorFicha);
                         gc.fillOval(x - tamanoFicha/2, y - tamanoFicha/2, tamanoFicha, tamanoFicha);
 
@@ -620,9 +629,9 @@ public class TableroView extends Pane {
                 // Obtener el jugador que está colocando la ficha
                 Color colorFicha;
                 if (esMovimientoIA) {
-                    colorFicha = convertirAwtColorAJavaFX(controlador.getJugador2().getColor());
+                    colorFicha = colorFicha(controlador.getJugador2());
                 } else {
-                    colorFicha = convertirAwtColorAJavaFX(controlador.getJugadorActual().getColor());
+                    colorFicha = colorFicha(controlador.getJugadorActual());
                 }
 
                 // Aplicar efecto de sombra
@@ -640,13 +649,13 @@ public class TableroView extends Pane {
             }
 
             // Dibujar efecto hover (previsualización)
-            if (!controlador.isJuegoTerminado() && !animando && columnaActual >= 0 && columnaActual < Tablero.COLUMNAS) {
+            if (!controlador.isJuegoTerminado() && !animando && columnaActual >= 0 && columnaActual < controlador.getTablero().getColumnas()) {
                 // Solo mostrar previsualización si la columna no está llena
                 if (!tablero.columnaLlena(columnaActual)) {
                     double x = columnaActual * tamanoCelda + tamanoCelda / 2;
 
                     // Color semitransparente del jugador actual
-                    Color colorHover = convertirAwtColorAJavaFX(controlador.getJugadorActual().getColor());
+                    Color colorHover = colorFicha(controlador.getJugadorActual());
                     Color colorTransparente = new Color(
                             colorHover.getRed(),
                             colorHover.getGreen(),
@@ -664,16 +673,189 @@ public class TableroView extends Pane {
     }
 
     /**
-     * Convierte un color AWT a JavaFX
-     * @param awtColor Color de AWT
+     * Activa o desactiva las pistas por columna.
+     * Las puntuaciones se calculan en segundo plano y se dibujan en su propia capa.
+     * @param mostrar true para mostrar las pistas
+     */
+    public void setMostrarPistas(boolean mostrar) {
+        mostrarPistas = mostrar;
+
+        if (mostrar) {
+            if (analisisPistas == null) {
+                analisisPistas = new AnalisisEnSegundoPlano(PROFUNDIDAD_PISTAS, TIEMPO_MAXIMO_PISTAS_MS);
+                temporizadorPistas = new AnimationTimer() {
+                    @Override
+                    public void handle(long ahora) {
+                        // Como mucho un repintado de la capa por fotograma
+                        ResultadoAnalisis resultado = analisisPistas.tomarResultado();
+                        if (resultado != null && mostrarPistas) {
+                            dibujarPistas(resultado);
+                        }
+                    }
+                };
+            }
+            temporizadorPistas.start();
+            claveAnalizada = -1;
+            actualizarPistas();
+        } else {
+            if (analisisPistas != null) {
+                analisisPistas.cancelar();
+                temporizadorPistas.stop();
+            }
+            claveAnalizada = -1;
+            limpiarPistas();
+        }
+    }
+
+    /**
+     * Indica si las pistas están activadas.
+     * @return true si se muestran las pistas
+     */
+    public boolean isMostrarPistas() {
+        return mostrarPistas;
+    }
+
+    /**
+     * Relanza el análisis de las pistas si la posición ha cambiado.
+     * Se debe llamar tras cada jugada o reinicio de la partida.
+     */
+    public void actualizarPistas() {
+        if (!mostrarPistas || analisisPistas == null) {
+            return;
+        }
+
+        // Sin pistas con la partida terminada, mientras piensa la máquina o
+        // en un tablero reducido, que los motores no saben analizar
+        boolean turnoMaquina = controlador.esModoUnJugador()
+                && controlador.getJugadorActual() == controlador.getJugador2();
+        if (controlador.isJuegoTerminado() || turnoMaquina || !controlador.getTablero().esEstandar()) {
+            analisisPistas.cancelar();
+            claveAnalizada = -1;
+            limpiarPistas();
+            return;
+        }
+
+        PosicionBitboard posicion = PosicionBitboard.desdeTablero(controlador.getTablero(),
+                controlador.getJugadorActual().getId());
+        if (posicion.clave() != claveAnalizada) {
+            claveAnalizada = posicion.clave();
+            limpiarPistas();
+            analisisPistas.analizar(posicion);
+        }
+    }
+
+    /**
+     * Detiene el análisis de las pistas y libera su hilo.
+     */
+    public void cerrarPistas() {
+        if (analisisPistas != null) {
+            temporizadorPistas.stop();
+            analisisPistas.cerrar();
+            analisisPistas = null;
+        }
+        mostrarPistas = false;
+        limpiarPistas();
+    }
+
+    /**
+     * Borra la capa de pistas.
+     */
+    private void limpiarPistas() {
+        pistasDibujadas = null;
+        capaPistas.getGraphicsContext2D().clearRect(0, 0, capaPistas.getWidth(), capaPistas.getHeight());
+    }
+
+    /**
+     * Dibuja en la capa de pistas la valoración de cada columna.
+     * @param resultado Resultado del análisis para el jugador con turno
+     */
+    private void dibujarPistas(ResultadoAnalisis resultado) {
+        pistasDibujadas = resultado;
+        GraphicsContext gc = capaPistas.getGraphicsContext2D();
+        gc.clearRect(0, 0, capaPistas.getWidth(), capaPistas.getHeight());
+
+        double alto = Math.max(16, tamanoCelda * 0.28);
+        gc.setFont(Font.font("Arial", FontWeight.BOLD, alto * 0.6));
+        gc.setTextAlign(TextAlignment.CENTER);
+
+        int movimientos = PosicionBitboard.desdeTablero(controlador.getTablero(),
+                controlador.getJugadorActual().getId()).getMovimientos();
+
+        for (int col = 0; col < PosicionBitboard.ANCHO; col++) {
+            if (!resultado.esJugable(col)) {
+                continue;
+            }
+
+            int puntuacion = resultado.getPuntuacion(col);
+            String texto;
+            Color color;
+            if (ResultadoAnalisis.esVictoria(puntuacion)) {
+                // Jugadas propias hasta ganar
+                int fichas = BuscadorAlfaBeta.VICTORIA - puntuacion - movimientos;
+                texto = "G" + (fichas + 1) / 2;
+                color = Color.web("#2e9e44");
+            } else if (ResultadoAnalisis.esDerrota(puntuacion)) {
+                int fichas = BuscadorAlfaBeta.VICTORIA + puntuacion - movimientos;
+                texto = "P" + (fichas + 1) / 2;
+                color = Color.web("#c0392b");
+            } else if (puntuacion == 0) {
+                texto = "=";
+                color = Color.web("#7f8c8d");
+            } else {
+                texto = (puntuacion > 0 ? "+" : "") + puntuacion;
+                color = puntuacion > 0 ? Color.web("#6fbf73") : Color.web("#e67e73");
+            }
+
+            double x = col * tamanoCelda + tamanoCelda * 0.15;
+            double ancho = tamanoCelda * 0.7;
+            gc.setGlobalAlpha(0.85);
+            gc.setFill(color);
+            gc.fillRoundRect(x, 2, ancho, alto, 8, 8);
+            gc.setGlobalAlpha(1.0);
+            gc.setFill(Color.WHITE);
+            gc.fillText(texto, col * tamanoCelda + tamanoCelda / 2, 2 + alto * 0.75);
+        }
+
+        // Indicar la profundidad alcanzada
+        gc.setFont(Font.font("Arial", alto * 0.45));
+        gc.setTextAlign(TextAlignment.RIGHT);
+        gc.setFill(Color.color(1, 1, 1, 0.7));
+        gc.fillText("prof. " + resultado.getProfundidad(), capaPistas.getWidth() - 8, capaPistas.getHeight() - 6);
+    }
+
+    /**
+     * Obtiene el color JavaFX de las fichas de un jugador. La conversión solo se
+     * hace cuando cambia el color del jugador, no en cada celda de cada repintado.
+     * @param jugador Jugador
+     * @return Color de sus fichas en JavaFX
+     */
+    private Color colorFicha(Jugador jugador) {
+        ColorRGB color = jugador.getColor();
+        if (jugador.getId() == Tablero.JUGADOR_1) {
+            if (color != colorOrigenJugador1) {
+                colorOrigenJugador1 = color;
+                colorFichaJugador1 = convertirColor(color);
+            }
+            return colorFichaJugador1;
+        }
+        if (color != colorOrigenJugador2) {
+            colorOrigenJugador2 = color;
+            colorFichaJugador2 = convertirColor(color);
+        }
+        return colorFichaJugador2;
+    }
+
+    /**
+     * Convierte un color del modelo a JavaFX
+     * @param color Color del modelo
      * @return Color equivalente en JavaFX
      */
-    private Color convertirAwtColorAJavaFX(java.awt.Color awtColor) {
+    private static Color convertirColor(ColorRGB color) {
         return Color.rgb(
-                awtColor.getRed(),
-                awtColor.getGreen(),
-                awtColor.getBlue(),
-                awtColor.getAlpha() / 255.0);
+                color.getRojo(),
+                color.getVerde(),
+                color.getAzul(),
+                color.getAlfa() / 255.0);
     }
 
     /**
@@ -1,8 +1,7 @@
 package com.alexzafra.conecta4.vista;
 
 import com.alexzafra.conecta4.controller.ControladorJuego;
-import com.alexzafra.conecta4.controller.InteligenciaArtificial;
-import com.alexzafra.conecta4.modelos.Tablero;
+import com.alexzafra.conecta4.controller.motor.TokenCancelacion;
 import com.alexzafra.conecta4.util.ConfiguracionVentana;
 import com.alexzafra.conecta4.util.SistemaAudio;
 import com.alexzafra.conecta4.vista.componentes.BarraArrastre;
@@ -13,7 +12,9 @@ import com.alexzafra.conecta4.vista.dialogos.DialogoOpciones;
 import com.alexzafra.conecta4.vista.dialogos.DialogoSeleccionModo;
 import javafx.animation.PauseTransition;
 import javafx.application.Platform;
+import javafx.beans.value.ChangeListener;
 import javafx.collections.ObservableList;
+import javafx.event.EventHandler;
 import javafx.geometry.Dimension2D;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -28,6 +29,8 @@ import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
 import javafx.stage.Screen;
 import javafx.stage.Stage;
+import javafx.stage.Window;
+import javafx.stage.WindowEvent;
 import javafx.util.Duration;
 
 import java.util.Optional;
@@ -48,6 +51,27 @@ public class VentanaPrincipal extends BorderPane {
     private boolean modoSeleccionado = false;
     private BarraArrastre barraArrastre;
 
+    // Botones del historial, que solo se activan cuando hay algo que deshacer o rehacer
+    private Button btnDeshacer;
+    private Button btnRehacer;
+
+    // Botón de las pistas, que vuelve a "Mostrar Pistas" al cerrar la partida
+    private Button btnPistas;
+
+    // Cierre de la partida al ocultar la ventana, con un solo manejador por ventana
+    private final EventHandler<WindowEvent> alOcultarVentana = e -> cerrar();
+    private final ChangeListener<Window> alCambiarVentana = (obs, ventanaAnterior, ventanaNueva) -> {
+        if (ventanaAnterior != null) {
+            ventanaAnterior.removeEventHandler(WindowEvent.WINDOW_HIDDEN, alOcultarVentana);
+        }
+        if (ventanaNueva == null) {
+            // La ventana ha pasado a mostrar otra escena
+            cerrar();
+        } else {
+            ventanaNueva.addEventHandler(WindowEvent.WINDOW_HIDDEN, alOcultarVentana);
+        }
+    };
+
     // Variable para pausar entre movimientos de la máquina
     private PauseTransition pausaMovimientoMaquina;
 
@@ -78,6 +102,9 @@ public class VentanaPrincipal extends BorderPane {
         // Configurar escuchadores para redimensionamiento
         configurarEscuchadoresRedimension();
 
+        // Cancelar el trabajo de la IA al cerrar la ventana o cambiar de pantalla
+        configurarCierre();
+
         // Inicializar barra de arrastre si es necesario
         Platform.runLater(() -> {
             actualizarBarraArrastre();
@@ -121,20 +148,7 @@ public class VentanaPrincipal extends BorderPane {
 
         // Configurar la pausa para el movimiento de la máquina
         pausaMovimientoMaquina = new PauseTransition(Duration.millis(500)); // Reducido de 800 a 500 milisegundos
-        pausaMovimientoMaquina.setOnFinished(event -> {
-            // Calcular el movimiento de la IA sin aplicarlo aún
-            columnaSeleccionadaIA = obtenerColumnaMovimientoIA();
-
-            if (columnaSeleccionadaIA >= 0) {
-                // Iniciar animación de caída para la ficha de la IA
-                panelTablero.iniciarAnimacionCaidaIA(columnaSeleccionadaIA);
-            } else {
-                // Si por alguna razón no se obtuvo una columna válida, hacer movimiento directo
-                controlador.realizarMovimientoMaquina();
-                panelTablero.refrescarTablero();
-                barraEstado.establecerMensajeEstado(controlador.getMensajeEstado());
-            }
-        });
+        pausaMovimientoMaquina.setOnFinished(event -> calcularMovimientoIA());
 
         // Crear un contenedor que centrará el tablero
         StackPane contenedorTablero = new StackPane();
@@ -147,6 +161,45 @@ public class VentanaPrincipal extends BorderPane {
         setBottom(panelSur);
     }
 
+    /**
+     * Configura el cierre ordenado de la partida: si la ventana se cierra o se
+     * sustituye esta pantalla por otra (por ejemplo, la de inicio), se cancela
+     * la jugada de la máquina y el análisis de las pistas.
+     */
+    private void configurarCierre() {
+        sceneProperty().addListener((obs, escenaAnterior, escenaNueva) -> {
+            // Los escuchadores de la escena anterior se quitan para no acumularlos
+            if (escenaAnterior != null) {
+                escenaAnterior.windowProperty().removeListener(alCambiarVentana);
+                if (escenaAnterior.getWindow() != null) {
+                    escenaAnterior.getWindow().removeEventHandler(WindowEvent.WINDOW_HIDDEN, alOcultarVentana);
+                }
+            }
+            if (escenaNueva == null) {
+                cerrar();
+                return;
+            }
+            escenaNueva.windowProperty().addListener(alCambiarVentana);
+            if (escenaNueva.getWindow() != null) {
+                escenaNueva.getWindow().addEventHandler(WindowEvent.WINDOW_HIDDEN, alOcultarVentana);
+            }
+        });
+    }
+
+    /**
+     * Detiene todo el trabajo en curso de la partida: la pausa y la jugada de la
+     * máquina, las animaciones y el análisis de las pistas.
+     */
+    public void cerrar() {
+        if (pausaMovimientoMaquina != null) {
+            pausaMovimientoMaquina.stop();
+        }
+        controlador.cerrar();
+        panelTablero.detenerEfectos();
+        panelTablero.cerrarPistas();
+        btnPistas.setText("Mostrar Pistas");
+    }
+
     /**
      * Configura escuchadores para redimensionamiento de la ventana
      */
@@ -231,6 +284,29 @@ public class VentanaPrincipal extends BorderPane {
             }
         });
 
+        // Botones para deshacer y rehacer jugadas
+        btnDeshacer = new Button("Deshacer");
+        btnDeshacer.getStyleClass().add("boton-menu");
+        btnDeshacer.setOnAction(e -> {
+            try {
+                SistemaAudio.getInstancia().reproducirEfecto("boton");
+                deshacerJugada();
+            } catch (Exception ex) {
+                System.err.println("Error al deshacer la jugada: " + ex.getMessage());
+            }
+        });
+
+        btnRehacer = new Button("Rehacer");
+        btnRehacer.getStyleClass().add("boton-menu");
+        btnRehacer.setOnAction(e -> {
+            try {
+                SistemaAudio.getInstancia().reproducirEfecto("boton");
+                rehacerJugada();
+            } catch (Exception ex) {
+                System.err.println("Error al rehacer la jugada: " + ex.getMessage());
+            }
+        });
+
         // Botón de cambiar modo
         Button btnCambiarModo = new Button("Cambiar Modo");
         btnCambiarModo.getStyleClass().add("boton-menu");
@@ -255,6 +331,20 @@ public class VentanaPrincipal extends BorderPane {
             }
         });
 
+        // Botón para activar o desactivar las pistas por columna
+        btnPistas = new Button("Mostrar Pistas");
+        btnPistas.getStyleClass().add("boton-menu");
+        btnPistas.setOnAction(e -> {
+            try {
+                SistemaAudio.getInstancia().reproducirEfecto("boton");
+                boolean mostrar = !panelTablero.isMostrarPistas();
+                panelTablero.setMostrarPistas(mostrar);
+                btnPistas.setText(mostrar ? "Ocultar Pistas" : "Mostrar Pistas");
+            } catch (Exception ex) {
+                System.err.println("Error al cambiar las pistas: " + ex.getMessage());
+            }
+        });
+
         // Botón de reiniciar puntuaciones
         Button btnReiniciarPuntuaciones = new Button("Reiniciar Puntuaciones");
         btnReiniciarPuntuaciones.getStyleClass().add("boton-menu");
@@ -273,6 +363,7 @@ public class VentanaPrincipal extends BorderPane {
         btnSalir.setOnAction(e -> {
             try {
                 SistemaAudio.getInstancia().reproducirEfecto("boton");
+                cerrar();
                 Platform.exit();
             } catch (Exception ex) {
                 System.err.println("Error al salir: " + ex.getMessage());
@@ -283,8 +374,11 @@ public class VentanaPrincipal extends BorderPane {
         // Agregar botones al panel
         panelBotones.getChildren().addAll(
                 btnNuevaPartida,
+                btnDeshacer,
+                btnRehacer,
                 btnCambiarModo,
                 btnOpciones,
+                btnPistas,
                 btnReiniciarPuntuaciones,
                 btnSalir
         );
@@ -370,8 +464,14 @@ public class VentanaPrincipal extends BorderPane {
                 modoSeleccionado = true;
                 reiniciarJuego();
 
+                // El modo de entrenamiento puede haber cambiado el tamaño del tablero
+                ajustarTamañoTablero();
+
                 // Mostrar mensaje del modo seleccionado
-                if (controlador.esModoUnJugador()) {
+                if (controlador.esModoEntrenamiento()) {
+                    barraEstado.establecerMensajeExito("Modo Entrenamiento "
+                            + controlador.getTablero().getFilas() + "x" + controlador.getTablero().getColumnas());
+                } else if (controlador.esModoUnJugador()) {
                     barraEstado.establecerMensajeExito("Modo Un Jugador");
                 } else {
                     barraEstado.establecerMensajeExito("Modo Dos Jugadores");
@@ -410,43 +510,63 @@ public class VentanaPrincipal extends BorderPane {
     }
 
     /**
-     * Obtiene la columna donde la IA realizará su movimiento sin aplicarlo aún
-     * @return Columna seleccionada o -1 si no puede determinar la columna
+     * Empieza a calcular en segundo plano el movimiento de la IA. La columna se
+     * aplica en el hilo de la interfaz, y solo si la jugada no se ha cancelado
+     * mientras tanto (al reiniciar la partida o cambiar de modo).
      */
-    private int obtenerColumnaMovimientoIA() {
-        // Si la IA ya ha colocado una ficha o el juego ha terminado, retornar -1
+    private void calcularMovimientoIA() {
         if (controlador.isJuegoTerminado()) {
-            return -1;
+            return;
         }
 
-        try {
-            // Primero, intentamos usar la lógica interna de la IA para determinar la columna
-            InteligenciaArtificial ia = new InteligenciaArtificial(controlador.getTablero(),
-                    controlador.getIA().getNivelDificultad());
+        TokenCancelacion token = new TokenCancelacion();
+        controlador.calcularMovimientoMaquina(token, columna -> Platform.runLater(() -> {
+            // Una jugada calculada para una partida que ya no existe se descarta
+            if (!token.isCancelado()) {
+                aplicarMovimientoIA(columna);
+            }
+        }));
+    }
 
-            // Obtenemos la columna que elegiría la IA
-            int columna = ia.obtenerColumnaMovimiento(controlador.getJugador1().getId(),
-                    controlador.getJugador2().getId());
+    /**
+     * Aplica el movimiento calculado por la IA con la animación de caída.
+     * @param columna Columna elegida por la IA, o -1 si no pudo elegir
+     */
+    private void aplicarMovimientoIA(int columna) {
+        columnaSeleccionadaIA = validarColumnaIA(columna);
 
-            // Verificamos que la columna es válida
-            if (columna >= 0 && columna < Tablero.COLUMNAS && !controlador.getTablero().columnaLlena(columna)) {
-                return columna;
-            }
+        if (columnaSeleccionadaIA >= 0) {
+            // Iniciar animación de caída para la ficha de la IA
+            panelTablero.iniciarAnimacionCaidaIA(columnaSeleccionadaIA);
+        } else {
+            // Si por alguna razón no se obtuvo una columna válida, hacer movimiento directo
+            controlador.realizarMovimientoMaquina();
+            panelTablero.refrescarTablero();
+            barraEstado.establecerMensajeEstado(controlador.getMensajeEstado());
+            actualizarBotonesHistorial();
+        }
+    }
 
-            // Si la IA devuelve una columna inválida o -1, buscamos una columna válida
-            for (int col = 0; col < Tablero.COLUMNAS; col++) {
-                if (!controlador.getTablero().columnaLlena(col)) {
-                    return col;
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("Error al obtener columna de la IA: " + e.getMessage());
+    /**
+     * Comprueba la columna elegida por la IA en el tablero de la partida
+     * @param columna Columna elegida por la IA
+     * @return La misma columna si se puede jugar, otra libre si no, o -1 si no hay ninguna
+     */
+    private int validarColumnaIA(int columna) {
+        // Si el juego ha terminado, retornar -1
+        if (controlador.isJuegoTerminado()) {
+            return -1;
+        }
 
-            // En caso de error, buscar cualquier columna disponible
-            for (int col = 0; col < Tablero.COLUMNAS; col++) {
-                if (!controlador.getTablero().columnaLlena(col)) {
-                    return col;
-                }
+        // Verificamos que la columna es válida
+        if (columna >= 0 && columna < controlador.getTablero().getColumnas() && !controlador.getTablero().columnaLlena(columna)) {
+            return columna;
+        }
+
+        // Si la IA devuelve una columna inválida o -1, buscamos una columna válida
+        for (int col = 0; col < controlador.getTablero().getColumnas(); col++) {
+            if (!controlador.getTablero().columnaLlena(col)) {
+                return col;
             }
         }
 
@@ -465,6 +585,12 @@ public class VentanaPrincipal extends BorderPane {
         // Actualizar panel de puntuaciones
         panelPuntuaciones.actualizarPuntuaciones();
 
+        // Relanzar el análisis de las pistas para la nueva posición
+        panelTablero.actualizarPistas();
+
+        // Activar o desactivar deshacer y rehacer
+        actualizarBotonesHistorial();
+
         // Si es modo un jugador y le toca a la máquina, iniciar timer para hacer su movimiento
         if (controlador.esModoUnJugador() &&
                 controlador.getJugadorActual() == controlador.getJugador2() &&
@@ -475,6 +601,18 @@ public class VentanaPrincipal extends BorderPane {
         }
     }
 
+    /**
+     * Activa los botones de deshacer y rehacer solo si el controlador lo permite.
+     * Mientras la máquina tiene su jugada pendiente los dos quedan desactivados.
+     */
+    private void actualizarBotonesHistorial() {
+        boolean turnoMaquina = controlador.esModoUnJugador() &&
+                controlador.getJugadorActual() == controlador.getJugador2() &&
+                !controlador.isJuegoTerminado();
+        btnDeshacer.setDisable(turnoMaquina || !controlador.puedeDeshacer());
+        btnRehacer.setDisable(turnoMaquina || !controlador.puedeRehacer());
+    }
+
     /**
      * Reinicia el juego para una nueva partida.
      */
@@ -495,6 +633,41 @@ public class VentanaPrincipal extends BorderPane {
         actualizarEstadoJuego();
     }
 
+    /**
+     * Deshace la última jugada (en modo un jugador, también la respuesta de la
+     * máquina). Antes se paran las animaciones y la jugada pendiente de la IA.
+     */
+    private void deshacerJugada() {
+        detenerJugadaEnCurso();
+        if (controlador.deshacerJugada()) {
+            panelTablero.refrescarTablero();
+            actualizarEstadoJuego();
+        }
+    }
+
+    /**
+     * Rehace la última jugada deshecha.
+     */
+    private void rehacerJugada() {
+        detenerJugadaEnCurso();
+        if (controlador.rehacerJugada()) {
+            panelTablero.refrescarTablero();
+            actualizarEstadoJuego();
+        }
+    }
+
+    /**
+     * Detiene los efectos visuales y la jugada de la máquina que esté esperando
+     * o calculándose, para poder cambiar el tablero.
+     */
+    private void detenerJugadaEnCurso() {
+        panelTablero.detenerEfectos();
+        if (pausaMovimientoMaquina != null) {
+            pausaMovimientoMaquina.stop();
+        }
+        controlador.cancelarMovimientoMaquina();
+    }
+
     /**
      * Actualiza la interfaz para mostrar/ocultar la barra de arrastre según el modo de ventana
      */
@@ -1,6 +1,7 @@
 package com.alexzafra.conecta4.vista.componentes;
 
 import com.alexzafra.conecta4.controller.ControladorJuego;
+import com.alexzafra.conecta4.modelos.ColorRGB;
 import com.alexzafra.conecta4.modelos.Jugador;
 
 import javafx.geometry.Insets;
@@ -85,8 +86,8 @@ public class PanelPuntuaciones extends BorderPane {
         // Establecer estilo de la etiqueta
         etiqueta.setFont(Font.font("Arial", FontWeight.BOLD, 16));
 
-        // Convertir color AWT a JavaFX
-        Color colorJavaFX = convertirAwtColorAJavaFX(jugador.getColor());
+        // Convertir el color del modelo a JavaFX
+        Color colorJavaFX = convertirColor(jugador.getColor());
         etiqueta.setTextFill(colorJavaFX);
 
         etiqueta.setPadding(new Insets(5, 10, 5, 10));
@@ -100,16 +101,16 @@ public class PanelPuntuaciones extends BorderPane {
     }
 
     /**
-     * Convierte un color AWT a JavaFX
-     * @param awtColor Color de AWT
+     * Convierte un color del modelo a JavaFX
+     * @param color Color del modelo
      * @return Color equivalente en JavaFX
      */
-    private Color convertirAwtColorAJavaFX(java.awt.Color awtColor) {
+    private Color convertirColor(ColorRGB color) {
         return Color.rgb(
-                awtColor.getRed(),
-                awtColor.getGreen(),
-                awtColor.getBlue(),
-                awtColor.getAlpha() / 255.0);
+                color.getRojo(),
+                color.getVerde(),
+                color.getAzul(),
+                color.getAlfa() / 255.0);
     }
 
     /**
@@ -138,8 +139,8 @@ public class PanelPuntuaciones extends BorderPane {
             etiquetaPuntuacionJ2.setText(jugador2.getNombre() + ": " + jugador2.getPuntuacion());
 
             // Actualizar colores
-            Color colorJ1 = convertirAwtColorAJavaFX(jugador1.getColor());
-            Color colorJ2 = convertirAwtColorAJavaFX(jugador2.getColor());
+            Color colorJ1 = convertirColor(jugador1.getColor());
+            Color colorJ2 = convertirColor(jugador2.getColor());
 
             etiquetaPuntuacionJ1.setTextFill(colorJ1);
             etiquetaPuntuacionJ2.setTextFill(colorJ2);
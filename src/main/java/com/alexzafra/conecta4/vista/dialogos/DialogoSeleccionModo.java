@@ -2,6 +2,7 @@ package com.alexzafra.conecta4.vista.dialogos;
 
 import com.alexzafra.conecta4.controller.ControladorJuego;
 import com.alexzafra.conecta4.controller.InteligenciaArtificial;
+import com.alexzafra.conecta4.controller.motor.BaseDatosFinales;
 import com.alexzafra.conecta4.util.SistemaAudio;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -13,21 +14,26 @@ import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
+import javafx.stage.FileChooser;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 import javafx.stage.StageStyle;
 import javafx.stage.Window;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.Optional;
 
 /**
- * Diálogo para seleccionar el modo de juego (1 jugador o 2 jugadores) y la dificultad
+ * Diálogo para seleccionar el modo de juego (1 jugador, 2 jugadores o
+ * entrenamiento en tablero reducido) y la dificultad
  */
 public class DialogoSeleccionModo extends Stage {
 
     // Constantes para los modos de juego
     public static final int MODO_UN_JUGADOR = 1;
     public static final int MODO_DOS_JUGADORES = 2;
+    public static final int MODO_ENTRENAMIENTO = 3;
 
     // Controlador del juego
     private ControladorJuego controlador;
@@ -38,6 +44,7 @@ public class DialogoSeleccionModo extends Stage {
     // Componentes de la interfaz
     private RadioButton radioUnJugador;
     private RadioButton radioDosJugadores;
+    private RadioButton radioEntrenamiento;
     private ComboBox<String> comboDificultad;
 
     /**
@@ -57,7 +64,7 @@ public class DialogoSeleccionModo extends Stage {
         VBox contenido = crearContenido();
 
         // Crear escena
-        Scene escena = new Scene(contenido, 400, 300);
+        Scene escena = new Scene(contenido, 400, 330);
 
         // Aplicar estilos CSS
         try {
@@ -97,7 +104,7 @@ public class DialogoSeleccionModo extends Stage {
         radioUnJugador = new RadioButton("Un Jugador (contra la máquina)");
         radioUnJugador.setTextFill(Color.WHITE);
         radioUnJugador.setToggleGroup(grupoModo);
-        radioUnJugador.setSelected(controlador.esModoUnJugador());
+        radioUnJugador.setSelected(controlador.esModoUnJugador() && !controlador.esModoEntrenamiento());
         radioUnJugador.setOnAction(e -> actualizarEstadoComboDificultad());
 
         radioDosJugadores = new RadioButton("Dos Jugadores");
@@ -106,7 +113,13 @@ public class DialogoSeleccionModo extends Stage {
         radioDosJugadores.setSelected(!controlador.esModoUnJugador());
         radioDosJugadores.setOnAction(e -> actualizarEstadoComboDificultad());
 
-        panelRadios.getChildren().addAll(radioUnJugador, radioDosJugadores);
+        radioEntrenamiento = new RadioButton("Entrenamiento (tablero reducido con base de datos)");
+        radioEntrenamiento.setTextFill(Color.WHITE);
+        radioEntrenamiento.setToggleGroup(grupoModo);
+        radioEntrenamiento.setSelected(controlador.esModoEntrenamiento());
+        radioEntrenamiento.setOnAction(e -> actualizarEstadoComboDificultad());
+
+        panelRadios.getChildren().addAll(radioUnJugador, radioDosJugadores, radioEntrenamiento);
 
         // Panel de configuración de dificultad
         GridPane panelDificultad = new GridPane();
@@ -145,6 +158,11 @@ public class DialogoSeleccionModo extends Stage {
                 if (radioUnJugador.isSelected()) {
                     int nivelDificultad = comboDificultad.getSelectionModel().getSelectedIndex() + 1;
                     controlador.configurarModoUnJugador(nivelDificultad);
+                } else if (radioEntrenamiento.isSelected()) {
+                    // Sin base de datos el diálogo sigue abierto
+                    if (!abrirBaseDatos()) {
+                        return;
+                    }
                 } else {
                     controlador.configurarModoDosJugadores();
                 }
@@ -184,6 +202,37 @@ public class DialogoSeleccionModo extends Stage {
         return panel;
     }
 
+    /**
+     * Pide el fichero de una base de datos de análisis retrógrado y, si se
+     * puede abrir, configura con ella el modo de entrenamiento.
+     *
+     * @return true si se ha configurado el modo, false si se canceló o hubo un error
+     */
+    private boolean abrirBaseDatos() {
+        FileChooser selector = new FileChooser();
+        selector.setTitle("Abrir base de datos de finales");
+        selector.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("Bases de datos de Conecta 4", "*.c4"),
+                new FileChooser.ExtensionFilter("Todos los ficheros", "*.*"));
+        File fichero = selector.showOpenDialog(this);
+        if (fichero == null) {
+            return false;
+        }
+
+        try {
+            controlador.configurarModoEntrenamiento(BaseDatosFinales.abrir(fichero.toPath()));
+            return true;
+        } catch (IOException ex) {
+            Alert alerta = new Alert(Alert.AlertType.ERROR);
+            alerta.initOwner(this);
+            alerta.setTitle("Entrenamiento");
+            alerta.setHeaderText("No se pudo abrir la base de datos");
+            alerta.setContentText(ex.getMessage());
+            alerta.showAndWait();
+            return false;
+        }
+    }
+
     /**
      * Actualiza el estado del combo de dificultad según el modo seleccionado
      */
@@ -225,9 +274,12 @@ public class DialogoSeleccionModo extends Stage {
     /**
      * Obtiene el modo de juego seleccionado
      *
-     * @return MODO_UN_JUGADOR o MODO_DOS_JUGADORES
+     * @return MODO_UN_JUGADOR, MODO_DOS_JUGADORES o MODO_ENTRENAMIENTO
      */
     public int getModoSeleccionado() {
+        if (radioEntrenamiento.isSelected()) {
+            return MODO_ENTRENAMIENTO;
+        }
         return radioUnJugador.isSelected() ? MODO_UN_JUGADOR : MODO_DOS_JUGADORES;
     }
 
@@ -0,0 +1,328 @@
+package com.alexzafra.conecta4.controller;
+
+import com.alexzafra.conecta4.controller.motor.BaseDatosFinales;
+import com.alexzafra.conecta4.herramientas.AnalisisRetrogrado;
+import com.alexzafra.conecta4.modelos.Tablero;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ControladorJuegoTest {
+    private final ControladorJuego controlador = new ControladorJuego();
+
+    @TempDir
+    Path directorio;
+
+    @AfterEach
+    void cerrar() {
+        controlador.cerrar();
+    }
+
+    @Test
+    void elRegistroGuardaLasJugadasEnOrden() {
+        SplittableRandom random = new SplittableRandom(49);
+        for (int partida = 0; partida < 200; partida++) {
+            controlador.reiniciarJuego();
+            assertEquals(0, controlador.getNumeroJugadas());
+            assertEquals(-1, controlador.getUltimaColumnaMovimiento());
+            assertEquals(-1, controlador.getUltimaFilaMovimiento());
+
+            Tablero referencia = new Tablero();
+            List<Integer> jugadas = new ArrayList<>();
+            int jugador = Tablero.JUGADOR_1;
+            while (!controlador.isJuegoTerminado()) {
+                int columna = random.nextInt(Tablero.COLUMNAS);
+                if (referencia.columnaLlena(columna)) {
+                    assertFalse(controlador.realizarMovimiento(columna));
+                    continue;
+                }
+                assertTrue(controlador.realizarMovimiento(columna));
+                int fila = referencia.obtenerFilaDisponible(columna);
+                referencia.colocarFicha(fila, columna, jugador);
+                jugadas.add(columna);
+                jugador = jugador == Tablero.JUGADOR_1 ? Tablero.JUGADOR_2 : Tablero.JUGADOR_1;
+
+                assertEquals(jugadas.size(), controlador.getNumeroJugadas());
+                assertEquals(columna, controlador.getUltimaColumnaMovimiento());
+                assertEquals(fila, controlador.getUltimaFilaMovimiento());
+            }
+
+            // Con la partida terminada no se anota nada más
+            assertFalse(controlador.realizarMovimiento(0));
+            assertArrayEquals(jugadas.stream().mapToInt(Integer::intValue).toArray(), controlador.getJugadas());
+            for (int i = 0; i < jugadas.size(); i++) {
+                assertEquals(jugadas.get(i), controlador.getColumnaJugada(i));
+                if (i > 0) {
+                    assertTrue(controlador.getInstanteJugada(i) >= controlador.getInstanteJugada(i - 1));
+                }
+            }
+        }
+    }
+
+    @Test
+    void lasJugadasNoValidasNoSeAnotan() {
+        assertFalse(controlador.realizarMovimiento(-1));
+        assertFalse(controlador.realizarMovimiento(Tablero.COLUMNAS));
+        for (int i = 0; i < Tablero.FILAS; i++) {
+            assertTrue(controlador.realizarMovimiento(3));
+        }
+        assertFalse(controlador.realizarMovimiento(3));
+        assertEquals(Tablero.FILAS, controlador.getNumeroJugadas());
+        assertEquals(0, controlador.getUltimaFilaMovimiento());
+    }
+
+    @Test
+    void soloSePuedenConsultarLasJugadasHechas() {
+        controlador.realizarMovimiento(2);
+        assertEquals(2, controlador.getColumnaJugada(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> controlador.getColumnaJugada(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> controlador.getInstanteJugada(-1));
+    }
+
+    @Test
+    void laJugadaDeLaMaquinaTambienSeAnota() {
+        controlador.configurarModoUnJugador(1);
+        assertFalse(controlador.realizarMovimientoMaquina(3));
+        assertTrue(controlador.realizarMovimiento(3));
+        assertTrue(controlador.realizarMovimientoMaquina(4));
+        assertArrayEquals(new int[]{3, 4}, controlador.getJugadas());
+        assertEquals(Tablero.JUGADOR_2, controlador.getTablero().obtenerCasilla(Tablero.FILAS - 1, 4));
+    }
+
+    @Test
+    void deshacerYRehacerDejanLaPartidaComoSiSeRepitiera() {
+        SplittableRandom random = new SplittableRandom(50);
+        List<Integer> hechas = new ArrayList<>();
+        List<Integer> deshechas = new ArrayList<>();
+        for (int paso = 0; paso < 20_000; paso++) {
+            if (paso % 2_000 == 0) {
+                // Cada cierto tiempo, partida nueva sin puntos
+                controlador.reiniciarJuego();
+                controlador.getJugador1().reiniciarPuntuacion();
+                controlador.getJugador2().reiniciarPuntuacion();
+                hechas.clear();
+                deshechas.clear();
+            }
+
+            Partida partida = Partida.repetir(hechas);
+            int accion = random.nextInt(10);
+            if (accion < 2) {
+                assertEquals(!hechas.isEmpty(), controlador.deshacerJugada());
+                if (!hechas.isEmpty()) {
+                    deshechas.add(hechas.remove(hechas.size() - 1));
+                }
+            } else if (accion < 4) {
+                boolean sePuede = !partida.terminada && !deshechas.isEmpty();
+                assertEquals(sePuede, controlador.rehacerJugada());
+                if (sePuede) {
+                    hechas.add(deshechas.remove(deshechas.size() - 1));
+                }
+            } else {
+                int columna = random.nextInt(Tablero.COLUMNAS);
+                boolean valida = !partida.terminada && !partida.tablero.columnaLlena(columna);
+                assertEquals(valida, controlador.realizarMovimiento(columna));
+                if (valida) {
+                    hechas.add(columna);
+                    // Solo la misma jugada que se deshizo conserva las que se pueden rehacer
+                    if (!deshechas.isEmpty() && deshechas.get(deshechas.size() - 1) == columna) {
+                        deshechas.remove(deshechas.size() - 1);
+                    } else {
+                        deshechas.clear();
+                    }
+                }
+            }
+            comprobarIgual(Partida.repetir(hechas), hechas, deshechas, "paso " + paso);
+        }
+    }
+
+    @Test
+    void soloLaJugadaGanadoraDevuelveElPunto() {
+        // El jugador 1 gana en vertical en la columna 0
+        for (int columna : new int[]{0, 1, 0, 1, 0, 1, 0}) {
+            assertTrue(controlador.realizarMovimiento(columna));
+        }
+        assertTrue(controlador.isJuegoTerminado());
+        assertEquals(1, controlador.getJugador1().getPuntuacion());
+        assertFalse(controlador.puedeRehacer());
+
+        assertTrue(controlador.deshacerJugada());
+        assertFalse(controlador.isJuegoTerminado());
+        assertEquals(0, controlador.getJugador1().getPuntuacion());
+
+        // Deshacer jugadas que no ganaron no toca los puntos de nadie
+        controlador.getJugador2().incrementarPuntuacion();
+        assertTrue(controlador.deshacerJugada());
+        assertTrue(controlador.deshacerJugada());
+        assertEquals(0, controlador.getJugador1().getPuntuacion());
+        assertEquals(1, controlador.getJugador2().getPuntuacion());
+
+        // Rehacer la jugada ganadora vuelve a dar el punto
+        while (controlador.puedeRehacer()) {
+            controlador.rehacerJugada();
+        }
+        assertTrue(controlador.isJuegoTerminado());
+        assertEquals(1, controlador.getJugador1().getPuntuacion());
+    }
+
+    @Test
+    void contraLaMaquinaSeDeshaceTambienSuRespuesta() {
+        controlador.configurarModoUnJugador(1);
+        assertTrue(controlador.realizarMovimiento(3));
+        assertTrue(controlador.realizarMovimientoMaquina(2));
+        assertTrue(controlador.realizarMovimiento(4));
+        assertTrue(controlador.realizarMovimientoMaquina(4));
+
+        assertTrue(controlador.deshacerJugada());
+        assertArrayEquals(new int[]{3, 2}, controlador.getJugadas());
+        assertEquals(controlador.getJugador1(), controlador.getJugadorActual());
+
+        assertTrue(controlador.rehacerJugada());
+        assertArrayEquals(new int[]{3, 2, 4, 4}, controlador.getJugadas());
+        assertEquals(controlador.getJugador1(), controlador.getJugadorActual());
+
+        // Si la máquina no llegó a responder, deshacer solo retira la jugada del jugador
+        assertTrue(controlador.realizarMovimiento(5));
+        assertTrue(controlador.deshacerJugada());
+        assertArrayEquals(new int[]{3, 2, 4, 4}, controlador.getJugadas());
+        assertEquals(controlador.getJugador1(), controlador.getJugadorActual());
+    }
+
+    @Test
+    void elEntrenamientoJuegaConLaBaseDeDatosEnSuTablero() throws Exception {
+        BaseDatosFinales base = generarBaseDatos(4, 5);
+        controlador.realizarMovimiento(3);
+        controlador.configurarModoEntrenamiento(base);
+        assertTrue(controlador.esModoEntrenamiento());
+        assertTrue(controlador.esModoUnJugador());
+        assertSame(base, controlador.getIA().getBaseDatos());
+        assertEquals(5, controlador.getTablero().getFilas());
+        assertEquals(4, controlador.getTablero().getColumnas());
+        assertEquals(0, controlador.getNumeroJugadas());
+
+        SplittableRandom random = new SplittableRandom(43);
+        for (int partida = 0; partida < 20; partida++) {
+            controlador.reiniciarJuego();
+            Tablero tablero = controlador.getTablero();
+            while (!controlador.isJuegoTerminado()) {
+                if (controlador.getJugadorActual() == controlador.getJugador1()) {
+                    controlador.realizarMovimiento(random.nextInt(tablero.getColumnas()));
+                    continue;
+                }
+                int esperada = base.mejorColumna(new Tablero(tablero), Tablero.JUGADOR_2);
+                assertTrue(controlador.realizarMovimientoMaquina());
+                assertEquals(esperada, controlador.getUltimaColumnaMovimiento());
+            }
+            assertTrue(controlador.getNumeroJugadas() <= 20);
+        }
+        // La posición inicial de 4x5 es de tablas: jugando perfecto la máquina no pierde nunca
+        assertEquals(0, controlador.getJugador1().getPuntuacion());
+    }
+
+    @Test
+    void cambiarDeModoCierraLaBaseDeDatos() throws Exception {
+        BaseDatosFinales primera = generarBaseDatos(4, 4);
+        controlador.configurarModoEntrenamiento(primera);
+
+        // Otra base de datos sustituye a la primera y cambia el tablero
+        BaseDatosFinales segunda = generarBaseDatos(4, 5);
+        controlador.configurarModoEntrenamiento(segunda);
+        assertFalse(primera.estaAbierta());
+        assertTrue(segunda.estaAbierta());
+        assertEquals(5, controlador.getTablero().getFilas());
+
+        controlador.configurarModoUnJugador(InteligenciaArtificial.NIVEL_FACIL);
+        assertFalse(segunda.estaAbierta());
+        assertFalse(controlador.esModoEntrenamiento());
+        assertTrue(controlador.getTablero().esEstandar());
+        assertNull(controlador.getIA().getBaseDatos());
+
+        BaseDatosFinales tercera = generarBaseDatos(4, 4);
+        controlador.configurarModoEntrenamiento(tercera);
+        controlador.configurarModoDosJugadores();
+        assertFalse(tercera.estaAbierta());
+        assertTrue(controlador.getTablero().esEstandar());
+        for (int i = 0; i < Tablero.FILAS; i++) {
+            assertTrue(controlador.realizarMovimiento(6));
+        }
+    }
+
+    @Test
+    void cerrarElJuegoCierraLaBaseDeDatos() throws Exception {
+        BaseDatosFinales base = generarBaseDatos(4, 4);
+        controlador.configurarModoEntrenamiento(base);
+        controlador.cerrar();
+        assertFalse(base.estaAbierta());
+        assertFalse(controlador.esModoEntrenamiento());
+    }
+
+    /**
+     * Genera una base de datos de un tablero reducido y la abre.
+     */
+    private BaseDatosFinales generarBaseDatos(int columnas, int filas) throws Exception {
+        Path ruta = directorio.resolve(columnas + "x" + filas + "-" + System.nanoTime() + ".c4");
+        AnalisisRetrogrado.main(new String[]{String.valueOf(columnas), String.valueOf(filas), ruta.toString(), "2"});
+        return BaseDatosFinales.abrir(ruta);
+    }
+
+    /**
+     * Compara el controlador con la partida de referencia, casilla a casilla.
+     */
+    private void comprobarIgual(Partida partida, List<Integer> hechas, List<Integer> deshechas, String mensaje) {
+        Tablero tablero = controlador.getTablero();
+        for (int fila = 0; fila < Tablero.FILAS; fila++) {
+            for (int columna = 0; columna < Tablero.COLUMNAS; columna++) {
+                assertEquals(partida.tablero.obtenerCasilla(fila, columna), tablero.obtenerCasilla(fila, columna),
+                        mensaje);
+            }
+        }
+        assertArrayEquals(hechas.stream().mapToInt(Integer::intValue).toArray(), controlador.getJugadas(), mensaje);
+        assertEquals(partida.terminada, controlador.isJuegoTerminado(), mensaje);
+        assertEquals(partida.terminada && partida.ganador == Tablero.VACIO, controlador.isEmpate(), mensaje);
+        assertEquals(partida.ganador == Tablero.JUGADOR_1 ? 1 : 0, controlador.getJugador1().getPuntuacion(), mensaje);
+        assertEquals(partida.ganador == Tablero.JUGADOR_2 ? 1 : 0, controlador.getJugador2().getPuntuacion(), mensaje);
+        if (!partida.terminada) {
+            assertEquals(partida.turno, controlador.getJugadorActual().getId(), mensaje);
+        }
+        assertEquals(!hechas.isEmpty(), controlador.puedeDeshacer(), mensaje);
+        assertEquals(!partida.terminada && !deshechas.isEmpty(), controlador.puedeRehacer(), mensaje);
+    }
+
+    /**
+     * Partida de referencia: repite unas jugadas desde el tablero vacío.
+     */
+    private static final class Partida {
+        final Tablero tablero = new Tablero();
+        int turno = Tablero.JUGADOR_1;
+        int ganador = Tablero.VACIO;
+        boolean terminada;
+
+        static Partida repetir(List<Integer> jugadas) {
+            Partida partida = new Partida();
+            for (int columna : jugadas) {
+                int fila = partida.tablero.obtenerFilaDisponible(columna);
+                partida.tablero.colocarFicha(fila, columna, partida.turno);
+                if (partida.tablero.hayGanador(fila, columna)) {
+                    partida.ganador = partida.turno;
+                    partida.terminada = true;
+                } else if (partida.tablero.tableroLleno()) {
+                    partida.terminada = true;
+                }
+                partida.turno = partida.turno == Tablero.JUGADOR_1 ? Tablero.JUGADOR_2 : Tablero.JUGADOR_1;
+            }
+            return partida;
+        }
+    }
+}
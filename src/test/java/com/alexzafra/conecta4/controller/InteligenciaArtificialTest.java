@@ -0,0 +1,243 @@
+package com.alexzafra.conecta4.controller;
+
+import com.alexzafra.conecta4.controller.motor.EstadisticasBusqueda;
+import com.alexzafra.conecta4.controller.motor.Motor;
+import com.alexzafra.conecta4.controller.motor.PosicionBitboard;
+import com.alexzafra.conecta4.controller.motor.ResultadoAnalisis;
+import com.alexzafra.conecta4.controller.motor.TokenCancelacion;
+import com.alexzafra.conecta4.modelos.Tablero;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InteligenciaArtificialTest {
+
+    @Test
+    void enUnTableroReducidoTodosLosNivelesJueganColumnasValidas() {
+        SplittableRandom random = new SplittableRandom(43);
+        for (int nivel = InteligenciaArtificial.NIVEL_FACIL; nivel <= InteligenciaArtificial.NIVEL_DEMENCIAL; nivel++) {
+            for (int partida = 0; partida < 10; partida++) {
+                Tablero tablero = new Tablero(4 + random.nextInt(2), 4 + random.nextInt(3));
+                InteligenciaArtificial ia = new InteligenciaArtificial(tablero, nivel, partida);
+                jugarContraLaMaquina(tablero, ia, random);
+            }
+        }
+    }
+
+    @Test
+    void unAnalisisDespuesDeUnaParadaLlegaALaProfundidadPedida() {
+        Tablero tablero = new Tablero();
+        InteligenciaArtificial ia = new InteligenciaArtificial(tablero, InteligenciaArtificial.NIVEL_DEMENCIAL, 36);
+        ia.analizar(tablero, Tablero.JUGADOR_2, 4, 0, null);
+
+        // Lo mismo que hace el vigilante al llegar al límite duro
+        ia.detenerBusqueda();
+        ResultadoAnalisis resultado = ia.analizar(tablero, Tablero.JUGADOR_2, 8, 0, null);
+        assertEquals(8, resultado.getProfundidad());
+    }
+
+    @Test
+    void lasEstadisticasDeUnaJugadaSeVenDesdeOtroHilo() throws InterruptedException {
+        Tablero tablero = new Tablero();
+        colocar(tablero, 3, 3);
+        InteligenciaArtificial ia = new InteligenciaArtificial(tablero, InteligenciaArtificial.NIVEL_DEMENCIAL, 36);
+        ia.setLimiteDuroMs(0);
+
+        // Como en la interfaz: la jugada se calcula en otro hilo sobre una copia
+        Thread hilo = new Thread(() -> ia.obtenerColumnaMovimiento(new Tablero(tablero), Tablero.JUGADOR_1,
+                Tablero.JUGADOR_2, TokenCancelacion.NINGUNO));
+        hilo.start();
+        hilo.join();
+
+        comprobarEstadisticas(ia.getUltimasEstadisticas());
+    }
+
+    @Test
+    void lasEstadisticasDeUnAnalisisTienenSuProfundidad() {
+        Tablero tablero = new Tablero();
+        InteligenciaArtificial ia = new InteligenciaArtificial(tablero, InteligenciaArtificial.NIVEL_DEMENCIAL, 36);
+        ResultadoAnalisis resultado = ia.analizar(tablero, Tablero.JUGADOR_2, 8, 0, null);
+
+        EstadisticasBusqueda estadisticas = ia.getUltimasEstadisticas();
+        comprobarEstadisticas(estadisticas);
+        assertEquals(resultado.getProfundidad(), estadisticas.getProfundidad());
+    }
+
+    @Test
+    void elNivelDemencialJuegaDentroDelLimiteDuro() {
+        Tablero tablero = new Tablero();
+        InteligenciaArtificial ia = new InteligenciaArtificial(tablero, InteligenciaArtificial.NIVEL_DEMENCIAL, 36);
+        // Sin presupuesto la búsqueda solo la para el límite duro
+        ia.setPresupuestoMs(0);
+        ia.setLimiteDuroMs(400);
+        colocar(tablero, 3, 3, 2, 4);
+
+        long inicio = System.nanoTime();
+        int columna = ia.obtenerColumnaMovimiento(Tablero.JUGADOR_1, Tablero.JUGADOR_2);
+        long duracionMs = (System.nanoTime() - inicio) / 1_000_000L;
+
+        assertTrue(columna >= 0 && columna < Tablero.COLUMNAS, "columna " + columna);
+        assertTrue(duracionMs <= 400, duracionMs + " ms");
+        assertTrue(ia.getUltimasEstadisticas().getProfundidad() > 0);
+        assertEquals(0, ia.getTotalFallosLatencia());
+    }
+
+    @Test
+    void elVigilanteDetieneAlMotorAsignadoAlLlegarAlLimite() {
+        InteligenciaArtificial ia = new InteligenciaArtificial(new Tablero(), InteligenciaArtificial.NIVEL_DEMENCIAL, 36);
+        MotorLento lento = new MotorLento(true);
+        ia.setMotor(lento);
+        ia.setLimiteDuroMs(200);
+
+        assertEquals(MotorLento.COLUMNA, ia.obtenerColumnaMovimiento(Tablero.JUGADOR_1, Tablero.JUGADOR_2));
+        assertEquals(0, lento.parada.getCount());
+        assertEquals(0, ia.getTotalFallosLatencia());
+    }
+
+    @Test
+    void unaJugadaQueSuperaElLimiteSeJuegaYSeRegistra() {
+        InteligenciaArtificial ia = new InteligenciaArtificial(new Tablero(), InteligenciaArtificial.NIVEL_DEMENCIAL, 36);
+        ia.setMotor(new MotorLento(false));
+        ia.setLimiteDuroMs(100);
+
+        assertEquals(MotorLento.COLUMNA, ia.obtenerColumnaMovimiento(Tablero.JUGADOR_1, Tablero.JUGADOR_2));
+        assertEquals(1, ia.getTotalFallosLatencia());
+        List<FalloLatencia> fallos = ia.getFallosLatencia();
+        assertEquals(1, fallos.size());
+        assertEquals(100, fallos.get(0).getLimiteMs());
+        assertEquals(InteligenciaArtificial.NIVEL_DEMENCIAL, fallos.get(0).getNivel());
+        assertTrue(fallos.get(0).getDuracionMs() > 100, fallos.get(0).getDuracionMs() + " ms");
+        assertFalse(fallos.get(0).getCausa().isEmpty());
+    }
+
+    @Test
+    void lasPosicionesBitboardSoloSonDe6x7() {
+        assertThrows(IllegalArgumentException.class,
+                () -> PosicionBitboard.desdeTablero(new Tablero(5, 4), Tablero.JUGADOR_1));
+    }
+
+    private static void comprobarEstadisticas(EstadisticasBusqueda estadisticas) {
+        assertTrue(estadisticas.getNodos() > 0, "nodos " + estadisticas.getNodos());
+        assertTrue(estadisticas.getProfundidad() > 0, "profundidad " + estadisticas.getProfundidad());
+        assertTrue(estadisticas.getSondeosTabla() > 0, "sondeos " + estadisticas.getSondeosTabla());
+        double tasa = estadisticas.getTasaAciertosTabla();
+        assertTrue(tasa >= 0.0 && tasa <= 1.0, "tasa de aciertos " + tasa);
+    }
+
+    /**
+     * Coloca fichas alternando jugadores, empezando por el jugador 1.
+     */
+    private static void colocar(Tablero tablero, int... columnas) {
+        int jugador = Tablero.JUGADOR_1;
+        for (int columna : columnas) {
+            tablero.colocarFicha(tablero.obtenerFilaDisponible(columna), columna, jugador);
+            jugador = jugador == Tablero.JUGADOR_1 ? Tablero.JUGADOR_2 : Tablero.JUGADOR_1;
+        }
+    }
+
+    /**
+     * Juega una partida con jugadas al azar del jugador 1 y comprueba cada
+     * jugada de la máquina.
+     */
+    private static void jugarContraLaMaquina(Tablero tablero, InteligenciaArtificial ia, SplittableRandom random) {
+        int jugador = Tablero.JUGADOR_1;
+        while (!tablero.tableroLleno()) {
+            int columna;
+            if (jugador == Tablero.JUGADOR_1) {
+                do {
+                    columna = random.nextInt(tablero.getColumnas());
+                } while (tablero.columnaLlena(columna));
+            } else {
+                columna = ia.obtenerColumnaMovimiento(Tablero.JUGADOR_1, Tablero.JUGADOR_2);
+                assertTrue(columna >= 0 && columna < tablero.getColumnas() && !tablero.columnaLlena(columna),
+                        "columna " + columna);
+            }
+            int fila = tablero.obtenerFilaDisponible(columna);
+            tablero.colocarFicha(fila, columna, jugador);
+            if (tablero.hayGanador(fila, columna)) {
+                return;
+            }
+            jugador = jugador == Tablero.JUGADOR_1 ? Tablero.JUGADOR_2 : Tablero.JUGADOR_1;
+        }
+    }
+
+    /**
+     * Motor que tarda un segundo en cada jugada. Si atiende a detener() la
+     * termina en cuanto se le pide.
+     */
+    private static final class MotorLento implements Motor {
+        static final int COLUMNA = 2;
+
+        private final boolean atiendeParada;
+        private final CountDownLatch parada = new CountDownLatch(1);
+
+        MotorLento(boolean atiendeParada) {
+            this.atiendeParada = atiendeParada;
+        }
+
+        @Override
+        public String getNombre() {
+            return "lento";
+        }
+
+        @Override
+        public int elegirColumna(PosicionBitboard posicion) {
+            try {
+                if (atiendeParada) {
+                    parada.await(1, TimeUnit.SECONDS);
+                } else {
+                    Thread.sleep(300);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return COLUMNA;
+        }
+
+        @Override
+        public ResultadoAnalisis analizar(PosicionBitboard posicion, Consumer<ResultadoAnalisis> oyente) {
+            return null;
+        }
+
+        @Override
+        public void setPresupuestoMs(long presupuestoMs) {
+        }
+
+        @Override
+        public void detener() {
+            parada.countDown();
+        }
+
+        @Override
+        public void reanudar() {
+        }
+
+        @Override
+        public void setCancelacion(TokenCancelacion cancelacion) {
+        }
+
+        @Override
+        public EstadisticasBusqueda getEstadisticas() {
+            return null;
+        }
+
+        @Override
+        public int getMemoriaMegabytes() {
+            return 0;
+        }
+
+        @Override
+        public int getHilos() {
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.alexzafra.conecta4.controller.motor;
+
+import com.alexzafra.conecta4.herramientas.AnalisisRetrogrado;
+import com.alexzafra.conecta4.modelos.Tablero;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BaseDatosFinalesTest {
+
+    @TempDir
+    static Path directorio;
+
+    private static BaseDatosFinales base4x4;
+    private static BaseDatosFinales base4x5;
+
+    @BeforeAll
+    static void generarBasesDeDatos() throws Exception {
+        base4x4 = generar(4, 4);
+        base4x5 = generar(4, 5);
+    }
+
+    @AfterAll
+    static void cerrarBasesDeDatos() throws IOException {
+        base4x4.close();
+        base4x5.close();
+    }
+
+    @Test
+    void todasLasPosicionesDe4x4CoincidenConLaFuerzaBruta() {
+        // Resolver desde el tablero vacío deja en la memoria el valor de todas
+        // las posiciones que ha visitado la referencia
+        Referencia referencia = new Referencia(base4x4.getGeometria());
+        referencia.resultado(0L, 0L);
+        assertTrue(referencia.memoria.size() > 100_000);
+        referencia.memoria.forEach((clave, resultado) ->
+                assertEquals(valorEsperado(resultado), valorBase(base4x4, clave.propias(), clave.mascara()),
+                        "posición " + clave));
+    }
+
+    @Test
+    void lasPosicionesAleatoriasDe4x5CoincidenConLaFuerzaBruta() {
+        GeometriaTablero geometria = base4x5.getGeometria();
+        Referencia referencia = new Referencia(geometria);
+        SplittableRandom random = new SplittableRandom(43);
+        for (int i = 0; i < 2000; i++) {
+            long[] posicion = posicionAleatoria(geometria, random, 6 + random.nextInt(12));
+            if (posicion == null) {
+                continue;
+            }
+            assertEquals(valorEsperado(referencia.resultado(posicion[0], posicion[1])),
+                    valorBase(base4x5, posicion[0], posicion[1]), "posición " + i);
+        }
+    }
+
+    @Test
+    void mejorColumnaNuncaEmpeoraElResultado() {
+        GeometriaTablero geometria = base4x5.getGeometria();
+        Referencia referencia = new Referencia(geometria);
+        SplittableRandom random = new SplittableRandom(431);
+        long[] bitboards = new long[2];
+        for (int partida = 0; partida < 100; partida++) {
+            Tablero tablero = new Tablero(geometria.getFilas(), geometria.getColumnas());
+            int jugador = Tablero.JUGADOR_1;
+            while (!tablero.tableroLleno()) {
+                geometria.desdeTablero(tablero, jugador, bitboards);
+                int esperado = referencia.resultado(bitboards[0], bitboards[1]);
+
+                int columna = base4x5.mejorColumna(tablero, jugador);
+                assertTrue(columna >= 0 && !tablero.columnaLlena(columna), "columna " + columna);
+                long casilla = geometria.movimiento(bitboards[1], columna);
+                if (geometria.hayAlineacion(bitboards[0] | casilla)) {
+                    assertEquals(1, esperado);
+                } else {
+                    assertEquals(esperado, -referencia.resultado(bitboards[0] ^ bitboards[1], bitboards[1] | casilla));
+                }
+
+                // La partida sigue con una jugada cualquiera
+                columna = random.nextInt(geometria.getColumnas());
+                if (tablero.columnaLlena(columna)) {
+                    continue;
+                }
+                int fila = tablero.obtenerFilaDisponible(columna);
+                tablero.colocarFicha(fila, columna, jugador);
+                if (tablero.hayGanador(fila, columna)) {
+                    break;
+                }
+                jugador = jugador == Tablero.JUGADOR_1 ? Tablero.JUGADOR_2 : Tablero.JUGADOR_1;
+            }
+        }
+    }
+
+    @Test
+    void unTableroDeOtroTamanoNoTieneJugada() {
+        assertEquals(-1, base4x5.mejorColumna(new Tablero(), Tablero.JUGADOR_1));
+        assertEquals(-1, base4x5.mejorColumna(new Tablero(4, 5), Tablero.JUGADOR_1));
+    }
+
+    @Test
+    void noAbreFicherosQueNoSonBasesDeDatos() throws IOException {
+        Path ruta = directorio.resolve("otro.c4");
+        Files.write(ruta, new byte[BaseDatosFinales.BYTES_CABECERA]);
+        assertThrows(IOException.class, () -> BaseDatosFinales.abrir(ruta));
+    }
+
+    private static BaseDatosFinales generar(int columnas, int filas) throws Exception {
+        Path ruta = directorio.resolve(columnas + "x" + filas + ".c4");
+        AnalisisRetrogrado.main(new String[]{String.valueOf(columnas), String.valueOf(filas), ruta.toString(), "2"});
+        return BaseDatosFinales.abrir(ruta);
+    }
+
+    /**
+     * Consulta la base de datos con las fichas del jugador con turno.
+     */
+    private static int valorBase(BaseDatosFinales base, long propias, long mascara) {
+        boolean empieza = (Long.bitCount(mascara) & 1) == 0;
+        return base.valor(empieza ? propias : propias ^ mascara, mascara);
+    }
+
+    private static int valorEsperado(int resultado) {
+        return resultado > 0 ? BaseDatosFinales.VICTORIA
+                : resultado < 0 ? BaseDatosFinales.DERROTA : BaseDatosFinales.TABLAS;
+    }
+
+    /**
+     * Juega una partida al azar de unas fichas sin que nadie haga cuatro en línea.
+     * @return Fichas del jugador con turno y máscara, o null si no se ha podido
+     */
+    private static long[] posicionAleatoria(GeometriaTablero geometria, SplittableRandom random, int fichas) {
+        long propias = 0L;
+        long mascara = 0L;
+        for (int i = 0; i < fichas; i++) {
+            long posibles = geometria.movimientosPosibles(mascara);
+            long casilla = 0L;
+            for (int intento = 0; intento < 20 && casilla == 0L; intento++) {
+                long candidata = geometria.movimiento(mascara, random.nextInt(geometria.getColumnas())) & posibles;
+                if (candidata != 0L && !geometria.hayAlineacion(propias | candidata)) {
+                    casilla = candidata;
+                }
+            }
+            if (casilla == 0L) {
+                return null;
+            }
+            propias ^= mascara;
+            mascara |= casilla;
+        }
+        return new long[]{propias, mascara};
+    }
+
+    private record Clave(long propias, long mascara) {
+    }
+
+    /**
+     * Minimax completo sobre una geometría cualquiera, con memoria.
+     */
+    private static final class Referencia {
+        private final GeometriaTablero geometria;
+        private final Map<Clave, Integer> memoria = new HashMap<>();
+
+        Referencia(GeometriaTablero geometria) {
+            this.geometria = geometria;
+        }
+
+        /**
+         * Resultado para el jugador con turno en una posición sin cuatro en línea.
+         * @return 1 si gana, 0 si son tablas, -1 si pierde
+         */
+        int resultado(long propias, long mascara) {
+            Clave clave = new Clave(propias, mascara);
+            Integer conocido = memoria.get(clave);
+            if (conocido != null) {
+                return conocido;
+            }
+
+            long posibles = geometria.movimientosPosibles(mascara);
+            int mejor = posibles == 0L ? 0 : -1;
+            for (long resto = posibles; resto != 0L && mejor < 1; resto &= resto - 1) {
+                if (geometria.hayAlineacion(propias | Long.lowestOneBit(resto))) {
+                    mejor = 1;
+                }
+            }
+            for (long resto = posibles; resto != 0L && mejor < 1; resto &= resto - 1) {
+                mejor = Math.max(mejor, -resultado(propias ^ mascara, mascara | Long.lowestOneBit(resto)));
+            }
+            memoria.put(clave, mejor);
+            return mejor;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.alexzafra.conecta4.controller.motor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BusquedaAmenazasTest {
+    private static final int CASILLAS = PosicionBitboard.ANCHO * PosicionBitboard.ALTO;
+
+    @Test
+    void lasVictoriasEncontradasSonVictoriasReales() {
+        BusquedaAmenazas amenazas = new BusquedaAmenazas();
+        SplittableRandom random = new SplittableRandom(34);
+        int encontradas = 0;
+        for (int i = 0; i < 400; i++) {
+            PosicionBitboard p = ReferenciaFuerzaBruta.posicionAleatoria(random, 30 + random.nextInt(6));
+            int columna = amenazas.buscarVictoria(p, CASILLAS);
+            if (columna < 0) {
+                continue;
+            }
+            encontradas++;
+
+            // La victoria llega como mucho en getLongitud() jugadas del atacante
+            int valor = ReferenciaFuerzaBruta.puntuacion(p);
+            int longitud = amenazas.getLongitud();
+            assertTrue(valor >= (CASILLAS + 1 - p.getMovimientos()) / 2 - (longitud - 1),
+                    "valor " + valor + " con longitud " + longitud);
+
+            // Y empieza por la columna devuelta
+            assertTrue(p.puedeJugar(columna));
+            if (!p.esMovimientoGanador(columna)) {
+                p.jugar(columna);
+                assertTrue(ReferenciaFuerzaBruta.puntuacion(p) < 0);
+            }
+        }
+        assertTrue(encontradas > 0, "ninguna posición con victoria por amenazas");
+    }
+
+    @Test
+    void encuentraLaVictoriaInmediata() {
+        // Tres en línea horizontal abajo con el hueco de la columna 4 libre
+        PosicionBitboard p = PosicionBitboard.desdeSecuencia("112233");
+        BusquedaAmenazas amenazas = new BusquedaAmenazas();
+        assertEquals(3, amenazas.buscarVictoria(p, 1));
+        assertEquals(1, amenazas.getLongitud());
+    }
+
+    @Test
+    void encuentraLaDobleAmenaza() {
+        // Con 3 o 6 quedan dos casillas ganadoras abajo y el rival solo tapa una
+        PosicionBitboard p = PosicionBitboard.desdeSecuencia("4455");
+        BusquedaAmenazas amenazas = new BusquedaAmenazas();
+        int columna = amenazas.buscarVictoria(p, 3);
+        assertTrue(columna == 2 || columna == 5, "columna " + columna);
+        assertEquals(2, amenazas.getLongitud());
+    }
+
+    @Test
+    void respetaLaProfundidadMaxima() {
+        // Sin jugadas amenazantes permitidas solo vale la victoria inmediata
+        BusquedaAmenazas amenazas = new BusquedaAmenazas();
+        assertEquals(-1, amenazas.buscarVictoria(PosicionBitboard.desdeSecuencia("4455"), 0));
+
+        // Con una, la victoria llega como mucho con la segunda ficha del atacante
+        SplittableRandom random = new SplittableRandom(341);
+        for (int i = 0; i < 200; i++) {
+            PosicionBitboard p = ReferenciaFuerzaBruta.posicionAleatoria(random, 20 + random.nextInt(16));
+            if (amenazas.buscarVictoria(p, 1) >= 0) {
+                assertTrue(amenazas.getLongitud() <= 2);
+            }
+        }
+    }
+
+    @Test
+    void unTokenCanceladoNoDevuelveNada() {
+        BusquedaAmenazas amenazas = new BusquedaAmenazas();
+        TokenCancelacion token = new TokenCancelacion();
+        token.cancelar();
+        amenazas.setCancelacion(token);
+        assertEquals(-1, amenazas.buscarVictoria(PosicionBitboard.desdeSecuencia("4455"), 3));
+    }
+}
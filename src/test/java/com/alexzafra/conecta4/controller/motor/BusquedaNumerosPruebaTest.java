@@ -0,0 +1,76 @@
+package com.alexzafra.conecta4.controller.motor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BusquedaNumerosPruebaTest {
+    private static final int POSICIONES = 150;
+
+    @Test
+    void resolverCoincideConLaFuerzaBruta() {
+        // Tabla pequeña para que también se sustituyan nodos
+        BusquedaNumerosPrueba busqueda = new BusquedaNumerosPrueba(1);
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < POSICIONES; i++) {
+            PosicionBitboard p = ReferenciaFuerzaBruta.posicionAleatoria(random, 30 + random.nextInt(6));
+            assertEquals(ReferenciaFuerzaBruta.resultado(p), busqueda.resolver(p), "posición " + i);
+        }
+    }
+
+    @Test
+    void demostrarCadaObjetivoCoincideConLaFuerzaBruta() {
+        BusquedaNumerosPrueba busqueda = new BusquedaNumerosPrueba(1);
+        SplittableRandom random = new SplittableRandom(421);
+        for (int i = 0; i < POSICIONES; i++) {
+            PosicionBitboard p = ReferenciaFuerzaBruta.posicionAleatoria(random, 30 + random.nextInt(6));
+            int resultado = ReferenciaFuerzaBruta.resultado(p);
+            assertEquals(resultado > 0 ? BusquedaNumerosPrueba.DEMOSTRADO : BusquedaNumerosPrueba.REFUTADO,
+                    busqueda.demostrar(p, true));
+            assertEquals(resultado < 0 ? BusquedaNumerosPrueba.DEMOSTRADO : BusquedaNumerosPrueba.REFUTADO,
+                    busqueda.demostrar(p, false));
+        }
+    }
+
+    @Test
+    void buscarVictoriaDevuelveUnaJugadaGanadora() {
+        BusquedaNumerosPrueba busqueda = new BusquedaNumerosPrueba(1);
+        SplittableRandom random = new SplittableRandom(422);
+        int ganadas = 0;
+        for (int i = 0; i < POSICIONES; i++) {
+            PosicionBitboard p = ReferenciaFuerzaBruta.posicionAleatoria(random, 30 + random.nextInt(6));
+            int columna = busqueda.buscarVictoria(p);
+            if (ReferenciaFuerzaBruta.resultado(p) <= 0) {
+                assertEquals(-1, columna);
+                continue;
+            }
+
+            ganadas++;
+            assertTrue(columna >= 0 && p.puedeJugar(columna), "columna " + columna);
+            if (!p.esMovimientoGanador(columna)) {
+                p.jugar(columna);
+                assertTrue(ReferenciaFuerzaBruta.resultado(p) < 0);
+            }
+        }
+        assertTrue(ganadas > 0);
+    }
+
+    @Test
+    void sinNodosSuficientesElResultadoEsDesconocido() {
+        BusquedaNumerosPrueba busqueda = new BusquedaNumerosPrueba(1);
+        busqueda.setLimiteNodos(100);
+        assertEquals(BusquedaNumerosPrueba.DESCONOCIDO, busqueda.resolver(new PosicionBitboard()));
+    }
+
+    @Test
+    void unTokenCanceladoDejaElResultadoDesconocido() {
+        BusquedaNumerosPrueba busqueda = new BusquedaNumerosPrueba(1);
+        TokenCancelacion token = new TokenCancelacion();
+        token.cancelar();
+        busqueda.setCancelacion(token);
+        assertEquals(BusquedaNumerosPrueba.DESCONOCIDO, busqueda.resolver(new PosicionBitboard()));
+    }
+}
@@ -0,0 +1,155 @@
+package com.alexzafra.conecta4.controller.motor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CachePersistenteTest {
+    private static final int CASILLAS = PosicionBitboard.ANCHO * PosicionBitboard.ALTO;
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void lasEntradasSobrevivenACerrarYAbrir() throws IOException {
+        Path ruta = directorio.resolve("cache.c4c");
+        try (CachePersistente cache = CachePersistente.abrir(ruta, 1024)) {
+            assertEquals(1, cache.getGeneracion());
+            cache.guardar(12345L, -99_950, 4);
+            cache.guardar(67890L, 0, -1);
+        }
+        try (CachePersistente cache = CachePersistente.abrir(ruta, 1024)) {
+            assertEquals(2, cache.getGeneracion());
+            assertEquals(2, cache.getOcupadas());
+
+            long resultado = cache.consultar(12345L);
+            assertNotEquals(CachePersistente.NO_ENCONTRADA, resultado);
+            assertEquals(-99_950, CachePersistente.valor(resultado));
+            assertEquals(4, CachePersistente.columna(resultado));
+
+            resultado = cache.consultar(67890L);
+            assertNotEquals(CachePersistente.NO_ENCONTRADA, resultado);
+            assertEquals(0, CachePersistente.valor(resultado));
+            assertEquals(-1, CachePersistente.columna(resultado));
+
+            assertEquals(CachePersistente.NO_ENCONTRADA, cache.consultar(11111L));
+        }
+    }
+
+    @Test
+    void unFicheroDeOtroTamanoEmpiezaVacio() throws IOException {
+        Path ruta = directorio.resolve("cache.c4c");
+        try (CachePersistente cache = CachePersistente.abrir(ruta, 1024)) {
+            cache.guardar(12345L, 1, 0);
+        }
+        try (CachePersistente cache = CachePersistente.abrir(ruta, 2048)) {
+            assertEquals(0, cache.getOcupadas());
+        }
+    }
+
+    @Test
+    void seSustituyeLaEntradaUsadaHaceMasGeneraciones() throws IOException {
+        // Con cuatro entradas toda la caché es una cubeta
+        Path ruta = directorio.resolve("cache.c4c");
+        try (CachePersistente cache = CachePersistente.abrir(ruta, 4)) {
+            for (long clave = 1; clave <= 4; clave++) {
+                cache.guardar(clave, (int) clave, 0);
+            }
+        }
+        try (CachePersistente cache = CachePersistente.abrir(ruta, 4)) {
+            cache.consultar(1L);
+            cache.consultar(2L);
+            cache.consultar(4L);
+            cache.guardar(5L, 5, 0);
+
+            assertEquals(CachePersistente.NO_ENCONTRADA, cache.consultar(3L));
+            for (long clave : new long[]{1, 2, 4, 5}) {
+                assertEquals(clave, CachePersistente.valor(cache.consultar(clave)));
+            }
+        }
+    }
+
+    @Test
+    void compactarEliminaLasEntradasSinUsar() throws IOException {
+        Path ruta = directorio.resolve("cache.c4c");
+        try (CachePersistente cache = CachePersistente.abrir(ruta, 1024)) {
+            cache.guardar(1L, 1, 0);
+            cache.guardar(2L, 2, 0);
+        }
+        try (CachePersistente cache = CachePersistente.abrir(ruta, 1024)) {
+            cache.consultar(1L);
+            assertEquals(1, cache.compactar(0));
+            assertEquals(1, CachePersistente.valor(cache.consultar(1L)));
+            assertEquals(CachePersistente.NO_ENCONTRADA, cache.consultar(2L));
+        }
+    }
+
+    @Test
+    void noSePuedeAbrirDosVeces() throws IOException {
+        Path ruta = directorio.resolve("cache.c4c");
+        try (CachePersistente cache = CachePersistente.abrir(ruta, 1024)) {
+            assertThrows(IOException.class, () -> CachePersistente.abrir(ruta, 1024));
+        }
+    }
+
+    @Test
+    void lasFichasDeUnaClaveSonLasDeSuPosicion() {
+        SplittableRandom random = new SplittableRandom(41);
+        for (int i = 0; i < 1000; i++) {
+            PosicionBitboard p = ReferenciaFuerzaBruta.posicionAleatoria(random, random.nextInt(CASILLAS));
+            assertEquals(p.getMovimientos(), CachePersistente.movimientosDeClave(p.clave()));
+        }
+    }
+
+    @Test
+    void soloGuardaValoresDemostrados() throws IOException {
+        // Análisis completos de finales: lo que llega a la caché debe coincidir con la fuerza bruta
+        TablaTransposicion tabla = new TablaTransposicion(1);
+        BuscadorAlfaBeta buscador = new BuscadorAlfaBeta(tabla, new EvaluadorParidad(new EvaluadorVentanas()));
+        SplittableRandom random = new SplittableRandom(411);
+        for (int i = 0; i < 40; i++) {
+            buscador.analizar(ReferenciaFuerzaBruta.posicionAleatoria(random, 30 + random.nextInt(4)), CASILLAS, 0, null);
+        }
+
+        try (CachePersistente cache = CachePersistente.abrir(directorio.resolve("cache.c4c"), 1 << 16)) {
+            assertTrue(cache.guardarDesde(tabla) > 0);
+            int[] comprobadas = new int[1];
+            tabla.recorrer((clave, datos) -> {
+                long resultado = cache.consultar(clave);
+                if (resultado == CachePersistente.NO_ENCONTRADA) {
+                    return;
+                }
+                comprobadas[0]++;
+                int esperado = ReferenciaFuerzaBruta.resultado(desdeClave(clave));
+                assertEquals(esperado, Integer.signum(CachePersistente.valor(resultado)), "clave " + clave);
+            });
+            assertTrue(comprobadas[0] > 0);
+        }
+    }
+
+    /**
+     * Reconstruye la posición de una clave: en cada columna la clave vale
+     * fichas del jugador con turno + máscara de la columna.
+     */
+    private static PosicionBitboard desdeClave(long clave) {
+        long propias = 0;
+        long mascara = 0;
+        for (int columna = 0; columna < PosicionBitboard.ANCHO; columna++) {
+            int desplazamiento = columna * PosicionBitboard.ALTO_BITS;
+            long bits = (clave >>> desplazamiento) & ((1L << PosicionBitboard.ALTO_BITS) - 1);
+            int altura = 63 - Long.numberOfLeadingZeros(bits + 1);
+            long columnaMascara = (1L << altura) - 1;
+            mascara |= columnaMascara << desplazamiento;
+            propias |= (bits - columnaMascara) << desplazamiento;
+        }
+        return new PosicionBitboard(propias, mascara, Long.bitCount(mascara));
+    }
+}
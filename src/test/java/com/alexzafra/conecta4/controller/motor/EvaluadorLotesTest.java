@@ -0,0 +1,74 @@
+package com.alexzafra.conecta4.controller.motor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EvaluadorLotesTest {
+    private static final int CASILLAS = PosicionBitboard.ANCHO * PosicionBitboard.ALTO;
+
+    @Test
+    void variosHilosConUnaTablaCompartidaDanElValorReal() throws Exception {
+        SplittableRandom random = new SplittableRandom(38);
+        int total = 300;
+        long[] posiciones = new long[total * EvaluadorLotes.LONGS_POR_POSICION];
+        for (int i = 0; i < total; i++) {
+            EvaluadorLotes.empaquetar(ReferenciaFuerzaBruta.posicionAleatoria(random, 30 + random.nextInt(6)),
+                    posiciones, i);
+        }
+
+        // Tabla mínima para que los hilos se pisen las entradas
+        int[] puntuaciones = new int[total];
+        try (EvaluadorLotes lotes = new EvaluadorLotes(new TablaTransposicion(0),
+                () -> new EvaluadorParidad(new EvaluadorVentanas()), 3)) {
+            lotes.valorar(posiciones, puntuaciones, CASILLAS);
+        }
+
+        for (int i = 0; i < total; i++) {
+            long mascara = posiciones[i * EvaluadorLotes.LONGS_POR_POSICION + 1];
+            PosicionBitboard p = new PosicionBitboard(posiciones[i * EvaluadorLotes.LONGS_POR_POSICION],
+                    mascara, Long.bitCount(mascara));
+            assertEquals(ReferenciaFuerzaBruta.resultado(p), Integer.signum(puntuaciones[i]), "posición " + i);
+        }
+    }
+
+    @Test
+    void evaluarDaLoMismoQueElEvaluadorDeVentanas() throws Exception {
+        SplittableRandom random = new SplittableRandom(381);
+        int total = 1000;
+        long[] posiciones = new long[total * EvaluadorLotes.LONGS_POR_POSICION];
+        for (int i = 0; i < total; i++) {
+            EvaluadorLotes.empaquetar(ReferenciaFuerzaBruta.posicionAleatoria(random, random.nextInt(CASILLAS - 8)),
+                    posiciones, i);
+        }
+
+        int[] puntuaciones = new int[total];
+        try (EvaluadorLotes lotes = new EvaluadorLotes(new TablaTransposicion(0), EvaluadorVentanas::new, 2)) {
+            lotes.evaluar(posiciones, puntuaciones);
+        }
+
+        EvaluadorVentanas ventanas = new EvaluadorVentanas();
+        for (int i = 0; i < total; i++) {
+            long mascara = posiciones[i * EvaluadorLotes.LONGS_POR_POSICION + 1];
+            PosicionBitboard p = new PosicionBitboard(posiciones[i * EvaluadorLotes.LONGS_POR_POSICION],
+                    mascara, Long.bitCount(mascara));
+            assertEquals(ventanas.evaluar(p), puntuaciones[i], "posición " + i);
+        }
+    }
+
+    @Test
+    void unTokenCanceladoCortaElLote() {
+        long[] posiciones = new long[10 * EvaluadorLotes.LONGS_POR_POSICION];
+        int[] puntuaciones = new int[10];
+        TokenCancelacion token = new TokenCancelacion();
+        token.cancelar();
+        try (EvaluadorLotes lotes = new EvaluadorLotes(new TablaTransposicion(0), EvaluadorVentanas::new, 2)) {
+            lotes.setCancelacion(token);
+            assertThrows(CancellationException.class, () -> lotes.valorar(posiciones, puntuaciones, 4));
+        }
+    }
+}
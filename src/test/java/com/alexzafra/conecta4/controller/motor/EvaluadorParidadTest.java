@@ -0,0 +1,48 @@
+package com.alexzafra.conecta4.controller.motor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EvaluadorParidadTest {
+
+    @Test
+    void laCotaClaimevenNuncaSuperaElValorReal() {
+        SplittableRandom random = new SplittableRandom(35);
+        int tablas = 0;
+        int derrotas = 0;
+        for (int i = 0; i < 20_000 && (tablas < 40 || derrotas < 40); i++) {
+            // Solo con un número par de fichas pueden quedar todas las columnas pares
+            PosicionBitboard p = ReferenciaFuerzaBruta.posicionAleatoria(random, 28 + 2 * random.nextInt(4));
+            int cota = EvaluadorParidad.cotaClaimeven(p);
+            if (cota == EvaluadorParidad.SIN_COTA) {
+                continue;
+            }
+
+            int valor = ReferenciaFuerzaBruta.puntuacion(p);
+            if (cota == EvaluadorParidad.COTA_DERROTA) {
+                derrotas++;
+                assertTrue(valor < 0, "cota de derrota con valor " + valor);
+            } else {
+                tablas++;
+                assertTrue(valor <= 0, "cota de tablas con valor " + valor);
+            }
+        }
+        assertTrue(tablas > 0 && derrotas > 0, "tablas " + tablas + ", derrotas " + derrotas);
+    }
+
+    @Test
+    void conUnaColumnaImparNoHayCota() {
+        // Tras una ficha la columna 4 tiene cinco casillas libres
+        assertEquals(EvaluadorParidad.SIN_COTA, EvaluadorParidad.cotaClaimeven(PosicionBitboard.desdeSecuencia("4")));
+    }
+
+    @Test
+    void conElTableroVacioElPrimeroNoPierde() {
+        // Quedándose las filas impares el primero hace cuatro en línea en la de abajo
+        assertEquals(EvaluadorParidad.SIN_COTA, EvaluadorParidad.cotaClaimeven(new PosicionBitboard()));
+    }
+}
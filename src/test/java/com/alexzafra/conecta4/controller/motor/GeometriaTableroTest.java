@@ -0,0 +1,99 @@
+package com.alexzafra.conecta4.controller.motor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeometriaTableroTest {
+
+    @ParameterizedTest
+    @CsvSource({"4, 4", "4, 5", "5, 4"})
+    void elIndiceNumeraCadaCapaSinHuecosNiRepeticiones(int columnas, int filas) {
+        GeometriaTablero geometria = new GeometriaTablero(columnas, filas);
+        for (int fichas = 0; fichas <= geometria.getCasillas(); fichas++) {
+            BitSet vistos = new BitSet();
+            long[] cuenta = new long[1];
+            int capa = fichas;
+            long[] reconstruida = new long[2];
+            recorrerCapa(columnas, filas, fichas, (primero, mascara) -> {
+                long indice = geometria.indice(primero, mascara);
+                assertTrue(indice >= 0 && indice < geometria.tamanoCapa(capa), "índice " + indice);
+                assertFalse(vistos.get((int) indice), "índice repetido " + indice);
+                vistos.set((int) indice);
+                cuenta[0]++;
+
+                geometria.posicion(capa, indice, reconstruida);
+                assertEquals(primero, reconstruida[0]);
+                assertEquals(mascara, reconstruida[1]);
+            });
+            assertEquals(geometria.tamanoCapa(fichas), cuenta[0], "capa de " + fichas + " fichas");
+        }
+    }
+
+    @Test
+    void unCuatroEnLineaVerticalNoTieneIndice() {
+        GeometriaTablero geometria = new GeometriaTablero(4, 5);
+        int altoBits = 6;
+        // Columna 0 con cuatro fichas del primero; columnas 1 a 3 con una del segundo cada una
+        long mascara = 0b1111L | 1L << altoBits | 1L << (2 * altoBits) | 1L << (3 * altoBits);
+        assertEquals(-1, geometria.indice(0b1111L, mascara));
+    }
+
+    @Test
+    void rechazaLosTablerosQueNoCabenEnUnBitboard() {
+        assertThrows(IllegalArgumentException.class, () -> new GeometriaTablero(3, 6));
+        assertThrows(IllegalArgumentException.class, () -> new GeometriaTablero(9, 9));
+    }
+
+    /**
+     * Recorre por fuerza bruta todas las posiciones de una capa sin cuatro en
+     * línea vertical: todas las alturas de columna y todos los colores de las
+     * fichas con el número de fichas del primer jugador que corresponde.
+     */
+    private static void recorrerCapa(int columnas, int filas, int fichas, Visitante visitante) {
+        recorrerColumnas(columnas, filas, 0, fichas, GeometriaTablero.fichasPrimero(fichas), 0L, 0L, visitante);
+    }
+
+    private static void recorrerColumnas(int columnas, int filas, int columna, int fichas, int primeras,
+                                         long primero, long mascara, Visitante visitante) {
+        if (columna == columnas) {
+            if (fichas == 0 && primeras == 0) {
+                visitante.visitar(primero, mascara);
+            }
+            return;
+        }
+        int desplazamiento = columna * (filas + 1);
+        for (int altura = 0; altura <= Math.min(filas, fichas); altura++) {
+            for (int colores = 0; colores < 1 << altura; colores++) {
+                int delPrimero = Integer.bitCount(colores);
+                if (delPrimero > primeras || tieneVertical(colores, altura)) {
+                    continue;
+                }
+                recorrerColumnas(columnas, filas, columna + 1, fichas - altura, primeras - delPrimero,
+                        primero | (long) colores << desplazamiento,
+                        mascara | ((1L << altura) - 1) << desplazamiento, visitante);
+            }
+        }
+    }
+
+    private static boolean tieneVertical(int colores, int altura) {
+        int segundo = ~colores & ((1 << altura) - 1);
+        for (int fila = 0; fila + 4 <= altura; fila++) {
+            if ((colores >>> fila & 0xF) == 0xF || (segundo >>> fila & 0xF) == 0xF) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private interface Visitante {
+        void visitar(long primero, long mascara);
+    }
+}
@@ -0,0 +1,121 @@
+package com.alexzafra.conecta4.controller.motor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GestorTiempoTest {
+
+    @ParameterizedTest
+    @CsvSource({
+            // fichas, jugadas que no pierden, objetivo
+            "0, 7, 500",
+            "5, 7, 500",
+            "6, 7, 1500",
+            "25, 7, 1500",
+            "26, 7, 750",
+            "40, 7, 750",
+            "10, 2, 750",
+            "10, 3, 1500",
+            "2, 2, 250"
+    })
+    void elObjetivoDependeDeLaFaseYDeLaMovilidad(int movimientos, int noPerdedoras, long objetivo) {
+        GestorTiempo gestor = new GestorTiempo(1000, 0, movimientos, noPerdedoras);
+        assertEquals(objetivo, gestor.getObjetivoMs());
+        assertEquals(3 * objetivo, gestor.getMaximoMs());
+    }
+
+    @Test
+    void elMaximoNoPasaDelTiempoDisponible() {
+        // Sin límite duro cercano el máximo es el triple del objetivo
+        GestorTiempo holgado = new GestorTiempo(1000, 10_000, 10, 7);
+        assertEquals(1500, holgado.getObjetivoMs());
+        assertEquals(4500, holgado.getMaximoMs());
+
+        // Con poco tiempo hasta el límite duro el objetivo tampoco pasa de él
+        GestorTiempo justo = new GestorTiempo(1000, 200, 10, 7);
+        assertEquals(200, justo.getMaximoMs());
+        assertEquals(200, justo.getObjetivoMs());
+
+        // Y nunca queda a 0
+        assertEquals(1, new GestorTiempo(0, 0, 10, 7).getMaximoMs());
+    }
+
+    @Test
+    void conUnaSolaJugadaNoSeBusca() {
+        assertFalse(GestorTiempo.hayQueBuscar(1));
+        // Sin jugadas que no pierdan también se busca la que pierde más tarde
+        assertTrue(GestorTiempo.hayQueBuscar(0));
+        for (int jugadas = 2; jugadas <= PosicionBitboard.ANCHO; jugadas++) {
+            assertTrue(GestorTiempo.hayQueBuscar(jugadas));
+        }
+    }
+
+    @Test
+    void elObjetivoCreceSiLaMejorJugadaCambia() {
+        GestorTiempo gestor = new GestorTiempo(10_000, 0, 10, 7);
+        assertEquals(15_000, gestor.getObjetivoMs());
+
+        // La primera iteración no tiene con qué compararse
+        assertTrue(gestor.seguir(resultado(3, 10), 0));
+        assertEquals(15_000, gestor.getObjetivoMs());
+
+        // Misma columna y puntuación parecida: estable
+        assertTrue(gestor.seguir(resultado(3, 20), 4));
+        assertEquals(15_000, gestor.getObjetivoMs());
+        assertEquals(0, gestor.getCambiosMejorColumna());
+
+        // Otra columna
+        assertTrue(gestor.seguir(resultado(4, 20), 4));
+        assertEquals(22_500, gestor.getObjetivoMs());
+        assertEquals(1, gestor.getCambiosMejorColumna());
+
+        // La misma columna con un salto de puntuación
+        assertTrue(gestor.seguir(resultado(4, 90), 4));
+        assertEquals(33_750, gestor.getObjetivoMs());
+
+        // Sin pasar del máximo
+        for (int i = 0; i < 10; i++) {
+            gestor.seguir(resultado(i % 2, 0), 4);
+        }
+        assertEquals(gestor.getMaximoMs(), gestor.getObjetivoMs());
+        assertEquals(45_000, gestor.getMaximoMs());
+    }
+
+    @Test
+    void noSigueAlLlegarAlObjetivo() throws InterruptedException {
+        // Objetivo de 15 ms en el medio juego
+        GestorTiempo gestor = new GestorTiempo(10, 0, 10, 7);
+        Thread.sleep(20);
+        assertFalse(gestor.seguir(resultado(3, 0), 0));
+    }
+
+    @Test
+    void noEmpiezaUnaIteracionQueNoTerminariaAntesDelMaximo() throws InterruptedException {
+        // Objetivo de 1,5 s y máximo de 4,5 s
+        GestorTiempo gestor = new GestorTiempo(1000, 0, 10, 7);
+        Thread.sleep(30);
+        // Al ritmo de la primera iteración, otra cabe de sobra
+        assertTrue(gestor.seguir(resultado(3, 0), 1));
+
+        Thread.sleep(30);
+        // Con un factor de ramificación de 1000 la siguiente no acabaría a tiempo
+        assertFalse(gestor.seguir(resultado(3, 0), 1000));
+    }
+
+    /**
+     * Resultado con una sola columna jugable.
+     */
+    private static ResultadoAnalisis resultado(int columna, int puntuacion) {
+        int[] puntuaciones = new int[PosicionBitboard.ANCHO];
+        Arrays.fill(puntuaciones, ResultadoAnalisis.SIN_VALOR);
+        puntuaciones[columna] = puntuacion;
+        return new ResultadoAnalisis(1, puntuaciones, new int[PosicionBitboard.ANCHO][], columna, 0, 0);
+    }
+}
@@ -0,0 +1,84 @@
+package com.alexzafra.conecta4.controller.motor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MotorMonteCarloTest {
+
+    @Test
+    void juegaLaVictoriaInmediata() {
+        // Tres en línea horizontal abajo con el hueco de la columna 4 libre
+        for (long semilla = 0; semilla < 10; semilla++) {
+            MotorMonteCarlo motor = motor(semilla, 2000);
+            assertEquals(3, motor.elegirColumna(PosicionBitboard.desdeSecuencia("112233")));
+        }
+    }
+
+    @Test
+    void tapaLaDerrotaInmediata() {
+        // El primer jugador amenaza la columna 4 y le toca al segundo
+        for (long semilla = 0; semilla < 10; semilla++) {
+            MotorMonteCarlo motor = motor(semilla, 2000);
+            assertEquals(3, motor.elegirColumna(PosicionBitboard.desdeSecuencia("11223")));
+        }
+    }
+
+    @Test
+    void conLaMismaSemillaYSimulacionesJuegaIgual() {
+        SplittableRandom random = new SplittableRandom(47);
+        for (int i = 0; i < 20; i++) {
+            PosicionBitboard p = ReferenciaFuerzaBruta.posicionAleatoria(random, random.nextInt(30));
+            ResultadoAnalisis a = motor(i, 1000).analizar(p, null);
+            ResultadoAnalisis b = motor(i, 1000).analizar(p, null);
+            assertEquals(a.getMejorColumna(), b.getMejorColumna());
+            for (int columna = 0; columna < PosicionBitboard.ANCHO; columna++) {
+                assertEquals(a.getPuntuacion(columna), b.getPuntuacion(columna));
+            }
+        }
+    }
+
+    @Test
+    void haceLasSimulacionesPedidasSinPresupuesto() {
+        MotorMonteCarlo motor = motor(47, 3000);
+        motor.analizar(new PosicionBitboard(), null);
+        assertEquals(3000, motor.getEstadisticas().getNodos());
+        assertFalse(motor.getEstadisticas().isPresupuestoAgotado());
+    }
+
+    @Test
+    void unTokenCanceladoNoDevuelveNada() {
+        MotorMonteCarlo motor = motor(47, 3000);
+        TokenCancelacion token = new TokenCancelacion();
+        token.cancelar();
+        motor.setCancelacion(token);
+        assertNull(motor.analizar(new PosicionBitboard(), null));
+        assertEquals(-1, motor.elegirColumna(new PosicionBitboard()));
+    }
+
+    @Test
+    void unArbolLlenoSigueSimulandoDesdeLasHojas() {
+        // Con 1 MB caben unos 23.000 nodos: 100.000 simulaciones lo llenan
+        MotorMonteCarlo motor = new MotorMonteCarlo(1, 47);
+        motor.setPresupuestoMs(0);
+        motor.setSimulaciones(100_000);
+        int columna = motor.elegirColumna(new PosicionBitboard());
+        assertTrue(columna >= 0 && columna < PosicionBitboard.ANCHO, "columna " + columna);
+        assertEquals(100_000, motor.getEstadisticas().getNodos());
+    }
+
+    /**
+     * Motor que solo se limita por el número de simulaciones, para que sea reproducible.
+     */
+    private static MotorMonteCarlo motor(long semilla, int simulaciones) {
+        MotorMonteCarlo motor = new MotorMonteCarlo(semilla);
+        motor.setPresupuestoMs(0);
+        motor.setSimulaciones(simulaciones);
+        return motor;
+    }
+}
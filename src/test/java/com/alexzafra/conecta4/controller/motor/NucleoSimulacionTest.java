@@ -0,0 +1,141 @@
+package com.alexzafra.conecta4.controller.motor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NucleoSimulacionTest {
+    private static final int CASILLAS = PosicionBitboard.ANCHO * PosicionBitboard.ALTO;
+
+    @Test
+    void cadaSimulacionEsUnaPartidaLegal() {
+        SplittableRandom random = new SplittableRandom(40);
+        for (int i = 0; i < 2000; i++) {
+            PosicionBitboard p = ReferenciaFuerzaBruta.posicionAleatoria(random, random.nextInt(CASILLAS));
+            long semilla = random.nextLong();
+            int resultado = new NucleoSimulacion(semilla).simular(p);
+            assertTrue(resultado == NucleoSimulacion.VICTORIA || resultado == NucleoSimulacion.TABLAS
+                    || resultado == NucleoSimulacion.DERROTA, "resultado " + resultado);
+
+            // La misma partida jugada columna a columna con el mismo generador
+            assertEquals(resultado, repetir(new NucleoSimulacion(semilla), new PosicionBitboard(p)),
+                    "posición " + i);
+        }
+    }
+
+    @Test
+    void conUnaCasillaLibreElResultadoEsElExacto() {
+        SplittableRandom random = new SplittableRandom(401);
+        for (int i = 0; i < 200; i++) {
+            PosicionBitboard p = ReferenciaFuerzaBruta.posicionAleatoria(random, CASILLAS - 1);
+            assertEquals(ReferenciaFuerzaBruta.resultado(p), new NucleoSimulacion(i).simular(p));
+        }
+    }
+
+    @Test
+    void laPuntuacionMediaEstaEntreCeroYUno() {
+        NucleoSimulacion nucleo = new NucleoSimulacion(40);
+        double puntuacion = nucleo.puntuar(new PosicionBitboard(), 1000);
+        assertTrue(puntuacion > 0.0 && puntuacion < 1.0, "puntuación " + puntuacion);
+
+        // Con la victoria en la siguiente ficha como única jugada siempre gana
+        PosicionBitboard p = ReferenciaFuerzaBruta.posicionAleatoria(new SplittableRandom(402), CASILLAS - 1);
+        double esperada = (ReferenciaFuerzaBruta.resultado(p) + 1) / 2.0;
+        assertEquals(esperada, nucleo.puntuar(p, 10));
+    }
+
+    @Test
+    void seleccionarDevuelveElBitActivoPedido() {
+        SplittableRandom random = new SplittableRandom(403);
+        for (int i = 0; i < 10_000; i++) {
+            long bits = random.nextLong() & random.nextLong();
+            int activos = Long.bitCount(bits);
+            if (activos == 0) {
+                continue;
+            }
+            int indice = random.nextInt(activos);
+            long esperado = 0L;
+            int vistos = 0;
+            for (int bit = 0; bit < 64; bit++) {
+                if ((bits >>> bit & 1L) != 0 && vistos++ == indice) {
+                    esperado = 1L << bit;
+                    break;
+                }
+            }
+            assertEquals(esperado, NucleoSimulacion.seleccionar(bits, indice));
+        }
+        assertEquals(Long.MIN_VALUE, NucleoSimulacion.seleccionar(-1L, 63));
+        assertEquals(1L, NucleoSimulacion.seleccionar(-1L, 0));
+    }
+
+    @Test
+    void acotarSiempreQuedaEnElRango() {
+        SplittableRandom random = new SplittableRandom(404);
+        long[] extremos = {0L, 1L, -1L, Long.MIN_VALUE, Long.MAX_VALUE, 0xFFFFFFFFL, 0xFFFFFFFF00000000L};
+        for (int n = 1; n <= 64; n++) {
+            for (long aleatorio : extremos) {
+                int valor = NucleoSimulacion.acotar(aleatorio, n);
+                assertTrue(valor >= 0 && valor < n, valor + " con n = " + n);
+            }
+            int[] veces = new int[n];
+            for (int i = 0; i < 1000 * n; i++) {
+                int valor = NucleoSimulacion.acotar(random.nextLong(), n);
+                assertTrue(valor >= 0 && valor < n, valor + " con n = " + n);
+                veces[valor]++;
+            }
+            // Todos los valores del rango salen
+            for (int valor = 0; valor < n; valor++) {
+                assertTrue(veces[valor] > 0, "el valor " + valor + " no sale con n = " + n);
+            }
+        }
+        assertEquals(6, NucleoSimulacion.acotar(-1L, 7));
+    }
+
+    @Test
+    void laMismaSemillaDaLasMismasPartidas() {
+        NucleoSimulacion a = new NucleoSimulacion(40);
+        NucleoSimulacion b = new NucleoSimulacion(40);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(a.siguiente(), b.siguiente());
+        }
+
+        SplittableRandom random = new SplittableRandom(405);
+        NucleoSimulacion c = new NucleoSimulacion(41);
+        NucleoSimulacion d = new NucleoSimulacion(41);
+        for (int i = 0; i < 500; i++) {
+            PosicionBitboard p = ReferenciaFuerzaBruta.posicionAleatoria(random, random.nextInt(20));
+            assertEquals(c.simular(p), d.simular(p));
+        }
+
+        // Semillas parecidas no dan la misma secuencia
+        assertNotEquals(new NucleoSimulacion(1).siguiente(), new NucleoSimulacion(2).siguiente());
+        assertNotEquals(0L, new NucleoSimulacion(0).siguiente());
+    }
+
+    /**
+     * Repite una simulación con PosicionBitboard, sacando del generador los
+     * mismos números que el núcleo y comprobando que cada jugada es legal.
+     * @return Resultado para el jugador con turno al empezar
+     */
+    private static int repetir(NucleoSimulacion nucleo, PosicionBitboard p) {
+        int signo = NucleoSimulacion.VICTORIA;
+        while (p.getMovimientos() < CASILLAS) {
+            long posibles = p.movimientosPosibles();
+            long jugada = NucleoSimulacion.seleccionar(posibles,
+                    NucleoSimulacion.acotar(nucleo.siguiente(), Long.bitCount(posibles)));
+            int columna = PosicionBitboard.columnaDe(jugada);
+            assertTrue(p.puedeJugar(columna), "columna " + columna);
+            assertEquals(p.movimiento(columna), jugada);
+            if (p.esMovimientoGanador(columna)) {
+                return signo;
+            }
+            p.jugar(columna);
+            signo = -signo;
+        }
+        return NucleoSimulacion.TABLAS;
+    }
+}
@@ -0,0 +1,86 @@
+package com.alexzafra.conecta4.controller.motor;
+
+import java.util.SplittableRandom;
+
+/**
+ * Referencia para las pruebas de los motores: recorre el árbol completo con
+ * un negamax sin tablas ni heurísticas, y genera posiciones aleatorias con
+ * pocas casillas libres para que ese recorrido sea corto.
+ */
+final class ReferenciaFuerzaBruta {
+    private static final int CASILLAS = PosicionBitboard.ANCHO * PosicionBitboard.ALTO;
+
+    private ReferenciaFuerzaBruta() {
+    }
+
+    /**
+     * Valor exacto de una posición con la escala del solucionador: (casillas
+     * libres + 1) / 2 al ganar con la siguiente ficha, menos cuanto más tarde.
+     * @param posicion Posición sin cuatro en línea (no se modifica)
+     * @return Puntuación para el jugador con turno
+     */
+    static int puntuacion(PosicionBitboard posicion) {
+        return negamax(new PosicionBitboard(posicion));
+    }
+
+    /**
+     * Valor de una posición reducido a 1 (gana), 0 (tablas) o -1 (pierde).
+     * @param posicion Posición sin cuatro en línea (no se modifica)
+     * @return Signo de la puntuación exacta
+     */
+    static int resultado(PosicionBitboard posicion) {
+        return Integer.signum(puntuacion(posicion));
+    }
+
+    private static int negamax(PosicionBitboard p) {
+        if (p.getMovimientos() == CASILLAS) {
+            return 0;
+        }
+        for (int columna = 0; columna < PosicionBitboard.ANCHO; columna++) {
+            if (p.puedeJugar(columna) && p.esMovimientoGanador(columna)) {
+                return (CASILLAS + 1 - p.getMovimientos()) / 2;
+            }
+        }
+        int mejor = Integer.MIN_VALUE;
+        for (int columna = 0; columna < PosicionBitboard.ANCHO; columna++) {
+            if (p.puedeJugar(columna)) {
+                p.jugar(columna);
+                mejor = Math.max(mejor, -negamax(p));
+                p.deshacer(columna);
+            }
+        }
+        return mejor;
+    }
+
+    /**
+     * Juega fichas al azar, sin completar nunca cuatro en línea, hasta llegar
+     * al número pedido. Si la partida se queda sin jugadas empieza otra.
+     * @param random Generador de la secuencia
+     * @param fichas Fichas de la posición
+     * @return Posición con ese número de fichas y sin ganador
+     */
+    static PosicionBitboard posicionAleatoria(SplittableRandom random, int fichas) {
+        while (true) {
+            PosicionBitboard p = new PosicionBitboard();
+            while (p.getMovimientos() < fichas) {
+                long seguras = 0;
+                for (int columna = 0; columna < PosicionBitboard.ANCHO; columna++) {
+                    if (p.puedeJugar(columna) && !p.esMovimientoGanador(columna)) {
+                        seguras |= 1L << columna;
+                    }
+                }
+                if (seguras == 0) {
+                    break;
+                }
+                int columna;
+                do {
+                    columna = random.nextInt(PosicionBitboard.ANCHO);
+                } while ((seguras & (1L << columna)) == 0);
+                p.jugar(columna);
+            }
+            if (p.getMovimientos() == fichas) {
+                return p;
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.alexzafra.conecta4.controller.motor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RegistroMotoresTest {
+
+    @Test
+    void traeLosMotoresIncluidosEnOrden() {
+        assertEquals(List.of(MotorHeuristico.NOMBRE, MotorAlfaBeta.NOMBRE, MotorMonteCarlo.NOMBRE,
+                MotorSolucionador.NOMBRE), RegistroMotores.getNombres().subList(0, 4));
+        for (String nombre : RegistroMotores.getNombres()) {
+            assertEquals(nombre, RegistroMotores.crear(nombre, 47).getNombre());
+        }
+    }
+
+    @Test
+    void cadaLlamadaCreaUnMotorNuevo() {
+        assertNotSame(RegistroMotores.crear(MotorMonteCarlo.NOMBRE, 47), RegistroMotores.crear(MotorMonteCarlo.NOMBRE, 47));
+    }
+
+    @Test
+    void seRegistranMotoresNuevos() {
+        RegistroMotores.registrar("heuristico-prueba", MotorHeuristico::new);
+        assertTrue(RegistroMotores.getNombres().contains("heuristico-prueba"));
+        assertInstanceOf(MotorHeuristico.class, RegistroMotores.crear("heuristico-prueba", 47));
+    }
+
+    @Test
+    void unNombreDesconocidoNoCreaNada() {
+        assertThrows(IllegalArgumentException.class, () -> RegistroMotores.crear("ninguno", 47));
+    }
+
+    @ParameterizedTest
+    @MethodSource("nombres")
+    void todosLosMotoresJueganColumnasLegales(String nombre) {
+        Motor motor = RegistroMotores.crear(nombre, 47);
+        motor.setPresupuestoMs(20);
+        SplittableRandom random = new SplittableRandom(47);
+        for (int i = 0; i < 30; i++) {
+            // Aperturas y finales: el solucionador resuelve a partir de 14 fichas
+            int fichas = i % 2 == 0 ? random.nextInt(MotorSolucionador.FICHAS_PARA_RESOLVER) : 26 + random.nextInt(14);
+            PosicionBitboard p = ReferenciaFuerzaBruta.posicionAleatoria(random, fichas);
+            long clave = p.clave();
+            int columna = motor.elegirColumna(p);
+            assertTrue(columna >= 0 && columna < PosicionBitboard.ANCHO && p.puedeJugar(columna),
+                    nombre + ": columna " + columna + " en la posición " + i);
+            assertEquals(clave, p.clave(), "el motor ha cambiado la posición");
+            assertNotNull(motor.getEstadisticas());
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("nombres")
+    void todosLosMotoresGananYTapanEnUnaJugada(String nombre) {
+        Motor motor = RegistroMotores.crear(nombre, 47);
+        motor.setPresupuestoMs(50);
+        assertEquals(3, motor.elegirColumna(PosicionBitboard.desdeSecuencia("112233")), nombre);
+        assertEquals(3, motor.elegirColumna(PosicionBitboard.desdeSecuencia("11223")), nombre);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {MotorAlfaBeta.NOMBRE, MotorMonteCarlo.NOMBRE, MotorSolucionador.NOMBRE})
+    void unaParadaPreviaTerminaEnseguidaYReanudarVuelveAlPresupuesto(String nombre) {
+        Motor motor = RegistroMotores.crear(nombre, 47);
+        motor.setPresupuestoMs(2000);
+        PosicionBitboard apertura = PosicionBitboard.desdeSecuencia("4453");
+
+        // Detenido antes de empezar: juega lo poco que haya calculado
+        motor.detener();
+        long inicio = System.nanoTime();
+        int columna = motor.elegirColumna(apertura);
+        long detenidoMs = (System.nanoTime() - inicio) / 1_000_000L;
+        assertTrue(columna >= 0 && apertura.puedeJugar(columna), nombre + ": columna " + columna);
+        assertTrue(detenidoMs < 500, nombre + ": " + detenidoMs + " ms detenido");
+        long nodosDetenido = motor.getEstadisticas().getNodos();
+
+        // Reanudado, con un presupuesto corto, vuelve a usar su tiempo
+        motor.reanudar();
+        motor.setPresupuestoMs(100);
+        inicio = System.nanoTime();
+        columna = motor.elegirColumna(apertura);
+        long reanudadoMs = (System.nanoTime() - inicio) / 1_000_000L;
+        assertTrue(columna >= 0 && apertura.puedeJugar(columna), nombre + ": columna " + columna);
+        assertTrue(motor.getEstadisticas().getNodos() > nodosDetenido,
+                nombre + ": " + motor.getEstadisticas().getNodos() + " nodos tras reanudar");
+        // El gestor de tiempo puede llegar como mucho al triple del presupuesto
+        assertTrue(reanudadoMs < 3 * 100 + 200, nombre + ": " + reanudadoMs + " ms reanudado");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {MotorAlfaBeta.NOMBRE, MotorMonteCarlo.NOMBRE, MotorSolucionador.NOMBRE})
+    void unaParadaDesdeOtroHiloCortaElPresupuesto(String nombre) {
+        Motor motor = RegistroMotores.crear(nombre, 47);
+        motor.setPresupuestoMs(20_000);
+        PosicionBitboard apertura = PosicionBitboard.desdeSecuencia("4453");
+
+        ScheduledExecutorService vigilante = Executors.newSingleThreadScheduledExecutor();
+        try {
+            vigilante.schedule(motor::detener, 100, TimeUnit.MILLISECONDS);
+            long inicio = System.nanoTime();
+            int columna = motor.elegirColumna(apertura);
+            long duracionMs = (System.nanoTime() - inicio) / 1_000_000L;
+            assertTrue(columna >= 0 && apertura.puedeJugar(columna), nombre + ": columna " + columna);
+            assertTrue(duracionMs < 2000, nombre + ": " + duracionMs + " ms");
+        } finally {
+            vigilante.shutdownNow();
+        }
+    }
+
+    static List<String> nombres() {
+        return RegistroMotores.getNombres();
+    }
+}
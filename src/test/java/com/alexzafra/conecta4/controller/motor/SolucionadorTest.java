@@ -0,0 +1,77 @@
+package com.alexzafra.conecta4.controller.motor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SolucionadorTest {
+    private static final int POSICIONES = 150;
+
+    @Test
+    void resolverCoincideConLaFuerzaBruta() {
+        Solucionador solucionador = new Solucionador(new TablaTransposicion(1));
+        SplittableRandom random = new SplittableRandom(26);
+        for (int i = 0; i < POSICIONES; i++) {
+            PosicionBitboard p = ReferenciaFuerzaBruta.posicionAleatoria(random, 30 + random.nextInt(6));
+            assertEquals(ReferenciaFuerzaBruta.puntuacion(p), solucionador.resolver(p),
+                    "posición " + p.getPosicionActual() + "/" + p.getMascara());
+        }
+    }
+
+    @Test
+    void resolverDebilDaElSignoDelValor() {
+        Solucionador solucionador = new Solucionador(new TablaTransposicion(1));
+        SplittableRandom random = new SplittableRandom(261);
+        for (int i = 0; i < POSICIONES; i++) {
+            PosicionBitboard p = ReferenciaFuerzaBruta.posicionAleatoria(random, 30 + random.nextInt(6));
+            assertEquals(ReferenciaFuerzaBruta.resultado(p), solucionador.resolver(p, true));
+        }
+    }
+
+    @Test
+    void mejorColumnaConservaElValor() {
+        Solucionador solucionador = new Solucionador(new TablaTransposicion(1));
+        SplittableRandom random = new SplittableRandom(262);
+        for (int i = 0; i < POSICIONES; i++) {
+            PosicionBitboard p = ReferenciaFuerzaBruta.posicionAleatoria(random, 30 + random.nextInt(6));
+            int valor = ReferenciaFuerzaBruta.puntuacion(p);
+            int columna = solucionador.mejorColumna(p);
+
+            assertTrue(p.puedeJugar(columna));
+            int valorJugada;
+            if (p.esMovimientoGanador(columna)) {
+                valorJugada = (Solucionador.CASILLAS + 1 - p.getMovimientos()) / 2;
+            } else {
+                p.jugar(columna);
+                valorJugada = -ReferenciaFuerzaBruta.puntuacion(p);
+            }
+            assertEquals(valor, valorJugada);
+        }
+    }
+
+    @Test
+    void noModificaLaPosicion() {
+        Solucionador solucionador = new Solucionador(new TablaTransposicion(1));
+        PosicionBitboard p = ReferenciaFuerzaBruta.posicionAleatoria(new SplittableRandom(263), 30);
+        PosicionBitboard copia = new PosicionBitboard(p);
+        solucionador.resolver(p);
+        solucionador.mejorColumna(p);
+        assertEquals(copia.getPosicionActual(), p.getPosicionActual());
+        assertEquals(copia.getMascara(), p.getMascara());
+        assertEquals(copia.getMovimientos(), p.getMovimientos());
+    }
+
+    @Test
+    void unTokenCanceladoCortaLaResolucion() {
+        Solucionador solucionador = new Solucionador(new TablaTransposicion(1));
+        TokenCancelacion token = new TokenCancelacion();
+        token.cancelar();
+        solucionador.setCancelacion(token);
+        assertThrows(CancellationException.class, () -> solucionador.resolver(new PosicionBitboard()));
+    }
+}
@@ -0,0 +1,143 @@
+package com.alexzafra.conecta4.controller.motor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TablaTransposicionTest {
+
+    @Test
+    void guardaYRecuperaTodosLosCampos() {
+        TablaTransposicion tabla = new TablaTransposicion(1);
+        tabla.guardar(12345L, -987, 17, TablaTransposicion.SUPERIOR, 6);
+        tabla.guardar(67890L, 42, TablaTransposicion.PROFUNDIDAD_COMPLETA, TablaTransposicion.EXACTA, -1);
+
+        long entrada = tabla.consultar(12345L);
+        assertEquals(-987, TablaTransposicion.valor(entrada));
+        assertEquals(17, TablaTransposicion.profundidad(entrada));
+        assertEquals(TablaTransposicion.SUPERIOR, TablaTransposicion.tipo(entrada));
+        assertEquals(6, TablaTransposicion.columna(entrada));
+
+        entrada = tabla.consultar(67890L);
+        assertEquals(42, TablaTransposicion.valor(entrada));
+        assertEquals(TablaTransposicion.PROFUNDIDAD_COMPLETA, TablaTransposicion.profundidad(entrada));
+        assertEquals(TablaTransposicion.EXACTA, TablaTransposicion.tipo(entrada));
+        assertEquals(-1, TablaTransposicion.columna(entrada));
+
+        assertEquals(0L, tabla.consultar(11111L));
+    }
+
+    @Test
+    void lasEscriturasConcurrentesNoDevuelvenDatosDeOtraClave() throws InterruptedException {
+        // Tabla mínima para que los hilos escriban una y otra vez en las mismas cubetas
+        TablaTransposicion tabla = new TablaTransposicion(0);
+        AtomicLong errores = new AtomicLong();
+        AtomicLong aciertos = new AtomicLong();
+        List<Thread> hilos = new ArrayList<>();
+        for (int h = 0; h < 4; h++) {
+            long semilla = h;
+            hilos.add(new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(semilla);
+                for (int i = 0; i < 500_000; i++) {
+                    long clave = random.nextLong(1, 20_000);
+                    if (random.nextBoolean()) {
+                        tabla.guardar(clave, valorDe(clave), 10, TablaTransposicion.EXACTA, (int) (clave % 7));
+                    } else {
+                        long entrada = tabla.consultar(clave);
+                        if (entrada != 0L) {
+                            aciertos.incrementAndGet();
+                            if (TablaTransposicion.valor(entrada) != valorDe(clave)
+                                    || TablaTransposicion.columna(entrada) != clave % 7) {
+                                errores.incrementAndGet();
+                            }
+                        }
+                    }
+                }
+            }));
+        }
+        for (Thread hilo : hilos) {
+            hilo.start();
+        }
+        for (Thread hilo : hilos) {
+            hilo.join();
+        }
+        assertEquals(0, errores.get(), "de " + aciertos.get() + " aciertos");
+    }
+
+    @Test
+    void laGeneracionAvanzaConCadaBusquedaYVuelveAEmpezar() {
+        TablaTransposicion tabla = new TablaTransposicion(0);
+        for (int i = 1; i <= 256; i++) {
+            tabla.nuevaBusqueda();
+            assertEquals(i & 0xFF, tabla.getGeneracion());
+        }
+    }
+
+    @Test
+    void unaEntradaAntiguaQueSeUsaPasaALaGeneracionActual() {
+        TablaTransposicion tabla = new TablaTransposicion(0);
+        tabla.guardar(12345L, 7, 20, TablaTransposicion.EXACTA, 3);
+        tabla.nuevaBusqueda();
+        tabla.nuevaBusqueda();
+
+        long entrada = tabla.consultar(12345L);
+        assertEquals(7, TablaTransposicion.valor(entrada));
+        assertEquals(tabla.getGeneracion(), TablaTransposicion.generacion(entrada));
+        assertEquals(1, tabla.getEntradasHeredadas());
+
+        // Ya es de la generación actual: no se vuelve a contar
+        tabla.consultar(12345L);
+        assertEquals(1, tabla.getEntradasHeredadas());
+        tabla.nuevaBusqueda();
+        assertEquals(0, tabla.getEntradasHeredadas());
+    }
+
+    @Test
+    void unaEntradaProfundaDeEstaBusquedaAguantaLasSuperficiales() {
+        TablaTransposicion tabla = new TablaTransposicion(0);
+        tabla.guardar(12345L, 7, 20, TablaTransposicion.EXACTA, 3);
+        llenarConSuperficiales(tabla);
+        assertEquals(7, TablaTransposicion.valor(tabla.consultar(12345L)));
+    }
+
+    @Test
+    void unaEntradaProfundaAntiguaCedeSuSitio() {
+        TablaTransposicion tabla = new TablaTransposicion(0);
+        tabla.guardar(12345L, 7, 20, TablaTransposicion.EXACTA, 3);
+        for (int i = 0; i < 3; i++) {
+            tabla.nuevaBusqueda();
+        }
+        llenarConSuperficiales(tabla);
+        assertEquals(0L, tabla.consultar(12345L));
+    }
+
+    @Test
+    void elSolucionadorReutilizaLaTablaEntreBusquedasSinErrores() {
+        // Más de 256 resoluciones con una tabla mínima: la generación da la vuelta
+        Solucionador solucionador = new Solucionador(new TablaTransposicion(0));
+        SplittableRandom random = new SplittableRandom(46);
+        for (int i = 0; i < 300; i++) {
+            PosicionBitboard p = ReferenciaFuerzaBruta.posicionAleatoria(random, 30 + random.nextInt(6));
+            assertEquals(ReferenciaFuerzaBruta.puntuacion(p), solucionador.resolver(p), "resolución " + i);
+        }
+        assertEquals(300 & 0xFF, solucionador.getTabla().getGeneracion());
+    }
+
+    /**
+     * Escribe muchas más entradas de profundidad 1 que las que caben en la tabla.
+     */
+    private static void llenarConSuperficiales(TablaTransposicion tabla) {
+        for (long clave = 100_000; clave < 100_000 + 20L * tabla.getCapacidad(); clave++) {
+            tabla.guardar(clave, 1, 1, TablaTransposicion.EXACTA, 0);
+        }
+    }
+
+    private static int valorDe(long clave) {
+        return (int) ((clave * 0x9E3779B97F4A7C15L) >>> 40);
+    }
+}
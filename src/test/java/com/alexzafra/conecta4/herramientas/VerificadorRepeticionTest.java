@@ -0,0 +1,91 @@
+package com.alexzafra.conecta4.herramientas;
+
+import com.alexzafra.conecta4.controller.InteligenciaArtificial;
+import com.alexzafra.conecta4.controller.RegistroPartida;
+import com.alexzafra.conecta4.modelos.Tablero;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class VerificadorRepeticionTest {
+
+    @TempDir
+    Path directorio;
+
+    @ParameterizedTest
+    @CsvSource({"1, 30", "2, 31", "3, 32", "4, 33"})
+    void unaPartidaGrabadaSeRepiteIgual(int nivel, long semilla) throws IOException {
+        RegistroPartida grabada = VerificadorRepeticion.grabar(nivel, semilla, 6, InteligenciaArtificial.NIVEL_MEDIO);
+        assertEquals(-1, VerificadorRepeticion.verificar(grabada));
+
+        // También después de pasar por el fichero
+        Path archivo = directorio.resolve("partida.txt");
+        grabada.guardar(archivo);
+        RegistroPartida cargada = RegistroPartida.cargar(archivo);
+        assertEquals(semilla, cargada.getSemilla());
+        assertEquals(nivel, cargada.getNivel());
+        assertEquals(0, cargada.getPresupuestoMs());
+        assertEquals(6, cargada.getProfundidadMaxima());
+        assertEquals(Tablero.JUGADOR_2, cargada.getMaquinaId());
+        assertArrayEquals(grabada.getJugadas(), cargada.getJugadas());
+        assertEquals(-1, VerificadorRepeticion.verificar(cargada));
+    }
+
+    @Test
+    void grabarDosVecesDaLaMismaPartida() {
+        RegistroPartida primera = VerificadorRepeticion.grabar(InteligenciaArtificial.NIVEL_DIFICIL, 30, 6,
+                InteligenciaArtificial.NIVEL_FACIL);
+        RegistroPartida segunda = VerificadorRepeticion.grabar(InteligenciaArtificial.NIVEL_DIFICIL, 30, 6,
+                InteligenciaArtificial.NIVEL_FACIL);
+        assertEquals(primera.getSecuencia(), segunda.getSecuencia());
+    }
+
+    @Test
+    void unaJugadaCambiadaSeDetecta() {
+        RegistroPartida grabada = VerificadorRepeticion.grabar(InteligenciaArtificial.NIVEL_DIFICIL, 30, 6,
+                InteligenciaArtificial.NIVEL_FACIL);
+        int[] jugadas = grabada.getJugadas();
+        // La primera jugada de la máquina, que juega segunda
+        jugadas[1] = (jugadas[1] + 1) % Tablero.COLUMNAS;
+        RegistroPartida cambiada = new RegistroPartida(grabada.getSemilla(), grabada.getNivel(),
+                grabada.getPresupuestoMs(), grabada.getProfundidadMaxima(), grabada.getMaquinaId(), jugadas);
+        assertEquals(1, VerificadorRepeticion.verificar(cambiada));
+    }
+
+    @Test
+    void noCargaRegistrosIncompletosONoValidos() throws IOException {
+        Path sinSemilla = directorio.resolve("sin-semilla.txt");
+        Files.writeString(sinSemilla, "nivel=1\njugadas=44\n", StandardCharsets.UTF_8);
+        assertThrows(IllegalArgumentException.class, () -> RegistroPartida.cargar(sinSemilla));
+
+        Path columnaMala = directorio.resolve("columna-mala.txt");
+        Files.writeString(columnaMala, "semilla=1\nnivel=1\njugadas=48\n", StandardCharsets.UTF_8);
+        assertThrows(IllegalArgumentException.class, () -> RegistroPartida.cargar(columnaMala));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            // Grabadas antes del núcleo de simulación, con profundidad 6
+            "1, 7, 4512352442155525171",
+            "2, 11, 33355342416622662766255424",
+            "4, 7, 4314342345125522"
+    })
+    void lasPartidasGrabadasAntesSeRepitenIgual(int nivel, long semilla, String secuencia) {
+        int[] jugadas = new int[secuencia.length()];
+        for (int i = 0; i < jugadas.length; i++) {
+            jugadas[i] = secuencia.charAt(i) - '1';
+        }
+        RegistroPartida registro = new RegistroPartida(semilla, nivel, 0, 6, Tablero.JUGADOR_2, jugadas);
+        assertEquals(-1, VerificadorRepeticion.verificar(registro));
+    }
+}
@@ -0,0 +1,185 @@
+package com.alexzafra.conecta4.controller.motor;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Evaluación por lotes con la API de vectores: cada carril de un LongVector
+ * lleva una posición distinta, así que se evalúan tantas posiciones a la vez
+ * como carriles tenga el registro SIMD (4 con AVX2, 8 con AVX-512).
+ *
+ * En lugar de recorrer las 69 ventanas, las de cada dirección se cuentan a la
+ * vez sobre el bitboard completo: desplazando las fichas 0, d, 2d y 3d bits y
+ * sumándolas con sumadores bit a bit, cada bit de inicio de ventana acaba con
+ * el número de fichas de su ventana en tres planos de bits. El número de
+ * ventanas de cada clase se cuenta después con VectorOperators.BIT_COUNT.
+ *
+ * Está en src/vectorial/java y solo se compila con el perfil vectorial de
+ * Maven. Solo se puede cargar si la JVM tiene el módulo jdk.incubator.vector;
+ * se crea por reflexión desde {@link EvaluacionPorLotes#crear(int[])}.
+ */
+public class EvaluacionPorLotesVectorial implements EvaluacionPorLotes {
+    private static final VectorSpecies<Long> ESPECIE = LongVector.SPECIES_PREFERRED;
+
+    // Desplazamiento entre casillas consecutivas de cada dirección:
+    // vertical, diagonal descendente, horizontal y diagonal ascendente
+    private static final int[] DIRECCIONES = {1, PosicionBitboard.ALTO, PosicionBitboard.ALTO_BITS,
+            PosicionBitboard.ALTO_BITS + 1};
+
+    // Bits donde empieza alguna ventana de cada dirección (su casilla más baja)
+    private static final long[] INICIOS = calcularInicios();
+
+    private final long pesoUna;
+    private final long pesoDos;
+    private final long pesoTres;
+
+    // Peso posicional indexado por bit del tablero
+    private final long[] pesoBit = new long[PosicionBitboard.ANCHO * PosicionBitboard.ALTO_BITS];
+
+    // Buffers para pasar las posiciones a los carriles y recoger los resultados
+    private final long[] propias = new long[ESPECIE.length()];
+    private final long[] mascaras = new long[ESPECIE.length()];
+    private final long[] posicionales = new long[ESPECIE.length()];
+    private final long[] resultados = new long[ESPECIE.length()];
+
+    // Para las posiciones que no llenan un vector completo
+    private final EvaluacionPorLotesEscalar escalar;
+
+    /**
+     * Crea una evaluación vectorial.
+     * @param pesos Pesos en el formato de EvaluadorVentanas
+     */
+    public EvaluacionPorLotesVectorial(int[] pesos) {
+        escalar = new EvaluacionPorLotesEscalar(pesos);
+        pesoUna = pesos[EvaluadorVentanas.PESO_UNA];
+        pesoDos = pesos[EvaluadorVentanas.PESO_DOS];
+        pesoTres = pesos[EvaluadorVentanas.PESO_TRES];
+        for (int columna = 0; columna < PosicionBitboard.ANCHO; columna++) {
+            for (int fila = 0; fila < PosicionBitboard.ALTO; fila++) {
+                pesoBit[columna * PosicionBitboard.ALTO_BITS + fila] =
+                        pesos[EvaluadorVentanas.PRIMERA_CASILLA + columna * PosicionBitboard.ALTO + fila];
+            }
+        }
+    }
+
+    @Override
+    public void evaluar(long[] posiciones, int[] puntuaciones, int desde, int hasta) {
+        int carriles = ESPECIE.length();
+        int i = desde;
+        for (; i + carriles <= hasta; i += carriles) {
+            for (int c = 0; c < carriles; c++) {
+                propias[c] = posiciones[(i + c) * EvaluadorLotes.LONGS_POR_POSICION];
+                mascaras[c] = posiciones[(i + c) * EvaluadorLotes.LONGS_POR_POSICION + 1];
+                posicionales[c] = puntuarCasillas(propias[c], propias[c] ^ mascaras[c]);
+            }
+            LongVector p = LongVector.fromArray(ESPECIE, propias, 0);
+            LongVector r = LongVector.fromArray(ESPECIE, mascaras, 0).lanewise(VectorOperators.XOR, p);
+
+            evaluarVentanas(p, r).add(LongVector.fromArray(ESPECIE, posicionales, 0)).intoArray(resultados, 0);
+            for (int c = 0; c < carriles; c++) {
+                puntuaciones[i + c] = (int) resultados[c];
+            }
+        }
+        escalar.evaluar(posiciones, puntuaciones, i, hasta);
+    }
+
+    /**
+     * Suma los pesos posicionales de las casillas ocupadas de una posición. Se hace
+     * fuera de los vectores porque solo recorre las casillas ocupadas.
+     */
+    private long puntuarCasillas(long propias, long rivales) {
+        long suma = 0;
+        for (long fichas = propias; fichas != 0; fichas &= fichas - 1) {
+            suma += pesoBit[Long.numberOfTrailingZeros(fichas)];
+        }
+        for (long fichas = rivales; fichas != 0; fichas &= fichas - 1) {
+            suma -= pesoBit[Long.numberOfTrailingZeros(fichas)];
+        }
+        return suma;
+    }
+
+    /**
+     * Puntúa las ventanas de las posiciones de todos los carriles.
+     * @param p Fichas del jugador con turno de cada carril
+     * @param r Fichas del rival de cada carril
+     */
+    private LongVector evaluarVentanas(LongVector p, LongVector r) {
+        LongVector cero = LongVector.zero(ESPECIE);
+
+        // Ventanas con 1, 2 y 3 fichas de cada jugador
+        LongVector unaPropias = cero, dosPropias = cero, tresPropias = cero;
+        LongVector unaRivales = cero, dosRivales = cero, tresRivales = cero;
+
+        for (int d = 0; d < DIRECCIONES.length; d++) {
+            int paso = DIRECCIONES[d];
+            long inicios = INICIOS[d];
+
+            // Fichas de cada jugador en las cuatro casillas de la ventana de cada bit de inicio
+            LongVector p1 = p.lanewise(VectorOperators.LSHR, paso);
+            LongVector p2 = p.lanewise(VectorOperators.LSHR, 2 * paso);
+            LongVector p3 = p.lanewise(VectorOperators.LSHR, 3 * paso);
+            LongVector r1 = r.lanewise(VectorOperators.LSHR, paso);
+            LongVector r2 = r.lanewise(VectorOperators.LSHR, 2 * paso);
+            LongVector r3 = r.lanewise(VectorOperators.LSHR, 3 * paso);
+
+            // Ventanas sin fichas del otro jugador
+            LongVector libresDeRival = r.or(r1).or(r2).or(r3).not().and(inicios);
+            LongVector libresDePropias = p.or(p1).or(p2).or(p3).not().and(inicios);
+
+            // Número de fichas de cada ventana en tres planos (bajo, medio y alto)
+            // sumando las cuatro casillas con sumadores bit a bit
+            LongVector bajo1 = p.lanewise(VectorOperators.XOR, p1);
+            LongVector bajo2 = p2.lanewise(VectorOperators.XOR, p3);
+            LongVector acarreo1 = p.and(p1);
+            LongVector acarreo2 = p2.and(p3);
+            LongVector acarreo = bajo1.and(bajo2);
+            LongVector bajo = bajo1.lanewise(VectorOperators.XOR, bajo2);
+            LongVector medio = acarreo1.lanewise(VectorOperators.XOR, acarreo2).lanewise(VectorOperators.XOR, acarreo);
+            LongVector sinAlto = acarreo1.and(acarreo2).or(acarreo.and(acarreo1.or(acarreo2))).not().and(libresDeRival);
+            unaPropias = unaPropias.add(bajo.and(medio.not()).and(sinAlto).lanewise(VectorOperators.BIT_COUNT));
+            dosPropias = dosPropias.add(medio.and(bajo.not()).and(sinAlto).lanewise(VectorOperators.BIT_COUNT));
+            tresPropias = tresPropias.add(bajo.and(medio).and(libresDeRival).lanewise(VectorOperators.BIT_COUNT));
+
+            bajo1 = r.lanewise(VectorOperators.XOR, r1);
+            bajo2 = r2.lanewise(VectorOperators.XOR, r3);
+            acarreo1 = r.and(r1);
+            acarreo2 = r2.and(r3);
+            acarreo = bajo1.and(bajo2);
+            bajo = bajo1.lanewise(VectorOperators.XOR, bajo2);
+            medio = acarreo1.lanewise(VectorOperators.XOR, acarreo2).lanewise(VectorOperators.XOR, acarreo);
+            sinAlto = acarreo1.and(acarreo2).or(acarreo.and(acarreo1.or(acarreo2))).not().and(libresDePropias);
+            unaRivales = unaRivales.add(bajo.and(medio.not()).and(sinAlto).lanewise(VectorOperators.BIT_COUNT));
+            dosRivales = dosRivales.add(medio.and(bajo.not()).and(sinAlto).lanewise(VectorOperators.BIT_COUNT));
+            tresRivales = tresRivales.add(bajo.and(medio).and(libresDePropias).lanewise(VectorOperators.BIT_COUNT));
+        }
+
+        return unaPropias.sub(unaRivales).mul(pesoUna)
+                .add(dosPropias.sub(dosRivales).mul(pesoDos))
+                .add(tresPropias.sub(tresRivales).mul(pesoTres));
+    }
+
+    /**
+     * Calcula los bits de inicio de las ventanas de cada dirección a partir de
+     * las ventanas del evaluador escalar.
+     */
+    private static long[] calcularInicios() {
+        long[] inicios = new long[DIRECCIONES.length];
+        for (long ventana : EvaluadorVentanas.getVentanas()) {
+            long primero = ventana & -ventana;
+            long resto = ventana ^ primero;
+            int paso = Long.numberOfTrailingZeros(resto) - Long.numberOfTrailingZeros(primero);
+            for (int d = 0; d < DIRECCIONES.length; d++) {
+                if (DIRECCIONES[d] == paso) {
+                    inicios[d] |= primero;
+                }
+            }
+        }
+        return inicios;
+    }
+
+    @Override
+    public String getNombre() {
+        return "vectorial (" + ESPECIE.length() + " carriles)";
+    }
+}
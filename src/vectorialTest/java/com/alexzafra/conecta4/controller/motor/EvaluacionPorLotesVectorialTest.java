@@ -0,0 +1,65 @@
+package com.alexzafra.conecta4.controller.motor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EvaluacionPorLotesVectorialTest {
+    private static final int CASILLAS = PosicionBitboard.ANCHO * PosicionBitboard.ALTO;
+
+    @Test
+    void conElPerfilVectorialSeUsaLaVersionVectorial() {
+        assertTrue(EvaluacionPorLotes.crear().getNombre().startsWith("vectorial"));
+    }
+
+    @Test
+    void daLoMismoQueLaVersionEscalar() {
+        comparar(PesosEvaluacion.getPesos(), 200_000, 39);
+    }
+
+    @Test
+    void daLoMismoQueLaVersionEscalarConOtrosPesos() {
+        SplittableRandom random = new SplittableRandom(391);
+        int[] pesos = new int[EvaluadorVentanas.NUM_PESOS];
+        for (int i = 0; i < pesos.length; i++) {
+            pesos[i] = random.nextInt(-50, 51);
+        }
+        comparar(pesos, 20_000, 392);
+    }
+
+    @Test
+    void losRangosQueNoLlenanUnVectorTambienCoinciden() {
+        SplittableRandom random = new SplittableRandom(393);
+        long[] posiciones = posicionesAleatorias(random, 100);
+        int[] pesos = PesosEvaluacion.getPesos();
+        for (int desde = 0; desde < 20; desde++) {
+            int hasta = desde + random.nextInt(100 - desde);
+            int[] esperadas = new int[100];
+            int[] obtenidas = new int[100];
+            new EvaluacionPorLotesEscalar(pesos).evaluar(posiciones, esperadas, desde, hasta);
+            new EvaluacionPorLotesVectorial(pesos).evaluar(posiciones, obtenidas, desde, hasta);
+            assertArrayEquals(esperadas, obtenidas, "rango " + desde + ".." + hasta);
+        }
+    }
+
+    private static void comparar(int[] pesos, int total, long semilla) {
+        long[] posiciones = posicionesAleatorias(new SplittableRandom(semilla), total);
+        int[] esperadas = new int[total];
+        int[] obtenidas = new int[total];
+        new EvaluacionPorLotesEscalar(pesos).evaluar(posiciones, esperadas, 0, total);
+        new EvaluacionPorLotesVectorial(pesos).evaluar(posiciones, obtenidas, 0, total);
+        assertArrayEquals(esperadas, obtenidas);
+    }
+
+    private static long[] posicionesAleatorias(SplittableRandom random, int total) {
+        long[] posiciones = new long[total * EvaluadorLotes.LONGS_POR_POSICION];
+        for (int i = 0; i < total; i++) {
+            EvaluadorLotes.empaquetar(ReferenciaFuerzaBruta.posicionAleatoria(random, random.nextInt(CASILLAS - 8)),
+                    posiciones, i);
+        }
+        return posiciones;
+    }
+}